@@ -0,0 +1,288 @@
+package org.benchmarks;
+
+import org.entity.DonationType;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk-loads a production-sized synthetic data set (SyntheticPopulation) into a local database with COPY
+ *
+ *   java -cp benchmarks/target/benchmarks.jar org.benchmarks.DataGenerator \
+ *        jdbc:postgresql://localhost:5432/shelter_donation_db postgres postgres [--option value ...]
+ *
+ *   --donations N      donation rows (default 1000000)
+ *   --distributions N  distribution rows (default a quarter of the donations)
+ *   --donors N         donor population (default 100000); --recipients N (default 2000)
+ *   --zipf S           Zipf exponent of both populations (default 1.0)
+ *   --from DATE        first day (default five years back); the last is today
+ *   --backdated P      share of rows recorded 1-60 days after the day they are for (default 0.05)
+ *   --seed N           same seed, same rows (default 42)
+ *   --truncate         empty donations and distributions first (default: add to what is there)
+ *
+ * Rows are produced day by day, with each day's share of the total following seasonalWeight(), in the order
+ * the front desk would have recorded them: a distribution never takes more of a type than is in stock at that
+ * point, so the loaded data passes the app's own stock checks. Ids continue after the existing ones and the
+ * id sequences are moved past them. Every month of the range gets its partition before the load.
+ * Run it with the app stopped and the schema migrated (start the app against the database once). The derived
+ * tables (inventory_balance, donor_type_totals, daily_type_rollup) are emptied; the app seeds them again from the
+ * loaded rows on its next start.
+ */
+public class DataGenerator {
+
+    // rows buffered per COPY write
+    private static final int FLUSH_BYTES = 1 << 20;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private final SyntheticPopulation population;
+    private final SplittableRandom random;
+    private final double backdated;
+    private final Map<DonationType, Long> stockCents;
+    private long nextDonationId;
+    private long nextDistributionId;
+    private long donationRows;
+    private long distributionRows;
+    private long capped;
+
+    DataGenerator(SyntheticPopulation population, SplittableRandom random, double backdated,
+                  long lastDonationId, long lastDistributionId, Map<DonationType, Long> stockCents) {
+        this.population = population;
+        this.random = random;
+        this.backdated = backdated;
+        this.nextDonationId = lastDonationId + 1;
+        this.nextDistributionId = lastDistributionId + 1;
+        this.stockCents = new EnumMap<>(stockCents);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: DataGenerator <jdbcUrl> <user> <password> [--donations N] [--distributions N]"
+                    + " [--donors N] [--recipients N] [--zipf S] [--from DATE] [--backdated P] [--seed N] [--truncate]");
+            System.exit(2);
+        }
+        Map<String, String> options = options(Arrays.copyOfRange(args, 3, args.length));
+        long donations = Long.parseLong(options.getOrDefault("donations", "1000000"));
+        long distributions = Long.parseLong(options.getOrDefault("distributions", Long.toString(donations / 4)));
+        int donors = Integer.parseInt(options.getOrDefault("donors", "100000"));
+        int recipients = Integer.parseInt(options.getOrDefault("recipients", "2000"));
+        double zipf = Double.parseDouble(options.getOrDefault("zipf", "1.0"));
+        LocalDate to = LocalDate.now();
+        LocalDate from = LocalDate.parse(options.getOrDefault("from", to.minusYears(5).toString()));
+        double backdated = Double.parseDouble(options.getOrDefault("backdated", "0.05"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        SyntheticPopulation population = new SyntheticPopulation(donors, recipients, zipf);
+        try (Connection donationConnection = DriverManager.getConnection(args[0], args[1], args[2]);
+             Connection distributionConnection = DriverManager.getConnection(args[0], args[1], args[2])) {
+            if (options.containsKey("truncate")) {
+                execute(donationConnection, "TRUNCATE donations, distributions");
+            }
+            // a partition per month up front (V7 schema), late entries included: rows don't pile up in the
+            // default partitions for the app to move on its next start
+            for (String table : new String[]{"donations", "distributions"}) {
+                execute(donationConnection, "SELECT ensure_month_partition('" + table + "', month::date) FROM generate_series("
+                        + "DATE '" + from.minusDays(60).withDayOfMonth(1) + "', DATE '" + to + "', interval '1 month') month");
+            }
+            DataGenerator generator = new DataGenerator(population, new SplittableRandom(seed), backdated,
+                    maxId(donationConnection, "donations"), maxId(donationConnection, "distributions"),
+                    stock(donationConnection));
+
+            long start = System.nanoTime();
+            donationConnection.setAutoCommit(false);
+            distributionConnection.setAutoCommit(false);
+            generator.load(donationConnection, distributionConnection, from, to, donations, distributions);
+            donationConnection.commit();
+            distributionConnection.commit();
+            donationConnection.setAutoCommit(true);
+            long loaded = System.nanoTime();
+
+            // same statements as the V2 migration: the next block Hibernate reserves starts past every row
+            execute(donationConnection, "SELECT setval('donations_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM donations), "
+                    + "(SELECT last_value FROM donations_seq)), true)");
+            execute(donationConnection, "SELECT setval('distributions_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM distributions), "
+                    + "(SELECT last_value FROM distributions_seq)), true)");
+            execute(donationConnection, "TRUNCATE inventory_balance, donor_type_totals, daily_type_rollup");
+            execute(donationConnection, "ANALYZE donations");
+            execute(donationConnection, "ANALYZE distributions");
+
+            double seconds = (loaded - start) / 1e9;
+            System.out.printf("donations=%d  distributions=%d (%d capped by stock)  days=%s..%s%n",
+                    generator.donationRows, generator.distributionRows, generator.capped, from, to);
+            System.out.printf("loaded in %.1fs (%.0f rows/s), analyzed in %.1fs%n", seconds,
+                    (generator.donationRows + generator.distributionRows) / seconds, (System.nanoTime() - loaded) / 1e9);
+            System.out.printf("top 1%% of %d donors give %.0f%% of donations, top 10 give %.0f%%%n", donors,
+                    100 * population.getDonors().headShare(Math.max(1, donors / 100)),
+                    100 * population.getDonors().headShare(10));
+            System.out.println("start the app to seed inventory_balance, donor_type_totals and daily_type_rollup");
+        }
+    }
+
+    /**
+     * Stream both tables in, one COPY per connection, day by day
+     * A day gets its seasonal share of each total (rounded so the totals come out exact)
+     */
+    void load(Connection donationConnection, Connection distributionConnection, LocalDate from, LocalDate to,
+              long donations, long distributions) throws SQLException {
+        CopyIn donationCopy = donationConnection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "COPY donations (id, donor_name, donation_type, quantity, donation_date, created_at) FROM STDIN");
+        CopyIn distributionCopy = distributionConnection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "COPY distributions (id, donation_type, quantity, distribution_date, recipient, created_at) FROM STDIN");
+        StringBuilder donationRowsText = new StringBuilder(FLUSH_BYTES + 4096);
+        StringBuilder distributionRowsText = new StringBuilder(FLUSH_BYTES + 4096);
+
+        double totalWeight = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            totalWeight += SyntheticPopulation.seasonalWeight(day);
+        }
+
+        double weightSoFar = 0;
+        long donationsSoFar = 0;
+        long distributionsSoFar = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            weightSoFar += SyntheticPopulation.seasonalWeight(day);
+            double share = day.equals(to) ? 1.0 : weightSoFar / totalWeight;
+            long donationsToday = Math.round(share * donations) - donationsSoFar;
+            long distributionsToday = Math.round(share * distributions) - distributionsSoFar;
+            donationsSoFar += donationsToday;
+            distributionsSoFar += distributionsToday;
+
+            // donations come in through the day, distributions go out in the afternoon
+            for (long i = 0; i < donationsToday; i++) {
+                donation(donationRowsText, day, 8 * 3600 + (int) (i * 10 * 3600 / donationsToday));
+                flushIfFull(donationCopy, donationRowsText);
+            }
+            for (long i = 0; i < distributionsToday; i++) {
+                distribution(distributionRowsText, day, 13 * 3600 + (int) (i * 5 * 3600 / distributionsToday));
+                flushIfFull(distributionCopy, distributionRowsText);
+            }
+        }
+
+        flush(donationCopy, donationRowsText);
+        flush(distributionCopy, distributionRowsText);
+        donationCopy.endCopy();
+        distributionCopy.endCopy();
+    }
+
+    //helper methods
+
+    private void donation(StringBuilder rows, LocalDate day, int secondOfDay) {
+        DonationType type = SyntheticPopulation.type(random);
+        long cents = SyntheticPopulation.quantityCents(type, random);
+        stockCents.merge(type, cents, Long::sum);
+        rows.append(nextDonationId++).append('\t')
+                .append(escape(population.donor(random))).append('\t')
+                .append(type.name()).append('\t')
+                .append(SyntheticPopulation.formatCents(cents)).append('\t')
+                .append(entryDate(day)).append('\t')
+                .append(createdAt(day, secondOfDay)).append('\n');
+        donationRows++;
+    }
+
+    // a distribution takes at most what is in stock of its type; an empty type is skipped for the next in line
+    private void distribution(StringBuilder rows, LocalDate day, int secondOfDay) {
+        DonationType type = SyntheticPopulation.type(random);
+        long cents = SyntheticPopulation.quantityCents(type, random);
+        long inStock = stockCents.getOrDefault(type, 0L);
+        if (cents > inStock) {
+            capped++;
+            cents = inStock / 2;
+            if (cents < 1) {
+                return;
+            }
+        }
+        stockCents.put(type, inStock - cents);
+        rows.append(nextDistributionId++).append('\t')
+                .append(type.name()).append('\t')
+                .append(SyntheticPopulation.formatCents(cents)).append('\t')
+                .append(entryDate(day)).append('\t')
+                .append(escape(population.recipient(random))).append('\t')
+                .append(createdAt(day, secondOfDay)).append('\n');
+        distributionRows++;
+    }
+
+    // the day a row is for: usually the day it was recorded, sometimes a late entry for an earlier day
+    private LocalDate entryDate(LocalDate recorded) {
+        return random.nextDouble() < backdated ? recorded.minusDays(1 + random.nextInt(60)) : recorded;
+    }
+
+    private String createdAt(LocalDate day, int secondOfDay) {
+        return LocalDateTime.of(day, LocalTime.ofSecondOfDay(secondOfDay)).format(TIMESTAMP);
+    }
+
+    private static void flushIfFull(CopyIn copy, StringBuilder rows) throws SQLException {
+        if (rows.length() >= FLUSH_BYTES) {
+            flush(copy, rows);
+        }
+    }
+
+    private static void flush(CopyIn copy, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    // COPY text format: backslash, tab and line breaks escaped
+    private static String escape(String value) {
+        if (value.indexOf('\\') < 0 && value.indexOf('\t') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    // what is in stock per type before the load, in cents
+    private static Map<DonationType, Long> stock(Connection connection) throws SQLException {
+        Map<DonationType, Long> stock = new EnumMap<>(DonationType.class);
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT donation_type, SUM(quantity) * 100 FROM donations GROUP BY donation_type "
+                             + "UNION ALL SELECT donation_type, -SUM(quantity) * 100 FROM distributions GROUP BY donation_type")) {
+            while (rows.next()) {
+                stock.merge(DonationType.valueOf(rows.getString(1)), rows.getBigDecimal(2).longValueExact(), Long::sum);
+            }
+        }
+        return stock;
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    // --name value pairs; a flag without a value maps to ""
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option, got " + args[i]);
+            }
+            String name = args[i].substring(2);
+            boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+            options.put(name, hasValue ? args[++i] : "");
+        }
+        return options;
+    }
+}
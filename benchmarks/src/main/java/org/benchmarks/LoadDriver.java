@@ -0,0 +1,288 @@
+package org.benchmarks;
+
+import org.entity.DonationType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load with a weighted mix of reads and writes against a running app, reported per operation
+ * Meant for a database filled by DataGenerator: the requests name the same Zipf donors, recipients and types
+ * (SyntheticPopulation), so searches and donor lookups hit rows that exist and the busy donors get busier.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar org.benchmarks.LoadDriver http://localhost:8080 32 120 \
+ *        [operation=weight ...]
+ *
+ * Operations (default mix in parentheses):
+ *   donate (20)     POST /api/donations                      registerDonation, a Zipf donor
+ *   distribute (5)  POST /api/distributions                  recordDistribution, a small quantity
+ *   check (5)       GET  /api/reports/inventory/check        stock check before a distribution
+ *   list (20)       GET  /api/donations?limit=50             first page
+ *   donor (10)      GET  /api/donations/donor/{name}         one Zipf donor's donations
+ *   search (15)     GET  /api/donations/search?donor=...     part of a Zipf donor's name
+ *   inventory (10)  GET  /api/reports/inventory
+ *   donors (5)      GET  /api/reports/donors
+ *   timeseries (10) GET  /api/reports/timeseries             last year, by week
+ * Operations left out of the arguments are not run once any weight is given.
+ *
+ * Prints per operation: requests/s, p50/p90/p99/max latency and the non-2xx answers by status (400 on
+ * distribute = out of stock; 429 = over a RateLimitFilter budget: start the app with --rate-limit.enabled=false
+ * to measure capacity). No If-None-Match is sent, so every read is a full answer.
+ * Starts once /actuator/health/readiness answers 200; the first 10% of the run is warm-up and not counted.
+ * Closed loop: a slow answer holds its client back, so latencies under saturation understate what an open
+ * stream of users would see - compare runs, not absolutes.
+ * Donors and recipients follow --donors / --recipients / --zipf / --seed the same way DataGenerator does
+ * (pass the same values, given after the mix).
+ */
+public class LoadDriver {
+
+    enum Operation { DONATE, DISTRIBUTE, CHECK, LIST, DONOR, SEARCH, INVENTORY, DONORS, TIMESERIES }
+
+    private static final Map<Operation, Integer> DEFAULT_MIX = new EnumMap<>(Map.of(
+            Operation.DONATE, 20, Operation.DISTRIBUTE, 5, Operation.CHECK, 5, Operation.LIST, 20, Operation.DONOR, 10,
+            Operation.SEARCH, 15, Operation.INVENTORY, 10, Operation.DONORS, 5, Operation.TIMESERIES, 10));
+
+    private final String baseUrl;
+    private final SyntheticPopulation population;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadDriver(String baseUrl, SyntheticPopulation population, Map<Operation, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.population = population;
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: LoadDriver <baseUrl> <clients> <seconds> [operation=weight ...]"
+                    + " [--donors N] [--recipients N] [--zipf S] [--seed N]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int clients = Integer.parseInt(args[1]);
+        long seconds = Long.parseLong(args[2]);
+
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        Map<String, String> options = new TreeMap<>();
+        List<String> rest = Arrays.asList(args).subList(3, args.length);
+        for (int i = 0; i < rest.size(); i++) {
+            String arg = rest.get(i);
+            if (arg.startsWith("--")) {
+                options.put(arg.substring(2), rest.get(++i));
+            } else {
+                String[] weight = arg.split("=", 2);
+                mix.put(Operation.valueOf(weight[0].toUpperCase()), Integer.parseInt(weight[1]));
+            }
+        }
+        if (mix.isEmpty()) {
+            mix.putAll(DEFAULT_MIX);
+        }
+        SyntheticPopulation population = new SyntheticPopulation(
+                Integer.parseInt(options.getOrDefault("donors", "100000")),
+                Integer.parseInt(options.getOrDefault("recipients", "2000")),
+                Double.parseDouble(options.getOrDefault("zipf", "1.0")));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        LoadDriver driver = new LoadDriver(baseUrl, population, mix);
+        ExecutorService httpExecutor = Executors.newFixedThreadPool(4);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(httpExecutor)
+                .build();
+        driver.awaitReady(httpClient, Duration.ofMinutes(10));
+
+        long start = System.nanoTime();
+        long measureFrom = start + seconds * 100_000_000L;
+        long end = start + seconds * 1_000_000_000L;
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<Map<Operation, Stats>>> futures = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int c = 0; c < clients; c++) {
+            SplittableRandom random = seeds.split();
+            futures.add(pool.submit(() -> driver.run(httpClient, random, measureFrom, end)));
+        }
+
+        Map<Operation, Stats> total = new EnumMap<>(Operation.class);
+        for (Future<Map<Operation, Stats>> future : futures) {
+            future.get().forEach((operation, stats) -> total.computeIfAbsent(operation, o -> new Stats()).add(stats));
+        }
+        pool.shutdown();
+        httpExecutor.shutdown();
+
+        double measuredSeconds = (end - measureFrom) / 1e9;
+        Stats all = new Stats();
+        System.out.printf("clients=%d  seconds=%d  mix=%s%n", clients, seconds, mix);
+        System.out.printf("%-11s %9s %9s %8s %8s %8s %8s  %s%n",
+                "operation", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "non-2xx");
+        for (Map.Entry<Operation, Stats> entry : total.entrySet()) {
+            print(entry.getKey().name().toLowerCase(), entry.getValue(), measuredSeconds);
+            all.add(entry.getValue());
+        }
+        print("all", all, measuredSeconds);
+    }
+
+    /**
+     * Wait for the app's readiness probe: after a DataGenerator load the startup rebuilds of the derived tables
+     * run before it reports ready, and a write that lands first makes them skip (they only seed empty tables)
+     */
+    void awaitReady(HttpClient httpClient, Duration timeout) throws InterruptedException {
+        HttpRequest probe = get("/actuator/health/readiness");
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            try {
+                if (httpClient.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Not ready after " + timeout + ": " + baseUrl);
+            }
+            Thread.sleep(1000);
+        }
+    }
+
+    // one client's closed loop; only requests started after measureFrom are recorded
+    Map<Operation, Stats> run(HttpClient httpClient, SplittableRandom random, long measureFrom, long end) {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        while (System.nanoTime() < end) {
+            Operation operation = pick(random);
+            HttpRequest request = request(operation, random);
+            long sent = System.nanoTime();
+            int status;
+            try {
+                status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1;
+            }
+            if (sent >= measureFrom) {
+                stats.computeIfAbsent(operation, o -> new Stats()).record(System.nanoTime() - sent, status);
+            }
+        }
+        return stats;
+    }
+
+    //helper methods
+
+    private Operation pick(SplittableRandom random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    HttpRequest request(Operation operation, SplittableRandom random) {
+        DonationType type = SyntheticPopulation.type(random);
+        switch (operation) {
+            case DONATE:
+                return post("/api/donations", "{\"donorName\":\"" + population.donor(random) + "\",\"donationType\":\""
+                        + type.name() + "\",\"quantity\":"
+                        + SyntheticPopulation.formatCents(SyntheticPopulation.quantityCents(type, random)) + "}");
+            case DISTRIBUTE:
+                return post("/api/distributions", "{\"donationType\":\"" + type.name() + "\",\"quantity\":"
+                        + SyntheticPopulation.formatCents(1 + random.nextInt(500)) + ",\"recipient\":\""
+                        + population.recipient(random) + "\"}");
+            case CHECK:
+                return get("/api/reports/inventory/check?type=" + type.name() + "&quantity=" + (1 + random.nextInt(20)));
+            case LIST:
+                return get("/api/donations?limit=50");
+            case DONOR:
+                return get("/api/donations/donor/" + encode(population.donor(random)).replace("+", "%20") + "?limit=50");
+            case SEARCH:
+                // a last name, as typed into the search box
+                String donor = population.donor(random);
+                return get("/api/donations/search?donor=" + encode(donor.split(" ")[1]) + "&limit=50");
+            case INVENTORY:
+                return get("/api/reports/inventory");
+            case DONORS:
+                return get("/api/reports/donors");
+            case TIMESERIES:
+                LocalDate today = LocalDate.now();
+                return get("/api/reports/timeseries?from=" + today.minusYears(1) + "&to=" + today + "&granularity=week");
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static void print(String name, Stats stats, double measuredSeconds) {
+        long[] latencies = Arrays.copyOf(stats.latencies, stats.count);
+        Arrays.sort(latencies);
+        System.out.printf("%-11s %9d %9.1f %8.1f %8.1f %8.1f %8.1f  %s%n", name, stats.count,
+                stats.count / measuredSeconds, LoadTest.percentile(latencies, 0.50), LoadTest.percentile(latencies, 0.90),
+                LoadTest.percentile(latencies, 0.99), latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6,
+                stats.failures.isEmpty() ? "-" : stats.failures);
+    }
+
+    // latencies (ns) and non-2xx answers by status (-1 = no answer) of one operation
+    static final class Stats {
+        private long[] latencies = new long[256];
+        private int count;
+        private final Map<Integer, Integer> failures = new TreeMap<>();
+
+        void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (status < 200 || status >= 300) {
+                failures.merge(status, 1, Integer::sum);
+            }
+        }
+
+        void add(Stats other) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length, count + other.count));
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            other.failures.forEach((status, n) -> failures.merge(status, n, Integer::sum));
+        }
+    }
+}
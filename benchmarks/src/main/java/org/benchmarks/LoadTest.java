@@ -0,0 +1,147 @@
+package org.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load against a running app - compares the request execution modes
+ * (platform threads vs the virtual-threads profile) on throughput and tail latency
+ * Each of `clients` threads sends one request, waits for the answer, sends the next, for `seconds`;
+ * requests cycle through the paths given (default: a mix of list, search and report reads)
+ *
+ *   java -cp benchmarks/target/benchmarks.jar org.benchmarks.LoadTest http://localhost:8080 400 60 [path...]
+ *
+ * Prints requests/s, p50/p99/max latency and the non-2xx count (503 = turned away by DbConcurrencyLimitFilter,
+ * 429 = over a per-client budget of RateLimitFilter: start the app with --rate-limit.enabled=false to measure capacity)
+ * The first 10% of the run is warm-up and not counted; against a freshly started app, do one throw-away run first
+ */
+public class LoadTest {
+
+    private static final List<String> DEFAULT_PATHS = List.of(
+            "/api/donations?limit=50",
+            "/api/donations/type/FOOD?limit=50",
+            "/api/distributions?limit=50",
+            "/api/donations/search?donor=donor%201&limit=50",
+            "/api/reports/inventory",
+            "/api/reports/timeseries?from=2024-01-01&to=2024-12-31&granularity=week");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: LoadTest <baseUrl> <clients> <seconds> [path...]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int clients = Integer.parseInt(args[1]);
+        long seconds = Long.parseLong(args[2]);
+        List<String> paths = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : DEFAULT_PATHS;
+
+        ExecutorService httpExecutor = Executors.newFixedThreadPool(4);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(httpExecutor)
+                .build();
+        List<URI> uris = paths.stream().map(path -> URI.create(baseUrl + path)).toList();
+
+        long start = System.nanoTime();
+        long measureFrom = start + seconds * 100_000_000L;
+        long end = start + seconds * 1_000_000_000L;
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch ready = new CountDownLatch(clients);
+        List<Future<ClientResult>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int offset = c;
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                return run(httpClient, uris, offset, measureFrom, end);
+            }));
+        }
+        ready.await();
+
+        long requests = 0;
+        long failures = 0;
+        long[] latencies = new long[0];
+        for (Future<ClientResult> future : futures) {
+            ClientResult result = future.get();
+            failures += result.failures;
+            latencies = concat(latencies, result.latencies, result.count);
+            requests += result.count;
+        }
+        pool.shutdown();
+        httpExecutor.shutdown();
+
+        Arrays.sort(latencies);
+        double measuredSeconds = (end - measureFrom) / 1e9;
+        System.out.printf("clients=%d  seconds=%d  paths=%d%n", clients, seconds, uris.size());
+        System.out.printf("requests=%d  throughput=%.1f req/s  non-2xx=%d%n", requests, requests / measuredSeconds, failures);
+        System.out.printf("latency ms: p50=%.1f  p90=%.1f  p99=%.1f  max=%.1f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    //helper methods
+
+    // one client's closed loop; only requests started after measureFrom are recorded
+    private static ClientResult run(HttpClient httpClient, List<URI> uris, int offset, long measureFrom, long end) {
+        ClientResult result = new ClientResult();
+        for (int i = offset; System.nanoTime() < end; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size()))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long sent = System.nanoTime();
+            int status;
+            try {
+                status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1;
+            }
+            if (sent >= measureFrom) {
+                result.record(System.nanoTime() - sent, status < 200 || status >= 300);
+            }
+        }
+        return result;
+    }
+
+    private static long[] concat(long[] all, long[] more, int count) {
+        long[] joined = Arrays.copyOf(all, all.length + count);
+        System.arraycopy(more, 0, joined, all.length, count);
+        return joined;
+    }
+
+    // nearest-rank percentile of sorted nanosecond latencies, in ms
+    static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+
+    private static final class ClientResult {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long failures;
+
+        private void record(long nanos, boolean failed) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (failed) {
+                failures++;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.benchmarks;
+
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.mapper.DistributionMapper;
+import org.mapper.DonorMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity -> response DTO mapping over a whole list, as the list and export endpoints do it
+ * rows = number of entities mapped per invocation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class MapperBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private List<Donation> donations;
+    private List<Distribution> distributions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        donations = SyntheticData.donations(rows);
+        distributions = SyntheticData.distributions(rows);
+    }
+
+    @Benchmark
+    public void donorMapperToResponse(Blackhole blackhole) {
+        for (Donation donation : donations) {
+            blackhole.consume(DonorMapper.toResponse(donation));
+        }
+    }
+
+    @Benchmark
+    public void distributionMapperToResponse(Blackhole blackhole) {
+        for (Distribution distribution : distributions) {
+            blackhole.consume(DistributionMapper.toResponse(distribution));
+        }
+    }
+}
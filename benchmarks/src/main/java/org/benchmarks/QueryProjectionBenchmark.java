@@ -0,0 +1,124 @@
+package org.benchmarks;
+
+import org.dto.DistributionResponse;
+import org.dto.DonationResponse;
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.mapper.DistributionMapper;
+import org.mapper.DonorMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a list endpoint read through Hibernate, two ways:
+ *   entity     - managed Donation/Distribution entities, then mapped to responses (the old list path)
+ *   projection - a constructor expression straight into the response DTO (what the repositories do now)
+ * Both run in a read-only transaction, as the services do
+ *
+ * Unlike the other benchmarks this one needs a database: a PostgreSQL with the app's schema and at least
+ * `rows` donations and distributions. It defaults to the app's local database; point it elsewhere with
+ *   java -jar benchmarks/target/benchmarks.jar QueryProjection -prof gc \
+ *       -jvmArgsAppend "-Dbenchmark.jdbc.url=jdbc:postgresql://host:5432/db -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=..."
+ * With -prof gc, gc.alloc.rate.norm is the bytes allocated per page and gc.time the GC time of the run
+ * rows = page size (rows read per invocation)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class QueryProjectionBenchmark {
+
+    private static final String DONATION_ENTITIES =
+            "SELECT d FROM Donation d ORDER BY d.donationDate DESC, d.id DESC";
+    private static final String DONATION_RESPONSES =
+            "SELECT new org.dto.DonationResponse(d.id, d.donorName, d.donationType, d.quantity, d.donationDate, d.createdAt) " +
+            "FROM Donation d ORDER BY d.donationDate DESC, d.id DESC";
+    private static final String DISTRIBUTION_ENTITIES =
+            "SELECT d FROM Distribution d ORDER BY d.distributionDate DESC, d.id DESC";
+    private static final String DISTRIBUTION_RESPONSES =
+            "SELECT new org.dto.DistributionResponse(d.id, d.donationType, d.quantity, d.distributionDate, d.recipient, d.createdAt) " +
+            "FROM Distribution d ORDER BY d.distributionDate DESC, d.id DESC";
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Donation.class)
+                .addAnnotatedClass(Distribution.class)
+                .setProperty("hibernate.connection.url", System.getProperty("benchmark.jdbc.url",
+                        "jdbc:postgresql://localhost:5432/shelter_donation_db"))
+                .setProperty("hibernate.connection.username", System.getProperty("benchmark.jdbc.user", "postgres"))
+                .setProperty("hibernate.connection.password", System.getProperty("benchmark.jdbc.password", "postgres"))
+                .setProperty("hibernate.connection.pool_size", "2")
+                .setProperty("hibernate.hbm2ddl.auto", "none")
+                .buildSessionFactory();
+
+        // fail here rather than measure short pages
+        for (String query : List.of("SELECT count(d) FROM Donation d", "SELECT count(d) FROM Distribution d")) {
+            long count = sessionFactory.fromSession(session -> session.createQuery(query, Long.class).getSingleResult());
+            if (count < rows) {
+                throw new IllegalStateException(query + " = " + count + ", the benchmark needs at least " + rows);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<DonationResponse> donationsEntity() {
+        return sessionFactory.fromTransaction(session -> {
+            session.setDefaultReadOnly(true);
+            return session.createQuery(DONATION_ENTITIES, Donation.class)
+                    .setMaxResults(rows)
+                    .getResultList().stream()
+                    .map(DonorMapper::toResponse)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Benchmark
+    public List<DonationResponse> donationsProjection() {
+        return sessionFactory.fromTransaction(session -> {
+            session.setDefaultReadOnly(true);
+            return session.createQuery(DONATION_RESPONSES, DonationResponse.class)
+                    .setMaxResults(rows)
+                    .getResultList();
+        });
+    }
+
+    @Benchmark
+    public List<DistributionResponse> distributionsEntity() {
+        return sessionFactory.fromTransaction(session -> {
+            session.setDefaultReadOnly(true);
+            return session.createQuery(DISTRIBUTION_ENTITIES, Distribution.class)
+                    .setMaxResults(rows)
+                    .getResultList().stream()
+                    .map(DistributionMapper::toResponse)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Benchmark
+    public List<DistributionResponse> distributionsProjection() {
+        return sessionFactory.fromTransaction(session -> {
+            session.setDefaultReadOnly(true);
+            return session.createQuery(DISTRIBUTION_RESPONSES, DistributionResponse.class)
+                    .setMaxResults(rows)
+                    .getResultList();
+        });
+    }
+}
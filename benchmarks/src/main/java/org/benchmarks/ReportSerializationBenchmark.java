@@ -0,0 +1,58 @@
+package org.benchmarks;
+
+import org.dto.DonorReportDTO;
+import org.dto.InventoryReportDTO;
+import org.repository.DonorTypeTotalRepository;
+import org.services.ReportService;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of the report DTOs, with the same Jackson 3 mapper type the web layer uses
+ * The reports are built once per trial; only writeValueAsBytes is measured
+ * rows = number of donor_type_totals rows behind the donor report
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ReportSerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+    private DonorReportDTO donorReport;
+    private InventoryReportDTO inventoryReport;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+
+        ReportService reportService = new ReportService(
+                SyntheticData.repository(DonorTypeTotalRepository.class,
+                        Map.of("findAllByOrderByDonorNameAscDonationTypeAsc", SyntheticData.donorTotals(rows))),
+                SyntheticData.inventoryCache(),
+                SyntheticData.stockHistory(),
+                SyntheticData.metrics());
+        donorReport = reportService.generateDonorReport();
+        inventoryReport = reportService.generateInventoryReport();
+    }
+
+    @Benchmark
+    public byte[] serializeDonorReport() {
+        return objectMapper.writeValueAsBytes(donorReport);
+    }
+
+    // one item per type, so it costs the same at every dataset size
+    @Benchmark
+    public byte[] serializeInventoryReport() {
+        return objectMapper.writeValueAsBytes(inventoryReport);
+    }
+}
@@ -0,0 +1,57 @@
+package org.benchmarks;
+
+import org.dto.DonorReportDTO;
+import org.dto.InventoryReportDTO;
+import org.repository.DonorTypeTotalRepository;
+import org.services.ReportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReportService report generation against stub repositories - measures the Java side only
+ * (grouping, BigDecimal sums, DTO building), not the database aggregates behind it
+ * rows = number of donor_type_totals rows fed to the donor report
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ReportServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private static final LocalDate AS_OF = LocalDate.of(2024, 6, 30);
+
+    private ReportService reportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DonorTypeTotalRepository donorTypeTotalRepository = SyntheticData.repository(DonorTypeTotalRepository.class,
+                Map.of("findAllByOrderByDonorNameAscDonationTypeAsc", SyntheticData.donorTotals(rows)));
+        reportService = new ReportService(donorTypeTotalRepository, SyntheticData.inventoryCache(),
+                SyntheticData.stockHistory(), SyntheticData.metrics());
+    }
+
+    @Benchmark
+    public DonorReportDTO generateDonorReport() {
+        return reportService.generateDonorReport();
+    }
+
+    // reads the cached balances (one per type), so it costs the same at every dataset size
+    @Benchmark
+    public InventoryReportDTO generateInventoryReport() {
+        return reportService.generateInventoryReport();
+    }
+
+    // prefix sums over 10 years of daily rollups (two O(log days) lookups per type) - independent of rows too
+    @Benchmark
+    public InventoryReportDTO generateInventoryReportAsOf() {
+        return reportService.generateInventoryReport(AS_OF);
+    }
+}
@@ -0,0 +1,105 @@
+package org.benchmarks;
+
+import org.dto.DonationResponse;
+import org.dto.DonorReportDTO;
+import org.dto.PageResponse;
+import org.mapper.ColumnarMapper;
+import org.mapper.DonorMapper;
+import org.repository.DonorTypeTotalRepository;
+import org.services.ReportService;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response encodings of a donation list page and the donor report: plain JSON vs columnar JSON
+ * (Accept: application/vnd.columnar+json), each as is and gzipped as Tomcat sends it (Accept-Encoding: gzip)
+ * The score is the CPU time to produce the bytes on the wire for `rows` rows (donations, or donor_type_totals
+ * rows behind the report); the bytes themselves are printed once per trial ("wire bytes: ...")
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ResponseEncodingBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"json", "columnar"})
+    private String encoding;
+
+    @Param({"none", "gzip"})
+    private String compression;
+
+    private ObjectMapper objectMapper;
+    private PageResponse<DonationResponse> donationPage;
+    private DonorReportDTO donorReport;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+
+        List<DonationResponse> donations = SyntheticData.donations(rows).stream()
+                .map(DonorMapper::toResponse)
+                .collect(Collectors.toList());
+        donationPage = new PageResponse<>(donations, "MjAyNS0wMS0wMXwxMjM0NQ");
+
+        ReportService reportService = new ReportService(
+                SyntheticData.repository(DonorTypeTotalRepository.class,
+                        Map.of("findAllByOrderByDonorNameAscDonationTypeAsc", SyntheticData.donorTotals(rows))),
+                SyntheticData.inventoryCache(),
+                SyntheticData.stockHistory(),
+                SyntheticData.metrics());
+        donorReport = reportService.generateDonorReport();
+
+        System.out.printf("%nwire bytes (%s, %s, %d rows): donation page=%d  donor report=%d%n",
+                encoding, compression, rows, donationPage().length, donorReport().length);
+    }
+
+    @Benchmark
+    public byte[] donationPage() {
+        return encode(donationPage);
+    }
+
+    @Benchmark
+    public byte[] donorReport() {
+        return encode(donorReport);
+    }
+
+    //helper methods
+
+    // the bytes a response body would carry
+    private byte[] encode(Object body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        try (OutputStream out = "gzip".equals(compression) ? new GZIPOutputStream(bytes, 8 * 1024) : bytes) {
+            if ("columnar".equals(encoding)) {
+                try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                    if (body instanceof PageResponse<?> page) {
+                        ColumnarMapper.writePage(generator, page);
+                    } else {
+                        ColumnarMapper.writeDonorReport(generator, (DonorReportDTO) body);
+                    }
+                }
+            } else {
+                objectMapper.writeValue(out, body);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,151 @@
+package org.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.entity.DailyTypeRollup;
+import org.entity.DonationType;
+import org.entity.DonorTypeTotal;
+import org.entity.InventoryBalance;
+import org.repository.DailyTypeRollupRepository;
+import org.repository.InventoryBalanceRepository;
+import org.services.InventoryCache;
+import org.services.InventoryMetrics;
+import org.services.StockHistory;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic test data for the benchmarks, plus stub repositories
+ * Everything is generated from a fixed seed, so two runs (or two releases) measure the same input
+ */
+public final class SyntheticData {
+
+    private static final DonationType[] TYPES = DonationType.values();
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Rows of the donor_type_totals summary, as DonorTypeTotalRepository returns them for the donor report
+     * ordered by donor, each donor giving 1-4 types - rows / 2.5 donors on average
+     */
+    public static List<DonorTypeTotal> donorTotals(int rows) {
+        Random random = new Random(42);
+        List<DonorTypeTotal> result = new ArrayList<>(rows);
+        int donor = 0;
+        while (result.size() < rows) {
+            String donorName = "Donor " + donor++;
+            int types = Math.min(1 + random.nextInt(4), rows - result.size());
+            int first = random.nextInt(TYPES.length);
+            for (int t = 0; t < types; t++) {
+                result.add(new DonorTypeTotal(donorName, TYPES[(first + t) % TYPES.length], quantity(random), 1));
+            }
+        }
+        return result;
+    }
+
+    // one balance row per donation type (the inventory report never reads more than that)
+    public static List<InventoryBalance> balances() {
+        Random random = new Random(42);
+        List<InventoryBalance> result = new ArrayList<>();
+        for (DonationType type : TYPES) {
+            BigDecimal donated = quantity(random).multiply(BigDecimal.valueOf(1000));
+            result.add(new InventoryBalance(type, donated, donated.divide(BigDecimal.valueOf(3), 2, RoundingMode.HALF_UP)));
+        }
+        return result;
+    }
+
+    // daily_type_rollup rows: every type on every day from START - 10 types x days rows
+    public static List<DailyTypeRollup> dailyRollups(int days) {
+        Random random = new Random(42);
+        List<DailyTypeRollup> result = new ArrayList<>(days * TYPES.length);
+        for (int day = 0; day < days; day++) {
+            for (DonationType type : TYPES) {
+                BigDecimal donated = quantity(random);
+                result.add(new DailyTypeRollup(START.plusDays(day), type, donated,
+                        donated.divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP), 3, 1));
+            }
+        }
+        return result;
+    }
+
+    public static List<Donation> donations(int rows) {
+        Random random = new Random(42);
+        List<Donation> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Donation donation = new Donation("Donor " + random.nextInt(Math.max(1, rows / 4)),
+                    TYPES[random.nextInt(TYPES.length)], quantity(random), START.plusDays(random.nextInt(2000)));
+            donation.setId((long) i + 1);
+            donation.setCreatedAt(CREATED);
+            result.add(donation);
+        }
+        return result;
+    }
+
+    public static List<Distribution> distributions(int rows) {
+        Random random = new Random(42);
+        List<Distribution> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Distribution distribution = new Distribution(TYPES[random.nextInt(TYPES.length)], quantity(random),
+                    START.plusDays(random.nextInt(2000)));
+            distribution.setId((long) i + 1);
+            distribution.setRecipient("Shelter " + random.nextInt(200));
+            distribution.setCreatedAt(CREATED);
+            result.add(distribution);
+        }
+        return result;
+    }
+
+    // inventory cache loaded with balances() - what the inventory report reads once the app is up
+    public static InventoryCache inventoryCache() {
+        InventoryCache cache = new InventoryCache(repository(InventoryBalanceRepository.class, Map.of("findAll", balances())));
+        cache.reconcile();
+        return cache;
+    }
+
+    // stock history loaded with 10 years of dailyRollups() - what ?asOf= reports read once the app is up
+    public static StockHistory stockHistory() {
+        StockHistory history = new StockHistory(repository(DailyTypeRollupRepository.class,
+                Map.of("findAll", dailyRollups(3650))));
+        history.load();
+        return history;
+    }
+
+    // counters backed by a throwaway in-memory registry
+    public static InventoryMetrics metrics() {
+        return new InventoryMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Stub of a repository interface: the named methods return the given values, anything else throws
+     * (a plain dynamic proxy - no mocking framework overhead in the measured path)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type, Map<String, Object> results) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (results.containsKey(method.getName())) {
+                return results.get(method.getName());
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(results, args);
+            }
+            throw new UnsupportedOperationException("Not stubbed: " + method.getName());
+        });
+    }
+
+    // 1.00 - 500.99, two decimals like the quantity column
+    private static BigDecimal quantity(Random random) {
+        return BigDecimal.valueOf(100 + random.nextInt(50_000), 2);
+    }
+}
@@ -0,0 +1,181 @@
+package org.benchmarks;
+
+import org.entity.DonationType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Who gives what, and when, in the database-sized data set: shared by DataGenerator (bulk load) and LoadDriver
+ * (live requests), so a load run hits the donors, recipients and types the loaded tables are full of.
+ * (SyntheticData is the small in-memory input of the JMH benchmarks.)
+ *   donors     - a Zipf population: the donor of rank k gives with weight 1/k^s, so a few regulars account for
+ *                much of the volume and most donors give once or twice
+ *   recipients - the same, over a smaller population (shelters first, then families)
+ *   types      - every DonationType, FOOD and CLOTHING most often; quantities log-normal around a per-type median
+ *   dates      - seasonal: most giving around Christmas, least in June, quieter weekends
+ */
+final class SyntheticPopulation {
+
+    private static final String[] FIRST_NAMES = {
+            "Maria", "James", "Aisha", "Wei", "Olga", "Carlos", "Priya", "John", "Fatima", "Liam",
+            "Sofia", "Kenji", "Amara", "Lucas", "Elena", "Omar", "Grace", "Mateo", "Hana", "Daniel",
+            "Ana", "Samuel", "Leila", "Noah", "Ingrid", "Tariq", "Chloe", "Ivan", "Mei", "Harsha"};
+    private static final String[] LAST_NAMES = {
+            "Garcia", "Smith", "Khan", "Chen", "Ivanova", "Silva", "Patel", "Johnson", "Haddad", "Murphy",
+            "Rossi", "Tanaka", "Okafor", "Muller", "Popescu", "Nasser", "Brown", "Lopez", "Kim", "Cohen",
+            "Santos", "Novak", "Rahman", "Wilson", "Larsen", "Ahmed", "Martin", "Petrov", "Wong", "Reddy"};
+    private static final String[] SHELTERS = {
+            "Northside Shelter", "Harbor House", "St. Anne's Kitchen", "Eastgate Family Center", "Riverside Refuge",
+            "Hope Street Mission", "Westfield Youth Home", "Maple Court Housing"};
+
+    // share of rows per type, and the median quantity of one row
+    private static final Map<DonationType, double[]> TYPE_MIX = new EnumMap<>(DonationType.class);
+
+    static {
+        TYPE_MIX.put(DonationType.FOOD, new double[]{30, 12});
+        TYPE_MIX.put(DonationType.CLOTHING, new double[]{18, 6});
+        TYPE_MIX.put(DonationType.MONEY, new double[]{12, 50});
+        TYPE_MIX.put(DonationType.HYGIENE_PRODUCTS, new double[]{10, 8});
+        TYPE_MIX.put(DonationType.BLANKETS, new double[]{7, 3});
+        TYPE_MIX.put(DonationType.TOYS, new double[]{7, 4});
+        TYPE_MIX.put(DonationType.BOOKS, new double[]{6, 5});
+        TYPE_MIX.put(DonationType.MEDICINE, new double[]{4, 6});
+        TYPE_MIX.put(DonationType.FURNITURE, new double[]{3, 1});
+        TYPE_MIX.put(DonationType.OTHER, new double[]{3, 2});
+    }
+
+    private static final DonationType[] TYPES = TYPE_MIX.keySet().toArray(new DonationType[0]);
+    private static final double[] TYPE_CDF = new double[TYPES.length];
+
+    static {
+        double total = TYPE_MIX.values().stream().mapToDouble(mix -> mix[0]).sum();
+        double running = 0;
+        for (int i = 0; i < TYPES.length; i++) {
+            running += TYPE_MIX.get(TYPES[i])[0] / total;
+            TYPE_CDF[i] = running;
+        }
+        TYPE_CDF[TYPES.length - 1] = 1.0;
+    }
+
+    // numeric(10,2)
+    private static final long MAX_CENTS = 9_999_999_999L;
+
+    private final Zipf donors;
+    private final Zipf recipients;
+
+    SyntheticPopulation(int donorCount, int recipientCount, double zipfExponent) {
+        this.donors = new Zipf(donorCount, zipfExponent);
+        this.recipients = new Zipf(recipientCount, zipfExponent);
+    }
+
+    // a donor, the busy ones far more often than the rest
+    String donor(SplittableRandom random) {
+        return donorName(donors.sample(random));
+    }
+
+    String recipient(SplittableRandom random) {
+        return recipientName(recipients.sample(random));
+    }
+
+    // distinct for every rank: first x last name, then numbered once the combinations run out
+    static String donorName(int rank) {
+        int combinations = FIRST_NAMES.length * LAST_NAMES.length;
+        int index = rank - 1;
+        String name = FIRST_NAMES[index % FIRST_NAMES.length] + " "
+                + LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+        return index < combinations ? name : name + " " + (index / combinations + 1);
+    }
+
+    static String recipientName(int rank) {
+        int index = rank - 1;
+        if (index < SHELTERS.length) {
+            return SHELTERS[index];
+        }
+        index -= SHELTERS.length;
+        String family = LAST_NAMES[index % LAST_NAMES.length] + " family";
+        return index < LAST_NAMES.length ? family : family + " " + (index / LAST_NAMES.length + 1);
+    }
+
+    static DonationType type(SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < TYPES.length; i++) {
+            if (u < TYPE_CDF[i]) {
+                return TYPES[i];
+            }
+        }
+        return TYPES[TYPES.length - 1];
+    }
+
+    // log-normal around the type's median (most rows near it, a long tail of large ones), in cents
+    static long quantityCents(DonationType type, SplittableRandom random) {
+        double median = TYPE_MIX.get(type)[1];
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        long cents = Math.round(median * Math.exp(0.9 * gaussian) * 100);
+        return Math.max(1, Math.min(MAX_CENTS, cents));
+    }
+
+    // "1234" => "12.34"
+    static String formatCents(long cents) {
+        long fraction = cents % 100;
+        return (cents / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    // relative amount of activity on a day: peaks around Christmas at 1.6x the yearly mean, bottoms out in June
+    static double seasonalWeight(LocalDate day) {
+        double season = 1 + 0.6 * Math.cos(2 * Math.PI * (day.getDayOfYear() - 358) / 365.25);
+        DayOfWeek dayOfWeek = day.getDayOfWeek();
+        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY ? season * 0.6 : season;
+    }
+
+    /**
+     * Zipf-distributed ranks 1..n - rank k has weight 1/k^s
+     * Inverse-CDF sampling over a precomputed table (8 bytes per rank)
+     */
+    static final class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double exponent) {
+            if (n < 1 || !(exponent > 0)) {
+                throw new IllegalArgumentException("Zipf needs n >= 1 and exponent > 0");
+            }
+            cdf = new double[n];
+            double total = 0;
+            for (int k = 1; k <= n; k++) {
+                total += 1 / Math.pow(k, exponent);
+                cdf[k - 1] = total;
+            }
+            for (int k = 0; k < n; k++) {
+                cdf[k] /= total;
+            }
+            cdf[n - 1] = 1.0;
+        }
+
+        int sample(SplittableRandom random) {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cdf.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cdf[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low + 1;
+        }
+
+        // share of all draws that land on ranks 1..k
+        double headShare(int k) {
+            return cdf[Math.min(k, cdf.length) - 1];
+        }
+    }
+
+    Zipf getDonors() {
+        return donors;
+    }
+}
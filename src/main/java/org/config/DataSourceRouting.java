@@ -0,0 +1,46 @@
+package org.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override of the read routing (ReadReplicaConfig)
+ * Reads that must see every committed write - loads of the in-memory structures, the intake checkpoint - run
+ * inside onPrimary() and get the primary even in a read-only transaction. Without a replica configured this
+ * changes nothing.
+ * The connection is picked at a transaction's first statement, so call it outside a transaction or before the
+ * transaction has run anything.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * Run reads against the primary
+     * return => what work returns
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean nested = isPrimaryForced();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (!nested) {
+                PRIMARY_FORCED.remove();
+            }
+        }
+    }
+
+    public static void runOnPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+}
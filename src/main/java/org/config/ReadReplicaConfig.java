@@ -0,0 +1,82 @@
+package org.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.services.DataVersion;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read replica (opt-in, application-read-replica.properties): read-only transactions - list pages, search,
+ * reports, exports - go to a second pool on replica.datasource.url, everything else to the primary
+ * (spring.datasource.*). The application's DataSource routes per transaction (ReplicaRoutingDataSource) and
+ * sends reads to the primary whenever the replica is behind (ReplicaLagMonitor, replica.max-lag) or down.
+ * Without replica.datasource.url none of this exists and Spring Boot's single pool is used as before.
+ * replica.datasource.username / password default to the primary's; replica.datasource.hikari.* sizes the
+ * replica's pool like spring.datasource.hikari.* does the primary's.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "replica.datasource.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("replica.datasource.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${replica.datasource.url}") String url,
+                                              @Value("${replica.datasource.username:}") String username,
+                                              @Value("${replica.datasource.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        // only read-only transactions come here; a stand-in that isn't a standby still refuses writes
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               DataVersion dataVersion,
+                                               @Value("${replica.max-lag:PT0S}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(new JdbcTemplate(primaryDataSource), new JdbcTemplate(replicaDataSource),
+                dataVersion, maxLag, meterRegistry);
+    }
+
+    // the one everything else (JPA, Flyway, JdbcTemplate) gets; the connection is only taken - and so the pool
+    // only picked - at a transaction's first statement, when its read-only flag is known
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+                replicaLagMonitor, meterRegistry));
+    }
+}
@@ -0,0 +1,162 @@
+package org.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.services.DataVersion;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * How far the read replica is behind, in terms of this instance's writes
+ * Every replica.check-interval the primary's WAL position is sampled together with the DataVersion it holds
+ * (read first, so every write it counts is at or below the position), and the replica's replayed position is
+ * compared against the samples: once it has replayed a sample, it holds that sample's data version.
+ * The replica is fresh - read-only transactions may use it - when it holds every write this instance has
+ * committed, or, with replica.max-lag above zero, when it has replayed a sample taken at most max-lag ago.
+ * The default (PT0S) is read-your-writes: reads stay on the primary until the replica has caught up with the
+ * last write. An unreachable replica is never fresh, and it is checked again on the next run.
+ * A replica that isn't in recovery (a plain second database standing in for one) can't be measured and is
+ * taken as caught up with every sample.
+ * Writes of other instances (and hand edits) aren't in the DataVersion; max-lag is what bounds their staleness.
+ * Gauge replica.lag (seconds since the newest sample the replica has replayed, NaN while unreachable)
+ */
+public class ReplicaLagMonitor {
+
+    // samples kept while the replica is behind - one run per check interval
+    private static final int MAX_SAMPLES = 600;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final DataVersion dataVersion;
+    private final long maxLagNanos;
+    private final LongSupplier clock;
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    private volatile boolean reachable;
+    private volatile long replicaVersion = -1;
+    private volatile long caughtUpAt;
+
+    public ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, DataVersion dataVersion, Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this(primary, replica, dataVersion, maxLag, meterRegistry, System::nanoTime);
+    }
+
+    // samples are timed by the given clock (tests pass their own)
+    ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, DataVersion dataVersion, Duration maxLag,
+                      MeterRegistry meterRegistry, LongSupplier clock) {
+        if (maxLag.isNegative()) {
+            throw new IllegalArgumentException("replica.max-lag can't be negative");
+        }
+        this.primary = primary;
+        this.replica = replica;
+        this.dataVersion = dataVersion;
+        this.maxLagNanos = maxLag.toNanos();
+        this.clock = clock;
+
+        // with lagging reads allowed, an answer can be older than the version: tell the ETag filter
+        if (maxLagNanos > 0) {
+            dataVersion.setReplicaVersion(() -> replicaVersion);
+        }
+
+        Gauge.builder("replica.lag", this, ReplicaLagMonitor::getLagSeconds)
+                .description("Seconds since the newest primary position the read replica has replayed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sample the primary and see how far the replica has got
+     * return => true if the replica could be reached
+     */
+    @Scheduled(fixedDelayString = "${replica.check-interval:PT1S}")
+    public synchronized boolean check() {
+        try {
+            long version = dataVersion.getVersion();
+            long now = clock.getAsLong();
+            samples.addLast(new Sample(now, version, parseLsn(
+                    primary.queryForObject("select pg_current_wal_lsn()::text", String.class))));
+            if (samples.size() > MAX_SAMPLES) {
+                samples.removeFirst();
+            }
+
+            Map<String, Object> state = replica.queryForMap(
+                    "select pg_is_in_recovery() as standby, pg_last_wal_replay_lsn()::text as replayed");
+            Sample replayed = null;
+            if (!Boolean.TRUE.equals(state.get("standby"))) {
+                replayed = samples.peekLast();
+                samples.clear();
+            } else if (state.get("replayed") != null) {
+                long replayedLsn = parseLsn((String) state.get("replayed"));
+                while (!samples.isEmpty() && samples.peekFirst().lsn <= replayedLsn) {
+                    replayed = samples.removeFirst();
+                }
+            }
+
+            if (replayed != null) {
+                caughtUpAt = replayed.takenAt;
+                replicaVersion = Math.max(replicaVersion, replayed.version);
+            }
+            reachable = true;
+        } catch (DataAccessException e) {
+            reachable = false;
+        }
+        return reachable;
+    }
+
+    /**
+     * Whether read-only transactions may go to the replica right now
+     * return => false while it is unreachable or further behind than replica.max-lag allows
+     */
+    public boolean isFresh() {
+        if (!reachable || replicaVersion < 0) {
+            return false;
+        }
+        return replicaVersion >= dataVersion.getVersion()
+                || maxLagNanos > 0 && clock.getAsLong() - caughtUpAt <= maxLagNanos;
+    }
+
+    // A connection to the replica failed: reads stay on the primary until the next check reaches it again
+    public void replicaFailed() {
+        reachable = false;
+    }
+
+    // NaN until the replica has been reached
+    public double getLagSeconds() {
+        if (!reachable || replicaVersion < 0) {
+            return Double.NaN;
+        }
+        return (double) (clock.getAsLong() - caughtUpAt) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    //helper methods
+
+    // "16/B374D848" => 0x16B374D848
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Not a WAL position: " + lsn);
+        }
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    // the primary's WAL position at one point in time, and the data version it holds
+    private static final class Sample {
+        private final long takenAt;
+        private final long version;
+        private final long lsn;
+
+        private Sample(long takenAt, long version, long lsn) {
+            this.takenAt = takenAt;
+            this.version = version;
+            this.lsn = lsn;
+        }
+    }
+}
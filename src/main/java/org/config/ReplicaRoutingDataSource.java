@@ -0,0 +1,87 @@
+package org.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Picks the pool for a new connection: the replica for read-only transactions while it is fresh
+ * (ReplicaLagMonitor), the primary for everything else - writes, reads outside a read-only transaction,
+ * DataSourceRouting.onPrimary(), and every read while the replica is behind or down.
+ * A replica that can't hand out a connection is marked unreachable and the read goes to the primary, so a
+ * replica going away costs one connection timeout, not failed requests.
+ * Only sees the transaction's read-only flag when the connection is asked for after the transaction has
+ * started, so it sits behind a LazyConnectionDataSourceProxy (ReadReplicaConfig).
+ * Counter datasource.connections{target}
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.primaryConnections = connections(meterRegistry, Target.PRIMARY);
+        this.replicaConnections = connections(meterRegistry, Target.REPLICA);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (route() == Target.REPLICA) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                lagMonitor.replicaFailed();
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (route() == Target.REPLICA) {
+            try {
+                Connection connection = replica.getConnection(username, password);
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                lagMonitor.replicaFailed();
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection(username, password);
+    }
+
+    // where a connection asked for now would come from
+    Target route() {
+        boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !DataSourceRouting.isPrimaryForced()
+                && lagMonitor.isFresh();
+        return replica ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    //helper methods
+
+    private static Counter connections(MeterRegistry meterRegistry, Target target) {
+        return Counter.builder("datasource.connections")
+                .description("Connections handed out, by the pool they came from")
+                .tag("target", target.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
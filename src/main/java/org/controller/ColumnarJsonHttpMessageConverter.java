@@ -0,0 +1,69 @@
+package org.controller;
+
+import org.dto.DonorReportDTO;
+import org.dto.PageResponse;
+import org.mapper.ColumnarMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Columnar JSON (see ColumnarMapper) for the list pages and the donor report, chosen by
+ *   Accept: application/vnd.columnar+json
+ * Only ever picked when the Accept header names it (it never offers itself for a wildcard Accept), so
+ * every other request, and any other response type, stays plain JSON. Write-only
+ */
+@Component
+public class ColumnarJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType("application/vnd.columnar+json");
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ColumnarJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(COLUMNAR_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PageResponse.class.isAssignableFrom(clazz) || DonorReportDTO.class.isAssignableFrom(clazz);
+    }
+
+    // null = "could you write this at all", asked when working out what a wildcard Accept gets
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return mediaType != null && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response format only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()))) {
+            if (body instanceof PageResponse<?> page) {
+                ColumnarMapper.writePage(generator, page);
+            } else {
+                ColumnarMapper.writeDonorReport(generator, (DonorReportDTO) body);
+            }
+        }
+    }
+}
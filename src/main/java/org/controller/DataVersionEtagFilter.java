@@ -0,0 +1,87 @@
+package org.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.services.DataVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Conditional GET for the report and list endpoints (donations, distributions, reports)
+ * Every GET answer carries an ETag built from DataVersion; a request whose If-None-Match holds the
+ * current tag gets a bare 304 here, before the controller - no query, no DTO, no JSON. Pollers (kiosks,
+ * the dashboard) only pay for a full answer after a write.
+ * The tag stands for the whole data set, so any write moves every endpoint's tag; the URL (and so the
+ * parameters) is part of what a client caches it under. Exports are streamed and left alone, and so are the
+ * async intake's receipts, which change without a data write.
+ * While reads may be answered by a replica that is behind (DataVersion.isSettled()), answers go out untagged:
+ * a stale answer under the current tag would be pinned in the client until the next write.
+ * Runs ahead of DbConcurrencyLimitFilter, so a 304 never waits for a database slot.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class DataVersionEtagFilter extends OncePerRequestFilter {
+
+    private static final List<String> TAGGED_PATHS = List.of("/api/donations", "/api/distributions", "/api/reports");
+    private static final String EXPORT_SUFFIX = "/export";
+    // async intake receipts and queue state move without a data write
+    private static final String INTAKE_PATH = "/api/donations/intake";
+
+    private final DataVersion dataVersion;
+
+    @Autowired
+    public DataVersionEtagFilter(DataVersion dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.endsWith(EXPORT_SUFFIX)
+                || path.equals(INTAKE_PATH) || path.startsWith(INTAKE_PATH + "/")
+                || TAGGED_PATHS.stream().noneMatch(prefix -> path.equals(prefix) || path.startsWith(prefix + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // read before the answer is built: a write landing meanwhile leaves the answer tagged older than it is,
+        // which only costs the client one more full answer
+        String etag = dataVersion.etag(acceptsColumnar(request) ? "columnar" : null);
+
+        // caches may keep the answer but have to ask again before using it; each encoding has its own tag
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // checked after the tag is read: a replica holding the version now holds the one in the tag too
+        if (!dataVersion.isSettled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    //helper methods
+
+    // the answer may come back as columnar JSON (ColumnarJsonHttpMessageConverter)
+    private boolean acceptsColumnar(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(ColumnarJsonHttpMessageConverter.COLUMNAR_JSON.toString());
+    }
+}
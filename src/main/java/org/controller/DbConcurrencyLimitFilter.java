@@ -0,0 +1,159 @@
+package org.controller;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.exception.GlobalExceptionHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps how many donation, distribution and report requests run at once when requests are served on
+ * virtual threads (virtual-threads profile, Java 21+)
+ * Platform threads were capped by Tomcat's pool; virtual threads are not, so a spike would park every
+ * request inside Hikari waiting for a connection, and time it out there. Instead requests queue here
+ * (first come, first served) for one of `permits` slots, sized to the connection pool, and get a 503
+ * with Retry-After if no slot frees up in time
+ * A request that goes async (the streamed exports) keeps its slot until the async part completes, errors or
+ * times out, since it keeps its connection until then as well
+ *   db.concurrency.permits          - default spring.datasource.hikari.maximum-pool-size (10)
+ *   db.concurrency.acquire-timeout  - default PT10S
+ * Gauges db.concurrency.active / db.concurrency.waiting show the slots in use and the queue
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DbConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final List<String> LIMITED_PATHS = List.of("/api/donations", "/api/distributions", "/api/reports");
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final ObjectMapper objectMapper;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    @Autowired
+    public DbConcurrencyLimitFilter(@Value("${db.concurrency.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permitCount,
+                                    @Value("${db.concurrency.acquire-timeout:PT10S}") Duration acquireTimeout,
+                                    ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (permitCount < 1) {
+            throw new IllegalArgumentException("db.concurrency.permits must be at least 1");
+        }
+        this.permits = new Semaphore(permitCount, true);
+        this.acquireTimeout = acquireTimeout;
+        this.objectMapper = objectMapper;
+
+        Gauge.builder("db.concurrency.active", permits, p -> permitCount - p.availablePermits())
+                .description("Requests holding a database slot")
+                .register(meterRegistry);
+        Gauge.builder("db.concurrency.waiting", waiting, AtomicInteger::get)
+                .description("Requests queued for a database slot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return LIMITED_PATHS.stream().noneMatch(prefix -> path.equals(prefix) || path.startsWith(prefix + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        waiting.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        if (!acquired) {
+            reject(response);
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // not finished yet: the container calls the listener once the async part ends, however it ends
+                request.getAsyncContext().addListener(new ReleaseWhenDone());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    //helper methods
+
+    // 503 in the same shape as GlobalExceptionHandler's errors
+    private void reject(HttpServletResponse response) throws IOException {
+        GlobalExceptionHandler.ErrorResponse error = new GlobalExceptionHandler.ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Too many requests waiting for the database, try again shortly",
+                null,
+                LocalDateTime.now());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    // gives an async request's slot back exactly once (a timeout or error is followed by onComplete)
+    private final class ReleaseWhenDone implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // async restarted from a later dispatch: listeners have to be added again
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
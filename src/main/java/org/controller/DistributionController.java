@@ -4,13 +4,18 @@ package org.controller;
 import jakarta.validation.Valid;
 import org.dto.DistributionRequest;
 import org.dto.DistributionResponse;
+import org.dto.PageResponse;
 import org.entity.DonationType;
 import org.services.DistributionService;
+import org.services.ExportService;
+import org.services.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -22,26 +27,52 @@ import java.util.List;
 public class DistributionController {
 
     private final DistributionService distributionService;
+    private final ExportService exportService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public DistributionController(DistributionService distributionService) {
+    public DistributionController(DistributionService distributionService, ExportService exportService,
+                                  IdempotencyService idempotencyService) {
         this.distributionService = distributionService;
+        this.exportService = exportService;
+        this.idempotencyService = idempotencyService;
     }
 
-    //Record a new distribution
+    //Record a new distribution - with an Idempotency-Key, a retry gets the first response back instead of a second distribution
     @PostMapping
-    public ResponseEntity<DistributionResponse> recordDistribution(@Valid @RequestBody DistributionRequest request) {
-        DistributionResponse response = distributionService.recordDistribution(request);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    public ResponseEntity<DistributionResponse> recordDistribution(
+            @Valid @RequestBody DistributionRequest request,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            DistributionResponse response = distributionService.recordDistribution(request);
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        }
+        IdempotencyService.Outcome<DistributionResponse> outcome = idempotencyService.execute(
+                IdempotencyService.Scope.DISTRIBUTIONS, idempotencyKey, request, DistributionResponse.class,
+                () -> distributionService.recordDistribution(request));
+        return created(outcome);
     }
 
     //Get all distributions
     @GetMapping
-    public ResponseEntity<List<DistributionResponse>> getAllDistributions() {
-        List<DistributionResponse> distributions = distributionService.getAllDistributions();
+    public ResponseEntity<PageResponse<DistributionResponse>> getAllDistributions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DistributionResponse> distributions = distributionService.getAllDistributions(cursor, limit);
         return ResponseEntity.ok(distributions);
     }
 
+    //Export every distribution as NDJSON (default) or CSV - streamed row by row, for full-table syncs
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportDistributions(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = ExportService.Format.fromString(format);
+        StreamingResponseBody body = out -> exportService.exportDistributions(out, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=distributions." + exportFormat.getExtension())
+                .body(body);
+    }
+
     //Get distribution by ID
     @GetMapping("/{id}")
     public ResponseEntity<DistributionResponse> getDistributionById(@PathVariable Long id) {
@@ -51,39 +82,52 @@ public class DistributionController {
 
     //Get distributions by type
     @GetMapping("/type/{donationType}")
-    public ResponseEntity<List<DistributionResponse>> getDistributionsByType(@PathVariable DonationType donationType) {
-        List<DistributionResponse> distributions = distributionService.getDistributionsByType(donationType);
+    public ResponseEntity<PageResponse<DistributionResponse>> getDistributionsByType(
+            @PathVariable DonationType donationType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DistributionResponse> distributions = distributionService.getDistributionsByType(donationType, cursor, limit);
         return ResponseEntity.ok(distributions);
     }
 
     //Get distributions by recipient
     @GetMapping("/recipient/{recipient}")
-    public ResponseEntity<List<DistributionResponse>> getDistributionsByRecipient(@PathVariable String recipient) {
-        List<DistributionResponse> distributions = distributionService.getDistributionsByRecipient(recipient);
+    public ResponseEntity<PageResponse<DistributionResponse>> getDistributionsByRecipient(
+            @PathVariable String recipient,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DistributionResponse> distributions = distributionService.getDistributionsByRecipient(recipient, cursor, limit);
         return ResponseEntity.ok(distributions);
     }
 
     // Search distributions by recipient (recipient = who recieved the distribution , ex:XYZ client)
     @GetMapping("/search")
-    public ResponseEntity<List<DistributionResponse>> searchDistributions(@RequestParam String recipient) {
-        List<DistributionResponse> distributions = distributionService.searchDistributionsByRecipient(recipient);
+    public ResponseEntity<PageResponse<DistributionResponse>> searchDistributions(
+            @RequestParam String recipient,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DistributionResponse> distributions = distributionService.searchDistributionsByRecipient(recipient, cursor, limit);
         return ResponseEntity.ok(distributions);
     }
 
     //Get distributions by date range
     @GetMapping("/date-range")
-    public ResponseEntity<List<DistributionResponse>> getDistributionsByDateRange(
+    public ResponseEntity<PageResponse<DistributionResponse>> getDistributionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<DistributionResponse> distributions = distributionService.getDistributionsByDateRange(startDate, endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DistributionResponse> distributions = distributionService.getDistributionsByDateRange(startDate, endDate, cursor, limit);
         return ResponseEntity.ok(distributions);
     }
 
     //Get recent distributions (last x days ,defaulting to 7)
     @GetMapping("/recent")
-    public ResponseEntity<List<DistributionResponse>> getRecentDistributions(
-            @RequestParam(defaultValue = "7") int days) {
-        List<DistributionResponse> distributions = distributionService.getRecentDistributions(days);
+    public ResponseEntity<PageResponse<DistributionResponse>> getRecentDistributions(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DistributionResponse> distributions = distributionService.getRecentDistributions(days, cursor, limit);
         return ResponseEntity.ok(distributions);
     }
 
@@ -107,4 +151,13 @@ public class DistributionController {
         distributionService.deleteDistribution(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    // 201 with the response; a replayed one is marked as such
+    private <T> ResponseEntity<T> created(IdempotencyService.Outcome<T> outcome) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (outcome.isReplayed()) {
+            response.header(IdempotencyService.REPLAYED_HEADER, "true");
+        }
+        return response.body(outcome.getBody());
+    }
+}
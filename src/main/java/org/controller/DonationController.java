@@ -2,15 +2,21 @@ package org.controller;
 
 import java.lang.System;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.dto.DonationRequest;
 import org.dto.DonationResponse;
+import org.dto.PageResponse;
 import org.entity.DonationType;
 import org.services.DonationService;
+import org.services.ExportService;
+import org.services.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -22,28 +28,64 @@ import java.util.List;
 public class DonationController {
 
     private final DonationService donationService;
+    private final ExportService exportService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public DonationController(DonationService donationService) {
+    public DonationController(DonationService donationService, ExportService exportService,
+                              IdempotencyService idempotencyService) {
         this.donationService = donationService;
+        this.exportService = exportService;
+        this.idempotencyService = idempotencyService;
         System.out.println("donationController invoked");
     }
 
-    // Register a new donation
+    // Register a new donation - with an Idempotency-Key, a retry gets the first response back instead of a second donation
     @PostMapping
-    public ResponseEntity<DonationResponse> registerDonation(@Valid @RequestBody DonationRequest request) {
-        DonationResponse response = donationService.registerDonation(request);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    public ResponseEntity<DonationResponse> registerDonation(
+            @Valid @RequestBody DonationRequest request,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            DonationResponse response = donationService.registerDonation(request);
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        }
+        IdempotencyService.Outcome<DonationResponse> outcome = idempotencyService.execute(
+                IdempotencyService.Scope.DONATIONS, idempotencyKey, request, DonationResponse.class,
+                () -> donationService.registerDonation(request));
+        return created(outcome);
+    }
+
+    // Register a batch of donations (max 1000) in one transaction - every item is validated first,
+    // and nothing is saved unless all of them pass
+    @PostMapping("/batch")
+    public ResponseEntity<List<DonationResponse>> registerDonations(
+            @RequestBody @Size(min = 1, max = 1000, message = "Batch must contain between 1 and 1000 donations")
+            List<@Valid DonationRequest> requests) {
+        List<DonationResponse> responses = donationService.registerDonations(requests);
+        return new ResponseEntity<>(responses, HttpStatus.CREATED);
     }
 
     // Get all donations
     @GetMapping
-    public ResponseEntity<List<DonationResponse>> getAllDonations() {
+    public ResponseEntity<PageResponse<DonationResponse>> getAllDonations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         System.out.println("DonationController getAllDonations invoked");
-        List<DonationResponse> donations = donationService.getAllDonations();
+        PageResponse<DonationResponse> donations = donationService.getAllDonations(cursor, limit);
         return ResponseEntity.ok(donations);
     }
 
+    // Export every donation as NDJSON (default) or CSV - streamed row by row, for full-table syncs
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportDonations(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = ExportService.Format.fromString(format);
+        StreamingResponseBody body = out -> exportService.exportDonations(out, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=donations." + exportFormat.getExtension())
+                .body(body);
+    }
+
     //Get donation by ID
     @GetMapping("/{id}")
     public ResponseEntity<DonationResponse> getDonationById(@PathVariable Long id) {
@@ -53,39 +95,52 @@ public class DonationController {
 
     //Get donations by donor name
     @GetMapping("/donor/{donorName}")
-    public ResponseEntity<List<DonationResponse>> getDonationsByDonor(@PathVariable String donorName) {
-        List<DonationResponse> donations = donationService.getDonationsByDonor(donorName);
+    public ResponseEntity<PageResponse<DonationResponse>> getDonationsByDonor(
+            @PathVariable String donorName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DonationResponse> donations = donationService.getDonationsByDonor(donorName, cursor, limit);
         return ResponseEntity.ok(donations);
     }
 
     //Get donations by type
     @GetMapping("/type/{donationType}")
-    public ResponseEntity<List<DonationResponse>> getDonationsByType(@PathVariable DonationType donationType) {
-        List<DonationResponse> donations = donationService.getDonationsByType(donationType);
+    public ResponseEntity<PageResponse<DonationResponse>> getDonationsByType(
+            @PathVariable DonationType donationType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DonationResponse> donations = donationService.getDonationsByType(donationType, cursor, limit);
         return ResponseEntity.ok(donations);
     }
 
     // Search donations by donor name (ex: name ='harsha'-string)
     @GetMapping("/search")
-    public ResponseEntity<List<DonationResponse>> searchDonations(@RequestParam String donor) {
-        List<DonationResponse> donations = donationService.searchDonationsByDonor(donor);
+    public ResponseEntity<PageResponse<DonationResponse>> searchDonations(
+            @RequestParam String donor,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DonationResponse> donations = donationService.searchDonationsByDonor(donor, cursor, limit);
         return ResponseEntity.ok(donations);
     }
 
     //Get donations by date range
     @GetMapping("/date-range")
-    public ResponseEntity<List<DonationResponse>> getDonationsByDateRange(
+    public ResponseEntity<PageResponse<DonationResponse>> getDonationsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<DonationResponse> donations = donationService.getDonationsByDateRange(startDate, endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DonationResponse> donations = donationService.getDonationsByDateRange(startDate, endDate, cursor, limit);
         return ResponseEntity.ok(donations);
     }
 
     // Get recent donations (last x days ,defaulting to 7)
     @GetMapping("/recent")
-    public ResponseEntity<List<DonationResponse>> getRecentDonations(
-            @RequestParam(defaultValue = "7") int days) {
-        List<DonationResponse> donations = donationService.getRecentDonations(days);
+    public ResponseEntity<PageResponse<DonationResponse>> getRecentDonations(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<DonationResponse> donations = donationService.getRecentDonations(days, cursor, limit);
         return ResponseEntity.ok(donations);
     }
 
@@ -109,4 +164,13 @@ public class DonationController {
         donationService.deleteDonation(id);
         return ResponseEntity.noContent().build();
     }
+
+    // 201 with the response; a replayed one is marked as such
+    private <T> ResponseEntity<T> created(IdempotencyService.Outcome<T> outcome) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (outcome.isReplayed()) {
+            response.header(IdempotencyService.REPLAYED_HEADER, "true");
+        }
+        return response.body(outcome.getBody());
+    }
 }
@@ -0,0 +1,50 @@
+package org.controller;
+
+import jakarta.validation.Valid;
+import org.dto.DonationRequest;
+import org.dto.IntakeReceiptResponse;
+import org.dto.IntakeStatusResponse;
+import org.services.DonationIntakeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+//controller for the async donation intake (async-intake profile) - donations are acknowledged first and saved
+//in groups shortly after, poll the receipt for the outcome
+@RestController
+@RequestMapping("/api/donations/intake")
+@CrossOrigin(origins = "*") // CORS across browsers
+@ConditionalOnProperty(name = "intake.async.enabled", havingValue = "true")
+public class DonationIntakeController {
+
+    private final DonationIntakeService donationIntakeService;
+
+    @Autowired
+    public DonationIntakeController(DonationIntakeService donationIntakeService) {
+        this.donationIntakeService = donationIntakeService;
+    }
+
+    // Accept a donation for saving - 202 with its receipt, or 429 when the queue is full
+    @PostMapping
+    public ResponseEntity<IntakeReceiptResponse> submitDonation(@Valid @RequestBody DonationRequest request) {
+        IntakeReceiptResponse receipt = donationIntakeService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/donations/intake/" + receipt.getReceiptId()))
+                .body(receipt);
+    }
+
+    // Get the outcome of an accepted donation
+    @GetMapping("/{receiptId}")
+    public ResponseEntity<IntakeReceiptResponse> getReceipt(@PathVariable String receiptId) {
+        return ResponseEntity.ok(donationIntakeService.getReceipt(receiptId));
+    }
+
+    // Get queue depth and totals
+    @GetMapping
+    public ResponseEntity<IntakeStatusResponse> getStatus() {
+        return ResponseEntity.ok(donationIntakeService.getStatus());
+    }
+}
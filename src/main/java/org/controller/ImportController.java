@@ -0,0 +1,63 @@
+package org.controller;
+
+import org.dto.ImportJobResponse;
+import org.dto.ImportRowError;
+import org.services.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+//controller for bulk CSV imports - uploads are processed in the background, poll the job for progress
+@RestController
+@RequestMapping("/api/imports")
+@CrossOrigin(origins = "*") // CORS across browsers
+public class ImportController {
+
+    private final ImportService importService;
+
+    @Autowired
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    // Upload a CSV of donations (donorName,donationType,quantity[,donationDate])
+    @PostMapping(value = "/donations", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobResponse> importDonations(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        return accepted(importService.startImport(ImportService.Kind.DONATIONS, file.getInputStream(), chunkSize));
+    }
+
+    // Upload a CSV of distributions (donationType,quantity[,distributionDate][,recipient])
+    @PostMapping(value = "/distributions", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobResponse> importDistributions(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        return accepted(importService.startImport(ImportService.Kind.DISTRIBUTIONS, file.getInputStream(), chunkSize));
+    }
+
+    // Get progress of an import job
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobResponse> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(importService.getJob(jobId));
+    }
+
+    // Get the rejected rows of an import job
+    @GetMapping("/{jobId}/errors")
+    public ResponseEntity<List<ImportRowError>> getErrors(@PathVariable String jobId) {
+        return ResponseEntity.ok(importService.getErrors(jobId));
+    }
+
+    // 202 with the job, pointing at where to poll it
+    private ResponseEntity<ImportJobResponse> accepted(ImportJobResponse job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/imports/" + job.getJobId()))
+                .body(job);
+    }
+}
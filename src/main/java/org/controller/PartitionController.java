@@ -0,0 +1,53 @@
+package org.controller;
+
+import org.dto.PartitionResponse;
+import org.services.PartitionMaintenanceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+//controller for the monthly partitions of the donations and distributions tables
+@RestController
+@RequestMapping("/api/partitions")
+@CrossOrigin(origins = "*")
+public class PartitionController {
+
+    private final PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    public PartitionController(PartitionMaintenanceService partitionMaintenanceService) {
+        this.partitionMaintenanceService = partitionMaintenanceService;
+    }
+
+    /**
+     List every partition with its date range and estimated row count
+     Returns => partitions by table, months in order, default partitions included
+     */
+    @GetMapping
+    public ResponseEntity<List<PartitionResponse>> getPartitions() {
+        return ResponseEntity.ok(partitionMaintenanceService.getPartitions());
+    }
+
+    /**
+     Create the coming months' partitions now instead of at the next scheduled run
+     Returns => names of the partitions created
+     */
+    @PostMapping("/maintain")
+    public ResponseEntity<List<String>> createPartitions() {
+        return ResponseEntity.ok(partitionMaintenanceService.createPartitions());
+    }
+
+    /**
+     Detach the months that end on or before ?before=YYYY-MM-DD, for archiving
+     Returns => names of the detached tables (still in the database until dropped)
+     */
+    @PostMapping("/detach")
+    public ResponseEntity<List<String>> detachBefore(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before) {
+        return ResponseEntity.ok(partitionMaintenanceService.detachBefore(before));
+    }
+}
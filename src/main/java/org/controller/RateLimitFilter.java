@@ -0,0 +1,224 @@
+package org.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.exception.GlobalExceptionHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client admission control: every client gets its own token bucket (TokenBucket) per endpoint group,
+ * so one dashboard polling reports flat out runs out of its report budget and nothing else - the writes at
+ * the front desk keep their own
+ *   reports - anything under /api/reports
+ *   lists   - GET under /api/donations, /api/distributions (lists, search, exports)
+ *   writes  - POST / PUT / DELETE under /api/donations, /api/distributions, /api/imports
+ * Each group has rate-limit.<group>.per-second (refill rate) and rate-limit.<group>.burst (bucket size).
+ * A request over budget gets a 429 with Retry-After (seconds until a token is back) and never reaches the
+ * database. Clients are told apart by rate-limit.client-header when set and sent, otherwise by remote address.
+ * Only set rate-limit.client-header behind a trusted proxy that sets (or strips) that header on every request:
+ * a client that picks its own id gets a fresh budget with every new one.
+ * Runs after DataVersionEtagFilter, so a 304 costs no token. Counter rate.limit.rejected{group, client}; gauge
+ * rate.limit.clients (clients with a bucket that isn't full - full ones are dropped every rate-limit.cleanup-interval,
+ * together with their rejected counter, so there is one counter per client that is over budget now or was lately)
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true")
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum Group { REPORTS, LISTS, WRITES }
+
+    private static final String REPORT_PATH = "/api/reports";
+    private static final List<String> RECORD_PATHS = List.of("/api/donations", "/api/distributions", "/api/imports");
+
+    private static final String REJECTED = "rate.limit.rejected";
+    private static final String GROUP_TAG = "group";
+    private static final String CLIENT_TAG = "client";
+
+    private final Map<Group, Budget> budgets = new EnumMap<>(Group.class);
+    private final String clientHeader;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+
+    @Autowired
+    public RateLimitFilter(@Value("${rate-limit.reports.per-second:2}") double reportsPerSecond,
+                           @Value("${rate-limit.reports.burst:10}") int reportsBurst,
+                           @Value("${rate-limit.lists.per-second:20}") double listsPerSecond,
+                           @Value("${rate-limit.lists.burst:40}") int listsBurst,
+                           @Value("${rate-limit.writes.per-second:100}") double writesPerSecond,
+                           @Value("${rate-limit.writes.burst:200}") int writesBurst,
+                           @Value("${rate-limit.client-header:}") String clientHeader,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(Map.of(Group.REPORTS, new Budget(reportsPerSecond, reportsBurst),
+                        Group.LISTS, new Budget(listsPerSecond, listsBurst),
+                        Group.WRITES, new Budget(writesPerSecond, writesBurst)),
+                clientHeader, objectMapper, meterRegistry, System::nanoTime);
+    }
+
+    // buckets refill by the given clock (tests pass their own)
+    RateLimitFilter(Map<Group, Budget> budgets, String clientHeader, ObjectMapper objectMapper,
+                    MeterRegistry meterRegistry, LongSupplier clock) {
+        budgets.forEach((group, budget) -> {
+            if (!(budget.perSecond > 0) || budget.burst < 1) {
+                throw new IllegalArgumentException("rate-limit." + group.name().toLowerCase()
+                        + " needs per-second > 0 and burst >= 1");
+            }
+        });
+        this.budgets.putAll(budgets);
+        this.clientHeader = clientHeader == null || clientHeader.isBlank() ? null : clientHeader;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+
+        Gauge.builder("rate.limit.clients", this.budgets,
+                        b -> b.values().stream().mapToInt(budget -> budget.buckets.size()).sum())
+                .description("Client buckets currently tracked, over all endpoint groups")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return groupOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Group group = groupOf(request);
+        Budget budget = budgets.get(group);
+        String client = clientOf(request);
+        long now = clock.getAsLong();
+
+        TokenBucket bucket = budget.buckets.get(client);
+        if (bucket == null) {
+            bucket = budget.buckets.computeIfAbsent(client, c -> new TokenBucket(budget.perSecond, budget.burst, now));
+        }
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) {
+            reject(response, group, client, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Forget clients whose buckets have filled up again - they would start from a full bucket anyway
+     * Their rejected counters go too (a scraper sees the series end; a new one starts if they come back)
+     * return => number of buckets dropped
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval:PT1M}",
+            initialDelayString = "${rate-limit.cleanup-interval:PT1M}")
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Map.Entry<Group, Budget> group : budgets.entrySet()) {
+            Budget budget = group.getValue();
+            for (Map.Entry<String, TokenBucket> entry : budget.buckets.entrySet()) {
+                // a request racing this can take its token from the dropped bucket: one token too many, at worst
+                if (entry.getValue().isFull(now) && budget.buckets.remove(entry.getKey(), entry.getValue())) {
+                    Counter rejected = meterRegistry.find(REJECTED)
+                            .tags(GROUP_TAG, group.getKey().name().toLowerCase(), CLIENT_TAG, entry.getKey())
+                            .counter();
+                    if (rejected != null) {
+                        meterRegistry.remove(rejected);
+                    }
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    //helper methods
+
+    // null = not rate limited
+    private Group groupOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.OPTIONS.matches(method)) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (under(path, REPORT_PATH)) {
+            return Group.REPORTS;
+        }
+        if (RECORD_PATHS.stream().noneMatch(prefix -> under(path, prefix))) {
+            return null;
+        }
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) ? Group.LISTS : Group.WRITES;
+    }
+
+    private static boolean under(String path, String prefix) {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (clientHeader != null) {
+            String id = request.getHeader(clientHeader);
+            if (id != null && !id.isBlank()) {
+                return id.strip();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // 429 in the same shape as GlobalExceptionHandler's errors
+    private void reject(HttpServletResponse response, Group group, String client, long waitNanos) throws IOException {
+        Counter.builder(REJECTED)
+                .description("Requests turned away for going over the client's budget")
+                .tag(GROUP_TAG, group.name().toLowerCase())
+                .tag(CLIENT_TAG, client)
+                .register(meterRegistry)
+                .increment();
+
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        GlobalExceptionHandler.ErrorResponse error = new GlobalExceptionHandler.ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many " + group.name().toLowerCase() + " requests from this client, try again in " + retryAfter + "s",
+                null,
+                LocalDateTime.now());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    // refill rate and size of the buckets of one group, and the buckets themselves (one per client)
+    static final class Budget {
+        private final double perSecond;
+        private final int burst;
+        private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+        Budget(double perSecond, int burst) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+        }
+    }
+}
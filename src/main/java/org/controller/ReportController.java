@@ -3,13 +3,19 @@ package org.controller;
 import org.dto.DonorReportDTO;
 import org.dto.InventoryCheckResponse;
 import org.dto.InventoryReportDTO;
+import org.dto.TimeseriesDTO;
 import org.entity.DonationType;
+import org.services.DailyRollupService;
+import org.services.DonorTotalsService;
+import org.services.InventoryLedgerService;
 import org.services.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 //controller for Report generation
 @RestController
@@ -18,19 +24,76 @@ import java.math.BigDecimal;
 public class ReportController {
 
     private final ReportService reportService;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final DonorTotalsService donorTotalsService;
+    private final DailyRollupService dailyRollupService;
 
     @Autowired
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, InventoryLedgerService inventoryLedgerService,
+                            DonorTotalsService donorTotalsService, DailyRollupService dailyRollupService) {
         this.reportService = reportService;
+        this.inventoryLedgerService = inventoryLedgerService;
+        this.donorTotalsService = donorTotalsService;
+        this.dailyRollupService = dailyRollupService;
     }
 
-    //Get the Current Inventory Report
+    /**
+     Get the Inventory Report - current, or as it stood at the end of ?asOf=YYYY-MM-DD
+     Returns => donated, distributed and stock per donation type
+     */
     @GetMapping("/inventory")
-    public ResponseEntity<InventoryReportDTO> getInventoryReport() {
+    public ResponseEntity<InventoryReportDTO> getInventoryReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        InventoryReportDTO report = reportService.generateInventoryReport(asOf);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     Recompute the per-type inventory balances from the donations and distributions tables
+     Returns => the inventory report built from the fresh balances
+     */
+    @PostMapping("/inventory/rebuild")
+    public ResponseEntity<InventoryReportDTO> rebuildInventory() {
+        inventoryLedgerService.rebuild();
         InventoryReportDTO report = reportService.generateInventoryReport();
         return ResponseEntity.ok(report);
     }
 
+    /**
+     Recompute the per-donor totals from the donations table
+     Returns => the donor report built from the fresh totals
+     */
+    @PostMapping("/donors/rebuild")
+    public ResponseEntity<DonorReportDTO> rebuildDonorTotals() {
+        donorTotalsService.rebuild();
+        DonorReportDTO report = reportService.generateDonorReport();
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     Inflow and outflow per donation type between two days (inclusive), for charts
+     granularity => day (default), week or month; type => one donation type, all types when omitted
+     Returns => one series per type, one point per period, zero-filled
+     */
+    @GetMapping("/timeseries")
+    public ResponseEntity<TimeseriesDTO> getTimeseries(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) DonationType type) {
+        TimeseriesDTO timeseries = dailyRollupService.getTimeseries(TimeseriesDTO.Granularity.from(granularity), from, to, type);
+        return ResponseEntity.ok(timeseries);
+    }
+
+    /**
+     Recompute the daily rollups from the donations and distributions tables
+     Returns => number of (day, type) rows rebuilt
+     */
+    @PostMapping("/timeseries/rebuild")
+    public ResponseEntity<Integer> rebuildTimeseries() {
+        return ResponseEntity.ok(dailyRollupService.rebuild());
+    }
+
     // Get total contributions made by each donor
     @GetMapping("/donors")
     public ResponseEntity<DonorReportDTO> getDonorReport() {
@@ -0,0 +1,48 @@
+package org.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of one client for one endpoint group (see RateLimitFilter) - refills at a fixed rate up to burst tokens
+ * Kept as a single timestamp instead of a token count: the time at which the bucket would be full again
+ * (generic cell rate algorithm). Taking a token moves it one refill interval later, and a request is admitted
+ * while that stays within burst intervals of now, so a whole check is one compare-and-set, no lock.
+ */
+final class TokenBucket {
+
+    // nanos to refill one token
+    private final long interval;
+    // nanos to refill an empty bucket
+    private final long capacity;
+    private final AtomicLong fullAt;
+
+    TokenBucket(double tokensPerSecond, int burst, long now) {
+        this.interval = Math.max(1, Math.round(1_000_000_000d / tokensPerSecond));
+        this.capacity = interval * burst;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Take a token
+     * @param now - System.nanoTime()
+     * return => 0 if taken, else nanos until one will be there
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - capacity;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // nothing taken since it last refilled - the same as a new bucket
+    boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
@@ -1,6 +1,7 @@
 package org.dto;
 
 import org.entity.DonationType;
+import org.springframework.data.annotation.PersistenceCreator;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -21,6 +22,8 @@ public class DistributionResponse {
     public DistributionResponse() {
     }
 
+    // the one list/search queries select into (see DistributionRepository)
+    @PersistenceCreator
     public DistributionResponse(Long id, DonationType donationType, BigDecimal quantity,
                                 LocalDate distributionDate, String recipient, LocalDateTime createdAt) {
         this.id = id;
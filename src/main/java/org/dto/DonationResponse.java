@@ -2,6 +2,7 @@ package org.dto;
 
 
 import org.entity.DonationType;
+import org.springframework.data.annotation.PersistenceCreator;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -22,6 +23,8 @@ public class DonationResponse {
     public DonationResponse() {
     }
 
+    // the one list/search queries select into (see DonationRepository)
+    @PersistenceCreator
     public DonationResponse(Long id, String donorName, DonationType donationType,
                             BigDecimal quantity, LocalDate donationDate, LocalDateTime createdAt) {
         this.id = id;
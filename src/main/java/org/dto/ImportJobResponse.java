@@ -0,0 +1,137 @@
+package org.dto;
+
+import java.time.LocalDateTime;
+
+// Progress of a CSV import job - poll GET /api/imports/{jobId} until status is COMPLETED or FAILED
+public class ImportJobResponse {
+
+    private String jobId;
+    private String kind;
+    private String status;
+    private int chunkSize;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    private long chunksCommitted;
+    // why the whole job failed (bad header, unreadable file), null otherwise
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // constructors
+
+    public ImportJobResponse() {
+    }
+
+    // getters & setters
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public void setRowsFailed(long rowsFailed) {
+        this.rowsFailed = rowsFailed;
+    }
+
+    public long getChunksCommitted() {
+        return chunksCommitted;
+    }
+
+    public void setChunksCommitted(long chunksCommitted) {
+        this.chunksCommitted = chunksCommitted;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportJobResponse{" +
+                "jobId='" + jobId + '\'' +
+                ", kind='" + kind + '\'' +
+                ", status='" + status + '\'' +
+                ", rowsRead=" + rowsRead +
+                ", rowsImported=" + rowsImported +
+                ", rowsFailed=" + rowsFailed +
+                ", chunksCommitted=" + chunksCommitted +
+                '}';
+    }
+}
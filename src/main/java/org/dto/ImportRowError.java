@@ -0,0 +1,55 @@
+package org.dto;
+
+// One rejected row of a CSV import - row is the row number in the file (the header is row 1)
+public class ImportRowError {
+
+    private long row;
+    private String field;
+    private String message;
+
+    // constructors
+
+    public ImportRowError() {
+    }
+
+    public ImportRowError(long row, String field, String message) {
+        this.row = row;
+        this.field = field;
+        this.message = message;
+    }
+
+    // getters & setters
+
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportRowError{" +
+                "row=" + row +
+                ", field='" + field + '\'' +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package org.dto;
+
+import java.time.LocalDateTime;
+
+// A donation accepted by the async intake - poll GET /api/donations/intake/{receiptId} until status is COMMITTED or FAILED
+public class IntakeReceiptResponse {
+
+    private String receiptId;
+    private String status;
+    // id of the saved donation once COMMITTED
+    private Long donationId;
+    // why the database refused it when FAILED
+    private String error;
+    private LocalDateTime acceptedAt;
+    private LocalDateTime finishedAt;
+
+    // constructors
+
+    public IntakeReceiptResponse() {
+    }
+
+    // getters & setters
+
+    public String getReceiptId() {
+        return receiptId;
+    }
+
+    public void setReceiptId(String receiptId) {
+        this.receiptId = receiptId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getDonationId() {
+        return donationId;
+    }
+
+    public void setDonationId(Long donationId) {
+        this.donationId = donationId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getAcceptedAt() {
+        return acceptedAt;
+    }
+
+    public void setAcceptedAt(LocalDateTime acceptedAt) {
+        this.acceptedAt = acceptedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IntakeReceiptResponse{" +
+                "receiptId='" + receiptId + '\'' +
+                ", status='" + status + '\'' +
+                ", donationId=" + donationId +
+                '}';
+    }
+}
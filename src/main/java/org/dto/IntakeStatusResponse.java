@@ -0,0 +1,127 @@
+package org.dto;
+
+// State of the async donation intake - queue depth against capacity, and totals since startup
+public class IntakeStatusResponse {
+
+    private boolean accepting;
+    private int capacity;
+    // accepted, not yet committed
+    private int queued;
+    private int batchSize;
+    private long maxDelayMillis;
+    private long accepted;
+    private long committed;
+    private long failed;
+    // turned away with a 429
+    private long rejected;
+    private long groupsCommitted;
+    // why the writer is waiting (e.g. database unreachable), null while it is not
+    private String lastError;
+
+    // constructors
+
+    public IntakeStatusResponse() {
+    }
+
+    // getters & setters
+
+    public boolean isAccepting() {
+        return accepting;
+    }
+
+    public void setAccepting(boolean accepting) {
+        this.accepting = accepting;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public void setMaxDelayMillis(long maxDelayMillis) {
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(long committed) {
+        this.committed = committed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getGroupsCommitted() {
+        return groupsCommitted;
+    }
+
+    public void setGroupsCommitted(long groupsCommitted) {
+        this.groupsCommitted = groupsCommitted;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "IntakeStatusResponse{" +
+                "accepting=" + accepting +
+                ", queued=" + queued +
+                ", accepted=" + accepted +
+                ", committed=" + committed +
+                ", failed=" + failed +
+                ", rejected=" + rejected +
+                '}';
+    }
+}
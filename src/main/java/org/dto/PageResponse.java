@@ -0,0 +1,48 @@
+package org.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One page of a list endpoint - pass "next" back as ?cursor= to get the following page (null on the last page)
+public class PageResponse<T> {
+
+    private List<T> items;
+    private String next;
+
+    // constructors
+
+    public PageResponse() {
+        this.items = new ArrayList<>();
+    }
+
+    public PageResponse(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    // getters & setters
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    @Override
+    public String toString() {
+        return "PageResponse{" +
+                "items=" + items +
+                ", next='" + next + '\'' +
+                '}';
+    }
+}
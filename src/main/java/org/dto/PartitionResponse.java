@@ -0,0 +1,67 @@
+package org.dto;
+
+//One partition of the donations or distributions table
+public class PartitionResponse {
+    private String table;
+    private String partition;
+    // as PostgreSQL prints it: FOR VALUES FROM ('2025-01-01') TO ('2025-02-01'), or DEFAULT
+    private String bounds;
+    // planner estimate as of the last ANALYZE (-1 = never analyzed)
+    private long estimatedRows;
+
+    //constructors
+
+    public PartitionResponse() {
+    }
+
+    public PartitionResponse(String table, String partition, String bounds, long estimatedRows) {
+        this.table = table;
+        this.partition = partition;
+        this.bounds = bounds;
+        this.estimatedRows = estimatedRows;
+    }
+
+    //getters and setters
+
+    public String getTable() {
+        return table;
+    }
+
+    public void setTable(String table) {
+        this.table = table;
+    }
+
+    public String getPartition() {
+        return partition;
+    }
+
+    public void setPartition(String partition) {
+        this.partition = partition;
+    }
+
+    public String getBounds() {
+        return bounds;
+    }
+
+    public void setBounds(String bounds) {
+        this.bounds = bounds;
+    }
+
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public void setEstimatedRows(long estimatedRows) {
+        this.estimatedRows = estimatedRows;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionResponse{" +
+                "table='" + table + '\'' +
+                ", partition='" + partition + '\'' +
+                ", bounds='" + bounds + '\'' +
+                ", estimatedRows=" + estimatedRows +
+                '}';
+    }
+}
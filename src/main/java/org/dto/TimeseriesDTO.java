@@ -0,0 +1,181 @@
+package org.dto;
+
+import org.entity.DonationType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+//inflow / outflow per donation type over time, one point per day, week or month
+public class TimeseriesDTO {
+
+    private Granularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Series> series;
+
+    public TimeseriesDTO() {
+        this.series = new ArrayList<>();
+    }
+
+    public TimeseriesDTO(Granularity granularity, LocalDate from, LocalDate to) {
+        this();
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+    }
+
+    // period length of one point; weeks start on Monday, months on the 1st
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        // "day" / "week" / "month", any case
+        public static Granularity from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("granularity must be one of day, week, month: " + value);
+            }
+        }
+    }
+
+    //One donation type's points, oldest first - every period of the range is present
+
+    public static class Series {
+        private DonationType donationType;
+        private List<Point> points;
+
+        public Series() {
+            this.points = new ArrayList<>();
+        }
+
+        public Series(DonationType donationType, List<Point> points) {
+            this.donationType = donationType;
+            this.points = points;
+        }
+
+        public DonationType getDonationType() {
+            return donationType;
+        }
+
+        public void setDonationType(DonationType donationType) {
+            this.donationType = donationType;
+        }
+
+        public List<Point> getPoints() {
+            return points;
+        }
+
+        public void setPoints(List<Point> points) {
+            this.points = points;
+        }
+    }
+
+    //Totals of one period (zero when nothing happened)
+
+    public static class Point {
+        private LocalDate periodStart;
+        private BigDecimal donated;
+        private BigDecimal distributed;
+        private long donationCount;
+        private long distributionCount;
+
+        public Point() {
+        }
+
+        public Point(LocalDate periodStart, BigDecimal donated, BigDecimal distributed,
+                     long donationCount, long distributionCount) {
+            this.periodStart = periodStart;
+            this.donated = donated;
+            this.distributed = distributed;
+            this.donationCount = donationCount;
+            this.distributionCount = distributionCount;
+        }
+
+        public LocalDate getPeriodStart() {
+            return periodStart;
+        }
+
+        public void setPeriodStart(LocalDate periodStart) {
+            this.periodStart = periodStart;
+        }
+
+        public BigDecimal getDonated() {
+            return donated;
+        }
+
+        public void setDonated(BigDecimal donated) {
+            this.donated = donated;
+        }
+
+        public BigDecimal getDistributed() {
+            return distributed;
+        }
+
+        public void setDistributed(BigDecimal distributed) {
+            this.distributed = distributed;
+        }
+
+        public long getDonationCount() {
+            return donationCount;
+        }
+
+        public void setDonationCount(long donationCount) {
+            this.donationCount = donationCount;
+        }
+
+        public long getDistributionCount() {
+            return distributionCount;
+        }
+
+        public void setDistributionCount(long distributionCount) {
+            this.distributionCount = distributionCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Point{" +
+                    "periodStart=" + periodStart +
+                    ", donated=" + donated +
+                    ", distributed=" + distributed +
+                    ", donationCount=" + donationCount +
+                    ", distributionCount=" + distributionCount +
+                    '}';
+        }
+    }
+
+    // getters & setters
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public List<Series> getSeries() {
+        return series;
+    }
+
+    public void setSeries(List<Series> series) {
+        this.series = series;
+    }
+}
@@ -0,0 +1,157 @@
+package org.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// daily inflow / outflow - one row per (day, donation type), kept in step with every donation and distribution write
+@Entity
+@Table(name = "daily_type_rollup")
+@IdClass(DailyTypeRollup.Key.class)
+public class DailyTypeRollup {
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+
+    @Id
+    @Column(name = "donation_type", length = 100)
+    @Enumerated(EnumType.STRING)
+    private DonationType donationType;
+
+    // sum of the day's donations of this type
+    @Column(name = "donated", nullable = false, precision = 14, scale = 2)
+    private BigDecimal donated = BigDecimal.ZERO;
+
+    // sum of the day's distributions of this type
+    @Column(name = "distributed", nullable = false, precision = 14, scale = 2)
+    private BigDecimal distributed = BigDecimal.ZERO;
+
+    @Column(name = "donation_count", nullable = false)
+    private long donationCount;
+
+    @Column(name = "distribution_count", nullable = false)
+    private long distributionCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public DailyTypeRollup() {
+        // Default constructor required by JPA
+    }
+
+    public DailyTypeRollup(LocalDate rollupDate, DonationType donationType, BigDecimal donated, BigDecimal distributed,
+                           long donationCount, long distributionCount) {
+        this.rollupDate = rollupDate;
+        this.donationType = donationType;
+        this.donated = donated;
+        this.distributed = distributed;
+        this.donationCount = donationCount;
+        this.distributionCount = distributionCount;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public LocalDate getRollupDate() {
+        return rollupDate;
+    }
+
+    public void setRollupDate(LocalDate rollupDate) {
+        this.rollupDate = rollupDate;
+    }
+
+    public DonationType getDonationType() {
+        return donationType;
+    }
+
+    public void setDonationType(DonationType donationType) {
+        this.donationType = donationType;
+    }
+
+    public BigDecimal getDonated() {
+        return donated;
+    }
+
+    public void setDonated(BigDecimal donated) {
+        this.donated = donated;
+    }
+
+    public BigDecimal getDistributed() {
+        return distributed;
+    }
+
+    public void setDistributed(BigDecimal distributed) {
+        this.distributed = distributed;
+    }
+
+    public long getDonationCount() {
+        return donationCount;
+    }
+
+    public void setDonationCount(long donationCount) {
+        this.donationCount = donationCount;
+    }
+
+    public long getDistributionCount() {
+        return distributionCount;
+    }
+
+    public void setDistributionCount(long distributionCount) {
+        this.distributionCount = distributionCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "DailyTypeRollup{" +
+                "rollupDate=" + rollupDate +
+                ", donationType=" + donationType +
+                ", donated=" + donated +
+                ", distributed=" + distributed +
+                ", donationCount=" + donationCount +
+                ", distributionCount=" + distributionCount +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+
+    // composite primary key (rollup_date, donation_type)
+    public static class Key implements Serializable {
+        private LocalDate rollupDate;
+        private DonationType donationType;
+
+        public Key() {
+        }
+
+        public Key(LocalDate rollupDate, DonationType donationType) {
+            this.rollupDate = rollupDate;
+            this.donationType = donationType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(rollupDate, key.rollupDate) && donationType == key.donationType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rollupDate, donationType);
+        }
+    }
+}
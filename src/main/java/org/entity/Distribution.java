@@ -10,8 +10,10 @@ import java.time.LocalDateTime;
 @Table(name = "distributions")
 public class Distribution {
 
+    // pooled sequence, same as Donation.id - lets bulk imports batch their INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "distributions_seq")
+    @SequenceGenerator(name = "distributions_seq", sequenceName = "distributions_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "donation_type", nullable = false, length = 100)
@@ -0,0 +1,129 @@
+package org.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// running donation totals - one row per (donor, donation type), kept in step with every donation write
+@Entity
+@Table(name = "donor_type_totals")
+@IdClass(DonorTypeTotal.Key.class)
+public class DonorTypeTotal {
+
+    @Id
+    @Column(name = "donor_name", length = 255)
+    private String donorName;
+
+    @Id
+    @Column(name = "donation_type", length = 100)
+    @Enumerated(EnumType.STRING)
+    private DonationType donationType;
+
+    // sum of this donor's donations of this type
+    @Column(name = "total_quantity", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalQuantity = BigDecimal.ZERO;
+
+    // number of donations behind the total - the row is removed when it drops to zero
+    @Column(name = "donation_count", nullable = false)
+    private long donationCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public DonorTypeTotal() {
+        // Default constructor required by JPA
+    }
+
+    public DonorTypeTotal(String donorName, DonationType donationType, BigDecimal totalQuantity, long donationCount) {
+        this.donorName = donorName;
+        this.donationType = donationType;
+        this.totalQuantity = totalQuantity;
+        this.donationCount = donationCount;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public String getDonorName() {
+        return donorName;
+    }
+
+    public void setDonorName(String donorName) {
+        this.donorName = donorName;
+    }
+
+    public DonationType getDonationType() {
+        return donationType;
+    }
+
+    public void setDonationType(DonationType donationType) {
+        this.donationType = donationType;
+    }
+
+    public BigDecimal getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public void setTotalQuantity(BigDecimal totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
+    public long getDonationCount() {
+        return donationCount;
+    }
+
+    public void setDonationCount(long donationCount) {
+        this.donationCount = donationCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "DonorTypeTotal{" +
+                "donorName='" + donorName + '\'' +
+                ", donationType=" + donationType +
+                ", totalQuantity=" + totalQuantity +
+                ", donationCount=" + donationCount +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+
+    // composite primary key (donor_name, donation_type)
+    public static class Key implements Serializable {
+        private String donorName;
+        private DonationType donationType;
+
+        public Key() {
+        }
+
+        public Key(String donorName, DonationType donationType) {
+            this.donorName = donorName;
+            this.donationType = donationType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(donorName, key.donorName) && donationType == key.donationType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(donorName, donationType);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// the response to a POST sent with an Idempotency-Key - one row per (endpoint, key), replayed to retries of it
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyRecord.Key.class)
+public class IdempotencyRecord {
+
+    // which endpoint the key belongs to (IdempotencyService.Scope)
+    @Id
+    @Column(name = "scope", length = 20)
+    private String scope;
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    // SHA-256 (hex) of the request body the key was first used with
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // the response, as JSON
+    @Column(name = "response_body", nullable = false, columnDefinition = "text")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public IdempotencyRecord() {
+        // Default constructor required by JPA
+    }
+
+    public IdempotencyRecord(String scope, String idempotencyKey, String requestHash, String responseBody,
+                             LocalDateTime createdAt) {
+        this.scope = scope;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.responseBody = responseBody;
+        this.createdAt = createdAt;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // composite primary key (scope, idempotency_key)
+    public static class Key implements Serializable {
+        private String scope;
+        private String idempotencyKey;
+
+        public Key() {
+        }
+
+        public Key(String scope, String idempotencyKey) {
+            this.scope = scope;
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(scope, key.scope) && Objects.equals(idempotencyKey, key.idempotencyKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, idempotencyKey);
+        }
+    }
+}
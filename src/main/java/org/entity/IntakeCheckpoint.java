@@ -0,0 +1,48 @@
+package org.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// how far an async intake journal has been committed - journalOffset is the byte offset just past the last saved entry
+@Entity
+@Table(name = "intake_checkpoint")
+public class IntakeCheckpoint {
+
+    @Id
+    @Column(name = "journal", length = 100)
+    private String journal;
+
+    @Column(name = "journal_offset", nullable = false)
+    private long journalOffset;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public IntakeCheckpoint() {
+        // Default constructor required by JPA
+    }
+
+    public String getJournal() {
+        return journal;
+    }
+
+    public void setJournal(String journal) {
+        this.journal = journal;
+    }
+
+    public long getJournalOffset() {
+        return journalOffset;
+    }
+
+    public void setJournalOffset(long journalOffset) {
+        this.journalOffset = journalOffset;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,90 @@
+package org.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// running inventory totals - one row per donation type, kept in step with every donation/distribution write
+@Entity
+@Table(name = "inventory_balance")
+public class InventoryBalance {
+
+    @Id
+    @Column(name = "donation_type", length = 100)
+    @Enumerated(EnumType.STRING)
+    private DonationType donationType;
+
+    // sum of all donations of this type
+    @Column(name = "total_donated", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalDonated = BigDecimal.ZERO;
+
+    // sum of all distributions of this type
+    @Column(name = "total_distributed", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalDistributed = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public InventoryBalance() {
+        // Default constructor required by JPA
+    }
+
+    public InventoryBalance(DonationType donationType, BigDecimal totalDonated, BigDecimal totalDistributed) {
+        this.donationType = donationType;
+        this.totalDonated = totalDonated;
+        this.totalDistributed = totalDistributed;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // current stock = donated - distributed
+    public BigDecimal getCurrentStock() {
+        return totalDonated.subtract(totalDistributed);
+    }
+
+    public DonationType getDonationType() {
+        return donationType;
+    }
+
+    public void setDonationType(DonationType donationType) {
+        this.donationType = donationType;
+    }
+
+    public BigDecimal getTotalDonated() {
+        return totalDonated;
+    }
+
+    public void setTotalDonated(BigDecimal totalDonated) {
+        this.totalDonated = totalDonated;
+    }
+
+    public BigDecimal getTotalDistributed() {
+        return totalDistributed;
+    }
+
+    public void setTotalDistributed(BigDecimal totalDistributed) {
+        this.totalDistributed = totalDistributed;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryBalance{" +
+                "donationType=" + donationType +
+                ", totalDonated=" + totalDonated +
+                ", totalDistributed=" + totalDistributed +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
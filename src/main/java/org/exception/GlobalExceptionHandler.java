@@ -1,15 +1,20 @@
 package org.exception;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterErrors;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 
 @RestControllerAdvice
@@ -36,6 +41,31 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    //validation error on a batch body (List<@Valid ...>) - one entry per failing item field, keyed like "[3].quantity"
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleMethodValidationExceptions(HandlerMethodValidationException ex) {
+        Map<String, String> errors = new TreeMap<>();
+
+        ex.getParameterValidationResults().forEach((result) -> {
+            if (result instanceof ParameterErrors parameterErrors && result.getContainerIndex() != null) {
+                parameterErrors.getFieldErrors().forEach((error) ->
+                        errors.put("[" + result.getContainerIndex() + "]." + error.getField(), error.getDefaultMessage()));
+            } else {
+                result.getResolvableErrors().forEach((error) ->
+                        errors.put(result.getMethodParameter().getParameterName(), error.getDefaultMessage()));
+            }
+        });
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation failed",
+                errors,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     //Run time exception if not found
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException ex) {
@@ -62,6 +92,65 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    //Insufficient stock for a distribution - same 400 as before, with the figures the check saw
+    @ExceptionHandler(InsufficientInventoryException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientInventoryException(InsufficientInventoryException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("donationType", String.valueOf(ex.getCheck().getDonationType()));
+        errors.put("requestedQuantity", String.valueOf(ex.getCheck().getRequestedQuantity()));
+        errors.put("availableQuantity", String.valueOf(ex.getCheck().getAvailableQuantity()));
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                errors,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    //Idempotency-Key reused for a different request - 422, the original response is not replayed
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyConflictException(IdempotencyKeyConflictException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.UNPROCESSABLE_CONTENT.value(),
+                ex.getMessage(),
+                null,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNPROCESSABLE_CONTENT);
+    }
+
+    //Row rejected by a database check (e.g. dated in a detached, archived month) - 400 with the database's reason
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMostSpecificCause().getMessage().lines().findFirst().orElse(""),
+                null,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    //Async intake queue is full (or not accepting yet) - 429, try again in a second
+    @ExceptionHandler(IntakeQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleIntakeQueueFullException(IntakeQueueFullException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                ex.getMessage(),
+                null,
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     // Internal Server Error
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex) {
@@ -0,0 +1,9 @@
+package org.exception;
+
+// thrown when an Idempotency-Key is sent again with a different request body than it was first used with - 422
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String key) {
+        super("Idempotency-Key " + key + " was already used for a different request");
+    }
+}
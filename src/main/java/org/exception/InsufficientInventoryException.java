@@ -0,0 +1,18 @@
+package org.exception;
+
+import org.dto.InventoryCheckResponse;
+
+// thrown when a distribution asks for more than the available stock of its type
+public class InsufficientInventoryException extends IllegalArgumentException {
+
+    private final InventoryCheckResponse check;
+
+    public InsufficientInventoryException(InventoryCheckResponse check) {
+        super("Distribution aborted: provided distribution amount does not align with available funds");
+        this.check = check;
+    }
+
+    public InventoryCheckResponse getCheck() {
+        return check;
+    }
+}
@@ -0,0 +1,9 @@
+package org.exception;
+
+// thrown when the async donation intake can't take another donation right now (queue full, or not started) - 429
+public class IntakeQueueFullException extends RuntimeException {
+
+    public IntakeQueueFullException(String message) {
+        super(message);
+    }
+}
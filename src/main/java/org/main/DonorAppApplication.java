@@ -5,11 +5,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.persistence.autoconfigure.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan(basePackages = "org.entity")
-@ComponentScan(basePackages = {"org.controller", "org.services", "org.dto","org.exception"})
+@ComponentScan(basePackages = {"org.controller", "org.services", "org.dto","org.exception", "org.config"})
 @EnableJpaRepositories(basePackages = "org.repository")
+@EnableScheduling
 public class DonorAppApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,161 @@
+package org.mapper;
+
+import org.dto.DistributionResponse;
+import org.dto.DonationResponse;
+import org.dto.DonorReportDTO;
+import org.dto.PageResponse;
+import org.entity.DonationType;
+import tools.jackson.core.JsonGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Mapper from list pages and the donor report to columnar JSON - one array per field instead of one object
+ * per row. Field names are written once per response instead of once per row, and donation types go out as
+ * codes into a dictionary (the position in DonationType)
+ *
+ *   {"rows": 2,
+ *    "columns": {"id": [7, 6], "donorName": ["A", "B"], "donationType": [0, 2], "quantity": [...], ...},
+ *    "dictionaries": {"donationType": ["FOOD", "CLOTHING", ...]},
+ *    "next": "..."}
+ *
+ * Row i is the i-th value of every column; values are formatted as in the plain JSON responses
+ * Writes straight to the generator - nothing is built per row
+ */
+public class ColumnarMapper {
+
+    /**
+     * One page of donations or distributions (the page's item type picks the columns)
+     * An empty page has no columns
+     */
+    public static void writePage(JsonGenerator generator, PageResponse<?> page) {
+        List<?> items = page.getItems();
+
+        generator.writeStartObject();
+        generator.writeNumberProperty("rows", items.size());
+        generator.writeObjectPropertyStart("columns");
+        if (!items.isEmpty() && items.get(0) instanceof DonationResponse) {
+            writeDonationColumns(generator, cast(items));
+        } else if (!items.isEmpty() && items.get(0) instanceof DistributionResponse) {
+            writeDistributionColumns(generator, cast(items));
+        } else if (!items.isEmpty()) {
+            throw new IllegalArgumentException("No columnar layout for " + items.get(0).getClass().getSimpleName());
+        }
+        generator.writeEndObject();
+        writeDictionaries(generator);
+        generator.writeStringProperty("next", page.getNext());
+        generator.writeEndObject();
+    }
+
+    /**
+     * The donor report, one row per donor - the per-type quantities become one column per donation type
+     * (null where the donor gave nothing of that type)
+     *
+     *   {"totalDonors": 2, "rows": 2,
+     *    "columns": {"donorName": [...], "totalQuantity": [...], "totalValue": [...]},
+     *    "quantityByType": {"FOOD": [12.5, null], "MONEY": [null, 100], ...}}
+     */
+    public static void writeDonorReport(JsonGenerator generator, DonorReportDTO report) {
+        List<DonorReportDTO.DonorContribution> contributions = report.getContributions();
+
+        generator.writeStartObject();
+        generator.writeNumberProperty("totalDonors", report.getTotalDonors());
+        generator.writeNumberProperty("rows", contributions.size());
+        generator.writeObjectPropertyStart("columns");
+        writeColumn(generator, "donorName", contributions, (g, c) -> g.writeString(c.getDonorName()));
+        writeColumn(generator, "totalQuantity", contributions, (g, c) -> g.writeNumber(c.getTotalQuantity()));
+        writeColumn(generator, "totalValue", contributions, (g, c) -> g.writeNumber(c.getTotalValue()));
+        generator.writeEndObject();
+
+        generator.writeObjectPropertyStart("quantityByType");
+        for (DonationType type : DonationType.values()) {
+            writeColumn(generator, type.name(), contributions, (g, c) -> g.writeNumber(quantityOf(c, type)));
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    //helper methods
+
+    private static void writeDonationColumns(JsonGenerator generator, List<DonationResponse> donations) {
+        writeColumn(generator, "id", donations, (g, d) -> writeId(g, d.getId()));
+        writeColumn(generator, "donorName", donations, (g, d) -> g.writeString(d.getDonorName()));
+        writeColumn(generator, "donationType", donations, (g, d) -> writeType(g, d.getDonationType()));
+        writeColumn(generator, "quantity", donations, (g, d) -> g.writeNumber(d.getQuantity()));
+        writeColumn(generator, "donationDate", donations, (g, d) -> writeDate(g, d.getDonationDate()));
+        writeColumn(generator, "createdAt", donations, (g, d) -> writeDateTime(g, d.getCreatedAt()));
+    }
+
+    private static void writeDistributionColumns(JsonGenerator generator, List<DistributionResponse> distributions) {
+        writeColumn(generator, "id", distributions, (g, d) -> writeId(g, d.getId()));
+        writeColumn(generator, "donationType", distributions, (g, d) -> writeType(g, d.getDonationType()));
+        writeColumn(generator, "quantity", distributions, (g, d) -> g.writeNumber(d.getQuantity()));
+        writeColumn(generator, "distributionDate", distributions, (g, d) -> writeDate(g, d.getDistributionDate()));
+        writeColumn(generator, "recipient", distributions, (g, d) -> g.writeString(d.getRecipient()));
+        writeColumn(generator, "createdAt", distributions, (g, d) -> writeDateTime(g, d.getCreatedAt()));
+    }
+
+    // the codes used in the donationType columns
+    private static void writeDictionaries(JsonGenerator generator) {
+        generator.writeObjectPropertyStart("dictionaries");
+        generator.writeArrayPropertyStart("donationType");
+        for (DonationType type : DonationType.values()) {
+            generator.writeString(type.name());
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static <T> void writeColumn(JsonGenerator generator, String name, List<T> rows,
+                                        BiConsumer<JsonGenerator, T> value) {
+        generator.writeArrayPropertyStart(name);
+        for (T row : rows) {
+            value.accept(generator, row);
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeId(JsonGenerator generator, Long id) {
+        if (id == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(id.longValue());
+        }
+    }
+
+    private static void writeType(JsonGenerator generator, DonationType type) {
+        if (type == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(type.ordinal());
+        }
+    }
+
+    private static void writeDate(JsonGenerator generator, LocalDate date) {
+        generator.writeString(date == null ? null : DateTimeFormatter.ISO_LOCAL_DATE.format(date));
+    }
+
+    private static void writeDateTime(JsonGenerator generator, LocalDateTime dateTime) {
+        generator.writeString(dateTime == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime));
+    }
+
+    // a donor has at most one entry per type (one donor_type_totals row each)
+    private static BigDecimal quantityOf(DonorReportDTO.DonorContribution contribution, DonationType type) {
+        for (DonorReportDTO.DonationByType donation : contribution.getDonations()) {
+            if (donation.getDonationType() == type) {
+                return donation.getQuantity();
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> cast(List<?> items) {
+        return (List<T>) items;
+    }
+}
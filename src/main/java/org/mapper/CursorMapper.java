@@ -0,0 +1,71 @@
+package org.mapper;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mapper between opaque page cursors and keyset scroll positions
+ * A cursor is the (date, id) of the last row of a page, base64url encoded, e.g. "2025-12-13|42"
+ * Lists are ordered by (date DESC, id DESC), so the next page is everything strictly after that pair
+ */
+public class CursorMapper {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    // convert a cursor from the client to a scroll position (no cursor = first page)
+    public static ScrollPosition toPosition(String cursor, String dateProperty) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+
+            return toPosition(LocalDate.parse(parts[0]), Long.valueOf(parts[1]), dateProperty);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // scroll position just after the row with this (date, id)
+    public static ScrollPosition toPosition(LocalDate date, Long id, String dateProperty) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(dateProperty, date);
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+
+    // cursor pointing after the last row of the window, or null when there is no next page
+    public static String toCursor(Window<?> window, String dateProperty) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        Map<String, Object> keys = position.getKeys();
+        String raw = keys.get(dateProperty) + "|" + keys.get("id");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // page size requested by the client, 1..MAX_LIMIT
+    public static Limit toLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return Limit.of(limit);
+    }
+}
@@ -0,0 +1,92 @@
+package org.repository;
+
+import org.entity.DailyTypeRollup;
+import org.entity.DonationType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+
+@Repository
+public interface DailyTypeRollupRepository extends JpaRepository<DailyTypeRollup, DailyTypeRollup.Key> {
+
+    /**
+     * Add (or subtract, when negative) quantities and counts to a set of (day, type) rollups in one statement
+     * The arrays are parallel - element i of each belongs to the same row - and must not repeat a (day, type) pair
+     * Creates missing rows, so no separate read is needed
+     * Return => number of rows written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_type_rollup (rollup_date, donation_type, donated, distributed, " +
+            "donation_count, distribution_count, updated_at) " +
+            "SELECT t.rollup_date, t.donation_type, t.donated, t.distributed, t.donation_count, t.distribution_count, now() " +
+            "FROM unnest(CAST(:dates AS date[]), CAST(:donationTypes AS varchar[]), " +
+            "CAST(:donated AS numeric[]), CAST(:distributed AS numeric[]), " +
+            "CAST(:donationCounts AS bigint[]), CAST(:distributionCounts AS bigint[])) " +
+            "AS t(rollup_date, donation_type, donated, distributed, donation_count, distribution_count) " +
+            "ON CONFLICT (rollup_date, donation_type) DO UPDATE " +
+            "SET donated = daily_type_rollup.donated + EXCLUDED.donated, " +
+            "distributed = daily_type_rollup.distributed + EXCLUDED.distributed, " +
+            "donation_count = daily_type_rollup.donation_count + EXCLUDED.donation_count, " +
+            "distribution_count = daily_type_rollup.distribution_count + EXCLUDED.distribution_count, updated_at = now()",
+            nativeQuery = true)
+    int adjustRollups(@Param("dates") LocalDate[] dates,
+                      @Param("donationTypes") String[] donationTypes,
+                      @Param("donated") BigDecimal[] donated,
+                      @Param("distributed") BigDecimal[] distributed,
+                      @Param("donationCounts") Long[] donationCounts,
+                      @Param("distributionCounts") Long[] distributionCounts);
+
+    // Drop a rollup whose last donation and distribution have been deleted
+    @Modifying
+    @Query(value = "DELETE FROM daily_type_rollup WHERE rollup_date = :rollupDate AND donation_type = :donationType " +
+            "AND donation_count <= 0 AND distribution_count <= 0",
+            nativeQuery = true)
+    int deleteIfEmpty(@Param("rollupDate") LocalDate rollupDate, @Param("donationType") String donationType);
+
+    // Rollups of every type between two days (inclusive), oldest first
+    List<DailyTypeRollup> findByRollupDateBetweenOrderByRollupDateAsc(LocalDate from, LocalDate to);
+
+    // Rollups of one type between two days (inclusive), oldest first
+    List<DailyTypeRollup> findByDonationTypeAndRollupDateBetweenOrderByRollupDateAsc(DonationType donationType,
+                                                                                     LocalDate from, LocalDate to);
+
+    // [DonationType, donated, distributed] per type, summed over every day up to and including asOf
+    @Query("SELECT r.donationType, SUM(r.donated), SUM(r.distributed) FROM DailyTypeRollup r " +
+            "WHERE r.rollupDate <= :asOf GROUP BY r.donationType")
+    List<Object[]> getTotalsThrough(@Param("asOf") LocalDate asOf);
+
+    // Block concurrent writes while the rollups are recomputed from source
+    @Modifying
+    @Query(value = "LOCK TABLE daily_type_rollup IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_type_rollup", nativeQuery = true)
+    void deleteAllRollups();
+
+    /**
+     * Recompute every rollup from the donations and distributions tables in one statement
+     * Adds back the rollups of detached months, kept in archived_daily_type_rollup
+     * Return => number of rows written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_type_rollup (rollup_date, donation_type, donated, distributed, " +
+            "donation_count, distribution_count, updated_at) " +
+            "SELECT day, donation_type, SUM(donated), SUM(distributed), SUM(donation_count), SUM(distribution_count), now() " +
+            "FROM (SELECT donation_date AS day, donation_type, SUM(quantity) AS donated, 0 AS distributed, " +
+            "COUNT(*) AS donation_count, 0 AS distribution_count FROM donations GROUP BY donation_date, donation_type " +
+            "UNION ALL SELECT distribution_date, donation_type, 0, SUM(quantity), 0, COUNT(*) " +
+            "FROM distributions GROUP BY distribution_date, donation_type " +
+            "UNION ALL SELECT rollup_date, donation_type, donated, distributed, donation_count, distribution_count " +
+            "FROM archived_daily_type_rollup) t " +
+            "GROUP BY day, donation_type",
+            nativeQuery = true)
+    int insertFromSources();
+}
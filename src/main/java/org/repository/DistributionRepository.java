@@ -1,24 +1,65 @@
 package org.repository;
 
+import jakarta.persistence.QueryHint;
+import org.dto.DistributionResponse;
 import org.entity.Distribution;
 import org.entity.DonationType;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 @Repository
 public interface DistributionRepository extends JpaRepository<Distribution, Long> {
 
-    List<Distribution> findByDonationType(DonationType donationType);
+    // Keyset-paged lists - sort by (distributionDate, id) and pass the position of the last row seen
+    // Read straight into DistributionResponse (a constructor expression over the columns): no managed entities,
+    // no persistence-context snapshots, nothing to map afterwards
 
-    List<Distribution> findByDistributionDateBetween(LocalDate startDate, LocalDate endDate);
+    Window<DistributionResponse> findAllBy(ScrollPosition position, Limit limit, Sort sort);
 
+    Window<DistributionResponse> findByDonationType(DonationType donationType, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<DistributionResponse> findByDistributionDateBetween(LocalDate startDate, LocalDate endDate,
+                                                               ScrollPosition position, Limit limit, Sort sort);
+
+    // recent distributions (distribution date on or after sinceDate)
+    Window<DistributionResponse> findByDistributionDateGreaterThanEqual(LocalDate sinceDate, ScrollPosition position,
+                                                                        Limit limit, Sort sort);
+
+    // one page of search hits by primary key, as responses (any order)
+    List<DistributionResponse> findByIdIn(Collection<Long> ids);
+
+
+    // Full-table read for exports - rows come through a JDBC cursor 1000 at a time instead of all at once
+    // (needs an open transaction; close the stream when done)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Distribution> streamAllByOrderByIdAsc();
+
+    // [id, recipient, distributionDate] of every row that has a recipient - what the recipient search index is built from
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d.id, d.recipient, d.distributionDate FROM Distribution d WHERE d.recipient IS NOT NULL")
+    Stream<Object[]> streamRecipientKeys();
 
     List<Distribution> findByDonationTypeAndDistributionDateBetween(
             DonationType donationType,
@@ -27,10 +68,12 @@ public interface DistributionRepository extends JpaRepository<Distribution, Long
     );
 
 
-    List<Distribution> findByRecipient(String recipient);
+    Window<DistributionResponse> findByRecipient(String recipient, ScrollPosition position, Limit limit, Sort sort);
 
 
-    List<Distribution> findByRecipientContainingIgnoreCase(String recipient);
+    // substring search straight against the table (full scan) - only used until NameSearchIndex is built
+    Window<DistributionResponse> findByRecipientContainingIgnoreCase(String recipient, ScrollPosition position,
+                                                                     Limit limit, Sort sort);
 
     // Custom Queries
 
@@ -59,9 +102,35 @@ public interface DistributionRepository extends JpaRepository<Distribution, Long
     // Count total distributions by type
     long countByDonationType(DonationType donationType);
 
-    // Find recent distributions (last x days)
-    @Query("SELECT d FROM Distribution d WHERE d.distributionDate >= :sinceDate ORDER BY d.distributionDate DESC")
-    List<Distribution> findRecentDistributions(@Param("sinceDate") LocalDate sinceDate);
+    /**
+     * Record a distribution only if the inventory balance covers it - one statement, one round trip
+     * The conditional UPDATE row-locks the balance of this type, so concurrent distributions
+     * queue up behind each other instead of both passing a separate stock check
+     * The id is a plain nextval of distributions_seq: with the pooled optimizer every value v stands for
+     * the block (v-49 .. v], so taking v itself can never collide with ids Hibernate hands out
+     * Return => [available, id] - id is the new distribution on success (available = stock before it),
+     *           null when stock is insufficient (available = current stock); no row if the type has no balance yet
+     */
+    @Query(value = "WITH reserved AS ( " +
+            "    UPDATE inventory_balance " +
+            "    SET total_distributed = total_distributed + :quantity, updated_at = now() " +
+            "    WHERE donation_type = :donationType AND total_donated - total_distributed >= :quantity " +
+            "    RETURNING donation_type, total_donated - total_distributed + :quantity AS available " +
+            "), inserted AS ( " +
+            "    INSERT INTO distributions (id, donation_type, quantity, distribution_date, recipient, created_at) " +
+            "    SELECT nextval('distributions_seq'), donation_type, :quantity, :distributionDate, CAST(:recipient AS varchar), :createdAt FROM reserved " +
+            "    RETURNING id " +
+            ") " +
+            "SELECT r.available, i.id FROM reserved r CROSS JOIN inserted i " +
+            "UNION ALL " +
+            "SELECT b.total_donated - b.total_distributed, NULL FROM inventory_balance b " +
+            "WHERE b.donation_type = :donationType AND NOT EXISTS (SELECT 1 FROM reserved)",
+            nativeQuery = true)
+    List<Object[]> insertIfAvailable(@Param("donationType") String donationType,
+                                     @Param("quantity") BigDecimal quantity,
+                                     @Param("distributionDate") LocalDate distributionDate,
+                                     @Param("recipient") String recipient,
+                                     @Param("createdAt") LocalDateTime createdAt);
 
     // Get all unique recipients
     @Query("SELECT DISTINCT d.recipient FROM Distribution d WHERE d.recipient IS NOT NULL ORDER BY d.recipient")
@@ -1,27 +1,67 @@
 package org.repository;
 
+import jakarta.persistence.QueryHint;
+import org.dto.DonationResponse;
 import org.entity.Donation;
 import org.entity.DonationType;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 @Repository
 public interface DonationRepository extends JpaRepository<Donation, Long> {
 
-    List<Donation> findByDonorName(String donorName);
+    // Keyset-paged lists - sort by (donationDate, id) and pass the position of the last row seen
+    // Read straight into DonationResponse (a constructor expression over the columns): no managed entities,
+    // no persistence-context snapshots, nothing to map afterwards
 
-    List<Donation> findByDonationType(DonationType donationType);
+    Window<DonationResponse> findAllBy(ScrollPosition position, Limit limit, Sort sort);
 
-    List<Donation> findByDonorNameContainingIgnoreCase(String donorName);
+    Window<DonationResponse> findByDonorName(String donorName, ScrollPosition position, Limit limit, Sort sort);
 
-    List<Donation> findByDonationDateBetween(LocalDate startDate, LocalDate endDate);
+    Window<DonationResponse> findByDonationType(DonationType donationType, ScrollPosition position, Limit limit, Sort sort);
+
+    // substring search straight against the table (full scan) - only used until NameSearchIndex is built
+    Window<DonationResponse> findByDonorNameContainingIgnoreCase(String donorName, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<DonationResponse> findByDonationDateBetween(LocalDate startDate, LocalDate endDate,
+                                                       ScrollPosition position, Limit limit, Sort sort);
+
+    // recent donations (donation date on or after sinceDate)
+    Window<DonationResponse> findByDonationDateGreaterThanEqual(LocalDate sinceDate, ScrollPosition position, Limit limit, Sort sort);
+
+    // one page of search hits by primary key, as responses (any order)
+    List<DonationResponse> findByIdIn(Collection<Long> ids);
+
+    // Full-table read for exports - rows come through a JDBC cursor 1000 at a time instead of all at once
+    // (needs an open transaction; close the stream when done)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Donation> streamAllByOrderByIdAsc();
+
+    // [id, donorName, donationDate] of every row - what the donor search index is built from
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d.id, d.donorName, d.donationDate FROM Donation d")
+    Stream<Object[]> streamDonorKeys();
 
     List<Donation> findByDonationTypeAndDonationDateBetween(
             DonationType donationType,
@@ -59,8 +99,4 @@ public interface DonationRepository extends JpaRepository<Donation, Long> {
 
     //Count total donations by type
     long countByDonationType(DonationType donationType);
-
-    // Find recent donations (last x days)
-    @Query("SELECT d FROM Donation d WHERE d.donationDate >= :sinceDate ORDER BY d.donationDate DESC")
-    List<Donation> findRecentDonations(@Param("sinceDate") LocalDate sinceDate);
 }
@@ -0,0 +1,79 @@
+package org.repository;
+
+import org.entity.DonorTypeTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+
+@Repository
+public interface DonorTypeTotalRepository extends JpaRepository<DonorTypeTotal, DonorTypeTotal.Key> {
+
+    /**
+     * Add (or subtract, when negative) quantities and counts to a set of (donor, type) totals in one statement
+     * The arrays are parallel - element i of each belongs to the same row - and must not repeat a (donor, type) pair
+     * Creates missing rows, so no separate read is needed
+     * Return => number of rows written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO donor_type_totals (donor_name, donation_type, total_quantity, donation_count, updated_at) " +
+            "SELECT t.donor_name, t.donation_type, t.delta, t.count_delta, now() " +
+            "FROM unnest(CAST(:donorNames AS varchar[]), CAST(:donationTypes AS varchar[]), " +
+            "CAST(:deltas AS numeric[]), CAST(:countDeltas AS bigint[])) " +
+            "AS t(donor_name, donation_type, delta, count_delta) " +
+            "ON CONFLICT (donor_name, donation_type) DO UPDATE " +
+            "SET total_quantity = donor_type_totals.total_quantity + EXCLUDED.total_quantity, " +
+            "donation_count = donor_type_totals.donation_count + EXCLUDED.donation_count, updated_at = now()",
+            nativeQuery = true)
+    int adjustTotals(@Param("donorNames") String[] donorNames,
+                     @Param("donationTypes") String[] donationTypes,
+                     @Param("deltas") BigDecimal[] deltas,
+                     @Param("countDeltas") Long[] countDeltas);
+
+    // Drop a total whose last donation has been deleted, so the donor leaves the report
+    @Modifying
+    @Query(value = "DELETE FROM donor_type_totals " +
+            "WHERE donor_name = :donorName AND donation_type = :donationType AND donation_count <= 0",
+            nativeQuery = true)
+    int deleteIfEmpty(@Param("donorName") String donorName, @Param("donationType") String donationType);
+
+    // Every total, in donor report order
+    List<DonorTypeTotal> findAllByOrderByDonorNameAscDonationTypeAsc();
+
+    //Get total quantity donated by a specific donor (sum of at most one row per type)
+    @Query("SELECT SUM(t.totalQuantity) FROM DonorTypeTotal t WHERE t.donorName = :donorName")
+    BigDecimal getTotalQuantityByDonor(@Param("donorName") String donorName);
+
+    // Block concurrent writes while the totals are recomputed from source
+    @Modifying
+    @Query(value = "LOCK TABLE donor_type_totals IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM donor_type_totals", nativeQuery = true)
+    void deleteAllTotals();
+
+    /**
+     * Recompute every total from the donations table in one statement (nothing comes back to the app)
+     * Adds back the totals of detached months, kept in archived_donor_type_totals
+     * Return => number of rows written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO donor_type_totals (donor_name, donation_type, total_quantity, donation_count, updated_at) " +
+            "SELECT donor_name, donation_type, SUM(total_quantity), SUM(donation_count), now() " +
+            "FROM (SELECT donor_name, donation_type, SUM(quantity) AS total_quantity, COUNT(*) AS donation_count " +
+            "FROM donations GROUP BY donor_name, donation_type " +
+            "UNION ALL SELECT donor_name, donation_type, total_quantity, donation_count FROM archived_donor_type_totals) t " +
+            "GROUP BY donor_name, donation_type",
+            nativeQuery = true)
+    int insertFromDonations();
+
+    // Whether any detached month left totals behind (a seed is due even with no donations left)
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM archived_donor_type_totals)", nativeQuery = true)
+    boolean hasArchivedTotals();
+}
@@ -0,0 +1,58 @@
+package org.repository;
+
+import org.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    /**
+     * Claim a key before running its write - the response is filled in by storeResponse once the write is done
+     * An expired row under the same key is taken over
+     * While another transaction holds the key uncommitted, this waits for it to finish
+     * Return => 1 if the key is now this request's, 0 if a live one already has it
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (scope, idempotency_key, request_hash, response_body, created_at) " +
+            "VALUES (:scope, :idempotencyKey, :requestHash, '', :createdAt) " +
+            "ON CONFLICT (scope, idempotency_key) DO UPDATE " +
+            "SET request_hash = EXCLUDED.request_hash, response_body = EXCLUDED.response_body, created_at = EXCLUDED.created_at " +
+            "WHERE idempotency_keys.created_at < :expiredBefore",
+            nativeQuery = true)
+    int claim(@Param("scope") String scope,
+              @Param("idempotencyKey") String idempotencyKey,
+              @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt,
+              @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    // the response of a key claimed earlier in this transaction
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseBody = :responseBody " +
+            "WHERE r.scope = :scope AND r.idempotencyKey = :idempotencyKey")
+    int storeResponse(@Param("scope") String scope,
+                      @Param("idempotencyKey") String idempotencyKey,
+                      @Param("responseBody") String responseBody);
+
+    // the live (not yet expired) response stored under a key
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.scope = :scope AND r.idempotencyKey = :idempotencyKey " +
+            "AND r.createdAt >= :expiredBefore")
+    Optional<IdempotencyRecord> findLive(@Param("scope") String scope,
+                                         @Param("idempotencyKey") String idempotencyKey,
+                                         @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    /**
+     * Drop keys older than the cutoff
+     * Return => number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :expiredBefore")
+    int deleteExpired(@Param("expiredBefore") LocalDateTime expiredBefore);
+}
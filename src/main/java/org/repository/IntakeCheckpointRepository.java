@@ -0,0 +1,25 @@
+package org.repository;
+
+import org.entity.IntakeCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+
+@Repository
+public interface IntakeCheckpointRepository extends JpaRepository<IntakeCheckpoint, String> {
+
+    /**
+     * Record how far a journal has been committed - runs in the transaction that saved those entries
+     * Return => number of rows written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO intake_checkpoint (journal, journal_offset, updated_at) " +
+            "VALUES (:journal, :journalOffset, now()) " +
+            "ON CONFLICT (journal) DO UPDATE " +
+            "SET journal_offset = EXCLUDED.journal_offset, updated_at = now()",
+            nativeQuery = true)
+    int saveOffset(@Param("journal") String journal, @Param("journalOffset") long journalOffset);
+}
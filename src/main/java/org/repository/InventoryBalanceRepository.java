@@ -0,0 +1,64 @@
+package org.repository;
+
+import org.entity.DonationType;
+import org.entity.InventoryBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+
+@Repository
+public interface InventoryBalanceRepository extends JpaRepository<InventoryBalance, DonationType> {
+
+    /**
+     * Add (or subtract, when negative) a quantity to the donated total of a type
+     * Creates the row on first use, so no separate read is needed
+     * Return => number of rows written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO inventory_balance (donation_type, total_donated, total_distributed, updated_at) " +
+            "VALUES (:donationType, :delta, 0, now()) " +
+            "ON CONFLICT (donation_type) DO UPDATE " +
+            "SET total_donated = inventory_balance.total_donated + EXCLUDED.total_donated, updated_at = now()",
+            nativeQuery = true)
+    int adjustDonated(@Param("donationType") String donationType, @Param("delta") BigDecimal delta);
+
+    /**
+     * Add (or subtract, when negative) a quantity to the distributed total of a type
+     * Return => number of rows written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO inventory_balance (donation_type, total_donated, total_distributed, updated_at) " +
+            "VALUES (:donationType, 0, :delta, now()) " +
+            "ON CONFLICT (donation_type) DO UPDATE " +
+            "SET total_distributed = inventory_balance.total_distributed + EXCLUDED.total_distributed, updated_at = now()",
+            nativeQuery = true)
+    int adjustDistributed(@Param("donationType") String donationType, @Param("delta") BigDecimal delta);
+
+    /**
+     * Add a quantity to the distributed total of a type, but only if the remaining stock covers it
+     * The row lock taken here is held until commit, so concurrent distributions of the type wait their turn
+     * Return => 1 if reserved, 0 if stock is insufficient (or the type has no balance yet)
+     */
+    @Modifying
+    @Query(value = "UPDATE inventory_balance " +
+            "SET total_distributed = total_distributed + :quantity, updated_at = now() " +
+            "WHERE donation_type = :donationType AND total_donated - total_distributed >= :quantity",
+            nativeQuery = true)
+    int reserveDistributed(@Param("donationType") String donationType, @Param("quantity") BigDecimal quantity);
+
+    // Block concurrent ledger writes while the balances are recomputed from source
+    @Modifying
+    @Query(value = "LOCK TABLE inventory_balance IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    // [type name, donated, distributed] per type over the detached months (V8), which the sources no longer hold
+    @Query(value = "SELECT donation_type, SUM(donated), SUM(distributed) FROM archived_daily_type_rollup " +
+            "GROUP BY donation_type", nativeQuery = true)
+    List<Object[]> getArchivedTotals();
+}
@@ -0,0 +1,221 @@
+package org.services;
+
+import io.micrometer.core.annotation.Timed;
+import org.dto.TimeseriesDTO;
+import org.entity.DailyTypeRollup;
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.entity.DonationType;
+import org.repository.DailyTypeRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the daily_type_rollup table (one row per day and donation type) behind the time-series report
+ * Every donation/distribution write calls into here inside its own transaction, so the rollups always
+ * commit or roll back together with the rows that changed them
+ * A chart reads at most one small row per day and type, whatever the number of donations behind it
+ * Every change is also handed to StockHistory (inventory as of a past date)
+ */
+@Service
+@Timed(value = "service.method", histogram = true)
+@Transactional
+public class DailyRollupService {
+
+    // 10 years of days - bounds the response size
+    static final int MAX_POINTS = 3660;
+
+    private final DailyTypeRollupRepository dailyTypeRollupRepository;
+    private final StockHistory stockHistory;
+    private final DataVersion dataVersion;
+
+    @Autowired
+    public DailyRollupService(DailyTypeRollupRepository dailyTypeRollupRepository, StockHistory stockHistory,
+                              DataVersion dataVersion) {
+        this.dailyTypeRollupRepository = dailyTypeRollupRepository;
+        this.stockHistory = stockHistory;
+        this.dataVersion = dataVersion;
+    }
+
+    // Add saved donations to their days - merged per (day, type) and written with a single statement
+    public void recordDonations(List<Donation> donations) {
+        Map<DailyTypeRollup.Key, DailyTypeRollup> deltas = new LinkedHashMap<>();
+        for (Donation donation : donations) {
+            DailyTypeRollup delta = delta(deltas, donation.getDonationDate(), donation.getDonationType());
+            delta.setDonated(delta.getDonated().add(donation.getQuantity()));
+            delta.setDonationCount(delta.getDonationCount() + 1);
+        }
+        adjust(List.copyOf(deltas.values()));
+    }
+
+    // Add saved distributions to their days - merged per (day, type) and written with a single statement
+    public void recordDistributions(List<Distribution> distributions) {
+        Map<DailyTypeRollup.Key, DailyTypeRollup> deltas = new LinkedHashMap<>();
+        for (Distribution distribution : distributions) {
+            DailyTypeRollup delta = delta(deltas, distribution.getDistributionDate(), distribution.getDonationType());
+            delta.setDistributed(delta.getDistributed().add(distribution.getQuantity()));
+            delta.setDistributionCount(delta.getDistributionCount() + 1);
+        }
+        adjust(List.copyOf(deltas.values()));
+    }
+
+    // Take a deleted donation back out of its day; a day left with nothing is removed
+    public void reverseDonation(Donation donation) {
+        adjust(List.of(new DailyTypeRollup(donation.getDonationDate(), donation.getDonationType(),
+                donation.getQuantity().negate(), BigDecimal.ZERO, -1, 0)));
+        dailyTypeRollupRepository.deleteIfEmpty(donation.getDonationDate(), donation.getDonationType().name());
+    }
+
+    // Take a deleted distribution back out of its day; a day left with nothing is removed
+    public void reverseDistribution(Distribution distribution) {
+        adjust(List.of(new DailyTypeRollup(distribution.getDistributionDate(), distribution.getDonationType(),
+                BigDecimal.ZERO, distribution.getQuantity().negate(), 0, -1)));
+        dailyTypeRollupRepository.deleteIfEmpty(distribution.getDistributionDate(), distribution.getDonationType().name());
+    }
+
+    /**
+     * Inflow and outflow per donation type between two days (inclusive)
+     * Each series has one point per period of the range, zero where nothing was recorded; the first and
+     * last periods only count the days inside the range
+     * @param granularity - day, week (from Monday) or month
+     * @param type - one donation type, or null for a series per type
+     * return => the series, oldest point first
+     */
+    @Transactional(readOnly = true)
+    public TimeseriesDTO getTimeseries(TimeseriesDTO.Granularity granularity, LocalDate from, LocalDate to,
+                                       DonationType type) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        LocalDate first = periodStart(granularity, from);
+        long periods = periodIndex(granularity, first, to) + 1;
+        if (periods > MAX_POINTS) {
+            throw new IllegalArgumentException("Range too long: " + periods + " points, at most " + MAX_POINTS);
+        }
+
+        List<DailyTypeRollup> rollups = type == null
+                ? dailyTypeRollupRepository.findByRollupDateBetweenOrderByRollupDateAsc(from, to)
+                : dailyTypeRollupRepository.findByDonationTypeAndRollupDateBetweenOrderByRollupDateAsc(type, from, to);
+
+        // one zero-filled point per period, per type
+        Map<DonationType, List<TimeseriesDTO.Point>> pointsByType = new EnumMap<>(DonationType.class);
+        for (DonationType seriesType : type == null ? DonationType.values() : new DonationType[] { type }) {
+            List<TimeseriesDTO.Point> points = new ArrayList<>((int) periods);
+            for (LocalDate start = first; !start.isAfter(to); start = nextPeriod(granularity, start)) {
+                points.add(new TimeseriesDTO.Point(start, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0));
+            }
+            pointsByType.put(seriesType, points);
+        }
+
+        for (DailyTypeRollup rollup : rollups) {
+            TimeseriesDTO.Point point = pointsByType.get(rollup.getDonationType())
+                    .get((int) periodIndex(granularity, first, rollup.getRollupDate()));
+            point.setDonated(point.getDonated().add(rollup.getDonated()));
+            point.setDistributed(point.getDistributed().add(rollup.getDistributed()));
+            point.setDonationCount(point.getDonationCount() + rollup.getDonationCount());
+            point.setDistributionCount(point.getDistributionCount() + rollup.getDistributionCount());
+        }
+
+        TimeseriesDTO timeseries = new TimeseriesDTO(granularity, from, to);
+        pointsByType.forEach((seriesType, points) -> timeseries.getSeries().add(new TimeseriesDTO.Series(seriesType, points)));
+        return timeseries;
+    }
+
+    /**
+     * Recompute every rollup from the donations and distributions tables, plus the archived rollups of detached months
+     * The rollup table is locked first so no write can slip in between the delete and the insert
+     * return => number of (day, type) rows rebuilt
+     */
+    public int rebuild() {
+        dailyTypeRollupRepository.lockForRebuild();
+        dailyTypeRollupRepository.deleteAllRollups();
+        int rows = dailyTypeRollupRepository.insertFromSources();
+        stockHistory.reloadAfterCommit();
+        dataVersion.changed();
+        return rows;
+    }
+
+    /**
+     * Seed the rollup table on start when it is empty but the rows behind it may not be
+     * (after a bulk load that left the derived tables empty, e.g. the benchmarks' DataGenerator)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        if (dailyTypeRollupRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    //helper methods
+
+    private DailyTypeRollup delta(Map<DailyTypeRollup.Key, DailyTypeRollup> deltas, LocalDate date, DonationType type) {
+        return deltas.computeIfAbsent(new DailyTypeRollup.Key(date, type),
+                k -> new DailyTypeRollup(date, type, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0));
+    }
+
+    // one upsert for the lot, the rows' quantities/counts used as deltas
+    private void adjust(List<DailyTypeRollup> deltas) {
+        int size = deltas.size();
+        if (size == 0) {
+            return;
+        }
+        LocalDate[] dates = new LocalDate[size];
+        String[] donationTypes = new String[size];
+        BigDecimal[] donated = new BigDecimal[size];
+        BigDecimal[] distributed = new BigDecimal[size];
+        Long[] donationCounts = new Long[size];
+        Long[] distributionCounts = new Long[size];
+
+        for (int i = 0; i < size; i++) {
+            DailyTypeRollup delta = deltas.get(i);
+            dates[i] = delta.getRollupDate();
+            donationTypes[i] = delta.getDonationType().name();
+            donated[i] = delta.getDonated();
+            distributed[i] = delta.getDistributed();
+            donationCounts[i] = delta.getDonationCount();
+            distributionCounts[i] = delta.getDistributionCount();
+        }
+
+        dailyTypeRollupRepository.adjustRollups(dates, donationTypes, donated, distributed, donationCounts, distributionCounts);
+        stockHistory.adjust(deltas);
+    }
+
+    private static LocalDate periodStart(TimeseriesDTO.Granularity granularity, LocalDate date) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate nextPeriod(TimeseriesDTO.Granularity granularity, LocalDate start) {
+        return switch (granularity) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+
+    // position of the period holding the date, counted from the first period of the range
+    private static long periodIndex(TimeseriesDTO.Granularity granularity, LocalDate first, LocalDate date) {
+        return switch (granularity) {
+            case DAY -> ChronoUnit.DAYS.between(first, date);
+            case WEEK -> ChronoUnit.WEEKS.between(first, periodStart(granularity, date));
+            case MONTH -> ChronoUnit.MONTHS.between(first, periodStart(granularity, date));
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package org.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Version of the data behind the report and list endpoints - moves on every committed write
+ * (donations, distributions, rebuilds). DataVersionEtagFilter turns it into their ETag, so a poller that
+ * already has the current answer gets a 304 without a query being run or a DTO being built.
+ * Writes call changed() last, after the in-memory structures (InventoryCache, StockHistory, NameSearchIndex)
+ * have registered their own after-commit work; synchronizations run in registration order, so by the time the
+ * version moves those already serve the new data, and a response tagged with the new version can't carry the old.
+ * Hand edits to the tables don't move it.
+ * With reads allowed to lag on a replica (ReplicaLagMonitor, replica.max-lag), an answer can be older than the
+ * version; isSettled() tells when it can't.
+ */
+@Component
+public class DataVersion {
+
+    // differs between runs, so a tag handed out before a restart never matches after it
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong version = new AtomicLong();
+    // version a lagging replica is known to hold; null = every read sees the current one
+    private volatile LongSupplier replicaVersion;
+
+    // The current transaction changes the data: move the version once it has committed (straight away outside one)
+    public void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    version.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Reads may be answered from a copy that only holds the data up to the supplied version
+    public void setReplicaVersion(LongSupplier replicaVersion) {
+        this.replicaVersion = replicaVersion;
+    }
+
+    /**
+     * Whether every read, wherever it is answered from, sees at least the current version
+     * return => false while a replica that reads may go to is behind
+     */
+    public boolean isSettled() {
+        LongSupplier replica = replicaVersion;
+        return replica == null || replica.getAsLong() >= version.get();
+    }
+
+    /**
+     * ETag for whatever the endpoints return right now
+     * Weak (W/), so Tomcat still gzips the answer - it leaves strong-tagged responses uncompressed;
+     * If-None-Match compares weakly anyway
+     * Includes the date, since some answers (the /recent lists) move on at midnight without a write
+     * return => tag, e.g. W/"lq2x0k1c-42-20379"
+     */
+    public String etag() {
+        return etag(null);
+    }
+
+    // same, for one of several encodings of an answer (e.g. "columnar"); null = the plain one
+    public String etag(String variant) {
+        String tag = epoch + "-" + version.get() + "-" + LocalDate.now().toEpochDay();
+        return "W/\"" + (variant == null ? tag : tag + "-" + variant) + "\"";
+    }
+}
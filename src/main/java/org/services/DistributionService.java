@@ -1,37 +1,69 @@
 package org.services;
 
+import io.micrometer.core.annotation.Timed;
 import org.dto.InventoryCheckResponse;
+import org.dto.PageResponse;
 import org.entity.Distribution;
 import org.entity.DonationType;
+import org.exception.InsufficientInventoryException;
+import org.mapper.CursorMapper;
 import org.mapper.DistributionMapper;
 import org.repository.DistributionRepository;
 import org.dto.DistributionResponse;
 import org.dto.DistributionRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 //service layer for Distribution operations
 @Service
+@Timed(value = "service.method", histogram = true)
 @Transactional
 public class DistributionService {
 
+    // newest first; id breaks ties so every row has a unique keyset position
+    private static final String DATE_PROPERTY = "distributionDate";
+    private static final Sort PAGE_ORDER = Sort.by(Sort.Direction.DESC, DATE_PROPERTY, "id");
+
     private final DistributionRepository distributionRepository;
-    private final ReportService reportService;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final DailyRollupService dailyRollupService;
+    private final NameSearchIndex nameSearchIndex;
+    private final InventoryMetrics inventoryMetrics;
+    private final DataVersion dataVersion;
 
     @Autowired
-    public DistributionService(DistributionRepository distributionRepository, ReportService reportService) {
+    public DistributionService(DistributionRepository distributionRepository,
+                               InventoryLedgerService inventoryLedgerService,
+                               DailyRollupService dailyRollupService,
+                               NameSearchIndex nameSearchIndex,
+                               InventoryMetrics inventoryMetrics,
+                               DataVersion dataVersion) {
         this.distributionRepository = distributionRepository;
-        this.reportService = reportService;
+        this.inventoryLedgerService = inventoryLedgerService;
+        this.dailyRollupService = dailyRollupService;
+        this.nameSearchIndex = nameSearchIndex;
+        this.inventoryMetrics = inventoryMetrics;
+        this.dataVersion = dataVersion;
     }
 
     /**
      * Record a new distribution
+     * Stock check, balance update and insert happen in a single statement (see insertIfAvailable),
+     * so two concurrent requests can never both take the last of a type
      * @param request - distribution details
      * return => saved distribution response
      */
@@ -39,35 +71,82 @@ public class DistributionService {
 
         // Convert DTO to Entity
         Distribution distribution = DistributionMapper.toEntity(request);
+        distribution.setCreatedAt(LocalDateTime.now());
 
-        // validate before saving the entry
-        InventoryCheckResponse validation = reportService.checkInventory(distribution.getDonationType(), distribution.getQuantity());
+        // check stock and save in one round trip
+        List<Object[]> result = distributionRepository.insertIfAvailable(
+                distribution.getDonationType().name(),
+                distribution.getQuantity(),
+                distribution.getDistributionDate(),
+                distribution.getRecipient(),
+                distribution.getCreatedAt()
+        );
 
-        if (!validation.isSufficient()) {
-            throw new IllegalArgumentException(
-                    "Distribution aborted: provided distribution amount does not align with available funds"
+        Object[] row = result.isEmpty() ? null : result.get(0);
+        if (row == null || row[1] == null) {
+            BigDecimal available = row == null ? BigDecimal.ZERO : (BigDecimal) row[0];
+            inventoryMetrics.distributionRejected(distribution.getDonationType(), InventoryMetrics.SOURCE_RECORD);
+            throw new InsufficientInventoryException(
+                    insufficient(distribution.getDonationType(), distribution.getQuantity(), available)
             );
         }
 
-        // Save to database
-        Distribution savedDistribution = distributionRepository.save(distribution);
+        distribution.setId(((Number) row[1]).longValue());
+        inventoryLedgerService.recordDistribution(distribution);
+        dailyRollupService.recordDistributions(List.of(distribution));
+        nameSearchIndex.distributionsSaved(List.of(distribution));
+        inventoryMetrics.distributionsRecorded(distribution.getDonationType(), 1);
+        dataVersion.changed();
 
         // Convert Entity to Response DTO
-        return DistributionMapper.toResponse(savedDistribution);
+        return DistributionMapper.toResponse(distribution);
     }
 
     /**
-     * Get all distributions
-     * return => list of all distributions
+     * Record a batch of distributions in one transaction (used by the CSV import)
+     * Stock is reserved per type for the whole batch, then the rows go out as JDBC batches;
+     * if any type is short, nothing in the batch is saved
+     * @param requests - distribution details, already validated
+     * return => saved distribution responses, in request order
      */
-    @Transactional(readOnly = true)
-    public List<DistributionResponse> getAllDistributions() {
-        return distributionRepository.findAll()
-                .stream()
+    public List<DistributionResponse> recordDistributions(List<DistributionRequest> requests) {
+        List<Distribution> distributions = requests.stream()
+                .map(DistributionMapper::toEntity)
+                .collect(Collectors.toList());
+
+        // throws InsufficientInventoryException (and rolls back) when a type is short
+        try {
+            inventoryLedgerService.reserveDistributions(distributions);
+        } catch (InsufficientInventoryException e) {
+            inventoryMetrics.distributionRejected(e.getCheck().getDonationType(), InventoryMetrics.SOURCE_RECORD);
+            throw e;
+        }
+
+        List<Distribution> savedDistributions = distributionRepository.saveAll(distributions);
+        dailyRollupService.recordDistributions(savedDistributions);
+        nameSearchIndex.distributionsSaved(savedDistributions);
+        savedDistributions.stream()
+                .collect(Collectors.groupingBy(Distribution::getDonationType, Collectors.counting()))
+                .forEach(inventoryMetrics::distributionsRecorded);
+        dataVersion.changed();
+
+        return savedDistributions.stream()
                 .map(DistributionMapper::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get all distributions, one page at a time
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of distributions, newest first
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<DistributionResponse> getAllDistributions(String cursor, int limit) {
+        return toPage(distributionRepository.findAllBy(
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
+    }
+
     /**
      * Get distribution by ID
      * @param id - distribution ID
@@ -83,54 +162,73 @@ public class DistributionService {
     /**
      * Get all distributions by type
      * @param donationType - type of donation
-     * return => list of distributions of this type
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of distributions of this type
      */
     @Transactional(readOnly = true)
-    public List<DistributionResponse> getDistributionsByType(DonationType donationType) {
-        return distributionRepository.findByDonationType(donationType)
-                .stream()
-                .map(DistributionMapper::toResponse)
-                .collect(Collectors.toList());
+    public PageResponse<DistributionResponse> getDistributionsByType(DonationType donationType, String cursor, int limit) {
+        return toPage(distributionRepository.findByDonationType(donationType,
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
     }
 
     /**
      * Get distributions within a date range
      * @param startDate - start date
      * @param endDate - end date
-     * return => list of distributions in date range
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of distributions in date range
      */
     @Transactional(readOnly = true)
-    public List<DistributionResponse> getDistributionsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return distributionRepository.findByDistributionDateBetween(startDate, endDate)
-                .stream()
-                .map(DistributionMapper::toResponse)
-                .collect(Collectors.toList());
+    public PageResponse<DistributionResponse> getDistributionsByDateRange(LocalDate startDate, LocalDate endDate,
+                                                                          String cursor, int limit) {
+        return toPage(distributionRepository.findByDistributionDateBetween(startDate, endDate,
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
     }
 
     /**
      * Get distributions by recipient
      * @param recipient - recipient name
-     * return = > list of distributions to this recipient
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return = > page of distributions to this recipient
      */
     @Transactional(readOnly = true)
-    public List<DistributionResponse> getDistributionsByRecipient(String recipient) {
-        return distributionRepository.findByRecipient(recipient)
-                .stream()
-                .map(DistributionMapper::toResponse)
-                .collect(Collectors.toList());
+    public PageResponse<DistributionResponse> getDistributionsByRecipient(String recipient, String cursor, int limit) {
+        return toPage(distributionRepository.findByRecipient(recipient,
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
     }
 
     /**
      * Search distributions by recipient (partial match)
+     * Matching ids come from the in-memory name index; only the page itself is read from the table
      * @param searchTerm - search term
-     * return => list of matching distributions
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of matching distributions
      */
     @Transactional(readOnly = true)
-    public List<DistributionResponse> searchDistributionsByRecipient(String searchTerm) {
-        return distributionRepository.findByRecipientContainingIgnoreCase(searchTerm)
-                .stream()
-                .map(DistributionMapper::toResponse)
+    public PageResponse<DistributionResponse> searchDistributionsByRecipient(String searchTerm, String cursor, int limit) {
+        ScrollPosition position = CursorMapper.toPosition(cursor, DATE_PROPERTY);
+        Limit pageLimit = CursorMapper.toLimit(limit);
+
+        TrigramIndex.Page page = nameSearchIndex.searchRecipients(searchTerm, position, DATE_PROPERTY, limit);
+        if (page == null) {
+            // index still building
+            return toPage(distributionRepository.findByRecipientContainingIgnoreCase(searchTerm, position, pageLimit, PAGE_ORDER));
+        }
+
+        // primary-key lookup, put back in index order
+        Map<Long, DistributionResponse> byId = distributionRepository.findByIdIn(page.getIds()).stream()
+                .collect(Collectors.toMap(DistributionResponse::getId, Function.identity()));
+        List<DistributionResponse> distributions = page.getIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return toPage(Window.from(distributions,
+                i -> CursorMapper.toPosition(distributions.get(i).getDistributionDate(), distributions.get(i).getId(), DATE_PROPERTY),
+                page.hasNext()));
     }
 
     /**
@@ -156,15 +254,15 @@ public class DistributionService {
     /**
      * Get recent distributions (last N days)
      * @param days - number of days to look back
-     * return => list of recent distributions
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of recent distributions
      */
     @Transactional(readOnly = true)
-    public List<DistributionResponse> getRecentDistributions(int days) {
+    public PageResponse<DistributionResponse> getRecentDistributions(int days, String cursor, int limit) {
         LocalDate sinceDate = LocalDate.now().minusDays(days);
-        return distributionRepository.findRecentDistributions(sinceDate)
-                .stream()
-                .map(DistributionMapper::toResponse)
-                .collect(Collectors.toList());
+        return toPage(distributionRepository.findByDistributionDateGreaterThanEqual(sinceDate,
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
     }
 
     /**
@@ -172,10 +270,15 @@ public class DistributionService {
      * @param id - distribution ID
      */
     public void deleteDistribution(Long id) {
-        if (!distributionRepository.existsById(id)) {
-            throw new RuntimeException("Distribution not found with id: " + id);
-        }
-        distributionRepository.deleteById(id);
+        Distribution distribution = distributionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Distribution not found with id: " + id));
+        distributionRepository.delete(distribution);
+
+        // Put the quantity back into the inventory balance
+        inventoryLedgerService.reverseDistribution(distribution);
+        dailyRollupService.reverseDistribution(distribution);
+        nameSearchIndex.distributionDeleted(distribution);
+        dataVersion.changed();
     }
 
     /**
@@ -186,4 +289,21 @@ public class DistributionService {
     public long getTotalDistributionCount() {
         return distributionRepository.count();
     }
+
+    //helper methods
+
+    // window of responses to a page plus the cursor for the next page
+    private PageResponse<DistributionResponse> toPage(Window<DistributionResponse> window) {
+        return new PageResponse<>(window.getContent(), CursorMapper.toCursor(window, DATE_PROPERTY));
+    }
+
+    // inventory check result for a rejected distribution
+    private InventoryCheckResponse insufficient(DonationType type, BigDecimal requestedQty, BigDecimal available) {
+        InventoryCheckResponse check = new InventoryCheckResponse();
+        check.setDonationType(type);
+        check.setRequestedQuantity(requestedQty);
+        check.setAvailableQuantity(available);
+        check.setSufficient(false);
+        return check;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,518 @@
+package org.services;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.config.DataSourceRouting;
+import org.dto.DonationRequest;
+import org.dto.DonationResponse;
+import org.dto.IntakeReceiptResponse;
+import org.dto.IntakeStatusResponse;
+import org.entity.IntakeCheckpoint;
+import org.exception.IntakeQueueFullException;
+import org.repository.IntakeCheckpointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind donation intake for drives (async-intake profile) - scanning stations post one donation at a time
+ * faster than one transaction per donation can keep up with
+ * A donation is written to a journal file and fsynced (submitters arriving together share one fsync), then
+ * acknowledged with a receipt id; it is durable from then on, but not yet in the database. One writer thread
+ * drains the queue in groups of up to intake.batch-size donations, waiting at most intake.max-delay for a group
+ * to fill, and commits each group in one transaction through DonationService.registerDonations - together with
+ * the intake checkpoint, so after a crash exactly the uncommitted rest of the journal is replayed.
+ *   - queue full (intake.queue-capacity waiting donations): 429 with Retry-After, nothing journaled
+ *   - database unavailable: the group is retried every intake.retry-backoff, the queue fills up meanwhile
+ *   - a group the database rejects is retried a donation at a time; a donation that still fails is marked FAILED
+ *   - anything else (e.g. the checkpoint can't be saved): the writer stops and no more donations are accepted,
+ *     so no later group can move the checkpoint past the unfinished ones; they stay QUEUED until the next start
+ * Receipts: GET /api/donations/intake/{receiptId} (QUEUED, COMMITTED with the donation id, or FAILED)
+ * Gauge intake.queue.depth, counters intake.donations{outcome=accepted|committed|failed|rejected}
+ */
+@Service
+@Timed(value = "service.method", histogram = true)
+@ConditionalOnProperty(name = "intake.async.enabled", havingValue = "true")
+public class DonationIntakeService {
+
+    public enum Status { QUEUED, COMMITTED, FAILED }
+
+    // receipts kept for polling; the oldest one is dropped past this once it has finished
+    private static final int MAX_RECEIPTS = 100_000;
+
+    // a committed journal is emptied once it has grown past this and the writer has caught up
+    private static final long COMPACT_AFTER_BYTES = 4L * 1024 * 1024;
+
+    private final DonationService donationService;
+    private final IntakeCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transaction;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final Path journalFile;
+    private final String journalName;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final Duration retryBackoff;
+
+    // journal order = queue order: both are only appended to under appendLock
+    private final Object appendLock = new Object();
+    private final BlockingQueue<PendingDonation> queue = new LinkedBlockingQueue<>();
+    private volatile IntakeJournal journal;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong groupsCommitted = new AtomicLong();
+    private volatile String lastError;
+
+    private final Map<String, Receipt> receipts = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Receipt> eldest) {
+            return size() > MAX_RECEIPTS && eldest.getValue().status != Status.QUEUED;
+        }
+    });
+
+    @Autowired
+    public DonationIntakeService(DonationService donationService,
+                                 IntakeCheckpointRepository checkpointRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${intake.journal-file:intake/donations.journal}") Path journalFile,
+                                 @Value("${intake.queue-capacity:10000}") int capacity,
+                                 @Value("${intake.batch-size:500}") int batchSize,
+                                 @Value("${intake.max-delay:PT0.05S}") Duration maxDelay,
+                                 @Value("${intake.retry-backoff:PT1S}") Duration retryBackoff) {
+        // one writer - groups commit in journal order, and the checkpoint only moves forward
+        this(donationService, checkpointRepository, transactionManager, objectMapper,
+                Executors.newSingleThreadExecutor(r -> new Thread(r, "donation-intake")),
+                journalFile, capacity, batchSize, maxDelay, retryBackoff);
+        registerMetrics(meterRegistry);
+    }
+
+    // the writer runs on the given executor (tests pass one that never runs it and call drain() themselves)
+    DonationIntakeService(DonationService donationService,
+                          IntakeCheckpointRepository checkpointRepository,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          Executor executor,
+                          Path journalFile,
+                          int capacity,
+                          int batchSize,
+                          Duration maxDelay,
+                          Duration retryBackoff) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("intake.queue-capacity and intake.batch-size must be at least 1");
+        }
+        this.donationService = donationService;
+        this.checkpointRepository = checkpointRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.journalFile = journalFile;
+        this.journalName = journalFile.getFileName().toString();
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.retryBackoff = retryBackoff;
+    }
+
+    /**
+     * Open the journal, queue whatever it holds past the checkpoint (donations acknowledged before a restart
+     * but never committed) and start the writer. Donations are accepted from here on.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // the primary: an older checkpoint from a lagging replica would replay donations already saved
+        long checkpoint = DataSourceRouting.onPrimary(() -> checkpointRepository.findById(journalName))
+                .map(IntakeCheckpoint::getJournalOffset)
+                .orElse(0L);
+        try {
+            IntakeJournal opened = IntakeJournal.open(journalFile, checkpoint);
+            for (IntakeJournal.Line line : opened.pending()) {
+                JournalEntry entry = objectMapper.readValue(line.bytes(), JournalEntry.class);
+                Receipt receipt = new Receipt(entry.getReceiptId(), entry.getAcceptedAt());
+                receipts.put(receipt.id, receipt);
+                queue.add(new PendingDonation(receipt, entry.getRequest(), line.endOffset()));
+            }
+            opened.pending().clear();
+            journal = opened;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open intake journal " + journalFile, e);
+        }
+        executor.execute(this::writeLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        closeJournal();
+    }
+
+    /**
+     * Accept a donation for the writer to save
+     * Returns once the donation is durable in the journal - it will be saved even if the application stops first
+     * @param request - donation details, already validated; no date means today (the day it was accepted)
+     * return => the receipt, QUEUED
+     */
+    public IntakeReceiptResponse submit(DonationRequest request) {
+        if (request.getDonationDate() == null) {
+            request.setDonationDate(LocalDate.now());
+        }
+        Receipt receipt = new Receipt(UUID.randomUUID().toString(), LocalDateTime.now());
+        JournalEntry entry = new JournalEntry(receipt.id, receipt.acceptedAt, request);
+        byte[] line = objectMapper.writeValueAsBytes(entry);
+
+        IntakeJournal current;
+        long offset;
+        synchronized (appendLock) {
+            current = journal;
+            if (current == null) {
+                rejected.incrementAndGet();
+                throw new IntakeQueueFullException("Donation intake is not accepting donations right now, try again shortly");
+            }
+            if (queue.size() >= capacity) {
+                rejected.incrementAndGet();
+                throw new IntakeQueueFullException("Donation intake queue is full (" + capacity + " waiting), try again shortly");
+            }
+            try {
+                offset = current.append(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write to intake journal", e);
+            }
+            receipts.put(receipt.id, receipt);
+            queue.add(new PendingDonation(receipt, request, offset));
+            accepted.incrementAndGet();
+        }
+
+        // outside the lock, so that submitters arriving meanwhile append and then share the next fsync
+        try {
+            current.sync(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to intake journal", e);
+        }
+        return toResponse(receipt);
+    }
+
+    /**
+     * Get the state of an accepted donation
+     * @param receiptId - id returned when the donation was accepted
+     * return => the receipt; COMMITTED ones carry the donation id, FAILED ones the reason
+     */
+    public IntakeReceiptResponse getReceipt(String receiptId) {
+        Receipt receipt = receipts.get(receiptId);
+        if (receipt == null) {
+            throw new RuntimeException("Intake receipt not found with ID: " + receiptId);
+        }
+        return toResponse(receipt);
+    }
+
+    // queue depth and running totals since startup
+    public IntakeStatusResponse getStatus() {
+        IntakeStatusResponse status = new IntakeStatusResponse();
+        status.setAccepting(journal != null);
+        status.setCapacity(capacity);
+        status.setQueued(queue.size());
+        status.setBatchSize(batchSize);
+        status.setMaxDelayMillis(maxDelay.toMillis());
+        status.setAccepted(accepted.get());
+        status.setCommitted(committed.get());
+        status.setFailed(failed.get());
+        status.setRejected(rejected.get());
+        status.setGroupsCommitted(groupsCommitted.get());
+        status.setLastError(lastError);
+        return status;
+    }
+
+    /**
+     * Commit the next group: up to batchSize queued donations, waiting for it to fill until maxDelay after
+     * the first one (or not at all, when wait is false)
+     * return => false when there was nothing to commit
+     */
+    boolean drain(boolean wait) throws InterruptedException {
+        PendingDonation first = wait ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+        if (first == null) {
+            return false;
+        }
+
+        List<PendingDonation> group = new ArrayList<>(Math.min(batchSize, 1024));
+        group.add(first);
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (group.size() < batchSize) {
+            queue.drainTo(group, batchSize - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= batchSize || !wait || remaining <= 0) {
+                break;
+            }
+            PendingDonation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+
+        try {
+            commit(group);
+        } catch (RuntimeException e) {
+            // not something retrying fixes, and part of the group may be committed already: stop before a later
+            // group moves the checkpoint past what is left of this one
+            lastError = describe(e);
+            try {
+                closeJournal();
+            } catch (IOException closing) {
+                // nothing more to lose - the appended lines are on disk, the next start replays them
+            }
+            throw e;
+        }
+        compactIfCaughtUp(group.get(group.size() - 1).endOffset);
+        return true;
+    }
+
+    //helper methods
+
+    private void writeLoop() {
+        try {
+            // the journal is closed on shutdown and when drain() gives up; either way the writer is done
+            while (!Thread.currentThread().isInterrupted() && journal != null) {
+                drain(true);
+            }
+        } catch (RuntimeException e) {
+            // the unfinished donations stay QUEUED, and in the journal past the checkpoint - the next start replays them
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // stop accepting donations; whatever is still queued is in the journal and gets replayed on the next start
+    private void closeJournal() throws IOException {
+        synchronized (appendLock) {
+            IntakeJournal closing = journal;
+            journal = null;
+            if (closing != null) {
+                closing.close();
+            }
+        }
+    }
+
+    // save a group and move the checkpoint past it, in one transaction
+    private void commit(List<PendingDonation> group) throws InterruptedException {
+        long endOffset = group.get(group.size() - 1).endOffset;
+        List<DonationRequest> requests = group.stream().map(p -> p.request).collect(Collectors.toList());
+        List<DonationResponse> saved;
+        try {
+            saved = retryingTransient(() -> transaction.execute(status -> {
+                List<DonationResponse> responses = donationService.registerDonations(requests);
+                checkpointRepository.saveOffset(journalName, endOffset);
+                return responses;
+            }));
+        } catch (RuntimeException e) {
+            rejectedByDatabase(group, e);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).receipt.committed(saved.get(i).getId(), now);
+        }
+        committed.addAndGet(group.size());
+        groupsCommitted.incrementAndGet();
+    }
+
+    // one bad donation fails the whole group: find it by committing the donations one at a time
+    private void rejectedByDatabase(List<PendingDonation> group, RuntimeException failure) throws InterruptedException {
+        if (group.size() > 1) {
+            for (PendingDonation donation : group) {
+                commit(List.of(donation));
+            }
+            return;
+        }
+
+        PendingDonation donation = group.get(0);
+        // retried on the next start otherwise
+        retryingTransient(() -> transaction.execute(status -> checkpointRepository.saveOffset(journalName, donation.endOffset)));
+        donation.receipt.failed(describe(failure), LocalDateTime.now());
+        failed.incrementAndGet();
+    }
+
+    // run until it succeeds or fails for a reason that waiting won't fix (the database being down will pass)
+    private <T> T retryingTransient(Supplier<T> work) throws InterruptedException {
+        while (true) {
+            try {
+                T result = work.get();
+                lastError = null;
+                return result;
+            } catch (TransientDataAccessException | RecoverableDataAccessException
+                     | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+                lastError = describe(e);
+                Thread.sleep(retryBackoff.toMillis());
+            }
+        }
+    }
+
+    // empty the journal once it is big and everything in it has been committed
+    private void compactIfCaughtUp(long committedOffset) {
+        IntakeJournal current = journal;
+        if (current == null || current.size() < COMPACT_AFTER_BYTES || !queue.isEmpty()) {
+            return;
+        }
+        synchronized (appendLock) {
+            if (journal == current && queue.isEmpty() && current.end() == committedOffset) {
+                try {
+                    current.reset();
+                } catch (IOException e) {
+                    // only costs disk space; the next caught-up group tries again
+                    lastError = describe(e);
+                }
+            }
+        }
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("intake.queue.depth", queue, BlockingQueue::size)
+                .description("Donations accepted by the async intake and not yet committed")
+                .register(meterRegistry);
+        Map.of("accepted", accepted, "committed", committed, "failed", failed, "rejected", rejected)
+                .forEach((outcome, count) -> FunctionCounter.builder("intake.donations", count, AtomicLong::get)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+    }
+
+    // the innermost message is usually the useful one (e.g. the SQL error)
+    private static String describe(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private IntakeReceiptResponse toResponse(Receipt receipt) {
+        IntakeReceiptResponse response = new IntakeReceiptResponse();
+        response.setReceiptId(receipt.id);
+        response.setStatus(receipt.status.name());
+        response.setDonationId(receipt.donationId);
+        response.setError(receipt.error);
+        response.setAcceptedAt(receipt.acceptedAt);
+        response.setFinishedAt(receipt.finishedAt);
+        return response;
+    }
+
+    // what happened to one accepted donation
+    private static final class Receipt {
+        private final String id;
+        private final LocalDateTime acceptedAt;
+        private volatile Status status = Status.QUEUED;
+        private volatile Long donationId;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private Receipt(String id, LocalDateTime acceptedAt) {
+            this.id = id;
+            this.acceptedAt = acceptedAt;
+        }
+
+        private void committed(Long donationId, LocalDateTime at) {
+            this.donationId = donationId;
+            this.finishedAt = at;
+            this.status = Status.COMMITTED;
+        }
+
+        private void failed(String error, LocalDateTime at) {
+            this.error = error;
+            this.finishedAt = at;
+            this.status = Status.FAILED;
+        }
+    }
+
+    // a queued donation and the journal offset just past it
+    private static final class PendingDonation {
+        private final Receipt receipt;
+        private final DonationRequest request;
+        private final long endOffset;
+
+        private PendingDonation(Receipt receipt, DonationRequest request, long endOffset) {
+            this.receipt = receipt;
+            this.request = request;
+            this.endOffset = endOffset;
+        }
+    }
+
+    // one journal line
+    static final class JournalEntry {
+        private String receiptId;
+        private LocalDateTime acceptedAt;
+        private DonationRequest request;
+
+        JournalEntry() {
+        }
+
+        JournalEntry(String receiptId, LocalDateTime acceptedAt, DonationRequest request) {
+            this.receiptId = receiptId;
+            this.acceptedAt = acceptedAt;
+            this.request = request;
+        }
+
+        public String getReceiptId() {
+            return receiptId;
+        }
+
+        public void setReceiptId(String receiptId) {
+            this.receiptId = receiptId;
+        }
+
+        public LocalDateTime getAcceptedAt() {
+            return acceptedAt;
+        }
+
+        public void setAcceptedAt(LocalDateTime acceptedAt) {
+            this.acceptedAt = acceptedAt;
+        }
+
+        public DonationRequest getRequest() {
+            return request;
+        }
+
+        public void setRequest(DonationRequest request) {
+            this.request = request;
+        }
+    }
+}
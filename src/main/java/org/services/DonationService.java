@@ -1,31 +1,61 @@
 package org.services;
 
 
+import io.micrometer.core.annotation.Timed;
 import org.dto.DonationRequest;
+import org.dto.PageResponse;
 import org.entity.Donation;
 import org.entity.DonationType;
 import org.repository.DonationRepository;
 import org.dto.DonationResponse;
+import org.mapper.CursorMapper;
 import org.mapper.DonorMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 //service layer for Donation operations
 @Service
+@Timed(value = "service.method", histogram = true)
 @Transactional
 public class DonationService {
 
+    // newest first; id breaks ties so every row has a unique keyset position
+    private static final String DATE_PROPERTY = "donationDate";
+    private static final Sort PAGE_ORDER = Sort.by(Sort.Direction.DESC, DATE_PROPERTY, "id");
+
     private final DonationRepository donationRepository;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final DonorTotalsService donorTotalsService;
+    private final DailyRollupService dailyRollupService;
+    private final NameSearchIndex nameSearchIndex;
+    private final InventoryMetrics inventoryMetrics;
+    private final DataVersion dataVersion;
 
     @Autowired
-    public DonationService(DonationRepository donationRepository) {
+    public DonationService(DonationRepository donationRepository, InventoryLedgerService inventoryLedgerService,
+                           DonorTotalsService donorTotalsService, DailyRollupService dailyRollupService,
+                           NameSearchIndex nameSearchIndex, InventoryMetrics inventoryMetrics,
+                           DataVersion dataVersion) {
         this.donationRepository = donationRepository;
+        this.inventoryLedgerService = inventoryLedgerService;
+        this.donorTotalsService = donorTotalsService;
+        this.dailyRollupService = dailyRollupService;
+        this.nameSearchIndex = nameSearchIndex;
+        this.inventoryMetrics = inventoryMetrics;
+        this.dataVersion = dataVersion;
     }
 
     /**
@@ -40,23 +70,59 @@ public class DonationService {
         // Save to database
         Donation savedDonation = donationRepository.save(donation);
 
+        // Keep the inventory balance, donor totals and daily rollup in step (same transaction)
+        inventoryLedgerService.recordDonation(savedDonation);
+        donorTotalsService.recordDonation(savedDonation);
+        dailyRollupService.recordDonations(List.of(savedDonation));
+        nameSearchIndex.donationsSaved(List.of(savedDonation));
+        inventoryMetrics.donationsRecorded(savedDonation.getDonationType(), 1);
+        dataVersion.changed();
+
         // Convert Entity to Response DTO
         return DonorMapper.toResponse(savedDonation);
     }
 
     /**
-     * Get all donations
-     * return => list of all donations
+     * Register a batch of donations (e.g. every line item of a food drive) in one transaction
+     * Ids come from the pooled sequence, so the INSERTs go out as JDBC batches; the inventory
+     * balance gets one update per donation type and the donor totals a single upsert. Either every item is saved or none is.
+     * @param requests - donation details, already validated
+     * return => saved donation responses, in request order
      */
-    @Transactional(readOnly = true)
-    public List<DonationResponse> getAllDonations() {
-        System.out.println("getAllDonations");
-        return donationRepository.findAll()
-                .stream()
+    public List<DonationResponse> registerDonations(List<DonationRequest> requests) {
+        List<Donation> donations = requests.stream()
+                .map(DonorMapper::toEntity)
+                .collect(Collectors.toList());
+
+        List<Donation> savedDonations = donationRepository.saveAll(donations);
+
+        inventoryLedgerService.recordDonations(savedDonations);
+        donorTotalsService.recordDonations(savedDonations);
+        dailyRollupService.recordDonations(savedDonations);
+        nameSearchIndex.donationsSaved(savedDonations);
+        savedDonations.stream()
+                .collect(Collectors.groupingBy(Donation::getDonationType, Collectors.counting()))
+                .forEach(inventoryMetrics::donationsRecorded);
+        dataVersion.changed();
+
+        return savedDonations.stream()
                 .map(DonorMapper::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get all donations, one page at a time
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of donations, newest first
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<DonationResponse> getAllDonations(String cursor, int limit) {
+        System.out.println("getAllDonations");
+        return toPage(donationRepository.findAllBy(
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
+    }
+
     /**
      * Get donation by ID
      * @param id - donation ID
@@ -72,54 +138,73 @@ public class DonationService {
     /**
      * Get all donations by a specific donor
      * @param donorName - name of the donor
-     * return => list of donations from this donor
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of donations from this donor
      */
     @Transactional(readOnly = true)
-    public List<DonationResponse> getDonationsByDonor(String donorName) {
-        return donationRepository.findByDonorName(donorName)
-                .stream()
-                .map(DonorMapper::toResponse)
-                .collect(Collectors.toList());
+    public PageResponse<DonationResponse> getDonationsByDonor(String donorName, String cursor, int limit) {
+        return toPage(donationRepository.findByDonorName(donorName,
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
     }
 
     /**
      * Get all donations by type
      * @param donationType - type of donation
-     * return => list of donations of this type
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of donations of this type
      */
     @Transactional(readOnly = true)
-    public List<DonationResponse> getDonationsByType(DonationType donationType) {
-        return donationRepository.findByDonationType(donationType)
-                .stream()
-                .map(DonorMapper::toResponse)
-                .collect(Collectors.toList());
+    public PageResponse<DonationResponse> getDonationsByType(DonationType donationType, String cursor, int limit) {
+        return toPage(donationRepository.findByDonationType(donationType,
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
     }
 
     /**
      * Get donations within a date range
      * @param startDate - start date
      * @param endDate - end date
-     * return => list of donations in date range
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of donations in date range
      */
     @Transactional(readOnly = true)
-    public List<DonationResponse> getDonationsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return donationRepository.findByDonationDateBetween(startDate, endDate)
-                .stream()
-                .map(DonorMapper::toResponse)
-                .collect(Collectors.toList());
+    public PageResponse<DonationResponse> getDonationsByDateRange(LocalDate startDate, LocalDate endDate,
+                                                                  String cursor, int limit) {
+        return toPage(donationRepository.findByDonationDateBetween(startDate, endDate,
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
     }
 
     /**
      * Search donations by donor name (partial match)
+     * Matching ids come from the in-memory name index; only the page itself is read from the table
      * @param searchTerm - search term
-     * return => list of matching donations
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of matching donations
      */
     @Transactional(readOnly = true)
-    public List<DonationResponse> searchDonationsByDonor(String searchTerm) {
-        return donationRepository.findByDonorNameContainingIgnoreCase(searchTerm)
-                .stream()
-                .map(DonorMapper::toResponse)
+    public PageResponse<DonationResponse> searchDonationsByDonor(String searchTerm, String cursor, int limit) {
+        ScrollPosition position = CursorMapper.toPosition(cursor, DATE_PROPERTY);
+        Limit pageLimit = CursorMapper.toLimit(limit);
+
+        TrigramIndex.Page page = nameSearchIndex.searchDonors(searchTerm, position, DATE_PROPERTY, limit);
+        if (page == null) {
+            // index still building
+            return toPage(donationRepository.findByDonorNameContainingIgnoreCase(searchTerm, position, pageLimit, PAGE_ORDER));
+        }
+
+        // primary-key lookup, put back in index order
+        Map<Long, DonationResponse> byId = donationRepository.findByIdIn(page.getIds()).stream()
+                .collect(Collectors.toMap(DonationResponse::getId, Function.identity()));
+        List<DonationResponse> donations = page.getIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return toPage(Window.from(donations,
+                i -> CursorMapper.toPosition(donations.get(i).getDonationDate(), donations.get(i).getId(), DATE_PROPERTY),
+                page.hasNext()));
     }
 
     /**
@@ -138,22 +223,21 @@ public class DonationService {
      */
     @Transactional(readOnly = true)
     public BigDecimal getTotalByDonor(String donorName) {
-        BigDecimal total = donationRepository.getTotalQuantityByDonor(donorName);
-        return total != null ? total : BigDecimal.ZERO;
+        return donorTotalsService.getTotalByDonor(donorName);
     }
 
     /**
      * Get recent donations (last N days)
      * @param days - number of days to look back
-     * return => list of recent donations
+     * @param cursor - "next" from the previous page, null for the first page
+     * @param limit - page size
+     * return => page of recent donations
      */
     @Transactional(readOnly = true)
-    public List<DonationResponse> getRecentDonations(int days) {
+    public PageResponse<DonationResponse> getRecentDonations(int days, String cursor, int limit) {
         LocalDate sinceDate = LocalDate.now().minusDays(days);
-        return donationRepository.findRecentDonations(sinceDate)
-                .stream()
-                .map(DonorMapper::toResponse)
-                .collect(Collectors.toList());
+        return toPage(donationRepository.findByDonationDateGreaterThanEqual(sinceDate,
+                CursorMapper.toPosition(cursor, DATE_PROPERTY), CursorMapper.toLimit(limit), PAGE_ORDER));
     }
 
     /**
@@ -161,10 +245,16 @@ public class DonationService {
      * @param id - donation ID
      */
     public void deleteDonation(Long id) {
-        if (!donationRepository.existsById(id)) {
-            throw new RuntimeException("Donation not found with id: " + id);
-        }
-        donationRepository.deleteById(id);
+        Donation donation = donationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Donation not found with id: " + id));
+        donationRepository.delete(donation);
+
+        // Take it back out of the inventory balance and the donor totals
+        inventoryLedgerService.reverseDonation(donation);
+        donorTotalsService.reverseDonation(donation);
+        dailyRollupService.reverseDonation(donation);
+        nameSearchIndex.donationDeleted(donation);
+        dataVersion.changed();
     }
 
     /**
@@ -175,4 +265,11 @@ public class DonationService {
     public long getTotalDonationCount() {
         return donationRepository.count();
     }
+
+    //helper methods
+
+    // window of responses to a page plus the cursor for the next page
+    private PageResponse<DonationResponse> toPage(Window<DonationResponse> window) {
+        return new PageResponse<>(window.getContent(), CursorMapper.toCursor(window, DATE_PROPERTY));
+    }
 }
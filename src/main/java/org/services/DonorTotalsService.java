@@ -0,0 +1,132 @@
+package org.services;
+
+import io.micrometer.core.annotation.Timed;
+import org.entity.Donation;
+import org.entity.DonorTypeTotal;
+import org.repository.DonationRepository;
+import org.repository.DonorTypeTotalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the donor_type_totals table (one row per donor and donation type) behind the donor report
+ * Every donation write calls into here inside its own transaction, so the totals always commit or
+ * roll back together with the donations that changed them
+ */
+@Service
+@Timed(value = "service.method", histogram = true)
+@Transactional
+public class DonorTotalsService {
+
+    private final DonorTypeTotalRepository donorTypeTotalRepository;
+    private final DonationRepository donationRepository;
+    private final DataVersion dataVersion;
+
+    @Autowired
+    public DonorTotalsService(DonorTypeTotalRepository donorTypeTotalRepository,
+                              DonationRepository donationRepository, DataVersion dataVersion) {
+        this.donorTypeTotalRepository = donorTypeTotalRepository;
+        this.donationRepository = donationRepository;
+        this.dataVersion = dataVersion;
+    }
+
+    // Add a saved donation to its donor's total
+    public void recordDonation(Donation donation) {
+        recordDonations(List.of(donation));
+    }
+
+    // Add a batch of saved donations - merged per (donor, type) and written with a single statement
+    public void recordDonations(List<Donation> donations) {
+        Map<DonorTypeTotal.Key, DonorTypeTotal> totals = new LinkedHashMap<>();
+        for (Donation donation : donations) {
+            DonorTypeTotal total = totals.computeIfAbsent(
+                    new DonorTypeTotal.Key(donation.getDonorName(), donation.getDonationType()),
+                    k -> new DonorTypeTotal(donation.getDonorName(), donation.getDonationType(), BigDecimal.ZERO, 0));
+            total.setTotalQuantity(total.getTotalQuantity().add(donation.getQuantity()));
+            total.setDonationCount(total.getDonationCount() + 1);
+        }
+        if (!totals.isEmpty()) {
+            adjust(List.copyOf(totals.values()));
+        }
+    }
+
+    // Take a deleted donation back out of its donor's total; the last one removes the row
+    public void reverseDonation(Donation donation) {
+        adjust(List.of(new DonorTypeTotal(donation.getDonorName(), donation.getDonationType(),
+                donation.getQuantity().negate(), -1)));
+        donorTypeTotalRepository.deleteIfEmpty(donation.getDonorName(), donation.getDonationType().name());
+    }
+
+    /**
+     * Every (donor, type) total, sorted by donor name then type
+     * return => totals, one row per donor and type they have donated
+     */
+    @Transactional(readOnly = true)
+    public List<DonorTypeTotal> getTotals() {
+        return donorTypeTotalRepository.findAllByOrderByDonorNameAscDonationTypeAsc();
+    }
+
+    /**
+     * Total quantity donated by one donor, all types
+     * return => total, zero for an unknown donor
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalByDonor(String donorName) {
+        BigDecimal total = donorTypeTotalRepository.getTotalQuantityByDonor(donorName);
+        return total != null ? total : BigDecimal.ZERO;
+    }
+
+    /**
+     * Recompute every total from the donations table, plus the archived totals of detached months
+     * The totals table is locked first so no donation write can slip in between the delete and the insert
+     * return => number of (donor, type) rows rebuilt
+     */
+    public int rebuild() {
+        donorTypeTotalRepository.lockForRebuild();
+        donorTypeTotalRepository.deleteAllTotals();
+        int rows = donorTypeTotalRepository.insertFromDonations();
+        dataVersion.changed();
+        return rows;
+    }
+
+    /**
+     * Seed the totals table on first start against an existing database
+     * (the table is new, but donations may already hold years of rows)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        if (donorTypeTotalRepository.count() == 0
+                && (donationRepository.count() > 0 || donorTypeTotalRepository.hasArchivedTotals())) {
+            rebuild();
+        }
+    }
+
+    //helper methods
+
+    // one upsert for the lot, the rows' quantity/count used as deltas
+    private void adjust(List<DonorTypeTotal> deltas) {
+        int size = deltas.size();
+        String[] donorNames = new String[size];
+        String[] donationTypes = new String[size];
+        BigDecimal[] quantities = new BigDecimal[size];
+        Long[] counts = new Long[size];
+
+        for (int i = 0; i < size; i++) {
+            DonorTypeTotal delta = deltas.get(i);
+            donorNames[i] = delta.getDonorName();
+            donationTypes[i] = delta.getDonationType().name();
+            quantities[i] = delta.getTotalQuantity();
+            counts[i] = delta.getDonationCount();
+        }
+
+        donorTypeTotalRepository.adjustTotals(donorNames, donationTypes, quantities, counts);
+    }
+}
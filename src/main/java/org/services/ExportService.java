@@ -0,0 +1,150 @@
+package org.services;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.mapper.CsvMapper;
+import org.mapper.DistributionMapper;
+import org.mapper.DonorMapper;
+import org.repository.DistributionRepository;
+import org.repository.DonationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Full-table exports of donations and distributions
+ * Rows are read through a JDBC cursor (see the stream queries' fetch size) and written to the
+ * response one at a time, then detached - memory stays flat no matter how many rows there are
+ */
+@Service
+@Timed(value = "service.method", histogram = true)
+@Transactional(readOnly = true)
+public class ExportService {
+
+    // supported export formats
+    public enum Format {
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        CSV("csv", MediaType.parseMediaType("text/csv"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static Format fromString(String format) {
+            for (Format f : Format.values()) {
+                if (f.extension.equalsIgnoreCase(format)) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+    }
+
+    private final DonationRepository donationRepository;
+    private final DistributionRepository distributionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ExportService(DonationRepository donationRepository,
+                         DistributionRepository distributionRepository,
+                         EntityManager entityManager,
+                         ObjectMapper objectMapper) {
+        this.donationRepository = donationRepository;
+        this.distributionRepository = distributionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write every donation to the output stream
+     * @param out - response body
+     * @param format - NDJSON (one DonationResponse per line) or CSV
+     * return => number of rows written
+     */
+    public long exportDonations(OutputStream out, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write("id,donorName,donationType,quantity,donationDate,createdAt\n");
+        }
+
+        long count = 0;
+        try (Stream<Donation> donations = donationRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Donation> it = donations.iterator();
+            while (it.hasNext()) {
+                Donation d = it.next();
+                if (format == Format.CSV) {
+                    CsvMapper.writeRecord(writer, d.getId(), d.getDonorName(), d.getDonationType(), d.getQuantity(),
+                            d.getDonationDate(), d.getCreatedAt());
+                } else {
+                    writer.write(objectMapper.writeValueAsString(DonorMapper.toResponse(d)));
+                    writer.write('\n');
+                }
+                // don't let the persistence context grow with the export
+                entityManager.detach(d);
+                count++;
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Write every distribution to the output stream
+     * @param out - response body
+     * @param format - NDJSON (one DistributionResponse per line) or CSV
+     * return => number of rows written
+     */
+    public long exportDistributions(OutputStream out, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write("id,donationType,quantity,distributionDate,recipient,createdAt\n");
+        }
+
+        long count = 0;
+        try (Stream<Distribution> distributions = distributionRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Distribution> it = distributions.iterator();
+            while (it.hasNext()) {
+                Distribution d = it.next();
+                if (format == Format.CSV) {
+                    CsvMapper.writeRecord(writer, d.getId(), d.getDonationType(), d.getQuantity(),
+                            d.getDistributionDate(), d.getRecipient(), d.getCreatedAt());
+                } else {
+                    writer.write(objectMapper.writeValueAsString(DistributionMapper.toResponse(d)));
+                    writer.write('\n');
+                }
+                entityManager.detach(d);
+                count++;
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+}
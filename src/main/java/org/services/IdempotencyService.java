@@ -0,0 +1,204 @@
+package org.services;
+
+import io.micrometer.core.annotation.Timed;
+import org.entity.IdempotencyRecord;
+import org.exception.IdempotencyKeyConflictException;
+import org.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for the create endpoints (POST /api/donations, POST /api/distributions)
+ * A client that retries a POST with the same key gets the first response back instead of a second row.
+ * The key is claimed before the write runs, in the same transaction, so a key is stored exactly when its row
+ * is. Two requests racing with one key are serialized by the database: the second one's claim waits for the
+ * first to finish, then replays its response without running the write (or, if the first rolled back, claims
+ * the key and runs). A key reused with a different body is refused (422).
+ * Recently used keys are also kept in memory (idempotency.cache-size, least recently used dropped first), so a
+ * retry is answered without touching the database; a key not in memory costs an INSERT (the claim) and an
+ * UPDATE (the response) in the write's own transaction.
+ * Keys expire after idempotency.ttl (default 24h); expired rows are purged every idempotency.purge-interval.
+ * A request that fails (validation, insufficient stock) stores nothing, so its retry runs again.
+ */
+@Service
+@Timed(value = "service.method", histogram = true)
+public class IdempotencyService {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    // set (to "true") on a response that was replayed rather than produced by this request
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    public enum Scope { DONATIONS, DISTRIBUTIONS }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transaction;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Map<String, StoredResponse> recent;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        // access order: every hit moves a key to the back, the front is the least recently used
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Run a create once per key
+     * @param scope - endpoint the key belongs to
+     * @param key - Idempotency-Key header value
+     * @param request - request body, compared against the one the key was first used with
+     * @param responseType - what action returns (and what a replay is read back as)
+     * @param action - the write; runs inside the transaction that claims the key, once the claim has succeeded
+     * return => the response, and whether it is a replay
+     */
+    public <T> Outcome<T> execute(Scope scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = scope + ":" + key;
+        String requestHash = fingerprint(request);
+
+        StoredResponse cached = recent.get(cacheKey);
+        if (cached != null && !cached.createdAt.isBefore(expiredBefore())) {
+            return replay(cached, requestHash, key, responseType);
+        }
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        StoredResponse[] stored = new StoredResponse[1];
+        T response;
+        try {
+            response = transaction.execute(status -> {
+                if (idempotencyRecordRepository.claim(scope.name(), key, requestHash, createdAt, expiredBefore()) == 0) {
+                    throw new KeyTakenException();
+                }
+                T result = action.get();
+                String body = objectMapper.writeValueAsString(result);
+                idempotencyRecordRepository.storeResponse(scope.name(), key, body);
+                stored[0] = new StoredResponse(requestHash, body, createdAt);
+                return result;
+            });
+        } catch (KeyTakenException e) {
+            // a live key we didn't have in memory (another instance, a restart, or a concurrent retry that won):
+            // the write never ran, answer with the stored response
+            StoredResponse existing = idempotencyRecordRepository.findLive(scope.name(), key, expiredBefore())
+                    .map(StoredResponse::of)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency key vanished while in use: " + key));
+            recent.put(cacheKey, existing);
+            return replay(existing, requestHash, key, responseType);
+        }
+
+        recent.put(cacheKey, stored[0]);
+        return new Outcome<>(response, false);
+    }
+
+    /**
+     * Delete keys past their TTL
+     * return => number of keys deleted
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT10M}",
+            initialDelayString = "${idempotency.purge-interval:PT10M}")
+    @Transactional
+    public int purgeExpired() {
+        // expired entries in memory are skipped on lookup and pushed out by newer keys
+        return idempotencyRecordRepository.deleteExpired(expiredBefore());
+    }
+
+    //helper methods
+
+    private LocalDateTime expiredBefore() {
+        return LocalDateTime.now().minus(ttl);
+    }
+
+    private <T> Outcome<T> replay(StoredResponse stored, String requestHash, String key, Class<T> responseType) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new IdempotencyKeyConflictException(key);
+        }
+        return new Outcome<>(objectMapper.readValue(stored.responseBody, responseType), true);
+    }
+
+    // SHA-256 of the request as JSON - the same body always serializes the same way
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * What execute() answered with
+     * replayed - true when the body is the stored response of an earlier request with the same key
+     */
+    public static final class Outcome<T> {
+        private final T body;
+        private final boolean replayed;
+
+        private Outcome(T body, boolean replayed) {
+            this.body = body;
+            this.replayed = replayed;
+        }
+
+        public T getBody() {
+            return body;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    // a response as kept in memory
+    private static final class StoredResponse {
+        private final String requestHash;
+        private final String responseBody;
+        private final LocalDateTime createdAt;
+
+        private StoredResponse(String requestHash, String responseBody, LocalDateTime createdAt) {
+            this.requestHash = requestHash;
+            this.responseBody = responseBody;
+            this.createdAt = createdAt;
+        }
+
+        private static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getResponseBody(), record.getCreatedAt());
+        }
+    }
+
+    // ends the transaction without running the write when the key is taken
+    private static final class KeyTakenException extends RuntimeException {
+        private KeyTakenException() {
+            super(null, null, false, false);
+        }
+    }
+}
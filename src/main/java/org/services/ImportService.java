@@ -0,0 +1,484 @@
+package org.services;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.dto.DistributionRequest;
+import org.dto.DonationRequest;
+import org.dto.ImportJobResponse;
+import org.dto.ImportRowError;
+import org.entity.DonationType;
+import org.exception.InsufficientInventoryException;
+import org.mapper.CsvMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk CSV imports of donations and distributions (quarter-end reconciliation loads)
+ * The upload is spooled to a temp file and processed on one background thread, so a 100k-row load
+ * never holds a request thread. Rows are read a chunk at a time; each chunk is parsed and validated
+ * in parallel, then its valid rows are committed in one transaction through the batch service methods
+ * (JDBC-batched INSERTs, one balance update per type). Rejected rows are reported per row on the job.
+ */
+@Service
+@Timed(value = "service.method", histogram = true)
+public class ImportService {
+
+    public enum Kind { DONATIONS, DISTRIBUTIONS }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    public static final int MAX_CHUNK_SIZE = 10_000;
+
+    // row errors kept per job - rowsFailed stays exact past this
+    static final int MAX_ERRORS = 10_000;
+
+    // jobs kept for polling; the oldest one is dropped past this once it has finished
+    private static final int MAX_JOBS = 100;
+
+    // same column names the exports write; other columns (id, createdAt) are ignored
+    private static final List<String> DONATION_COLUMNS = List.of("donorName", "donationType", "quantity", "donationDate");
+    private static final List<String> DONATION_REQUIRED = List.of("donorName", "donationType", "quantity");
+    private static final List<String> DISTRIBUTION_COLUMNS = List.of("donationType", "quantity", "distributionDate", "recipient");
+    private static final List<String> DISTRIBUTION_REQUIRED = List.of("donationType", "quantity");
+
+    private final DonationService donationService;
+    private final DistributionService distributionService;
+    private final Validator validator;
+    private final Executor executor;
+    private final int defaultChunkSize;
+
+    private final Map<String, ImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImportJob> eldest) {
+            return size() > MAX_JOBS && eldest.getValue().finishedAt != null;
+        }
+    });
+
+    @Autowired
+    public ImportService(DonationService donationService,
+                         DistributionService distributionService,
+                         Validator validator,
+                         @Value("${imports.chunk-size:1000}") int defaultChunkSize) {
+        // one import at a time - a second upload queues behind the first instead of competing for connections
+        this(donationService, distributionService, validator,
+                Executors.newSingleThreadExecutor(r -> new Thread(r, "csv-import")), defaultChunkSize);
+    }
+
+    // jobs run on the given executor (tests pass a direct one)
+    ImportService(DonationService donationService,
+                  DistributionService distributionService,
+                  Validator validator,
+                  Executor executor,
+                  int defaultChunkSize) {
+        this.donationService = donationService;
+        this.distributionService = distributionService;
+        this.validator = validator;
+        this.executor = executor;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Accept a CSV upload and queue it for import
+     * The header is checked up front, so a file with missing columns is rejected straight away
+     * @param kind - donations or distributions
+     * @param upload - CSV content, first line is the header
+     * @param chunkSize - rows per transaction, null for the configured default
+     * return => the queued job
+     */
+    public ImportJobResponse startImport(Kind kind, InputStream upload, Integer chunkSize) {
+        int size = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (size < 1 || size > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+
+        // the request (and its multipart temp file) is gone by the time the job runs
+        Path file = spool(upload);
+        Map<String, Integer> columns;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            columns = columnIndex(CsvMapper.readRecord(reader), kind);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Could not read upload", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), kind, size);
+        jobs.put(job.id, job);
+
+        executor.execute(() -> {
+            try {
+                run(job, file, columns);
+            } finally {
+                deleteQuietly(file);
+            }
+        });
+
+        return toResponse(job);
+    }
+
+    /**
+     * Get the progress of an import job
+     * @param jobId - id returned when the upload was accepted
+     * return => job progress
+     */
+    public ImportJobResponse getJob(String jobId) {
+        return toResponse(findJob(jobId));
+    }
+
+    /**
+     * Get the rejected rows of an import job (first MAX_ERRORS of them)
+     * @param jobId - id returned when the upload was accepted
+     * return => one entry per rejected field, in row order within each chunk
+     */
+    public List<ImportRowError> getErrors(String jobId) {
+        ImportJob job = findJob(jobId);
+        synchronized (job.errors) {
+            return new ArrayList<>(job.errors);
+        }
+    }
+
+    //helper methods
+
+    private ImportJob findJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Import job not found with id: " + jobId);
+        }
+        return job;
+    }
+
+    // read the file a chunk at a time; the header has already been checked
+    private void run(ImportJob job, Path file, Map<String, Integer> columns) {
+        job.status = Status.RUNNING;
+        job.startedAt = LocalDateTime.now();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CsvMapper.readRecord(reader);
+
+            long rowNumber = 1;
+            List<CsvRow> chunk = new ArrayList<>(job.chunkSize);
+            List<String> fields;
+            while ((fields = CsvMapper.readRecord(reader)) != null) {
+                rowNumber++;
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                chunk.add(new CsvRow(rowNumber, fields));
+                if (chunk.size() == job.chunkSize) {
+                    processChunk(job, columns, chunk);
+                    chunk = new ArrayList<>(job.chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(job, columns, chunk);
+            }
+
+            job.status = Status.COMPLETED;
+        } catch (Exception e) {
+            job.message = e.getMessage();
+            job.status = Status.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void processChunk(ImportJob job, Map<String, Integer> columns, List<CsvRow> chunk) {
+        job.rowsRead.addAndGet(chunk.size());
+        if (job.kind == Kind.DONATIONS) {
+            commitChunk(job, parseChunk(chunk, row -> toDonationRequest(row, columns)),
+                    donationService::registerDonations);
+        } else {
+            commitChunk(job, parseChunk(chunk, row -> toDistributionRequest(row, columns)),
+                    distributionService::recordDistributions);
+        }
+    }
+
+    // parse and validate every row of the chunk in parallel - row order is kept
+    private <T> List<ParsedRow<T>> parseChunk(List<CsvRow> chunk, Function<CsvRow, ParsedRow<T>> parser) {
+        return chunk.parallelStream()
+                .map(parser)
+                .collect(Collectors.toList());
+    }
+
+    // save the valid rows of a chunk in one transaction; if it rolls back, every one of them is rejected
+    private <T> void commitChunk(ImportJob job, List<ParsedRow<T>> parsed, Function<List<T>, List<?>> save) {
+        List<ParsedRow<T>> valid = new ArrayList<>();
+        for (ParsedRow<T> row : parsed) {
+            if (row.errors.isEmpty()) {
+                valid.add(row);
+            } else {
+                job.reject(row.errors);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            save.apply(valid.stream().map(row -> row.request).collect(Collectors.toList()));
+            job.rowsImported.addAndGet(valid.size());
+            job.chunksCommitted.incrementAndGet();
+        } catch (InsufficientInventoryException e) {
+            rejectAll(job, valid, "Chunk not saved: not enough " + e.getCheck().getDonationType() + " in stock (chunk needs "
+                    + e.getCheck().getRequestedQuantity() + ", available " + e.getCheck().getAvailableQuantity() + ")");
+        } catch (RuntimeException e) {
+            rejectAll(job, valid, "Chunk not saved: " + e.getMessage());
+        }
+    }
+
+    private <T> void rejectAll(ImportJob job, List<ParsedRow<T>> rows, String message) {
+        for (ParsedRow<T> row : rows) {
+            job.reject(List.of(new ImportRowError(row.row, null, message)));
+        }
+    }
+
+    private ParsedRow<DonationRequest> toDonationRequest(CsvRow row, Map<String, Integer> columns) {
+        List<ImportRowError> errors = new ArrayList<>();
+        DonationRequest request = new DonationRequest(
+                text(row, columns, "donorName"),
+                parseType(row, columns, errors),
+                parseQuantity(row, columns, errors),
+                parseDate(row, columns, "donationDate", errors)
+        );
+        return validate(row, request, errors);
+    }
+
+    private ParsedRow<DistributionRequest> toDistributionRequest(CsvRow row, Map<String, Integer> columns) {
+        List<ImportRowError> errors = new ArrayList<>();
+        DistributionRequest request = new DistributionRequest(
+                parseType(row, columns, errors),
+                parseQuantity(row, columns, errors),
+                parseDate(row, columns, "distributionDate", errors),
+                text(row, columns, "recipient")
+        );
+        return validate(row, request, errors);
+    }
+
+    // same rules as the REST endpoints (the request DTO annotations); fields that didn't parse are reported once
+    private <T> ParsedRow<T> validate(CsvRow row, T request, List<ImportRowError> errors) {
+        Set<String> failed = errors.stream().map(ImportRowError::getField).collect(Collectors.toSet());
+        for (ConstraintViolation<T> violation : validator.validate(request)) {
+            String field = violation.getPropertyPath().toString();
+            if (!failed.contains(field)) {
+                errors.add(new ImportRowError(row.row, field, violation.getMessage()));
+            }
+        }
+        return new ParsedRow<>(row.row, request, errors);
+    }
+
+    private DonationType parseType(CsvRow row, Map<String, Integer> columns, List<ImportRowError> errors) {
+        String value = text(row, columns, "donationType");
+        if (value == null) {
+            return null;
+        }
+        try {
+            return DonationType.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add(new ImportRowError(row.row, "donationType", "Unknown donation type: " + value));
+            return null;
+        }
+    }
+
+    private BigDecimal parseQuantity(CsvRow row, Map<String, Integer> columns, List<ImportRowError> errors) {
+        String value = text(row, columns, "quantity");
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            errors.add(new ImportRowError(row.row, "quantity", "Quantity must be a number: " + value));
+            return null;
+        }
+    }
+
+    private LocalDate parseDate(CsvRow row, Map<String, Integer> columns, String column, List<ImportRowError> errors) {
+        String value = text(row, columns, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            errors.add(new ImportRowError(row.row, column, "Date must be yyyy-MM-dd: " + value));
+            return null;
+        }
+    }
+
+    // trimmed value of a column, null when the column or the value is missing
+    private String text(CsvRow row, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= row.fields.size()) {
+            return null;
+        }
+        String value = row.fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // header names (case-insensitive) to column positions
+    private Map<String, Integer> columnIndex(List<String> header, Kind kind) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        List<String> known = kind == Kind.DONATIONS ? DONATION_COLUMNS : DISTRIBUTION_COLUMNS;
+        List<String> required = kind == Kind.DONATIONS ? DONATION_REQUIRED : DISTRIBUTION_REQUIRED;
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // a spreadsheet export may start with a byte order mark
+            String name = header.get(i).replace("\uFEFF", "").trim();
+            for (String column : known) {
+                if (column.equalsIgnoreCase(name)) {
+                    columns.putIfAbsent(column, i);
+                }
+            }
+        }
+
+        List<String> missing = required.stream()
+                .filter(column -> !columns.containsKey(column))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing column(s): " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private ImportJobResponse toResponse(ImportJob job) {
+        ImportJobResponse response = new ImportJobResponse();
+        response.setJobId(job.id);
+        response.setKind(job.kind.name());
+        response.setStatus(job.status.name());
+        response.setChunkSize(job.chunkSize);
+        response.setRowsRead(job.rowsRead.get());
+        response.setRowsImported(job.rowsImported.get());
+        response.setRowsFailed(job.rowsFailed.get());
+        response.setChunksCommitted(job.chunksCommitted.get());
+        response.setMessage(job.message);
+        response.setCreatedAt(job.createdAt);
+        response.setStartedAt(job.startedAt);
+        response.setFinishedAt(job.finishedAt);
+        return response;
+    }
+
+    // copy the upload to a temp file of our own
+    private Path spool(InputStream upload) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("import-", ".csv");
+            Files.copy(upload, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            if (file != null) {
+                deleteQuietly(file);
+            }
+            throw new UncheckedIOException("Could not store upload", e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // temp dir is cleaned up eventually anyway
+        }
+    }
+
+    // state of one import - written by the import thread, read by status polls
+    private static final class ImportJob {
+        private final String id;
+        private final Kind kind;
+        private final int chunkSize;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsFailed = new AtomicLong();
+        private final AtomicLong chunksCommitted = new AtomicLong();
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String id, Kind kind, int chunkSize) {
+            this.id = id;
+            this.kind = kind;
+            this.chunkSize = chunkSize;
+        }
+
+        // one failed row, with all of its errors
+        private void reject(List<ImportRowError> rowErrors) {
+            rowsFailed.incrementAndGet();
+            synchronized (errors) {
+                for (ImportRowError error : rowErrors) {
+                    if (errors.size() < MAX_ERRORS) {
+                        errors.add(error);
+                    }
+                }
+            }
+        }
+    }
+
+    // one CSV record and its row number in the file
+    private static final class CsvRow {
+        private final long row;
+        private final List<String> fields;
+
+        private CsvRow(long row, List<String> fields) {
+            this.row = row;
+            this.fields = fields;
+        }
+    }
+
+    // a parsed request, ready to save when it has no errors
+    private static final class ParsedRow<T> {
+        private final long row;
+        private final T request;
+        private final List<ImportRowError> errors;
+
+        private ParsedRow(long row, T request, List<ImportRowError> errors) {
+            this.row = row;
+            this.request = request;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.services;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only file behind the async donation intake (DonationIntakeService) - one line per accepted donation
+ * Entries are addressed by offset: the offset just past an entry is what the intake checkpoint records once it
+ * has been committed. Offsets only ever grow; the file starts with the offset its first entry starts at,
+ *
+ *   #base=0000000000000012345
+ *   {...}
+ *   {...}
+ *
+ * so reset() can throw away committed entries without the checkpoint having to move back.
+ * A line torn by a crash (no trailing newline) is cut off on open - it was never acknowledged.
+ * append() and reset() must not run concurrently (the intake holds its own lock); sync() may be called from any thread.
+ */
+class IntakeJournal implements Closeable {
+
+    private static final String HEADER_PREFIX = "#base=";
+    private static final int HEADER_LENGTH = HEADER_PREFIX.length() + 19 + 1;
+
+    private final FileChannel channel;
+    private final Object syncLock = new Object();
+    private final List<Line> pending;
+    // offset of the first entry in the file, and just past the last one
+    private volatile long base;
+    private volatile long end;
+    private volatile long synced;
+
+    private IntakeJournal(FileChannel channel, long base, long end, List<Line> pending) {
+        this.channel = channel;
+        this.base = base;
+        this.end = end;
+        this.synced = end;
+        this.pending = pending;
+    }
+
+    /**
+     * Open (or create) a journal
+     * @param file - journal file; its directory is created if missing
+     * @param committed - offset the checkpoint says has been committed
+     * return => the journal, positioned after its last complete entry
+     */
+    static IntakeJournal open(Path file, long committed) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_LENGTH) {
+                // new, or torn while it was being created
+                writeHeader(channel, committed);
+                return new IntakeJournal(channel, committed, committed, new ArrayList<>());
+            }
+
+            long base = readHeader(channel, file);
+            List<Line> pending = new ArrayList<>();
+            long position = HEADER_LENGTH;
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(HEADER_LENGTH)), 64 * 1024);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                position += line.size() + 1;
+                long lineEnd = base + position - HEADER_LENGTH;
+                if (lineEnd > committed) {
+                    pending.add(new Line(line.toByteArray(), lineEnd));
+                }
+                line.reset();
+            }
+
+            long end = base + position - HEADER_LENGTH;
+            if (pending.isEmpty()) {
+                // everything here is committed (or the file was left half reset): start over past the checkpoint
+                long next = Math.max(end, committed);
+                writeHeader(channel, next);
+                return new IntakeJournal(channel, next, next, pending);
+            }
+            if (channel.size() > position) {
+                channel.truncate(position);
+                channel.force(false);
+            }
+            return new IntakeJournal(channel, base, end, pending);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // entries found on open that the checkpoint doesn't cover yet, in order
+    List<Line> pending() {
+        return pending;
+    }
+
+    /**
+     * Write one entry (not yet durable - see sync)
+     * @param entry - one line, without the newline
+     * return => offset just past the entry
+     */
+    long append(byte[] entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length + 1).put(entry).put((byte) '\n').flip();
+        long position = filePosition(end);
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        end += entry.length + 1;
+        return end;
+    }
+
+    /**
+     * Make everything up to offset durable
+     * Callers that arrive while another one is syncing share the next sync instead of each forcing their own
+     */
+    void sync(long offset) throws IOException {
+        if (synced >= offset) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= offset) {
+                return;
+            }
+            long target = end;
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    // Drop every entry - only once they are all committed
+    void reset() throws IOException {
+        writeHeader(channel, end);
+        base = end;
+    }
+
+    // offset just past the last entry
+    long end() {
+        return end;
+    }
+
+    // bytes of entries in the file
+    long size() {
+        return end - base;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //helper methods
+
+    private long filePosition(long offset) {
+        return HEADER_LENGTH + offset - base;
+    }
+
+    // a journal with no entries starting at base
+    // entries are cut first: a crash before the new header is written leaves no entries under the old base,
+    // which open() moves past the checkpoint again
+    private static void writeHeader(FileChannel channel, long base) throws IOException {
+        if (channel.size() > HEADER_LENGTH) {
+            channel.truncate(HEADER_LENGTH);
+            channel.force(false);
+        }
+        ByteBuffer header = ByteBuffer.wrap(String.format("%s%019d\n", HEADER_PREFIX, base).getBytes(StandardCharsets.US_ASCII));
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        channel.force(false);
+    }
+
+    private static long readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // keep reading
+        }
+        String text = new String(header.array(), StandardCharsets.US_ASCII);
+        if (!text.startsWith(HEADER_PREFIX) || text.charAt(HEADER_LENGTH - 1) != '\n') {
+            throw new IllegalStateException("Not an intake journal: " + file);
+        }
+        try {
+            return Long.parseLong(text.substring(HEADER_PREFIX.length(), HEADER_LENGTH - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Not an intake journal: " + file, e);
+        }
+    }
+
+    // one entry and the offset just past it
+    static final class Line {
+        private final byte[] bytes;
+        private final long endOffset;
+
+        Line(byte[] bytes, long endOffset) {
+            this.bytes = bytes;
+            this.endOffset = endOffset;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        long endOffset() {
+            return endOffset;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.services;
+
+import org.config.DataSourceRouting;
+import org.entity.DonationType;
+import org.entity.InventoryBalance;
+import org.repository.InventoryBalanceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory copy of the inventory_balance table - one entry per donation type, so the inventory
+ * report, stock lookups and checkInventory are answered without touching the database
+ *
+ * Writes go through InventoryLedgerService, which hands every balance change to this cache;
+ * the change is applied only once its transaction has committed (a rolled-back write never shows up).
+ * The cache is loaded from the table on startup and reconciled against it periodically
+ * (inventory.cache.reconcile-interval), which also picks up anything written behind the app's back.
+ * Until the first load succeeds, reads fall through to the table.
+ */
+@Component
+public class InventoryCache {
+
+    private final InventoryBalanceRepository inventoryBalanceRepository;
+
+    // per type: (donated, distributed) swapped as one immutable pair, so a reader never sees half an update
+    private final Map<DonationType, AtomicReference<Totals>> totals = new EnumMap<>(DonationType.class);
+
+    // balance changes registered in an open transaction but not yet applied
+    private final AtomicLong pendingChanges = new AtomicLong();
+    // balance changes finished so far (committed or rolled back)
+    private final AtomicLong completedChanges = new AtomicLong();
+
+    private volatile boolean loaded;
+
+    @Autowired
+    public InventoryCache(InventoryBalanceRepository inventoryBalanceRepository) {
+        this.inventoryBalanceRepository = inventoryBalanceRepository;
+        for (DonationType type : DonationType.values()) {
+            totals.put(type, new AtomicReference<>(Totals.ZERO));
+        }
+    }
+
+    /**
+     * Current balances, one per type that has one (same rows as inventoryBalanceRepository.findAll())
+     * return => detached copies, safe to hand out
+     */
+    public List<InventoryBalance> getBalances() {
+        if (!loaded) {
+            return inventoryBalanceRepository.findAll();
+        }
+
+        List<InventoryBalance> balances = new ArrayList<>();
+        for (Map.Entry<DonationType, AtomicReference<Totals>> entry : totals.entrySet()) {
+            Totals current = entry.getValue().get();
+            if (current.present) {
+                balances.add(new InventoryBalance(entry.getKey(), current.donated, current.distributed));
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * Current stock of one type (donated - distributed)
+     * return => stock, zero for a type that has no balance yet
+     */
+    public BigDecimal getCurrentStock(DonationType donationType) {
+        if (!loaded) {
+            return inventoryBalanceRepository.findById(donationType)
+                    .map(InventoryBalance::getCurrentStock)
+                    .orElse(BigDecimal.ZERO);
+        }
+
+        Totals current = totals.get(donationType).get();
+        return current.donated.subtract(current.distributed);
+    }
+
+    // Add to (negative: take from) the donated total of a type once the current transaction commits
+    public void adjustDonated(DonationType donationType, BigDecimal delta) {
+        afterCommit(donationType, t -> t.plus(delta, BigDecimal.ZERO));
+    }
+
+    // Add to (negative: take from) the distributed total of a type once the current transaction commits
+    public void adjustDistributed(DonationType donationType, BigDecimal delta) {
+        afterCommit(donationType, t -> t.plus(BigDecimal.ZERO, delta));
+    }
+
+    // Reload from the table once the current transaction commits (after a rebuild)
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reconcile();
+                }
+            });
+        } else {
+            reconcile();
+        }
+    }
+
+    // First load - after the ledger has had its chance to seed the balance table
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Replace the cached totals with the table's
+     * Skipped when a balance change is in flight: the table may or may not include it yet, and
+     * loading either way could drop or double count it - the next run picks it up
+     * return => true if the cache now matches the table
+     */
+    @Scheduled(fixedDelayString = "${inventory.cache.reconcile-interval:PT1M}",
+            initialDelayString = "${inventory.cache.reconcile-interval:PT1M}")
+    public boolean reconcile() {
+        long completedBefore = completedChanges.get();
+        if (pendingChanges.get() > 0) {
+            return false;
+        }
+
+        // the primary: a lagging replica would hand back balances without changes already counted here
+        List<InventoryBalance> balances = DataSourceRouting.onPrimary(inventoryBalanceRepository::findAll);
+
+        synchronized (this) {
+            if (pendingChanges.get() > 0 || completedChanges.get() != completedBefore) {
+                return false;
+            }
+
+            Map<DonationType, Totals> fresh = new EnumMap<>(DonationType.class);
+            for (InventoryBalance balance : balances) {
+                fresh.put(balance.getDonationType(),
+                        new Totals(balance.getTotalDonated(), balance.getTotalDistributed(), true));
+            }
+            for (DonationType type : DonationType.values()) {
+                totals.get(type).set(fresh.getOrDefault(type, Totals.ZERO));
+            }
+            loaded = true;
+            return true;
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    //helper methods
+
+    // apply once committed; counted as pending until then so reconcile() keeps out of the way
+    private void afterCommit(DonationType donationType, UnaryOperator<Totals> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(donationType, change);
+            completedChanges.incrementAndGet();
+            return;
+        }
+
+        pendingChanges.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(donationType, change);
+                    }
+                } finally {
+                    completedChanges.incrementAndGet();
+                    pendingChanges.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    // synchronized with the reload in reconcile(), so a change committed mid-reload lands on top of it
+    private synchronized void apply(DonationType donationType, UnaryOperator<Totals> change) {
+        // before the first load the table read will include this change anyway
+        if (loaded) {
+            totals.get(donationType).updateAndGet(change);
+        }
+    }
+
+    // immutable (donated, distributed) pair of one type; present = the type has a balance row
+    private static final class Totals {
+        private static final Totals ZERO = new Totals(BigDecimal.ZERO, BigDecimal.ZERO, false);
+
+        private final BigDecimal donated;
+        private final BigDecimal distributed;
+        private final boolean present;
+
+        private Totals(BigDecimal donated, BigDecimal distributed, boolean present) {
+            this.donated = donated;
+            this.distributed = distributed;
+            this.present = present;
+        }
+
+        private Totals plus(BigDecimal donatedDelta, BigDecimal distributedDelta) {
+            return new Totals(donated.add(donatedDelta), distributed.add(distributedDelta), true);
+        }
+    }
+}
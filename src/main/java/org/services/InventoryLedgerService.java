@@ -0,0 +1,179 @@
+package org.services;
+
+import io.micrometer.core.annotation.Timed;
+import org.dto.InventoryCheckResponse;
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.entity.DonationType;
+import org.entity.InventoryBalance;
+import org.exception.InsufficientInventoryException;
+import org.repository.DistributionRepository;
+import org.repository.DonationRepository;
+import org.repository.InventoryBalanceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the inventory_balance table (one row per donation type)
+ * Every donation/distribution write calls into here inside its own transaction,
+ * so the balance always commits or rolls back together with the row that changed it
+ * (recording a distribution updates its balance row directly - see DistributionRepository.insertIfAvailable)
+ * Every balance change is also handed to InventoryCache, which applies it once the transaction commits
+ */
+@Service
+@Timed(value = "service.method", histogram = true)
+@Transactional
+public class InventoryLedgerService {
+
+    private final InventoryBalanceRepository inventoryBalanceRepository;
+    private final DonationRepository donationRepository;
+    private final DistributionRepository distributionRepository;
+    private final InventoryCache inventoryCache;
+    private final DataVersion dataVersion;
+
+    @Autowired
+    public InventoryLedgerService(InventoryBalanceRepository inventoryBalanceRepository,
+                                  DonationRepository donationRepository,
+                                  DistributionRepository distributionRepository,
+                                  InventoryCache inventoryCache,
+                                  DataVersion dataVersion) {
+        this.inventoryBalanceRepository = inventoryBalanceRepository;
+        this.donationRepository = donationRepository;
+        this.distributionRepository = distributionRepository;
+        this.inventoryCache = inventoryCache;
+        this.dataVersion = dataVersion;
+    }
+
+    // Add a saved donation to the balance of its type
+    public void recordDonation(Donation donation) {
+        inventoryBalanceRepository.adjustDonated(donation.getDonationType().name(), donation.getQuantity());
+        inventoryCache.adjustDonated(donation.getDonationType(), donation.getQuantity());
+    }
+
+    // Add a batch of saved donations - one balance update per type rather than one per row
+    public void recordDonations(List<Donation> donations) {
+        Map<DonationType, BigDecimal> totals = new EnumMap<>(DonationType.class);
+        for (Donation donation : donations) {
+            totals.merge(donation.getDonationType(), donation.getQuantity(), BigDecimal::add);
+        }
+        totals.forEach((type, quantity) -> {
+            inventoryBalanceRepository.adjustDonated(type.name(), quantity);
+            inventoryCache.adjustDonated(type, quantity);
+        });
+    }
+
+    // Take a deleted donation back out of the balance of its type
+    public void reverseDonation(Donation donation) {
+        inventoryBalanceRepository.adjustDonated(donation.getDonationType().name(), donation.getQuantity().negate());
+        inventoryCache.adjustDonated(donation.getDonationType(), donation.getQuantity().negate());
+    }
+
+    // A distribution saved by DistributionRepository.insertIfAvailable - its balance row is already updated,
+    // only the cache still needs it
+    public void recordDistribution(Distribution distribution) {
+        inventoryCache.adjustDistributed(distribution.getDonationType(), distribution.getQuantity());
+    }
+
+    /**
+     * Reserve stock for a batch of distributions - one conditional update per type
+     * Throws when a type's stock does not cover its share of the batch; the caller's transaction
+     * then rolls back every reservation already made for the batch
+     */
+    public void reserveDistributions(List<Distribution> distributions) {
+        Map<DonationType, BigDecimal> totals = new EnumMap<>(DonationType.class);
+        for (Distribution distribution : distributions) {
+            totals.merge(distribution.getDonationType(), distribution.getQuantity(), BigDecimal::add);
+        }
+
+        for (Map.Entry<DonationType, BigDecimal> entry : totals.entrySet()) {
+            if (inventoryBalanceRepository.reserveDistributed(entry.getKey().name(), entry.getValue()) == 0) {
+                BigDecimal available = inventoryBalanceRepository.findById(entry.getKey())
+                        .map(InventoryBalance::getCurrentStock)
+                        .orElse(BigDecimal.ZERO);
+
+                InventoryCheckResponse check = new InventoryCheckResponse();
+                check.setDonationType(entry.getKey());
+                check.setRequestedQuantity(entry.getValue());
+                check.setAvailableQuantity(available);
+                check.setSufficient(false);
+                throw new InsufficientInventoryException(check);
+            }
+            inventoryCache.adjustDistributed(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Take a deleted distribution back out of the balance of its type
+    public void reverseDistribution(Distribution distribution) {
+        inventoryBalanceRepository.adjustDistributed(distribution.getDonationType().name(), distribution.getQuantity().negate());
+        inventoryCache.adjustDistributed(distribution.getDonationType(), distribution.getQuantity().negate());
+    }
+
+    /**
+     * Recompute every balance row from the donations and distributions tables
+     * The balance table is locked first so no write can slip in between the aggregates and the save
+     * Both aggregates run in this transaction, on the connection that holds the lock - a read-write one, so
+     * always the primary: totals read from a lagging replica would be saved as the balances
+     * The totals of detached months, no longer in either table, are added back from the archive
+     * return => the rebuilt balances, one per donation type
+     */
+    public List<InventoryBalance> rebuild() {
+        inventoryBalanceRepository.lockForRebuild();
+
+        Map<DonationType, BigDecimal> donatedMap = toTypeMap(donationRepository.getTotalQuantityByType());
+        Map<DonationType, BigDecimal> distributedMap = toTypeMap(distributionRepository.getTotalQuantityByType());
+        for (Object[] row : inventoryBalanceRepository.getArchivedTotals()) {
+            DonationType type = DonationType.valueOf((String) row[0]);
+            donatedMap.merge(type, (BigDecimal) row[1], BigDecimal::add);
+            distributedMap.merge(type, (BigDecimal) row[2], BigDecimal::add);
+        }
+
+        List<InventoryBalance> balances = new ArrayList<>();
+        for (DonationType type : DonationType.values()) {
+            balances.add(new InventoryBalance(
+                    type,
+                    donatedMap.getOrDefault(type, BigDecimal.ZERO),
+                    distributedMap.getOrDefault(type, BigDecimal.ZERO)
+            ));
+        }
+
+        List<InventoryBalance> saved = inventoryBalanceRepository.saveAll(balances);
+        inventoryCache.reloadAfterCommit();
+        dataVersion.changed();
+        return saved;
+    }
+
+    /**
+     * Seed the balance table on first start against an existing database
+     * (the table is new, but donations/distributions may already hold years of rows)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        if (inventoryBalanceRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    //helper methods
+
+    // [DonationType, TotalQuantity] rows to a map
+    private Map<DonationType, BigDecimal> toTypeMap(List<Object[]> totalQuantityByType) {
+        Map<DonationType, BigDecimal> map = new EnumMap<>(DonationType.class);
+
+        for (Object[] row : totalQuantityByType) {
+            DonationType type = (DonationType) row[0];
+            BigDecimal quantity = (BigDecimal) row[1];
+            map.put(type, quantity);
+        }
+
+        return map;
+    }
+}
@@ -0,0 +1,88 @@
+package org.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.entity.DonationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Business counters per donation type, exported with the rest of the metrics on /actuator/prometheus
+ *   inventory.donations.recorded      - donations saved (counted once their transaction commits)
+ *   inventory.distributions.recorded  - distributions saved (likewise)
+ *   inventory.distributions.rejected  - distributions refused for lack of stock
+ *                                       (source=record: a write was refused, source=check: checkInventory said no)
+ * Counters are registered up front for every type, so dashboards see zeros instead of missing series
+ */
+@Component
+public class InventoryMetrics {
+
+    public static final String SOURCE_RECORD = "record";
+    public static final String SOURCE_CHECK = "check";
+
+    private final Map<DonationType, Counter> donationsRecorded = new EnumMap<>(DonationType.class);
+    private final Map<DonationType, Counter> distributionsRecorded = new EnumMap<>(DonationType.class);
+    private final Map<DonationType, Counter> rejectedOnRecord = new EnumMap<>(DonationType.class);
+    private final Map<DonationType, Counter> rejectedOnCheck = new EnumMap<>(DonationType.class);
+
+    @Autowired
+    public InventoryMetrics(MeterRegistry meterRegistry) {
+        for (DonationType type : DonationType.values()) {
+            donationsRecorded.put(type, Counter.builder("inventory.donations.recorded")
+                    .description("Donations saved")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+            distributionsRecorded.put(type, Counter.builder("inventory.distributions.recorded")
+                    .description("Distributions saved")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+            rejectedOnRecord.put(type, rejected(meterRegistry, type, SOURCE_RECORD));
+            rejectedOnCheck.put(type, rejected(meterRegistry, type, SOURCE_CHECK));
+        }
+    }
+
+    public void donationsRecorded(DonationType type, long count) {
+        incrementAfterCommit(donationsRecorded.get(type), count);
+    }
+
+    public void distributionsRecorded(DonationType type, long count) {
+        incrementAfterCommit(distributionsRecorded.get(type), count);
+    }
+
+    // source is SOURCE_RECORD or SOURCE_CHECK
+    public void distributionRejected(DonationType type, String source) {
+        (SOURCE_CHECK.equals(source) ? rejectedOnCheck : rejectedOnRecord).get(type).increment();
+    }
+
+    //helper methods
+
+    // a write rolled back after the save (a failed batch, a later step throwing) was never recorded
+    private void incrementAfterCommit(Counter counter, long count) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter.increment(count);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    counter.increment(count);
+                }
+            }
+        });
+    }
+
+    private Counter rejected(MeterRegistry meterRegistry, DonationType type, String source) {
+        return Counter.builder("inventory.distributions.rejected")
+                .description("Distributions refused because stock was insufficient")
+                .tag("type", type.name())
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,204 @@
+package org.services;
+
+import org.config.DataSourceRouting;
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.repository.DistributionRepository;
+import org.repository.DonationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Substring search over donor names and recipients, answered from memory (see TrigramIndex)
+ * instead of LOWER(name) LIKE '%term%' scans of the donations / distributions tables
+ *
+ * Built from both tables on startup; the services report every insert and delete, which is applied
+ * once its transaction commits. Until the build finishes, searches return null and the caller
+ * falls back to the database query.
+ */
+@Component
+public class NameSearchIndex {
+
+    private enum Target { DONORS, RECIPIENTS }
+
+    private final DonationRepository donationRepository;
+    private final DistributionRepository distributionRepository;
+
+    private volatile TrigramIndex donors = new TrigramIndex();
+    private volatile TrigramIndex recipients = new TrigramIndex();
+    private volatile boolean loaded;
+
+    // changes committed while a build runs - replayed over the fresh index (guarded by this)
+    private List<Change> replay;
+
+    @Autowired
+    public NameSearchIndex(DonationRepository donationRepository, DistributionRepository distributionRepository) {
+        this.donationRepository = donationRepository;
+        this.distributionRepository = distributionRepository;
+    }
+
+    /**
+     * One page of donations whose donor name contains the term
+     * @param position - keyset position of the last row seen (from CursorMapper)
+     * return => ids in list order, or null while the index is not built yet
+     */
+    public TrigramIndex.Page searchDonors(String term, ScrollPosition position, String dateProperty, int limit) {
+        return search(donors, term, position, dateProperty, limit);
+    }
+
+    /**
+     * One page of distributions whose recipient contains the term
+     * @param position - keyset position of the last row seen (from CursorMapper)
+     * return => ids in list order, or null while the index is not built yet
+     */
+    public TrigramIndex.Page searchRecipients(String term, ScrollPosition position, String dateProperty, int limit) {
+        return search(recipients, term, position, dateProperty, limit);
+    }
+
+    public void donationsSaved(List<Donation> donations) {
+        for (Donation donation : donations) {
+            afterCommit(new Change(Target.DONORS, true, donation.getId(), donation.getDonorName(), donation.getDonationDate()));
+        }
+    }
+
+    public void donationDeleted(Donation donation) {
+        afterCommit(new Change(Target.DONORS, false, donation.getId(), donation.getDonorName(), donation.getDonationDate()));
+    }
+
+    public void distributionsSaved(List<Distribution> distributions) {
+        for (Distribution distribution : distributions) {
+            afterCommit(new Change(Target.RECIPIENTS, true, distribution.getId(), distribution.getRecipient(),
+                    distribution.getDistributionDate()));
+        }
+    }
+
+    public void distributionDeleted(Distribution distribution) {
+        afterCommit(new Change(Target.RECIPIENTS, false, distribution.getId(), distribution.getRecipient(),
+                distribution.getDistributionDate()));
+    }
+
+    /**
+     * Build both indexes from the tables (streamed, one JDBC fetch of 1000 rows at a time)
+     * Changes that commit meanwhile are held back and replayed over the result, so none is lost
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+
+        // the primary: a lagging replica would miss rows whose changes committed before the replay list existed
+        TrigramIndex freshDonors = new TrigramIndex();
+        TrigramIndex freshRecipients = new TrigramIndex();
+        DataSourceRouting.runOnPrimary(() -> {
+            try (Stream<Object[]> rows = donationRepository.streamDonorKeys()) {
+                rows.forEach(row -> freshDonors.add((Long) row[0], (String) row[1], (LocalDate) row[2]));
+            }
+            try (Stream<Object[]> rows = distributionRepository.streamRecipientKeys()) {
+                rows.forEach(row -> freshRecipients.add((Long) row[0], (String) row[1], (LocalDate) row[2]));
+            }
+        });
+
+        synchronized (this) {
+            for (Change change : replay) {
+                change.replay(change.target == Target.DONORS ? freshDonors : freshRecipients);
+            }
+            replay = null;
+            donors = freshDonors;
+            recipients = freshRecipients;
+            loaded = true;
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    //helper methods
+
+    private TrigramIndex.Page search(TrigramIndex index, String term, ScrollPosition position,
+                                     String dateProperty, int limit) {
+        if (!loaded) {
+            return null;
+        }
+        if (position.isInitial()) {
+            return index.search(term, null, null, limit);
+        }
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        return index.search(term, (LocalDate) keys.get(dateProperty), (Long) keys.get("id"), limit);
+    }
+
+    // apply once committed (a rolled-back insert must not turn up in searches)
+    private void afterCommit(Change change) {
+        if (change.name == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private synchronized void apply(Change change) {
+        if (replay != null) {
+            replay.add(change);
+        } else if (loaded) {
+            change.apply(change.target == Target.DONORS ? donors : recipients);
+        }
+        // not loaded and no build running: the coming build reads it from the table
+    }
+
+    // one insert or delete of an indexed row
+    private static final class Change {
+        private final Target target;
+        private final boolean insert;
+        private final long id;
+        private final String name;
+        private final LocalDate date;
+
+        private Change(Target target, boolean insert, long id, String name, LocalDate date) {
+            this.target = target;
+            this.insert = insert;
+            this.id = id;
+            this.name = name;
+            this.date = date;
+        }
+
+        private void apply(TrigramIndex index) {
+            if (insert) {
+                index.add(id, name, date);
+            } else {
+                index.remove(id, name, date);
+            }
+        }
+
+        // the build may already have read this row from the table
+        private void replay(TrigramIndex index) {
+            if (insert) {
+                index.addIfAbsent(id, name, date);
+            } else {
+                index.remove(id, name, date);
+            }
+        }
+    }
+}
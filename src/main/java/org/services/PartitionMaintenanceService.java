@@ -0,0 +1,134 @@
+package org.services;
+
+import io.micrometer.core.annotation.Timed;
+import org.dto.PartitionResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Monthly partitions of the donations and distributions tables (see db/migration/V7__partition_by_date.sql)
+ * On startup and every partitions.maintenance-interval after that, the current month and the next
+ * partitions.months-ahead get a partition if they have none, and so does every month found in a default
+ * partition (rows dated before the oldest partition or after the newest) - its rows move over.
+ * Months before a date can be detached for archiving: they stay in the database as plain tables until dumped
+ * and dropped, but lists, search and exports no longer see them. Their totals are kept in the archived_* tables
+ * (V8), which the inventory, donor and timeseries rebuilds add back; an archived month takes no new rows.
+ */
+@Service
+@Timed(value = "service.method", histogram = true)
+public class PartitionMaintenanceService {
+
+    // partitioned table => its partition key
+    static final Map<String, String> TABLES = new TreeMap<>(Map.of(
+            "donations", "donation_date", "distributions", "distribution_date"));
+
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataVersion dataVersion;
+    private final NameSearchIndex nameSearchIndex;
+    private final int monthsAhead;
+
+    @Autowired
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate, DataVersion dataVersion,
+                                       NameSearchIndex nameSearchIndex,
+                                       @Value("${partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataVersion = dataVersion;
+        this.nameSearchIndex = nameSearchIndex;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Create the missing partitions of both tables (one transaction per partition, on the primary)
+     * Archived months are left out: their rows are rejected rather than parked in the default partition
+     * return => names of the partitions created, empty when all were there
+     */
+    @Scheduled(fixedDelayString = "${partitions.maintenance-interval:PT6H}")
+    public List<String> createPartitions() {
+        List<String> created = new ArrayList<>();
+        for (Map.Entry<String, String> table : TABLES.entrySet()) {
+            // looked up first: ATTACH can't run while this session still has the default partition open
+            List<LocalDate> months = jdbcTemplate.queryForList(
+                    "SELECT generate_series(date_trunc('month', current_date), " +
+                            "date_trunc('month', current_date) + make_interval(months => ?), interval '1 month')::date " +
+                            "UNION SELECT DISTINCT date_trunc('month', " + table.getValue() + ")::date FROM " + table.getKey() + "_default " +
+                            "EXCEPT SELECT month FROM archived_months WHERE parent_table = ? " +
+                            "ORDER BY 1",
+                    LocalDate.class, monthsAhead, table.getKey());
+            for (LocalDate month : months) {
+                if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT ensure_month_partition(?, ?)",
+                        Boolean.class, table.getKey(), Date.valueOf(month)))) {
+                    created.add(table.getKey() + "_" + MONTH_SUFFIX.format(month));
+                }
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Detach every monthly partition that ends on or before the given day, from both tables, in one transaction
+     * Once it commits the search index is rebuilt without their rows, and list/report ETags move
+     * return => names of the detached tables, oldest first
+     */
+    @Transactional
+    public List<String> detachBefore(LocalDate before) {
+        List<String> detached = new ArrayList<>();
+        for (String table : TABLES.keySet()) {
+            detached.addAll(jdbcTemplate.queryForList("SELECT detach_month_partitions(?, ?)",
+                    String.class, table, Date.valueOf(before)));
+        }
+        if (!detached.isEmpty()) {
+            dataVersion.changed();
+            buildIndexAfterCommit();
+        }
+        return detached;
+    }
+
+    /**
+     * Every partition of both tables, the default ones included
+     * return => partitions by table, then by name (months in order)
+     */
+    public List<PartitionResponse> getPartitions() {
+        return jdbcTemplate.query(
+                "SELECT p.relname AS parent, c.relname, pg_get_expr(c.relpartbound, c.oid) AS bounds, " +
+                        "c.reltuples::bigint AS estimated_rows " +
+                        "FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname IN ('donations', 'distributions') AND c.relkind = 'r' " +
+                        "ORDER BY p.relname, c.relname",
+                (row, i) -> new PartitionResponse(row.getString("parent"), row.getString("relname"),
+                        row.getString("bounds"), row.getLong("estimated_rows")));
+    }
+
+    //helper methods
+
+    // not while DETACH still holds its locks on both tables
+    private void buildIndexAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    nameSearchIndex.build();
+                }
+            });
+        } else {
+            nameSearchIndex.build();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.services;
+
+/**
+ * Running totals over days (a Fenwick / binary indexed tree)
+ * Holds one signed amount per day; add() to any day - past days included - and sumThrough() of any day
+ * both cost O(log days), so "total as of a date" never walks the history
+ *
+ * The covered days grow in both directions as new days arrive (rebuilt in O(days) when they do),
+ * up to MAX_DAYS apart. Not thread safe: the owner guards it (see StockHistory)
+ */
+public class PrefixSumTree {
+
+    // about 700 years - a day further away than that from the others is refused
+    static final int MAX_DAYS = 1 << 18;
+    private static final int INITIAL_DAYS = 1024;
+
+    // epoch day of position 0
+    private long origin;
+    // amount per day, position = day - origin
+    private long[] daily = new long[0];
+    // Fenwick nodes, 1-based: tree[i] = sum of daily[i - (i & -i) .. i - 1]
+    private long[] tree = new long[1];
+    private long total;
+
+    /**
+     * Add an amount to one day
+     * return => false (and nothing added) when the day is too far from the days already held
+     */
+    public boolean add(long epochDay, long amount) {
+        if (amount == 0) {
+            return true;
+        }
+        if (!cover(epochDay)) {
+            return false;
+        }
+        int position = (int) (epochDay - origin);
+        daily[position] += amount;
+        for (int i = position + 1; i < tree.length; i += i & -i) {
+            tree[i] += amount;
+        }
+        total += amount;
+        return true;
+    }
+
+    // Sum of every day up to and including the given one
+    public long sumThrough(long epochDay) {
+        if (daily.length == 0 || epochDay < origin) {
+            return 0;
+        }
+        if (epochDay >= origin + daily.length - 1) {
+            return total;
+        }
+        long sum = 0;
+        for (int i = (int) (epochDay - origin) + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    //helper methods
+
+    // make room for the day: double the span (towards the day) until it fits
+    private boolean cover(long epochDay) {
+        if (daily.length == 0) {
+            // first day: leave room for back-dated entries before it
+            resize(epochDay - INITIAL_DAYS / 2, INITIAL_DAYS);
+            return true;
+        }
+        long newOrigin = origin;
+        long size = daily.length;
+        while (epochDay < newOrigin || epochDay >= newOrigin + size) {
+            if (size * 2 > MAX_DAYS) {
+                return false;
+            }
+            if (epochDay < newOrigin) {
+                newOrigin -= size;
+            }
+            size *= 2;
+        }
+        if (size != daily.length) {
+            resize(newOrigin, (int) size);
+        }
+        return true;
+    }
+
+    // move the held days into a new span and rebuild the nodes bottom-up in O(size)
+    private void resize(long newOrigin, int size) {
+        long[] newDaily = new long[size];
+        if (daily.length > 0) {
+            System.arraycopy(daily, 0, newDaily, (int) (origin - newOrigin), daily.length);
+        }
+
+        long[] newTree = new long[size + 1];
+        for (int i = 1; i <= size; i++) {
+            newTree[i] += newDaily[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                newTree[parent] += newTree[i];
+            }
+        }
+
+        origin = newOrigin;
+        daily = newDaily;
+        tree = newTree;
+    }
+}
@@ -1,104 +1,88 @@
 package org.services;
 
+import io.micrometer.core.annotation.Timed;
 import org.dto.InventoryCheckResponse;
 import org.entity.DonationType;
-import org.repository.DistributionRepository;
-import org.repository.DonationRepository;
+import org.entity.DonorTypeTotal;
+import org.entity.InventoryBalance;
+import org.repository.DonorTypeTotalRepository;
 import org.dto.InventoryReportDTO;
 import org.dto.DonorReportDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.*;
 
 //Service for generating reports
 @Service
+@Timed(value = "service.method", histogram = true)
 @Transactional(readOnly = true)
 public class ReportService {
 
-    private final DonationRepository donationRepository;
-    private final DistributionRepository distributionRepository;
+    private final DonorTypeTotalRepository donorTypeTotalRepository;
+    private final InventoryCache inventoryCache;
+    private final StockHistory stockHistory;
+    private final InventoryMetrics inventoryMetrics;
 
     @Autowired
-    public ReportService(DonationRepository donationRepository,
-                         DistributionRepository distributionRepository) {
-        this.donationRepository = donationRepository;
-        this.distributionRepository = distributionRepository;
+    public ReportService(DonorTypeTotalRepository donorTypeTotalRepository,
+                         InventoryCache inventoryCache,
+                         StockHistory stockHistory,
+                         InventoryMetrics inventoryMetrics) {
+        this.donorTypeTotalRepository = donorTypeTotalRepository;
+        this.inventoryCache = inventoryCache;
+        this.stockHistory = stockHistory;
+        this.inventoryMetrics = inventoryMetrics;
     }
 
     /**
      * Generate Inventory Report
      * Shows current stock by donation type (Donated - Distributed)
+     * Served from the in-memory balances - no transaction, no connection (kiosks poll this every few seconds)
      * returns => InventoryReportDTO containing current inventory status
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public InventoryReportDTO generateInventoryReport() {
-        InventoryReportDTO report = new InventoryReportDTO();
-
-        // Get total donated by type
-        Map<DonationType, BigDecimal> donatedMap = getTotalDonatedByType();
-
-        // Get total distributed by type
-        Map<DonationType, BigDecimal> distributedMap = getTotalDistributedByType();
-
-        // Get all donation types that have been used
-        Set<DonationType> allTypes = new HashSet<>();
-        allTypes.addAll(donatedMap.keySet());
-        allTypes.addAll(distributedMap.keySet());
-
-        // Calculate current stock for each type
-        BigDecimal totalMoneyInStock = BigDecimal.ZERO;
-        BigDecimal totalQuantityInStock = BigDecimal.ZERO;
-
-        for (DonationType type : allTypes) {
-            BigDecimal donated = donatedMap.getOrDefault(type, BigDecimal.ZERO);
-            BigDecimal distributed = distributedMap.getOrDefault(type, BigDecimal.ZERO);
-            BigDecimal currentStock = donated.subtract(distributed);
-
-            // Create inventory item
-            InventoryReportDTO.InventoryItem item = new InventoryReportDTO.InventoryItem(
-                    type,
-                    donated,
-                    distributed,
-                    currentStock
-            );
-
-            report.addItem(item);
-
-            // Total quantity (regardless of type)
-            totalQuantityInStock = totalQuantityInStock.add(currentStock);
+        return toInventoryReport(inventoryCache.getBalances());
+    }
 
-            // If this is money, add to total value
-            if (type == DonationType.MONEY) {
-                totalMoneyInStock = totalMoneyInStock.add(currentStock);
-            }
+    /**
+     * Generate Inventory Report as it stood at the end of a past day
+     * Counts donations and distributions dated up to and including that day, back-dated entries included
+     * @param asOf - the day; null for the current report
+     * returns => InventoryReportDTO with the stock per type as of that day
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public InventoryReportDTO generateInventoryReport(LocalDate asOf) {
+        if (asOf == null) {
+            return generateInventoryReport();
         }
-
-        report.setTotalValue(totalMoneyInStock);
-        report.setTotalQuantity(totalQuantityInStock);
-
-        return report;
+        return toInventoryReport(stockHistory.getBalancesAsOf(asOf));
     }
 
     /**
      * Generate Donor Report
      * Shows total contributions by each donor, grouped by type
+     * Read from the donor_type_totals summary, so the cost follows the number of donors, not of donations
      * returns => DonorReportDTO containing donor contributions
      */
     public DonorReportDTO generateDonorReport() {
         DonorReportDTO report = new DonorReportDTO();
 
-        // Get donations grouped by donor and type
-        List<Object[]> donorData = donationRepository.getTotalDonationsByDonor();
+        // Get donation totals by donor and type (sorted by donor name)
+        List<DonorTypeTotal> donorTotals = donorTypeTotalRepository.findAllByOrderByDonorNameAscDonationTypeAsc();
 
         // Group by donor name
         Map<String, DonorReportDTO.DonorContribution> donorMap = new LinkedHashMap<>();
 
-        for (Object[] row : donorData) {
-            String donorName = (String) row[0];
-            DonationType donationType = (DonationType) row[1];
-            BigDecimal quantity = (BigDecimal) row[2];
+        for (DonorTypeTotal total : donorTotals) {
+            String donorName = total.getDonorName();
+            DonationType donationType = total.getDonationType();
+            BigDecimal quantity = total.getTotalQuantity();
 
             // Get or create donor contribution
             DonorReportDTO.DonorContribution contribution = donorMap.computeIfAbsent(
@@ -139,10 +123,9 @@ public class ReportService {
      * @param donationType - the type to check
      * returns => current stock quantity
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal getInventoryByType(DonationType donationType) {
-        BigDecimal donated = getTotalDonatedForType(donationType);
-        BigDecimal distributed = getTotalDistributedForType(donationType);
-        return donated.subtract(distributed);
+        return inventoryCache.getCurrentStock(donationType);
     }
 
     /**
@@ -157,22 +140,16 @@ public class ReportService {
     }*/
 
     //Method update from hasAvailableInventory to checkInventory with sufficient
+    @Transactional(propagation = Propagation.SUPPORTS)
     public InventoryCheckResponse checkInventory(DonationType type, BigDecimal requestedQty) {
-        BigDecimal donated = getInventoryByType(type);
-        if (donated == null) {
-            donated = BigDecimal.ZERO;
-        }
-
-        BigDecimal distributed = distributionRepository.getTotalQuantityByType(type);
-        if (distributed == null) {
-            distributed = BigDecimal.ZERO;
-        }
-
-        // available inventory
-        BigDecimal available = donated.subtract(distributed);
+        // available inventory (donated - distributed, from the cached balance)
+        BigDecimal available = getInventoryByType(type);
 
         //Compare with requested quantity
         boolean sufficient = available.compareTo(requestedQty) >= 0;
+        if (!sufficient) {
+            inventoryMetrics.distributionRejected(type, InventoryMetrics.SOURCE_CHECK);
+        }
 
 
         InventoryCheckResponse response = new InventoryCheckResponse();
@@ -184,40 +161,47 @@ public class ReportService {
         return response;
     }
 
+    //helper methods
 
-    //helper methods to handle internal functions
+    // one report item per type that has seen any movement, plus the stock totals
+    private InventoryReportDTO toInventoryReport(List<InventoryBalance> balances) {
+        InventoryReportDTO report = new InventoryReportDTO();
 
-    // Get total donated by type as a map
-    private Map<DonationType, BigDecimal> getTotalDonatedByType() {
-        return getDonationTypeBigDecimalMap(donationRepository.getTotalQuantityByType());
-    }
+        // Calculate stock for each type from the balances
+        BigDecimal totalMoneyInStock = BigDecimal.ZERO;
+        BigDecimal totalQuantityInStock = BigDecimal.ZERO;
 
-    private Map<DonationType, BigDecimal> getDonationTypeBigDecimalMap(List<Object[]> totalQuantityByType) {
-        Map<DonationType, BigDecimal> map = new HashMap<>();
+        for (InventoryBalance balance : balances) {
+            // skip types that have never been used
+            if (balance.getTotalDonated().signum() == 0 && balance.getTotalDistributed().signum() == 0) {
+                continue;
+            }
 
-        for (Object[] row : totalQuantityByType) {
-            DonationType type = (DonationType) row[0];
-            BigDecimal quantity = (BigDecimal) row[1];
-            map.put(type, quantity);
-        }
+            DonationType type = balance.getDonationType();
+            BigDecimal currentStock = balance.getCurrentStock();
 
-        return map;
-    }
+            // Create inventory item
+            InventoryReportDTO.InventoryItem item = new InventoryReportDTO.InventoryItem(
+                    type,
+                    balance.getTotalDonated(),
+                    balance.getTotalDistributed(),
+                    currentStock
+            );
 
-    //Get total distributed by type as a map
-    private Map<DonationType, BigDecimal> getTotalDistributedByType() {
-        return getDonationTypeBigDecimalMap(distributionRepository.getTotalQuantityByType());
-    }
+            report.addItem(item);
 
-    //Get total donated for a specific type
-    private BigDecimal getTotalDonatedForType(DonationType donationType) {
-        Map<DonationType, BigDecimal> map = getTotalDonatedByType();
-        return map.getOrDefault(donationType, BigDecimal.ZERO);
-    }
+            // Total quantity (regardless of type)
+            totalQuantityInStock = totalQuantityInStock.add(currentStock);
 
-    //Get total distributed for a specific type
-    private BigDecimal getTotalDistributedForType(DonationType donationType) {
-        BigDecimal total = distributionRepository.getTotalQuantityByType(donationType);
-        return total != null ? total : BigDecimal.ZERO;
+            // If this is money, add to total value
+            if (type == DonationType.MONEY) {
+                totalMoneyInStock = totalMoneyInStock.add(currentStock);
+            }
+        }
+
+        report.setTotalValue(totalMoneyInStock);
+        report.setTotalQuantity(totalQuantityInStock);
+
+        return report;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,244 @@
+package org.services;
+
+import org.config.DataSourceRouting;
+import org.entity.DailyTypeRollup;
+import org.entity.DonationType;
+import org.entity.InventoryBalance;
+import org.repository.DailyTypeRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stock as of any past date, answered from memory
+ * Per donation type, the donated and the distributed amounts of every day are held in a PrefixSumTree,
+ * so the totals through a date cost O(log days) however long the history is
+ *
+ * Loaded from daily_type_rollup on startup; DailyRollupService hands over every change it writes there,
+ * applied once its transaction commits - a back-dated donation moves every "as of" from its day onwards.
+ * Until a load succeeds (or if a date lands too far out for the trees), reads sum daily_type_rollup instead.
+ * Amounts are kept as whole hundredths, the scale of the quantity columns.
+ */
+@Component
+public class StockHistory {
+
+    private final DailyTypeRollupRepository dailyTypeRollupRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // guarded by lock
+    private final Map<DonationType, PrefixSumTree> donated = new EnumMap<>(DonationType.class);
+    private final Map<DonationType, PrefixSumTree> distributed = new EnumMap<>(DonationType.class);
+
+    // changes registered in an open transaction but not yet applied / finished so far
+    private final AtomicLong pendingChanges = new AtomicLong();
+    private final AtomicLong completedChanges = new AtomicLong();
+
+    private volatile boolean loaded;
+
+    @Autowired
+    public StockHistory(DailyTypeRollupRepository dailyTypeRollupRepository) {
+        this.dailyTypeRollupRepository = dailyTypeRollupRepository;
+    }
+
+    /**
+     * Donated / distributed totals per type through the given day (inclusive)
+     * return => one balance per type with any movement up to that day
+     */
+    public List<InventoryBalance> getBalancesAsOf(LocalDate asOf) {
+        List<InventoryBalance> balances = new ArrayList<>();
+        if (!loaded) {
+            for (Object[] row : dailyTypeRollupRepository.getTotalsThrough(asOf)) {
+                balances.add(new InventoryBalance((DonationType) row[0], (BigDecimal) row[1], (BigDecimal) row[2]));
+            }
+            return balances;
+        }
+
+        long day = asOf.toEpochDay();
+        lock.readLock().lock();
+        try {
+            for (DonationType type : DonationType.values()) {
+                long donatedUnits = sumThrough(donated, type, day);
+                long distributedUnits = sumThrough(distributed, type, day);
+                if (donatedUnits != 0 || distributedUnits != 0) {
+                    balances.add(new InventoryBalance(type, toAmount(donatedUnits), toAmount(distributedUnits)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return balances;
+    }
+
+    // Apply rollup deltas (same rows DailyRollupService upserts) once the current transaction commits
+    public void adjust(List<DailyTypeRollup> deltas) {
+        List<Change> changes = new ArrayList<>(deltas.size());
+        for (DailyTypeRollup delta : deltas) {
+            changes.add(new Change(delta.getDonationType(), delta.getRollupDate().toEpochDay(),
+                    toUnits(delta.getDonated()), toUnits(delta.getDistributed())));
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(changes);
+            completedChanges.incrementAndGet();
+            return;
+        }
+
+        pendingChanges.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(changes);
+                    }
+                } finally {
+                    completedChanges.incrementAndGet();
+                    pendingChanges.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    // Reload from the table once the current transaction commits (after a rollup rebuild)
+    public void reloadAfterCommit() {
+        loaded = false;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    load();
+                }
+            });
+        } else {
+            load();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        load();
+    }
+
+    // Retry a load that was skipped (writes in flight) or given up (a day out of range)
+    @Scheduled(fixedDelayString = "${inventory.cache.reconcile-interval:PT1M}",
+            initialDelayString = "${inventory.cache.reconcile-interval:PT1M}")
+    public void loadIfNeeded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    /**
+     * Build the trees from daily_type_rollup
+     * Skipped when a change is in flight: the table may or may not include it yet, and loading
+     * either way could drop or double count it - loadIfNeeded() tries again
+     * return => true if the trees now match the table
+     */
+    public boolean load() {
+        long completedBefore = completedChanges.get();
+        if (pendingChanges.get() > 0) {
+            return false;
+        }
+
+        // the primary: a lagging replica would hand back rollups without changes already counted here
+        List<DailyTypeRollup> rollups = DataSourceRouting.onPrimary(dailyTypeRollupRepository::findAll);
+
+        Map<DonationType, PrefixSumTree> freshDonated = new EnumMap<>(DonationType.class);
+        Map<DonationType, PrefixSumTree> freshDistributed = new EnumMap<>(DonationType.class);
+        for (DailyTypeRollup rollup : rollups) {
+            long day = rollup.getRollupDate().toEpochDay();
+            boolean fits = freshDonated.computeIfAbsent(rollup.getDonationType(), t -> new PrefixSumTree())
+                    .add(day, toUnits(rollup.getDonated()))
+                    && freshDistributed.computeIfAbsent(rollup.getDonationType(), t -> new PrefixSumTree())
+                    .add(day, toUnits(rollup.getDistributed()));
+            if (!fits) {
+                return false;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges.get() > 0 || completedChanges.get() != completedBefore) {
+                return false;
+            }
+            donated.clear();
+            donated.putAll(freshDonated);
+            distributed.clear();
+            distributed.putAll(freshDistributed);
+            loaded = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    //helper methods
+
+    private void apply(List<Change> changes) {
+        lock.writeLock().lock();
+        try {
+            // before the first load the table read will include these changes anyway
+            if (!loaded) {
+                return;
+            }
+            for (Change change : changes) {
+                boolean fits = donated.computeIfAbsent(change.type, t -> new PrefixSumTree()).add(change.day, change.donated)
+                        && distributed.computeIfAbsent(change.type, t -> new PrefixSumTree()).add(change.day, change.distributed);
+                if (!fits) {
+                    // a date too far out for the trees: answer from the table from now on
+                    loaded = false;
+                    return;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long sumThrough(Map<DonationType, PrefixSumTree> trees, DonationType type, long day) {
+        PrefixSumTree tree = trees.get(type);
+        return tree == null ? 0 : tree.sumThrough(day);
+    }
+
+    private static long toUnits(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal toAmount(long units) {
+        return BigDecimal.valueOf(units, 2);
+    }
+
+    // one (day, type) delta, in hundredths
+    private static final class Change {
+        private final DonationType type;
+        private final long day;
+        private final long donated;
+        private final long distributed;
+
+        private Change(DonationType type, long day, long donated, long distributed) {
+            this.type = type;
+            this.day = day;
+            this.donated = donated;
+            this.distributed = distributed;
+        }
+    }
+}
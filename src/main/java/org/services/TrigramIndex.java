@@ -0,0 +1,258 @@
+package org.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory substring index over a name column (donor names, recipients)
+ * Names are lower-cased and split into 3-character grams; each gram points at the distinct names that
+ * contain it, and each name at the rows that carry it. A search intersects the grams of the term,
+ * checks the surviving names with contains(), and pages through their rows in list order
+ * (date DESC, id DESC) - so the work follows the number of matching names and rows, not the table size.
+ *
+ * Each row is kept as one long: (date, id) packed so that a plain numeric sort is the list order
+ * Thread safe: one writer or many readers at a time
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+    // ids below 2^40, dates shifted so any LocalDate from year -9999 fits in the high bits
+    private static final int ID_BITS = 40;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final long DAY_OFFSET = 1L << 22;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // normalized name => its rows (packed keys)
+    private final Map<String, Rows> rowsByName = new HashMap<>();
+    // gram => normalized names containing it
+    private final Map<String, Set<String>> namesByGram = new HashMap<>();
+
+    // Add a row; the caller makes sure the same row is not added twice (see addIfAbsent)
+    public void add(long id, String name, LocalDate date) {
+        if (name == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            rows(normalize(name)).add(key(date, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add a row unless it is already there - slower, for replaying changes over a fresh build
+    public void addIfAbsent(long id, String name, LocalDate date) {
+        if (name == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Rows rows = rows(normalize(name));
+            long key = key(date, id);
+            if (!rows.contains(key)) {
+                rows.add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Remove a row; a name with no rows left is dropped from the grams as well
+    public void remove(long id, String name, LocalDate date) {
+        if (name == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            String normalized = normalize(name);
+            Rows rows = rowsByName.get(normalized);
+            if (rows == null || !rows.remove(key(date, id)) || rows.size > 0) {
+                return;
+            }
+            rowsByName.remove(normalized);
+            for (String gram : grams(normalized)) {
+                Set<String> names = namesByGram.get(gram);
+                names.remove(normalized);
+                if (names.isEmpty()) {
+                    namesByGram.remove(gram);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * One page of rows whose name contains the term (case-insensitive), in list order
+     * @param term - substring to look for
+     * @param afterDate - date of the last row of the previous page, null for the first page
+     * @param afterId - id of the last row of the previous page, null for the first page
+     * @param limit - page size
+     * return => up to limit ids, and whether more rows follow
+     */
+    public Page search(String term, LocalDate afterDate, Long afterId, int limit) {
+        String normalized = normalize(term);
+        long after = afterDate == null ? Long.MAX_VALUE : key(afterDate, afterId);
+
+        lock.readLock().lock();
+        try {
+            // smallest heap of the limit + 1 largest keys below the cursor
+            PriorityQueue<Long> top = new PriorityQueue<>(limit + 1);
+            for (String name : matchingNames(normalized)) {
+                Rows rows = rowsByName.get(name);
+                for (int i = 0; i < rows.size; i++) {
+                    long key = rows.keys[i];
+                    if (key >= after) {
+                        continue;
+                    }
+                    if (top.size() <= limit) {
+                        top.add(key);
+                    } else if (key > top.peek()) {
+                        top.poll();
+                        top.add(key);
+                    }
+                }
+            }
+
+            boolean hasNext = top.size() > limit;
+            if (hasNext) {
+                top.poll();
+            }
+            long[] keys = new long[top.size()];
+            for (int i = keys.length - 1; i >= 0; i--) {
+                keys[i] = top.poll();
+            }
+
+            List<Long> ids = new ArrayList<>(keys.length);
+            for (long key : keys) {
+                ids.add(key & ID_MASK);
+            }
+            return new Page(ids, hasNext);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //helper methods
+
+    // names containing the term: intersect its grams, smallest set first, then confirm with contains()
+    // (terms shorter than a gram check every name)
+    private Collection<String> matchingNames(String term) {
+        if (term.length() < GRAM) {
+            return rowsByName.keySet().stream().filter(name -> name.contains(term)).toList();
+        }
+
+        List<Set<String>> postings = new ArrayList<>();
+        for (String gram : grams(term)) {
+            Set<String> names = namesByGram.get(gram);
+            if (names == null) {
+                return List.of();
+            }
+            postings.add(names);
+        }
+        postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        List<String> result = new ArrayList<>();
+        for (String name : postings.get(0)) {
+            if (name.contains(term)) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    // rows of a name, registering the name under its grams on first use
+    private Rows rows(String normalized) {
+        Rows rows = rowsByName.get(normalized);
+        if (rows == null) {
+            rows = new Rows();
+            rowsByName.put(normalized, rows);
+            for (String gram : grams(normalized)) {
+                namesByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(normalized);
+            }
+        }
+        return rows;
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    // (date, id) packed so that larger = later in (date, id) order
+    private static long key(LocalDate date, long id) {
+        return ((date.toEpochDay() + DAY_OFFSET) << ID_BITS) | (id & ID_MASK);
+    }
+
+    /**
+     * Ids of one page of search results, in list order
+     */
+    public static final class Page {
+        private final List<Long> ids;
+        private final boolean hasNext;
+
+        public Page(List<Long> ids, boolean hasNext) {
+            this.ids = ids;
+            this.hasNext = hasNext;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public boolean hasNext() {
+            return hasNext;
+        }
+    }
+
+    // growable array of packed row keys for one name (unordered)
+    private static final class Rows {
+        private long[] keys = new long[1];
+        private int size;
+
+        private void add(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+
+        private boolean contains(long key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean remove(long key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    keys[i] = keys[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
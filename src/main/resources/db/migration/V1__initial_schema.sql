@@ -0,0 +1,43 @@
+-- Schema as Hibernate (ddl-auto=update) had created it before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate), so this script
+-- only runs against an empty database.
+
+create sequence donations_seq start with 1 increment by 50;
+create sequence distributions_seq start with 1 increment by 50;
+
+create table donations (
+    id bigint not null,
+    donor_name varchar(255) not null,
+    donation_type varchar(100) not null check (donation_type in ('MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER')),
+    quantity numeric(10,2) not null,
+    donation_date date not null,
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+create table distributions (
+    id bigint not null,
+    donation_type varchar(100) not null check (donation_type in ('MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER')),
+    quantity numeric(10,2) not null,
+    distribution_date date not null,
+    recipient varchar(255),
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+create table inventory_balance (
+    donation_type varchar(100) not null check (donation_type in ('MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER')),
+    total_donated numeric(14,2) not null,
+    total_distributed numeric(14,2) not null,
+    updated_at timestamp(6) not null,
+    primary key (donation_type)
+);
+
+create table donor_type_totals (
+    donor_name varchar(255) not null,
+    donation_type varchar(100) not null check (donation_type in ('MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER')),
+    total_quantity numeric(14,2) not null,
+    donation_count bigint not null,
+    updated_at timestamp(6) not null,
+    primary key (donation_type, donor_name)
+);
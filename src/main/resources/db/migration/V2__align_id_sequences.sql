@@ -0,0 +1,5 @@
+-- donations.id and distributions.id used to be IDENTITY columns; move each pooled sequence (increment 50,
+-- see Donation.id / Distribution.id) past any id already in its table so the next block Hibernate
+-- reserves cannot collide with an existing row. (Ran as data.sql on every start before migrations.)
+SELECT setval('donations_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM donations), (SELECT last_value FROM donations_seq)), true);
+SELECT setval('distributions_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM distributions), (SELECT last_value FROM distributions_seq)), true);
@@ -0,0 +1,24 @@
+-- One index per query shape of DonationRepository / DistributionRepository (checked by RepositoryQueryPlanTest).
+-- Paged lists are ordered (date DESC, id DESC) and continue from a keyset cursor, so each list index
+-- ends in those two columns: the first page and every following one are a short range read.
+-- Whole-table aggregates and DISTINCT name lists read every row either way and are left to a seq scan.
+
+-- findAllBy, findByDonationDateBetween, findByDonationDateGreaterThanEqual (recent)
+create index idx_donations_date_id on donations (donation_date desc, id desc);
+-- findByDonationType, findByDonationTypeAndDonationDateBetween, countByDonationType
+create index idx_donations_type_date_id on donations (donation_type, donation_date desc, id desc) include (quantity);
+-- findByDonorName, getTotalQuantityByDonor
+create index idx_donations_donor_date_id on donations (donor_name, donation_date desc, id desc);
+
+-- findAllBy, findByDistributionDateBetween, findByDistributionDateGreaterThanEqual (recent)
+create index idx_distributions_date_id on distributions (distribution_date desc, id desc);
+-- findByDonationType, findByDonationTypeAndDistributionDateBetween, countByDonationType, getTotalQuantityByType
+create index idx_distributions_type_date_id on distributions (donation_type, distribution_date desc, id desc) include (quantity);
+-- findByRecipient
+create index idx_distributions_recipient_date_id on distributions (recipient, distribution_date desc, id desc);
+
+-- the donor report reads donor_type_totals ordered by (donor_name, donation_type): make that the key order
+alter table donor_type_totals drop constraint donor_type_totals_pkey, add primary key (donor_name, donation_type);
+
+analyze donations;
+analyze distributions;
@@ -0,0 +1,24 @@
+-- Daily inflow / outflow per donation type behind GET /api/reports/timeseries (see DailyRollupService).
+-- Keyed by date first: every chart reads a date range.
+create table daily_type_rollup (
+    rollup_date date not null,
+    donation_type varchar(100) not null check (donation_type in ('MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER')),
+    donated numeric(14,2) not null,
+    distributed numeric(14,2) not null,
+    donation_count bigint not null,
+    distribution_count bigint not null,
+    updated_at timestamp(6) not null,
+    primary key (rollup_date, donation_type)
+);
+
+-- seed from the rows already there (same statement as DailyTypeRollupRepository.insertFromSources)
+insert into daily_type_rollup (rollup_date, donation_type, donated, distributed, donation_count, distribution_count, updated_at)
+select coalesce(d.day, t.day), coalesce(d.donation_type, t.donation_type),
+       coalesce(d.quantity, 0), coalesce(t.quantity, 0), coalesce(d.row_count, 0), coalesce(t.row_count, 0), now()
+from (select donation_date as day, donation_type, sum(quantity) as quantity, count(*) as row_count
+      from donations group by donation_date, donation_type) d
+full join (select distribution_date as day, donation_type, sum(quantity) as quantity, count(*) as row_count
+           from distributions group by distribution_date, donation_type) t
+    on t.day = d.day and t.donation_type = d.donation_type;
+
+analyze daily_type_rollup;
@@ -0,0 +1,7 @@
+-- How far each async intake journal has been committed (see DonationIntakeService).
+-- Moved in the same transaction as the donations it covers, so a restart replays exactly the rest.
+create table intake_checkpoint (
+    journal varchar(100) primary key,
+    journal_offset bigint not null,
+    updated_at timestamp(6) not null
+);
@@ -0,0 +1,14 @@
+-- Idempotency-Key of every keyed POST /api/donations and /api/distributions (see IdempotencyService):
+-- written in the same transaction as the row it created, so a retry finds either both or neither.
+-- Rows older than idempotency.ttl are purged by created_at.
+create table idempotency_keys (
+    scope varchar(20) not null,
+    idempotency_key varchar(255) not null,
+    -- SHA-256 of the request body, so a key reused for a different request is refused instead of replayed
+    request_hash varchar(64) not null,
+    response_body text not null,
+    created_at timestamp(6) not null,
+    primary key (scope, idempotency_key)
+);
+
+create index idx_idempotency_keys_created_at on idempotency_keys (created_at);
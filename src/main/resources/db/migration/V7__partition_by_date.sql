@@ -0,0 +1,117 @@
+-- Range-partition donations by donation_date and distributions by distribution_date, one partition per month
+-- (donations_2025_01 holds January 2025). Queries with a date range only touch the months in it, and an old
+-- month can be detached and archived as a plain table instead of deleted row by row.
+-- Rows dated outside every partition land in <table>_default; PartitionMaintenanceService creates the coming
+-- months ahead of time and gives any month that shows up in the default partition its own partition.
+-- A partitioned table's primary key has to include the partition key, so it becomes (id, date); ids stay
+-- unique through donations_seq / distributions_seq. Rewrites both tables: expect it to take a while on a big
+-- database, with writes blocked meanwhile.
+
+-- Partition of parent for the month of the given date; false if it exists already.
+-- Built beside the table and then attached (a lighter lock on the parent than CREATE .. PARTITION OF), taking
+-- over the rows of that month from the default partition on the way.
+create function ensure_month_partition(parent text, month date) returns boolean as $$
+declare
+    lower_bound date := date_trunc('month', month)::date;
+    upper_bound date := (date_trunc('month', month) + interval '1 month')::date;
+    child text := parent || '_' || to_char(month, 'YYYY_MM');
+    key text;
+begin
+    if to_regclass(child) is not null then
+        return false;
+    end if;
+    select a.attname into strict key
+    from pg_partitioned_table p
+    join pg_attribute a on a.attrelid = p.partrelid and a.attnum = p.partattrs[0]
+    where p.partrelid = parent::regclass;
+
+    execute format('create table %I (like %I including defaults including constraints)', child, parent);
+    -- lets ATTACH skip scanning the new partition for rows outside its bounds
+    execute format('alter table %I add constraint %I check (%I >= %L and %I < %L)',
+                   child, child || '_bounds', key, lower_bound, key, upper_bound);
+    execute format('with moved as (delete from %I where %I >= %L and %I < %L returning *) insert into %I select * from moved',
+                   parent || '_default', key, lower_bound, key, upper_bound, child);
+    execute format('alter table %I attach partition %I for values from (%L) to (%L)', parent, child, lower_bound, upper_bound);
+    execute format('alter table %I drop constraint %I', child, child || '_bounds');
+    return true;
+end;
+$$ language plpgsql;
+
+-- Detach every monthly partition of parent that ends on or before the given date, oldest first.
+-- The detached tables keep their rows and indexes (dump and drop them to archive); returns their names.
+create function detach_month_partitions(parent text, before date) returns setof text as $$
+declare
+    child text;
+begin
+    for child in
+        select c.relname
+        from pg_inherits i
+        join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = parent::regclass
+          and c.relname ~ ('^' || parent || '_[0-9]{4}_[0-9]{2}$')
+          and to_date(right(c.relname, 7), 'YYYY_MM') + interval '1 month' <= before
+        order by c.relname
+    loop
+        execute format('alter table %I detach partition %I', parent, child);
+        return next child;
+    end loop;
+end;
+$$ language plpgsql;
+
+alter table donations rename to donations_unpartitioned;
+alter table distributions rename to distributions_unpartitioned;
+
+create table donations (
+    id bigint not null,
+    donor_name varchar(255) not null,
+    donation_type varchar(100) not null check (donation_type in ('MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER')),
+    quantity numeric(10,2) not null,
+    donation_date date not null,
+    created_at timestamp(6) not null
+) partition by range (donation_date);
+
+create table distributions (
+    id bigint not null,
+    donation_type varchar(100) not null check (donation_type in ('MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER')),
+    quantity numeric(10,2) not null,
+    distribution_date date not null,
+    recipient varchar(255),
+    created_at timestamp(6) not null
+) partition by range (distribution_date);
+
+create table donations_default partition of donations default;
+create table distributions_default partition of distributions default;
+
+-- every month from the oldest row to three months from now
+select ensure_month_partition('donations', month::date)
+from generate_series(date_trunc('month', least(current_date, (select min(donation_date) from donations_unpartitioned))),
+                     date_trunc('month', greatest(current_date + interval '3 months', (select max(donation_date) from donations_unpartitioned))),
+                     interval '1 month') month;
+select ensure_month_partition('distributions', month::date)
+from generate_series(date_trunc('month', least(current_date, (select min(distribution_date) from distributions_unpartitioned))),
+                     date_trunc('month', greatest(current_date + interval '3 months', (select max(distribution_date) from distributions_unpartitioned))),
+                     interval '1 month') month;
+
+-- columns named: a database that started out on ddl-auto=update has them in another order
+insert into donations (id, donor_name, donation_type, quantity, donation_date, created_at)
+select id, donor_name, donation_type, quantity, donation_date, created_at from donations_unpartitioned;
+insert into distributions (id, donation_type, quantity, distribution_date, recipient, created_at)
+select id, donation_type, quantity, distribution_date, recipient, created_at from distributions_unpartitioned;
+
+drop table donations_unpartitioned;
+drop table distributions_unpartitioned;
+
+-- keys and the V3 indexes, created on the parents (and so on every partition, present and future) after the copy
+alter table donations add primary key (id, donation_date);
+alter table distributions add primary key (id, distribution_date);
+
+create index idx_donations_date_id on donations (donation_date desc, id desc);
+create index idx_donations_type_date_id on donations (donation_type, donation_date desc, id desc) include (quantity);
+create index idx_donations_donor_date_id on donations (donor_name, donation_date desc, id desc);
+
+create index idx_distributions_date_id on distributions (distribution_date desc, id desc);
+create index idx_distributions_type_date_id on distributions (donation_type, distribution_date desc, id desc) include (quantity);
+create index idx_distributions_recipient_date_id on distributions (recipient, distribution_date desc, id desc);
+
+analyze donations;
+analyze distributions;
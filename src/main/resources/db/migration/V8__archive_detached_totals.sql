@@ -0,0 +1,128 @@
+-- Detached months (see V7 and PartitionMaintenanceService.detachBefore) leave the source tables, but the
+-- inventory, donor and timeseries summaries keep counting them. Their totals are recorded here on the way out,
+-- and the rebuild queries add them back, so a rebuild or a startup seed after a detach gives the same numbers.
+-- An archived month takes no new rows: inserts dated in it are rejected instead of piling up in the default
+-- partition, and it never gets a partition again.
+
+create table archived_months (
+    parent_table varchar(63) not null,
+    month date not null,
+    archived_as varchar(63) not null,
+    archived_at timestamp(6) not null,
+    primary key (parent_table, month)
+);
+
+-- donor_type_totals of the detached donations
+create table archived_donor_type_totals (
+    donor_name varchar(255) not null,
+    donation_type varchar(100) not null check (donation_type in ('MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER')),
+    total_quantity numeric(14,2) not null,
+    donation_count bigint not null,
+    primary key (donation_type, donor_name)
+);
+
+-- daily_type_rollup of the detached donations and distributions
+create table archived_daily_type_rollup (
+    rollup_date date not null,
+    donation_type varchar(100) not null check (donation_type in ('MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER')),
+    donated numeric(14,2) not null,
+    distributed numeric(14,2) not null,
+    donation_count bigint not null,
+    distribution_count bigint not null,
+    primary key (rollup_date, donation_type)
+);
+
+-- Partition of parent for the month of the given date; false if one is attached already.
+-- A table of that name that is not attached (a detached archive) doesn't count: the month is refused instead.
+create or replace function ensure_month_partition(parent text, month date) returns boolean as $$
+declare
+    lower_bound date := date_trunc('month', month)::date;
+    upper_bound date := (date_trunc('month', month) + interval '1 month')::date;
+    child text := parent || '_' || to_char(month, 'YYYY_MM');
+    key text;
+begin
+    if exists (select 1 from pg_inherits i join pg_class c on c.oid = i.inhrelid
+               where i.inhparent = parent::regclass and c.relname = child) then
+        return false;
+    end if;
+    if exists (select 1 from archived_months a where a.parent_table = parent and a.month = lower_bound) then
+        raise exception '% was detached and archived as %', to_char(month, 'YYYY-MM'),
+            (select a.archived_as from archived_months a where a.parent_table = parent and a.month = lower_bound)
+            using errcode = 'check_violation';
+    end if;
+    select a.attname into strict key
+    from pg_partitioned_table p
+    join pg_attribute a on a.attrelid = p.partrelid and a.attnum = p.partattrs[0]
+    where p.partrelid = parent::regclass;
+
+    execute format('create table %I (like %I including defaults including constraints)', child, parent);
+    -- lets ATTACH skip scanning the new partition for rows outside its bounds
+    execute format('alter table %I add constraint %I check (%I >= %L and %I < %L)',
+                   child, child || '_bounds', key, lower_bound, key, upper_bound);
+    execute format('with moved as (delete from %I where %I >= %L and %I < %L returning *) insert into %I select * from moved',
+                   parent || '_default', key, lower_bound, key, upper_bound, child);
+    execute format('alter table %I attach partition %I for values from (%L) to (%L)', parent, child, lower_bound, upper_bound);
+    execute format('alter table %I drop constraint %I', child, child || '_bounds');
+    return true;
+end;
+$$ language plpgsql;
+
+-- Detach every monthly partition of parent that ends on or before the given date, oldest first, adding each
+-- one's totals to the archived_* tables and its month to archived_months first. Returns the detached tables.
+create or replace function detach_month_partitions(parent text, before date) returns setof text as $$
+declare
+    child text;
+begin
+    for child in
+        select c.relname
+        from pg_inherits i
+        join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = parent::regclass
+          and c.relname ~ ('^' || parent || '_[0-9]{4}_[0-9]{2}$')
+          and to_date(right(c.relname, 7), 'YYYY_MM') + interval '1 month' <= before
+        order by c.relname
+    loop
+        if parent = 'donations' then
+            execute format('insert into archived_donor_type_totals (donor_name, donation_type, total_quantity, donation_count) '
+                           'select donor_name, donation_type, sum(quantity), count(*) from %I group by donor_name, donation_type '
+                           'on conflict (donation_type, donor_name) do update '
+                           'set total_quantity = archived_donor_type_totals.total_quantity + excluded.total_quantity, '
+                           'donation_count = archived_donor_type_totals.donation_count + excluded.donation_count', child);
+            execute format('insert into archived_daily_type_rollup (rollup_date, donation_type, donated, distributed, donation_count, distribution_count) '
+                           'select donation_date, donation_type, sum(quantity), 0, count(*), 0 from %I group by donation_date, donation_type '
+                           'on conflict (rollup_date, donation_type) do update '
+                           'set donated = archived_daily_type_rollup.donated + excluded.donated, '
+                           'donation_count = archived_daily_type_rollup.donation_count + excluded.donation_count', child);
+        elsif parent = 'distributions' then
+            execute format('insert into archived_daily_type_rollup (rollup_date, donation_type, donated, distributed, donation_count, distribution_count) '
+                           'select distribution_date, donation_type, 0, sum(quantity), 0, count(*) from %I group by distribution_date, donation_type '
+                           'on conflict (rollup_date, donation_type) do update '
+                           'set distributed = archived_daily_type_rollup.distributed + excluded.distributed, '
+                           'distribution_count = archived_daily_type_rollup.distribution_count + excluded.distribution_count', child);
+        end if;
+        insert into archived_months (parent_table, month, archived_as, archived_at)
+        values (parent, to_date(right(child, 7), 'YYYY_MM'), child, now());
+        execute format('alter table %I detach partition %I', parent, child);
+        return next child;
+    end loop;
+end;
+$$ language plpgsql;
+
+-- Rejects a row of a default partition dated in an archived month (trigger arguments: parent table, date column)
+create function reject_archived_month() returns trigger as $$
+declare
+    day date := (to_jsonb(new) ->> tg_argv[1])::date;
+begin
+    if exists (select 1 from archived_months a
+               where a.parent_table = tg_argv[0] and a.month = date_trunc('month', day)::date) then
+        raise exception '% is in %, which was detached and archived', day, to_char(day, 'YYYY-MM')
+            using errcode = 'check_violation';
+    end if;
+    return new;
+end;
+$$ language plpgsql;
+
+create trigger donations_default_reject_archived before insert or update on donations_default
+    for each row execute function reject_archived_month('donations', 'donation_date');
+create trigger distributions_default_reject_archived before insert or update on distributions_default
+    for each row execute function reject_archived_month('distributions', 'distribution_date');
@@ -0,0 +1,149 @@
+package org.config;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.services.DataVersion;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+//Unit tests for ReplicaLagMonitor - mocked primary and replica, a hand-driven clock
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagMonitorTest {
+
+    @Mock
+    private JdbcTemplate primary;
+
+    @Mock
+    private JdbcTemplate replica;
+
+    private final DataVersion dataVersion = new DataVersion();
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    @DisplayName("Should keep reads off the replica until it has replayed the last write")
+    void testReadYourWrites() {
+        // Given - caught up, then a write moves the primary on
+        ReplicaLagMonitor monitor = monitor(Duration.ZERO);
+        assertFalse(monitor.isFresh());
+        primaryAt("0/100");
+        replicaAt(true, "0/100");
+        monitor.check();
+        assertTrue(monitor.isFresh());
+
+        dataVersion.changed();
+        assertFalse(monitor.isFresh());
+
+        // When - sampled after the write, replayed on the next run
+        primaryAt("0/200");
+        monitor.check();
+        assertFalse(monitor.isFresh());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        replicaAt(true, "0/200");
+        monitor.check();
+
+        // Then
+        assertTrue(monitor.isFresh());
+        assertTrue(dataVersion.isSettled());
+    }
+
+    @Test
+    @DisplayName("Should allow reads within max-lag, and leave answers untagged while the replica is behind")
+    void testMaxLag() {
+        // Given
+        ReplicaLagMonitor monitor = monitor(Duration.ofSeconds(5));
+        primaryAt("0/100");
+        replicaAt(true, "0/100");
+        monitor.check();
+
+        // When - a write the replica hasn't replayed
+        dataVersion.changed();
+        primaryAt("0/200");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        monitor.check();
+
+        // Then - 3s behind: still fresh enough, but behind the version
+        assertTrue(monitor.isFresh());
+        assertFalse(dataVersion.isSettled());
+        assertEquals(3.0, monitor.getLagSeconds(), 0.001);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        assertFalse(monitor.isFresh());
+    }
+
+    @Test
+    @DisplayName("Should send reads to the primary while the replica can't be reached")
+    void testUnreachable() {
+        // Given
+        ReplicaLagMonitor monitor = monitor(Duration.ofSeconds(5));
+        primaryAt("0/100");
+        replicaAt(true, "0/100");
+        monitor.check();
+        when(replica.queryForMap(anyString())).thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // When
+        boolean reachable = monitor.check();
+
+        // Then
+        assertFalse(reachable);
+        assertFalse(monitor.isFresh());
+        assertTrue(Double.isNaN(monitor.getLagSeconds()));
+    }
+
+    @Test
+    @DisplayName("Should take a database that isn't a standby as caught up")
+    void testNotAStandby() {
+        // Given
+        ReplicaLagMonitor monitor = monitor(Duration.ZERO);
+        dataVersion.changed();
+        primaryAt("0/300");
+        replicaAt(false, null);
+
+        // When
+        monitor.check();
+
+        // Then
+        assertTrue(monitor.isFresh());
+    }
+
+    @Test
+    @DisplayName("Should read WAL positions as 64-bit numbers")
+    void testParseLsn() {
+        assertEquals(0x16B374D848L, ReplicaLagMonitor.parseLsn("16/B374D848"));
+        assertEquals(0L, ReplicaLagMonitor.parseLsn("0/0"));
+        assertTrue(ReplicaLagMonitor.parseLsn("1/0") > ReplicaLagMonitor.parseLsn("0/FFFFFFFF"));
+        assertThrows(IllegalArgumentException.class, () -> ReplicaLagMonitor.parseLsn("16B374D848"));
+    }
+
+    //helper methods
+
+    private ReplicaLagMonitor monitor(Duration maxLag) {
+        return new ReplicaLagMonitor(primary, replica, dataVersion, maxLag, new SimpleMeterRegistry(), clock::get);
+    }
+
+    private void primaryAt(String lsn) {
+        when(primary.queryForObject(anyString(), eq(String.class))).thenReturn(lsn);
+    }
+
+    private void replicaAt(boolean standby, String replayed) {
+        Map<String, Object> state = new HashMap<>();
+        state.put("standby", standby);
+        state.put("replayed", replayed);
+        when(replica.queryForMap(anyString())).thenReturn(state);
+    }
+}
@@ -0,0 +1,169 @@
+package org.config;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.repository.DistributionRepository;
+import org.repository.DonationRepository;
+import org.repository.InventoryBalanceRepository;
+import org.services.DataVersion;
+import org.services.InventoryCache;
+import org.services.InventoryLedgerService;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//Unit tests for ReplicaRoutingDataSource - a mocked lag monitor, transactions simulated with TransactionSynchronizationManager
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to a fresh replica and count it")
+    void testReadOnlyToReplica() throws Exception {
+        // Given
+        when(lagMonitor.isFresh()).thenReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        routing.getConnection();
+
+        // Then
+        verify(replica).getConnection();
+        verifyNoInteractions(primary);
+        assertEquals(1.0, meterRegistry.get("datasource.connections").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should keep writes and reads outside a read-only transaction on the primary")
+    void testWritesToPrimary() {
+        // When / Then
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.route());
+        verifyNoInteractions(lagMonitor);
+    }
+
+    @Test
+    @DisplayName("Should read the primary when the replica can't hand out a connection")
+    void testReplicaDown() throws Exception {
+        // Given
+        when(lagMonitor.isFresh()).thenReturn(true);
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica - Connection is not available"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        routing.getConnection();
+
+        // Then
+        verify(primary).getConnection();
+        verify(lagMonitor).replicaFailed();
+        assertEquals(1.0, meterRegistry.get("datasource.connections").tag("target", "primary").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica is behind")
+    void testStaleReplica() {
+        // Given
+        when(lagMonitor.isFresh()).thenReturn(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When / Then
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.route());
+    }
+
+    @Test
+    @DisplayName("Should read the primary inside onPrimary, and the replica again after it")
+    void testOnPrimary() {
+        // Given
+        when(lagMonitor.isFresh()).thenReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Object inside = DataSourceRouting.onPrimary(() -> DataSourceRouting.onPrimary(routing::route));
+
+        // Then
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, inside);
+        assertFalse(DataSourceRouting.isPrimaryForced());
+        assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routing.route());
+    }
+
+    @Test
+    @DisplayName("Should run the inventory rebuild, lock and aggregates alike, on the primary even when the replica is fresh")
+    void testRebuildOnPrimary() throws Exception {
+        // Given - the service behind its @Transactional proxy, on the same lazy routing pool as the app
+        lenient().when(lagMonitor.isFresh()).thenReturn(true);
+        when(primary.getConnection()).thenReturn(mock(Connection.class));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        InventoryBalanceRepository inventoryBalanceRepository = mock(InventoryBalanceRepository.class);
+        DonationRepository donationRepository = mock(DonationRepository.class);
+        DistributionRepository distributionRepository = mock(DistributionRepository.class);
+        // each repository call runs a statement on the transaction's connection, as the JPA ones do
+        doAnswer(invocation -> statement(dataSource)).when(inventoryBalanceRepository).lockForRebuild();
+        when(donationRepository.getTotalQuantityByType()).thenAnswer(invocation -> statement(dataSource));
+        when(distributionRepository.getTotalQuantityByType()).thenAnswer(invocation -> statement(dataSource));
+        ProxyFactory proxyFactory = new ProxyFactory(new InventoryLedgerService(inventoryBalanceRepository,
+                donationRepository, distributionRepository, mock(InventoryCache.class), mock(DataVersion.class)));
+        proxyFactory.setProxyTargetClass(true);
+        TransactionInterceptor transactions = new TransactionInterceptor();
+        transactions.setTransactionManager(new DataSourceTransactionManager(dataSource));
+        transactions.setTransactionAttributeSource(new AnnotationTransactionAttributeSource());
+        proxyFactory.addAdvice(transactions);
+        InventoryLedgerService inventoryLedgerService = (InventoryLedgerService) proxyFactory.getProxy();
+
+        // When
+        inventoryLedgerService.rebuild();
+
+        // Then
+        verify(donationRepository).getTotalQuantityByType();
+        verify(distributionRepository).getTotalQuantityByType();
+        verifyNoInteractions(replica);
+        assertEquals(0.0, meterRegistry.get("datasource.connections").tag("target", "replica").counter().count());
+    }
+
+    //helper methods
+
+    // touch the transaction's connection, so the lazy proxy fetches the real one
+    private static List<Object[]> statement(DataSource dataSource) throws Exception {
+        DataSourceUtils.getConnection(dataSource).createStatement();
+        return List.of();
+    }
+}
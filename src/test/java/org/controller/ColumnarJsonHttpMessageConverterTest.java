@@ -0,0 +1,113 @@
+package org.controller;
+
+
+import org.dto.DonationResponse;
+import org.dto.DonorReportDTO;
+import org.dto.InventoryReportDTO;
+import org.dto.PageResponse;
+import org.entity.DonationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Unit tests for ColumnarJsonHttpMessageConverter - columns are checked against the plain JSON of the same rows
+class ColumnarJsonHttpMessageConverterTest {
+
+    private ObjectMapper objectMapper;
+    private ColumnarJsonHttpMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        converter = new ColumnarJsonHttpMessageConverter(objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should write a donation page as one array per field, with the values plain JSON has")
+    void testDonationPage() throws Exception {
+        // Given
+        PageResponse<DonationResponse> page = new PageResponse<>(List.of(
+                new DonationResponse(7L, "Harsha", DonationType.FOOD, new BigDecimal("12.50"),
+                        LocalDate.of(2025, 12, 13), LocalDateTime.of(2025, 12, 13, 9, 0)),
+                new DonationResponse(6L, null, DonationType.TOYS, new BigDecimal("3"),
+                        LocalDate.of(2025, 12, 12), LocalDateTime.of(2025, 12, 12, 17, 30, 5, 120_000_000))),
+                "next-cursor");
+
+        // When
+        JsonNode columnar = write(page);
+        JsonNode plain = objectMapper.readTree(objectMapper.writeValueAsString(page));
+
+        // Then
+        assertEquals(2, columnar.get("rows").asInt());
+        assertEquals("next-cursor", columnar.get("next").asString());
+        JsonNode types = columnar.get("dictionaries").get("donationType");
+        for (int row = 0; row < 2; row++) {
+            JsonNode item = plain.get("items").get(row);
+            JsonNode columns = columnar.get("columns");
+            for (String field : List.of("id", "donorName", "quantity", "donationDate", "createdAt")) {
+                assertEquals(item.get(field), columns.get(field).get(row), field);
+            }
+            assertEquals(item.get("donationType").asString(),
+                    types.get(columns.get("donationType").get(row).asInt()).asString());
+        }
+    }
+
+    @Test
+    @DisplayName("Should write the donor report with one quantity column per donation type")
+    void testDonorReport() throws Exception {
+        // Given
+        DonorReportDTO report = new DonorReportDTO();
+        DonorReportDTO.DonorContribution first = new DonorReportDTO.DonorContribution("A");
+        first.addDonation(new DonorReportDTO.DonationByType(DonationType.FOOD, new BigDecimal("5.00")));
+        first.setTotalQuantity(new BigDecimal("5.00"));
+        DonorReportDTO.DonorContribution second = new DonorReportDTO.DonorContribution("B");
+        second.addDonation(new DonorReportDTO.DonationByType(DonationType.MONEY, new BigDecimal("100.00")));
+        second.setTotalValue(new BigDecimal("100.00"));
+        report.addContribution(first);
+        report.addContribution(second);
+
+        // When
+        JsonNode columnar = write(report);
+
+        // Then
+        assertEquals(2, columnar.get("totalDonors").asInt());
+        assertEquals("B", columnar.get("columns").get("donorName").get(1).asString());
+        JsonNode food = columnar.get("quantityByType").get("FOOD");
+        assertEquals(0, new BigDecimal("5.00").compareTo(food.get(0).decimalValue()));
+        assertTrue(food.get(1).isNull());
+        assertEquals(DonationType.values().length, columnar.get("quantityByType").size());
+    }
+
+    @Test
+    @DisplayName("Should only offer itself for pages and the donor report, and never read")
+    void testSupportedTypes() {
+        assertTrue(converter.canWrite(PageResponse.class, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON));
+        assertTrue(converter.canWrite(DonorReportDTO.class, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON));
+        assertFalse(converter.canWrite(InventoryReportDTO.class, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON));
+        assertFalse(converter.canWrite(PageResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(PageResponse.class, null));
+        assertFalse(converter.canRead(PageResponse.class, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON));
+        assertThrows(IllegalArgumentException.class, () -> write(new PageResponse<>(List.of("x"), null)));
+    }
+
+    //helper methods
+
+    private JsonNode write(Object body) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(body, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON, message);
+        assertEquals(ColumnarJsonHttpMessageConverter.COLUMNAR_JSON, message.getHeaders().getContentType());
+        return objectMapper.readTree(message.getBodyAsString());
+    }
+}
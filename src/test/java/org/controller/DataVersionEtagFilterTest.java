@@ -0,0 +1,148 @@
+package org.controller;
+
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.services.DataVersion;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Unit tests for DataVersionEtagFilter - a real DataVersion, moved by hand
+class DataVersionEtagFilterTest {
+
+    private DataVersion dataVersion;
+    private DataVersionEtagFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        dataVersion = new DataVersion();
+        filter = new DataVersionEtagFilter(dataVersion);
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without reaching the controller while the data is unchanged")
+    void testNotModified() throws Exception {
+        // Given - a first, full answer
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockFilterChain served = new MockFilterChain();
+        filter.doFilter(request("GET", "/api/reports/inventory"), first, served);
+        String etag = first.getHeader("ETag");
+
+        assertNotNull(served.getRequest());
+        assertEquals(200, first.getStatus());
+        assertEquals(dataVersion.etag(), etag);
+        assertEquals("no-cache", first.getHeader("Cache-Control"));
+
+        // When - polled again with the tag
+        MockHttpServletRequest poll = request("GET", "/api/reports/inventory");
+        poll.addHeader("If-None-Match", etag);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        MockFilterChain notReached = new MockFilterChain();
+        filter.doFilter(poll, second, notReached);
+
+        // Then
+        assertEquals(304, second.getStatus());
+        assertEquals(etag, second.getHeader("ETag"));
+        assertEquals(0, second.getContentLength());
+        assertNull(notReached.getRequest());
+    }
+
+    @Test
+    @DisplayName("Should serve a full answer with a new tag once a write has committed")
+    void testModifiedAfterWrite() throws Exception {
+        // Given
+        String before = dataVersion.etag();
+
+        // When - a write outside a transaction moves the version straight away
+        dataVersion.changed();
+        MockHttpServletRequest poll = request("GET", "/api/donations/count");
+        poll.addHeader("If-None-Match", before);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain served = new MockFilterChain();
+        filter.doFilter(poll, response, served);
+
+        // Then
+        assertNotNull(served.getRequest());
+        assertEquals(200, response.getStatus());
+        assertNotEquals(before, response.getHeader("ETag"));
+        assertEquals(1L, dataVersion.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should tag the columnar encoding apart from plain JSON")
+    void testColumnarTaggedApart() throws Exception {
+        // Given - the plain JSON tag, sent with a columnar Accept
+        MockHttpServletRequest poll = request("GET", "/api/donations");
+        poll.addHeader("Accept", "application/vnd.columnar+json");
+        poll.addHeader("If-None-Match", dataVersion.etag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain served = new MockFilterChain();
+
+        // When
+        filter.doFilter(poll, response, served);
+
+        // Then
+        assertNotNull(served.getRequest());
+        assertEquals(dataVersion.etag("columnar"), response.getHeader("ETag"));
+        assertEquals("Accept", response.getHeader("Vary"));
+    }
+
+    @Test
+    @DisplayName("Should leave writes, exports and other APIs untagged")
+    void testUntaggedRequests() throws Exception {
+        String etag = dataVersion.etag();
+        for (MockHttpServletRequest request : new MockHttpServletRequest[] {
+                request("POST", "/api/donations"),
+                request("GET", "/api/donations/export"),
+                request("GET", "/api/imports/1"),
+                request("GET", "/api/reportsx") }) {
+            request.addHeader("If-None-Match", etag);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(request, response, chain);
+
+            assertNotNull(chain.getRequest(), request.getRequestURI());
+            assertNull(response.getHeader("ETag"), request.getRequestURI());
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave answers untagged while a replica that reads may go to is behind")
+    void testUnsettledReplica() throws Exception {
+        // Given - a tag handed out before the write, a replica still on the old version
+        String etag = dataVersion.etag();
+        AtomicLong replicaVersion = new AtomicLong(dataVersion.getVersion());
+        dataVersion.setReplicaVersion(replicaVersion::get);
+        dataVersion.changed();
+
+        // When
+        MockHttpServletRequest poll = request("GET", "/api/reports/donors");
+        poll.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain served = new MockFilterChain();
+        filter.doFilter(poll, response, served);
+
+        // Then - a full answer, no tag to pin it under
+        assertNotNull(served.getRequest());
+        assertNull(response.getHeader("ETag"));
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+
+        replicaVersion.set(dataVersion.getVersion());
+        MockHttpServletResponse settled = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/api/reports/donors"), settled, new MockFilterChain());
+        assertEquals(dataVersion.etag(), settled.getHeader("ETag"));
+    }
+
+    //helper methods
+
+    private MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
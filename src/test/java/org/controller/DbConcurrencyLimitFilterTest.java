@@ -0,0 +1,122 @@
+package org.controller;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Unit tests for DbConcurrencyLimitFilter - one permit, so a second request has to wait for the first
+class DbConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DbConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new DbConcurrencyLimitFilter(1, Duration.ofMillis(50), JsonMapper.builder().build(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should turn a request away with 503 when no slot frees up in time, and let the next one in")
+    void testRejectsWhenSaturated() throws Exception {
+        // Given - a request holding the only slot
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (req, res) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(request("/api/donations"), new MockHttpServletResponse(), blocking);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("db.concurrency.active").gauge().value());
+
+        // When
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain notReached = new MockFilterChain();
+        filter.doFilter(request("/api/reports/inventory"), rejected, notReached);
+
+        // Then
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("\"status\":503"));
+        assertNull(notReached.getRequest());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        MockFilterChain admitted = new MockFilterChain();
+        filter.doFilter(request("/api/distributions"), new MockHttpServletResponse(), admitted);
+        assertNotNull(admitted.getRequest());
+        assertEquals(0.0, meterRegistry.get("db.concurrency.active").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should not hold a slot for requests outside the donation, distribution and report APIs")
+    void testOtherPathsNotLimited() throws Exception {
+        // Given - the only slot taken by an unfinished request
+        FilterChain nested = (req, res) -> {
+            for (String uri : new String[] { "/api/imports/1", "/actuator/prometheus", "/api/donationsx" }) {
+                MockFilterChain inner = new MockFilterChain();
+                filter.doFilter(request(uri), new MockHttpServletResponse(), inner);
+                assertNotNull(inner.getRequest(), uri);
+            }
+        };
+
+        // When / Then
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("/api/donations/count"), response, nested);
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should hold an async request's slot until the async part completes")
+    void testAsyncRequestHoldsSlot() throws Exception {
+        // Given - an export that starts streaming and returns its thread
+        MockHttpServletRequest export = request("/api/donations/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertEquals(1.0, meterRegistry.get("db.concurrency.active").gauge().value());
+
+        // When - another request comes in while it streams
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request("/api/reports/inventory"), rejected, new MockFilterChain());
+
+        // Then
+        assertEquals(503, rejected.getStatus());
+
+        export.getAsyncContext().complete();
+        assertEquals(0.0, meterRegistry.get("db.concurrency.active").gauge().value());
+        MockFilterChain admitted = new MockFilterChain();
+        filter.doFilter(request("/api/distributions"), new MockHttpServletResponse(), admitted);
+        assertNotNull(admitted.getRequest());
+    }
+
+    //helper methods
+
+    private MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
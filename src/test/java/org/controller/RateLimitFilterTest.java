@@ -0,0 +1,158 @@
+package org.controller;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Unit tests for RateLimitFilter - a hand-driven clock; reports 1/s with a burst of 2, lists and writes 10/s burst 1
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(Map.of(
+                RateLimitFilter.Group.REPORTS, new RateLimitFilter.Budget(1, 2),
+                RateLimitFilter.Group.LISTS, new RateLimitFilter.Budget(10, 1),
+                RateLimitFilter.Group.WRITES, new RateLimitFilter.Budget(10, 1)),
+                "X-Client-Id", JsonMapper.builder().build(), meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should admit a burst, then answer 429 with Retry-After until a token is back")
+    void testBurstThenReject() throws Exception {
+        // Given
+        assertEquals(200, send("GET", "/api/reports/donors", "dashboard").getStatus());
+        assertEquals(200, send("GET", "/api/reports/inventory", "dashboard").getStatus());
+
+        // When
+        MockHttpServletResponse rejected = send("GET", "/api/reports/donors", "dashboard");
+
+        // Then
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("\"status\":429"));
+        assertEquals(1.0, meterRegistry.get("rate.limit.rejected")
+                .tag("group", "reports").tag("client", "dashboard").counter().count());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(200, send("GET", "/api/reports/donors", "dashboard").getStatus());
+        assertEquals(429, send("GET", "/api/reports/donors", "dashboard").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should keep budgets per client and per endpoint group")
+    void testSeparateBudgets() throws Exception {
+        // Given - the dashboard has used up its report and list budgets
+        send("GET", "/api/reports/donors", "dashboard");
+        send("GET", "/api/reports/donors", "dashboard");
+        send("GET", "/api/donations", "dashboard");
+        assertEquals(429, send("GET", "/api/reports/donors", "dashboard").getStatus());
+        assertEquals(429, send("GET", "/api/donations", "dashboard").getStatus());
+
+        // When / Then - its writes, and every other client, are unaffected
+        assertEquals(200, send("POST", "/api/distributions", "dashboard").getStatus());
+        assertEquals(200, send("GET", "/api/reports/donors", "front-desk").getStatus());
+        assertEquals(200, send("DELETE", "/api/donations/7", "front-desk").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should tell clients apart by remote address when they send no client header")
+    void testRemoteAddressFallback() throws Exception {
+        // Given
+        MockHttpServletRequest first = request("GET", "/api/donations", null);
+        first.setRemoteAddr("10.0.0.1");
+        MockHttpServletRequest second = request("GET", "/api/donations", null);
+        second.setRemoteAddr("10.0.0.2");
+        MockHttpServletRequest again = request("GET", "/api/donations", null);
+        again.setRemoteAddr("10.0.0.1");
+
+        // When / Then
+        assertEquals(200, send(first).getStatus());
+        assertEquals(200, send(second).getStatus());
+        assertEquals(429, send(again).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should leave other paths and CORS preflights alone")
+    void testUnlimitedPaths() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, send("GET", "/actuator/prometheus", "dashboard").getStatus());
+            assertEquals(200, send("OPTIONS", "/api/reports/donors", "dashboard").getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop buckets that have filled up again")
+    void testEvictIdle() throws Exception {
+        // Given
+        send("GET", "/api/reports/donors", "dashboard");
+        send("POST", "/api/donations", "front-desk");
+        assertEquals(2.0, meterRegistry.get("rate.limit.clients").gauge().value());
+
+        // When - the write bucket refills in 100ms, the report one in 1s
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        int evicted = filter.evictIdle();
+
+        // Then
+        assertEquals(1, evicted);
+        assertEquals(1.0, meterRegistry.get("rate.limit.clients").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should drop a client's rejected counter together with its bucket")
+    void testEvictIdleRemovesCounter() throws Exception {
+        // Given - two clients over their write budget
+        for (String client : new String[] {"scanner-1", "scanner-2"}) {
+            send("POST", "/api/donations", client);
+            assertEquals(429, send("POST", "/api/donations", client).getStatus());
+        }
+        assertEquals(2, meterRegistry.find("rate.limit.rejected").counters().size());
+
+        // When - both buckets refill, then only scanner-2 comes back over budget
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        filter.evictIdle();
+        send("POST", "/api/donations", "scanner-2");
+        send("POST", "/api/donations", "scanner-2");
+
+        // Then - a fresh counter for scanner-2 only
+        assertEquals(1, meterRegistry.find("rate.limit.rejected").counters().size());
+        assertNull(meterRegistry.find("rate.limit.rejected").tag("client", "scanner-1").counter());
+        assertEquals(1.0, meterRegistry.get("rate.limit.rejected").tag("client", "scanner-2").counter().count());
+    }
+
+    //helper methods
+
+    private MockHttpServletResponse send(String method, String path, String client) throws Exception {
+        return send(request(method, path, client));
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String method, String path, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+}
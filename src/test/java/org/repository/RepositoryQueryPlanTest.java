@@ -0,0 +1,319 @@
+package org.repository;
+
+
+import org.entity.DonationType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.services.DataVersion;
+import org.services.PartitionMaintenanceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every read query of DonationRepository / DistributionRepository must be answered through an index
+ * (see db/migration/V3__query_indexes.sql, recreated on the partitioned tables by V7), in every partition,
+ * and every query with a date range must only read the monthly partitions of that range
+ * Runs the Flyway migrations on a real PostgreSQL, loads a few hundred thousand rows, captures the SQL
+ * Hibernate sends for each repository method and checks its generic plan - the plan for any
+ * parameter values. Needs Docker; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.repository.RepositoryQueryPlanTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RepositoryQueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+    private static final Sort DONATION_ORDER = Sort.by(Sort.Direction.DESC, "donationDate", "id");
+    private static final Sort DISTRIBUTION_ORDER = Sort.by(Sort.Direction.DESC, "distributionDate", "id");
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 3, 31);
+    private static final LocalDate SINCE = LocalDate.of(2025, 5, 10);
+    // the index a scan node reads (Index Scan, Index Only Scan, Bitmap Index Scan, forward or backward)
+    private static final Pattern INDEX_SCAN = Pattern.compile("Index (?:Only )?Scan (?:Backward )?(?:using|on) (\\S+)");
+
+    private static boolean seeded;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private DistributionRepository distributionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        if (!seeded) {
+            // 200k donations by 20k donors, 100k distributions to 500 recipients (every 10th without one)
+            jdbcTemplate.execute("INSERT INTO donations (id, donor_name, donation_type, quantity, donation_date, created_at) " +
+                    "SELECT i, 'Donor ' || (i % 20000), (ARRAY['MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS'," +
+                    "'BOOKS','FURNITURE','HYGIENE_PRODUCTS','OTHER'])[1 + i % 10], 1 + i % 100, " +
+                    "DATE '2020-01-01' + (i % 2000), now() FROM generate_series(1, 200000) i");
+            jdbcTemplate.execute("INSERT INTO distributions (id, donation_type, quantity, distribution_date, recipient, created_at) " +
+                    "SELECT i, (ARRAY['MONEY','FOOD','CLOTHING','MEDICINE','BLANKETS','TOYS','BOOKS','FURNITURE'," +
+                    "'HYGIENE_PRODUCTS','OTHER'])[1 + i % 10], 1 + i % 10, DATE '2020-01-01' + (i % 2000), " +
+                    "CASE WHEN i % 10 = 0 THEN NULL ELSE 'Shelter ' || (i % 500) END, now() FROM generate_series(1, 100000) i");
+            // the database was empty when V7 ran, so 2020-2025 went to the default partitions: give them their months
+            new PartitionMaintenanceService(jdbcTemplate, new DataVersion(), null, 3).createPartitions();
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM donations_default", Long.class));
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM distributions_default", Long.class));
+            jdbcTemplate.execute("VACUUM ANALYZE donations");
+            jdbcTemplate.execute("VACUUM ANALYZE distributions");
+            seeded = true;
+        }
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("Donation list queries read a (.., date, id) index, first and later pages")
+    void testDonationLists() {
+        ScrollPosition next = ScrollPosition.forward(Map.of("donationDate", TO, "id", 5000L));
+
+        donationRepository.findAllBy(next, Limit.of(50), DONATION_ORDER);
+        assertIndexScan("donations", "idx_donations_date_id");
+
+        donationRepository.findByDonationDateBetween(FROM, TO, ScrollPosition.keyset(), Limit.of(50), DONATION_ORDER);
+        assertIndexScan("donations", "idx_donations_date_id");
+
+        donationRepository.findByDonationDateGreaterThanEqual(FROM, next, Limit.of(50), DONATION_ORDER);
+        assertIndexScan("donations", "idx_donations_date_id");
+
+        donationRepository.findByDonationType(DonationType.FOOD, next, Limit.of(50), DONATION_ORDER);
+        assertIndexScan("donations", "idx_donations_type_date_id");
+
+        donationRepository.findByDonorName("Donor 42", next, Limit.of(50), DONATION_ORDER);
+        assertIndexScan("donations", "idx_donations_donor_date_id");
+    }
+
+    // Left out: getTotalQuantityByType() (ledger rebuild), getTotalDonationsByDonor(), getDistributionsByRecipient()
+    // and findAllUnique* - they read every row either way, and a sequential scan is the right plan for them
+
+    @Test
+    @DisplayName("Donation lookups and aggregates read an index")
+    void testDonationAggregates() {
+        donationRepository.findByDonationTypeAndDonationDateBetween(DonationType.FOOD, FROM, TO);
+        assertIndexScan("donations", "idx_donations_type_date_id");
+
+        donationRepository.countByDonationType(DonationType.FOOD);
+        assertIndexScan("donations", "idx_donations_type_date_id");
+
+        donationRepository.getTotalQuantityByDonor("Donor 42");
+        assertIndexScan("donations", "idx_donations_donor_date_id");
+    }
+
+    @Test
+    @DisplayName("Distribution list queries read a (.., date, id) index, first and later pages")
+    void testDistributionLists() {
+        ScrollPosition next = ScrollPosition.forward(Map.of("distributionDate", TO, "id", 5000L));
+
+        distributionRepository.findAllBy(next, Limit.of(50), DISTRIBUTION_ORDER);
+        assertIndexScan("distributions", "idx_distributions_date_id");
+
+        distributionRepository.findByDistributionDateBetween(FROM, TO, ScrollPosition.keyset(), Limit.of(50), DISTRIBUTION_ORDER);
+        assertIndexScan("distributions", "idx_distributions_date_id");
+
+        distributionRepository.findByDistributionDateGreaterThanEqual(FROM, next, Limit.of(50), DISTRIBUTION_ORDER);
+        assertIndexScan("distributions", "idx_distributions_date_id");
+
+        distributionRepository.findByDonationType(DonationType.FOOD, next, Limit.of(50), DISTRIBUTION_ORDER);
+        assertIndexScan("distributions", "idx_distributions_type_date_id");
+
+        distributionRepository.findByRecipient("Shelter 7", next, Limit.of(50), DISTRIBUTION_ORDER);
+        assertIndexScan("distributions", "idx_distributions_recipient_date_id");
+    }
+
+    @Test
+    @DisplayName("Distribution lookups and aggregates read an index")
+    void testDistributionAggregates() {
+        distributionRepository.findByDonationTypeAndDistributionDateBetween(DonationType.FOOD, FROM, TO);
+        assertIndexScan("distributions", "idx_distributions_type_date_id");
+
+        distributionRepository.countByDonationType(DonationType.FOOD);
+        assertIndexScan("distributions", "idx_distributions_type_date_id");
+
+        distributionRepository.getTotalQuantityByType(DonationType.FOOD);
+        assertIndexScan("distributions", "idx_distributions_type_date_id");
+    }
+
+    // Left out of the pruning checks: the lookups by donor, recipient, type and id and the aggregates have no
+    // date to prune by and read every partition (through its index, as checked above)
+
+    @Test
+    @DisplayName("Donation queries with a date range read only the partitions of that range")
+    void testDonationPruning() {
+        donationRepository.findByDonationDateBetween(FROM, TO, ScrollPosition.keyset(), Limit.of(50), DONATION_ORDER);
+        assertPartitions("donations", FROM, TO, FROM, TO, 51);
+
+        donationRepository.findByDonationDateGreaterThanEqual(SINCE, ScrollPosition.keyset(), Limit.of(50), DONATION_ORDER);
+        assertPartitions("donations", SINCE, null, SINCE, 51);
+
+        donationRepository.findByDonationTypeAndDonationDateBetween(DonationType.FOOD, FROM, TO);
+        assertPartitions("donations", FROM, TO, "FOOD", FROM, TO);
+    }
+
+    @Test
+    @DisplayName("Distribution queries with a date range read only the partitions of that range")
+    void testDistributionPruning() {
+        distributionRepository.findByDistributionDateBetween(FROM, TO, ScrollPosition.keyset(), Limit.of(50), DISTRIBUTION_ORDER);
+        assertPartitions("distributions", FROM, TO, FROM, TO, 51);
+
+        distributionRepository.findByDistributionDateGreaterThanEqual(SINCE, ScrollPosition.keyset(), Limit.of(50), DISTRIBUTION_ORDER);
+        assertPartitions("distributions", SINCE, null, SINCE, 51);
+
+        distributionRepository.findByDonationTypeAndDistributionDateBetween(DonationType.FOOD, FROM, TO);
+        assertPartitions("distributions", FROM, TO, "FOOD", FROM, TO);
+    }
+
+    //helper methods
+
+    // the statements captured since the last call must all plan through the index - in every partition, with
+    // pruning off - never a full scan of a partition that holds rows (empty ones may be read either way)
+    private void assertIndexScan(String table, String index) {
+        List<String> statements = new ArrayList<>(CapturingInspector.STATEMENTS);
+        CapturingInspector.STATEMENTS.clear();
+        assertFalse(statements.isEmpty(), "no statement captured");
+
+        for (String sql : statements) {
+            String plan = genericPlan(sql, null);
+            for (String scanned : matches(Pattern.compile("Seq Scan on (" + table + "\\w*)"), plan)) {
+                assertFalse(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + scanned + ")", Boolean.class),
+                        () -> "full scan:\n" + sql + "\n" + plan);
+            }
+            Set<String> indexes = matches(INDEX_SCAN, plan);
+            assertFalse(indexes.isEmpty(), () -> "no index scan:\n" + sql + "\n" + plan);
+            for (String used : indexes) {
+                // a partition's index is named after its columns; the index it was created from is its root
+                String root = jdbcTemplate.queryForObject("SELECT pg_partition_root(CAST(? AS regclass))::text",
+                        String.class, used);
+                assertEquals(index, root, () -> "expected " + index + ":\n" + sql + "\n" + plan);
+            }
+        }
+    }
+
+    // The statement captured since the last call, run with the given parameter values, must read only the months
+    // from..to (to == null: from on, and the default partition, which may hold any later date)
+    private void assertPartitions(String table, LocalDate from, LocalDate to, Object... values) {
+        List<String> statements = new ArrayList<>(CapturingInspector.STATEMENTS);
+        CapturingInspector.STATEMENTS.clear();
+        assertEquals(1, statements.size(), () -> "expected one statement: " + statements);
+
+        String sql = statements.get(0);
+        String plan = genericPlan(sql, values);
+        Set<String> partitions = matches(Pattern.compile(" on (" + table + "_(?:\\d{4}_\\d{2}|default))\\b"), plan);
+        assertFalse(partitions.isEmpty(), () -> "no partition read:\n" + sql + "\n" + plan);
+        String first = table + "_" + from.toString().substring(0, 7).replace('-', '_');
+        String last = to == null ? null : table + "_" + to.toString().substring(0, 7).replace('-', '_');
+        for (String partition : partitions) {
+            boolean inRange = partition.endsWith("_default")
+                    ? to == null
+                    : partition.compareTo(first) >= 0 && (last == null || partition.compareTo(last) <= 0);
+            assertTrue(inRange, () -> partition + " read for " + from + ".." + to + ":\n" + sql + "\n" + plan);
+        }
+        assertTrue(partitions.contains(first), () -> first + " not read:\n" + sql + "\n" + plan);
+    }
+
+    private static Set<String> matches(Pattern pattern, String plan) {
+        Set<String> found = new TreeSet<>();
+        Matcher matcher = pattern.matcher(plan);
+        while (matcher.find()) {
+            found.add(matcher.group(1));
+        }
+        return found;
+    }
+
+    // plan of the statement for any parameter values: prepared with $1, $2.. placeholders and executed under
+    // force_generic_plan (EXPLAIN (GENERIC_PLAN) cannot go through the JDBC extended protocol)
+    // values == null: executed with NULLs and partition pruning off, so every partition's part of the plan shows;
+    // otherwise with those values, so the plan shows the partitions left after pruning at executor start
+    private String genericPlan(String sql, Object[] values) {
+        StringBuilder prepared = new StringBuilder();
+        List<String> parameters = new ArrayList<>();
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(parameters.size() + 1);
+                parameters.add(values == null ? "NULL" : null);
+            } else {
+                prepared.append(c);
+            }
+        }
+        if (values != null) {
+            assertEquals(parameters.size(), values.length, () -> "parameters of:\n" + sql);
+            for (int i = 0; i < values.length; i++) {
+                parameters.set(i, values[i] instanceof Number ? values[i].toString() : "'" + values[i] + "'");
+            }
+        }
+        String execute = parameters.isEmpty() ? "EXPLAIN EXECUTE plan_check"
+                : "EXPLAIN EXECUTE plan_check(" + String.join(", ", parameters) + ")";
+
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                statement.execute("SET enable_partition_pruning = " + (values != null));
+                statement.execute("PREPARE plan_check AS " + prepared);
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery(execute)) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                statement.execute("DEALLOCATE plan_check");
+                statement.execute("RESET enable_partition_pruning");
+                statement.execute("RESET plan_cache_mode");
+                return plan.toString();
+            }
+        });
+    }
+
+    // Records every SQL statement Hibernate prepares
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @SpringBootConfiguration
+    @EntityScan(basePackages = "org.entity")
+    @EnableJpaRepositories(basePackages = "org.repository")
+    static class JpaConfig {
+    }
+}
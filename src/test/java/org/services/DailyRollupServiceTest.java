@@ -0,0 +1,187 @@
+package org.services;
+
+
+import org.dto.TimeseriesDTO;
+import org.entity.DailyTypeRollup;
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.entity.DonationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.repository.DailyTypeRollupRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+//Unit tests for DailyRollupService (daily_type_rollup maintenance and the time-series report)
+@ExtendWith(MockitoExtension.class)
+class DailyRollupServiceTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2025, 12, 1); // a Monday
+    private static final LocalDate DAY_2 = LocalDate.of(2025, 12, 2);
+
+    @Mock
+    private DailyTypeRollupRepository dailyTypeRollupRepository;
+
+    @Mock
+    private StockHistory stockHistory;
+
+    @Mock
+    private DataVersion dataVersion;
+
+    @InjectMocks
+    private DailyRollupService dailyRollupService;
+
+    @Test
+    @DisplayName("Should merge a batch of donations per day and type into one upsert")
+    void testRecordDonations() {
+        // Given - FOOD twice on day 1, FOOD on day 2
+        List<Donation> donations = List.of(
+                new Donation("Harsha", DonationType.FOOD, new BigDecimal("100.00"), DAY_1),
+                new Donation("Test 1", DonationType.FOOD, new BigDecimal("25.50"), DAY_1),
+                new Donation("Harsha", DonationType.FOOD, new BigDecimal("5.00"), DAY_2));
+
+        // When
+        dailyRollupService.recordDonations(donations);
+
+        // Then
+        ArgumentCaptor<LocalDate[]> dates = ArgumentCaptor.forClass(LocalDate[].class);
+        ArgumentCaptor<BigDecimal[]> donated = ArgumentCaptor.forClass(BigDecimal[].class);
+        ArgumentCaptor<BigDecimal[]> distributed = ArgumentCaptor.forClass(BigDecimal[].class);
+        ArgumentCaptor<Long[]> donationCounts = ArgumentCaptor.forClass(Long[].class);
+        ArgumentCaptor<Long[]> distributionCounts = ArgumentCaptor.forClass(Long[].class);
+        verify(dailyTypeRollupRepository, times(1)).adjustRollups(dates.capture(), any(), donated.capture(),
+                distributed.capture(), donationCounts.capture(), distributionCounts.capture());
+
+        assertArrayEquals(new LocalDate[] { DAY_1, DAY_2 }, dates.getValue());
+        assertArrayEquals(new BigDecimal[] { new BigDecimal("125.50"), new BigDecimal("5.00") }, donated.getValue());
+        assertArrayEquals(new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO }, distributed.getValue());
+        assertArrayEquals(new Long[] { 2L, 1L }, donationCounts.getValue());
+        assertArrayEquals(new Long[] { 0L, 0L }, distributionCounts.getValue());
+        verify(stockHistory, times(1)).adjust(anyList());
+    }
+
+    @Test
+    @DisplayName("Should take a deleted distribution back out and drop the day once empty")
+    void testReverseDistribution() {
+        // Given
+        Distribution distribution = new Distribution(DonationType.TOYS, new BigDecimal("3.00"), DAY_2);
+
+        // When
+        dailyRollupService.reverseDistribution(distribution);
+
+        // Then
+        var inOrder = inOrder(dailyTypeRollupRepository);
+        inOrder.verify(dailyTypeRollupRepository).adjustRollups(
+                new LocalDate[] { DAY_2 }, new String[] { "TOYS" }, new BigDecimal[] { BigDecimal.ZERO },
+                new BigDecimal[] { new BigDecimal("-3.00") }, new Long[] { 0L }, new Long[] { -1L });
+        inOrder.verify(dailyTypeRollupRepository).deleteIfEmpty(DAY_2, "TOYS");
+    }
+
+    @Test
+    @DisplayName("Should return one zero-filled point per day for the requested type")
+    void testGetTimeseriesDaily() {
+        // Given - nothing on day 2
+        LocalDate day3 = DAY_1.plusDays(2);
+        when(dailyTypeRollupRepository.findByDonationTypeAndRollupDateBetweenOrderByRollupDateAsc(DonationType.FOOD, DAY_1, day3))
+                .thenReturn(List.of(
+                        new DailyTypeRollup(DAY_1, DonationType.FOOD, new BigDecimal("10.00"), BigDecimal.ZERO, 1, 0),
+                        new DailyTypeRollup(day3, DonationType.FOOD, BigDecimal.ZERO, new BigDecimal("4.00"), 0, 2)));
+
+        // When
+        TimeseriesDTO timeseries = dailyRollupService.getTimeseries(TimeseriesDTO.Granularity.DAY, DAY_1, day3, DonationType.FOOD);
+
+        // Then
+        assertEquals(1, timeseries.getSeries().size());
+        List<TimeseriesDTO.Point> points = timeseries.getSeries().get(0).getPoints();
+        assertEquals(List.of(DAY_1, DAY_2, day3), points.stream().map(TimeseriesDTO.Point::getPeriodStart).toList());
+        assertEquals(new BigDecimal("10.00"), points.get(0).getDonated());
+        assertEquals(0, BigDecimal.ZERO.compareTo(points.get(1).getDonated()));
+        assertEquals(0, points.get(1).getDonationCount());
+        assertEquals(new BigDecimal("4.00"), points.get(2).getDistributed());
+        assertEquals(2, points.get(2).getDistributionCount());
+    }
+
+    @Test
+    @DisplayName("Should sum days into weeks from Monday, with a series for every type")
+    void testGetTimeseriesWeekly() {
+        // Given - Sunday 7th closes the first week, Monday 8th opens the next
+        LocalDate from = LocalDate.of(2025, 12, 3);
+        LocalDate to = LocalDate.of(2025, 12, 9);
+        when(dailyTypeRollupRepository.findByRollupDateBetweenOrderByRollupDateAsc(from, to)).thenReturn(List.of(
+                new DailyTypeRollup(from, DonationType.MONEY, new BigDecimal("50.00"), BigDecimal.ZERO, 1, 0),
+                new DailyTypeRollup(LocalDate.of(2025, 12, 7), DonationType.MONEY, new BigDecimal("25.00"), BigDecimal.ZERO, 2, 0),
+                new DailyTypeRollup(LocalDate.of(2025, 12, 8), DonationType.MONEY, BigDecimal.ZERO, new BigDecimal("30.00"), 0, 1)));
+
+        // When
+        TimeseriesDTO timeseries = dailyRollupService.getTimeseries(TimeseriesDTO.Granularity.WEEK, from, to, null);
+
+        // Then
+        assertEquals(DonationType.values().length, timeseries.getSeries().size());
+        TimeseriesDTO.Series money = timeseries.getSeries().stream()
+                .filter(series -> series.getDonationType() == DonationType.MONEY).findFirst().orElseThrow();
+        assertEquals(List.of(DAY_1, LocalDate.of(2025, 12, 8)),
+                money.getPoints().stream().map(TimeseriesDTO.Point::getPeriodStart).toList());
+        assertEquals(new BigDecimal("75.00"), money.getPoints().get(0).getDonated());
+        assertEquals(3, money.getPoints().get(0).getDonationCount());
+        assertEquals(new BigDecimal("30.00"), money.getPoints().get(1).getDistributed());
+    }
+
+    @Test
+    @DisplayName("Should reject a reversed or too long range")
+    void testGetTimeseriesInvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> dailyRollupService.getTimeseries(TimeseriesDTO.Granularity.MONTH, DAY_2, DAY_1, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> dailyRollupService.getTimeseries(TimeseriesDTO.Granularity.DAY, DAY_1, DAY_1.plusYears(20), null));
+        verifyNoInteractions(dailyTypeRollupRepository, stockHistory);
+    }
+
+    @Test
+    @DisplayName("Should lock, clear and re-aggregate the rollups on rebuild")
+    void testRebuild() {
+        // Given
+        when(dailyTypeRollupRepository.insertFromSources()).thenReturn(42);
+
+        // When
+        int rows = dailyRollupService.rebuild();
+
+        // Then
+        assertEquals(42, rows);
+        var inOrder = inOrder(dailyTypeRollupRepository);
+        inOrder.verify(dailyTypeRollupRepository).lockForRebuild();
+        inOrder.verify(dailyTypeRollupRepository).deleteAllRollups();
+        inOrder.verify(dailyTypeRollupRepository).insertFromSources();
+        verify(stockHistory, times(1)).reloadAfterCommit();
+        verify(dataVersion, times(1)).changed();
+    }
+
+    @Test
+    @DisplayName("Should seed the rollups on start only when the table is empty")
+    void testInitializeIfEmpty() {
+        // Given - rollups already there
+        when(dailyTypeRollupRepository.count()).thenReturn(12L);
+        dailyRollupService.initializeIfEmpty();
+        verify(dailyTypeRollupRepository, never()).insertFromSources();
+
+        // When - emptied by a bulk load
+        when(dailyTypeRollupRepository.count()).thenReturn(0L);
+        dailyRollupService.initializeIfEmpty();
+
+        // Then
+        verify(dailyTypeRollupRepository).lockForRebuild();
+        verify(dailyTypeRollupRepository).insertFromSources();
+        verify(stockHistory).reloadAfterCommit();
+    }
+}
@@ -0,0 +1,70 @@
+package org.services;
+
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Unit tests for DataVersion - transactions are simulated with TransactionSynchronizationManager
+class DataVersionTest {
+
+    private final DataVersion dataVersion = new DataVersion();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should move the version only when the writing transaction commits")
+    void testChangedAfterCommit() {
+        // Given
+        String before = dataVersion.etag();
+
+        // When - committed and rolled-back transaction
+        List<TransactionSynchronization> committed = inTransaction(dataVersion::changed);
+        assertEquals(0L, dataVersion.getVersion());
+        committed.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        List<TransactionSynchronization> rolledBack = inTransaction(dataVersion::changed);
+        rolledBack.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertEquals(1L, dataVersion.getVersion());
+        assertNotEquals(before, dataVersion.etag());
+    }
+
+    @Test
+    @DisplayName("Should hand out a weak tag that differs between instances started apart")
+    void testEtagFormat() throws Exception {
+        // Given
+        String etag = dataVersion.etag();
+        Thread.sleep(5);
+
+        // When / Then
+        assertTrue(etag.startsWith("W/\"") && etag.endsWith("\""));
+        assertEquals(etag, dataVersion.etag());
+        assertNotEquals(etag, new DataVersion().etag());
+    }
+
+    //helper methods
+
+    // run work inside a simulated transaction and hand back what it registered, to be completed by the test
+    private List<TransactionSynchronization> inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
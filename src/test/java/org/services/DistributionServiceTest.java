@@ -5,10 +5,18 @@ import org.dto.DistributionRequest;
 import org.entity.Distribution;
 import org.entity.DonationType;
 import org.dto.DistributionResponse;
+import org.dto.InventoryCheckResponse;
+import org.dto.PageResponse;
+import org.exception.InsufficientInventoryException;
 import org.junit.jupiter.api.BeforeEach;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapper.DistributionMapper;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,12 +25,19 @@ import org.repository.DistributionRepository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 //Unit tests for DistributionService
@@ -32,6 +47,21 @@ class DistributionServiceTest {
     @Mock
     private DistributionRepository distributionRepository;
 
+    @Mock
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Mock
+    private DailyRollupService dailyRollupService;
+
+    @Mock
+    private NameSearchIndex nameSearchIndex;
+
+    @Mock
+    private InventoryMetrics inventoryMetrics;
+
+    @Mock
+    private DataVersion dataVersion;
+
     @InjectMocks
     private DistributionService distributionService;
 
@@ -62,8 +92,10 @@ class DistributionServiceTest {
     @Test
     @DisplayName("Should record distribution successfully")
     void testRecordDistribution() {
-        // Given
-        when(distributionRepository.save(any(Distribution.class))).thenReturn(testDistribution);
+        // Given - 200 available, new row gets id 1
+        when(distributionRepository.insertIfAvailable(eq("FOOD"), eq(new BigDecimal("50.00")),
+                eq(LocalDate.of(2025, 12, 13)), eq("Food Distribution 1"), any(LocalDateTime.class)))
+                .thenReturn(result(new BigDecimal("200.00"), 1L));
 
         // When
         DistributionResponse response = distributionService.recordDistribution(testRequest);
@@ -74,8 +106,96 @@ class DistributionServiceTest {
         assertEquals(DonationType.FOOD, response.getDonationType());
         assertEquals(0, new BigDecimal("50.00").compareTo(response.getQuantity()));
         assertEquals("Food Distribution 1", response.getRecipient());
+        assertNotNull(response.getCreatedAt());
+
+        // single round trip - no separate check or save; the ledger only passes the row on to the cache
+        verify(distributionRepository, never()).save(any(Distribution.class));
+        verify(inventoryLedgerService).recordDistribution(any(Distribution.class));
+        verify(dailyRollupService).recordDistributions(anyList());
+        verify(nameSearchIndex).distributionsSaved(anyList());
+        verify(dataVersion).changed();
+        verifyNoMoreInteractions(inventoryLedgerService);
+    }
+
+    @Test
+    @DisplayName("Should reject distribution when inventory is insufficient")
+    void testRecordDistributionInsufficientInventory() {
+        // Given - only 20 available, nothing inserted
+        when(distributionRepository.insertIfAvailable(eq("FOOD"), eq(new BigDecimal("50.00")),
+                any(LocalDate.class), any(), any(LocalDateTime.class)))
+                .thenReturn(result(new BigDecimal("20.00"), null));
+
+        // When & Then
+        InsufficientInventoryException exception = assertThrows(InsufficientInventoryException.class,
+                () -> distributionService.recordDistribution(testRequest));
+
+        assertFalse(exception.getCheck().isSufficient());
+        assertEquals(0, new BigDecimal("20.00").compareTo(exception.getCheck().getAvailableQuantity()));
+        assertEquals(0, new BigDecimal("50.00").compareTo(exception.getCheck().getRequestedQuantity()));
+        verify(inventoryMetrics, times(1)).distributionRejected(DonationType.FOOD, InventoryMetrics.SOURCE_RECORD);
+        verify(inventoryMetrics, never()).distributionsRecorded(any(), anyLong());
+        verifyNoInteractions(dataVersion);
+    }
+
+    @Test
+    @DisplayName("Should reject distribution of a type that was never donated")
+    void testRecordDistributionNoBalance() {
+        // Given - no balance row for the type
+        when(distributionRepository.insertIfAvailable(eq("FOOD"), any(BigDecimal.class),
+                any(LocalDate.class), any(), any(LocalDateTime.class)))
+                .thenReturn(new ArrayList<>());
+
+        // When & Then
+        InsufficientInventoryException exception = assertThrows(InsufficientInventoryException.class,
+                () -> distributionService.recordDistribution(testRequest));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(exception.getCheck().getAvailableQuantity()));
+    }
+
+    @Test
+    @DisplayName("Should reserve stock and save a batch of distributions")
+    void testRecordDistributions() {
+        // Given
+        DistributionRequest request2 = new DistributionRequest(DonationType.TOYS, new BigDecimal("3.00"), null, null);
+        when(distributionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Distribution> saved = invocation.getArgument(0);
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setId(20L + i);
+            }
+            return saved;
+        });
 
-        verify(distributionRepository, times(1)).save(any(Distribution.class));
+        // When
+        List<DistributionResponse> responses = distributionService.recordDistributions(List.of(testRequest, request2));
+
+        // Then
+        assertEquals(2, responses.size());
+        assertEquals(20L, responses.get(0).getId());
+        assertEquals("Food Distribution 1", responses.get(0).getRecipient());
+        assertEquals(DonationType.TOYS, responses.get(1).getDonationType());
+
+        verify(inventoryLedgerService, times(1)).reserveDistributions(anyList());
+        verify(dailyRollupService, times(1)).recordDistributions(anyList());
+        verify(inventoryMetrics, times(1)).distributionsRecorded(DonationType.FOOD, 1L);
+        verify(inventoryMetrics, times(1)).distributionsRecorded(DonationType.TOYS, 1L);
+        verify(distributionRepository, never()).insertIfAvailable(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should save nothing when a batch is short of stock")
+    void testRecordDistributionsInsufficientInventory() {
+        // Given
+        InventoryCheckResponse check = new InventoryCheckResponse();
+        check.setDonationType(DonationType.FOOD);
+        doThrow(new InsufficientInventoryException(check))
+                .when(inventoryLedgerService).reserveDistributions(anyList());
+
+        // When & Then
+        assertThrows(InsufficientInventoryException.class,
+                () -> distributionService.recordDistributions(List.of(testRequest)));
+        verify(distributionRepository, never()).saveAll(anyList());
+        verifyNoInteractions(dailyRollupService);
+        verify(inventoryMetrics, times(1)).distributionRejected(DonationType.FOOD, InventoryMetrics.SOURCE_RECORD);
     }
 
     @Test
@@ -92,10 +212,11 @@ class DistributionServiceTest {
         distribution2.setCreatedAt(LocalDateTime.now());
 
         List<Distribution> distributions = Arrays.asList(testDistribution, distribution2);
-        when(distributionRepository.findAll()).thenReturn(distributions);
+        when(distributionRepository.findAllBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(distributions));
 
         // When
-        List<DistributionResponse> responses = distributionService.getAllDistributions();
+        List<DistributionResponse> responses = distributionService.getAllDistributions(null, 50).getItems();
 
         // Then
         assertNotNull(responses);
@@ -103,7 +224,7 @@ class DistributionServiceTest {
         assertEquals("Food Distribution 1", responses.get(0).getRecipient());
         assertEquals("Food Distribution 2", responses.get(1).getRecipient());
 
-        verify(distributionRepository, times(1)).findAll();
+        verify(distributionRepository, times(1)).findAllBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
@@ -144,37 +265,59 @@ class DistributionServiceTest {
     void testGetDistributionsByType() {
         // Given
         List<Distribution> foodDistributions = Arrays.asList(testDistribution);
-        when(distributionRepository.findByDonationType(DonationType.FOOD)).thenReturn(foodDistributions);
+        when(distributionRepository.findByDonationType(eq(DonationType.FOOD), any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(foodDistributions));
 
         // When
-        List<DistributionResponse> responses = distributionService.getDistributionsByType(DonationType.FOOD);
+        List<DistributionResponse> responses = distributionService.getDistributionsByType(DonationType.FOOD, null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertEquals(1, responses.size());
         assertEquals(DonationType.FOOD, responses.get(0).getDonationType());
 
-        verify(distributionRepository, times(1)).findByDonationType(DonationType.FOOD);
+        verify(distributionRepository, times(1)).findByDonationType(eq(DonationType.FOOD),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
 
     @Test
-    @DisplayName("Should search distributions by recipient")
+    @DisplayName("Should search distributions by recipient from the name index")
     void testSearchDistributionsByRecipient() {
-        // Given
+        // Given - last page: id 1 only, id 9 deleted since the index answered
+        when(nameSearchIndex.searchRecipients(eq("food"), any(ScrollPosition.class), eq("distributionDate"), eq(50)))
+                .thenReturn(new TrigramIndex.Page(List.of(9L, 1L), false));
+        when(distributionRepository.findByIdIn(List.of(9L, 1L))).thenReturn(List.of(DistributionMapper.toResponse(testDistribution)));
+
+        // When
+        PageResponse<DistributionResponse> page = distributionService.searchDistributionsByRecipient("food", null, 50);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertEquals(1L, page.getItems().get(0).getId());
+        assertNull(page.getNext());
+        verify(distributionRepository, never()).findByRecipientContainingIgnoreCase(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should search distributions by recipient in the table while the index is building")
+    void testSearchDistributionsByRecipientIndexNotLoaded() {
+        // Given - index not built (returns null)
         List<Distribution> searchResults = Arrays.asList(testDistribution);
-        when(distributionRepository.findByRecipientContainingIgnoreCase("Food Distribution"))
-                .thenReturn(searchResults);
+        when(distributionRepository.findByRecipientContainingIgnoreCase(eq("Food Distribution"),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(searchResults));
 
         // When
-        List<DistributionResponse> responses = distributionService.searchDistributionsByRecipient("Food Distribution");
+        List<DistributionResponse> responses = distributionService.searchDistributionsByRecipient("Food Distribution", null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertEquals(1, responses.size());
-        assertTrue(responses.get(0).getRecipient().toLowerCase().contains("Food Distribution"));
+        assertTrue(responses.get(0).getRecipient().toLowerCase().contains("food distribution"));
 
-        verify(distributionRepository, times(1)).findByRecipientContainingIgnoreCase("Food Distribution");
+        verify(distributionRepository, times(1)).findByRecipientContainingIgnoreCase(eq("Food Distribution"),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
@@ -185,17 +328,19 @@ class DistributionServiceTest {
         LocalDate endDate = LocalDate.of(2024, 12, 31);
         List<Distribution> distributionsInRange = Arrays.asList(testDistribution);
 
-        when(distributionRepository.findByDistributionDateBetween(startDate, endDate))
-                .thenReturn(distributionsInRange);
+        when(distributionRepository.findByDistributionDateBetween(eq(startDate), eq(endDate),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(distributionsInRange));
 
         // When
-        List<DistributionResponse> responses = distributionService.getDistributionsByDateRange(startDate, endDate);
+        List<DistributionResponse> responses = distributionService.getDistributionsByDateRange(startDate, endDate, null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertEquals(1, responses.size());
 
-        verify(distributionRepository, times(1)).findByDistributionDateBetween(startDate, endDate);
+        verify(distributionRepository, times(1)).findByDistributionDateBetween(eq(startDate), eq(endDate),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
@@ -259,38 +404,43 @@ class DistributionServiceTest {
         LocalDate sinceDate = LocalDate.now().minusDays(days);
         List<Distribution> recentDistributions = Arrays.asList(testDistribution);
 
-        when(distributionRepository.findRecentDistributions(sinceDate)).thenReturn(recentDistributions);
+        when(distributionRepository.findByDistributionDateGreaterThanEqual(eq(sinceDate), any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(recentDistributions));
 
         // When
-        List<DistributionResponse> responses = distributionService.getRecentDistributions(days);
+        List<DistributionResponse> responses = distributionService.getRecentDistributions(days, null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertEquals(1, responses.size());
 
-        verify(distributionRepository, times(1)).findRecentDistributions(sinceDate);
+        verify(distributionRepository, times(1)).findByDistributionDateGreaterThanEqual(eq(sinceDate),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
     @DisplayName("Should delete distribution successfully")
     void testDeleteDistribution() {
         // Given
-        when(distributionRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(distributionRepository).deleteById(1L);
+        when(distributionRepository.findById(1L)).thenReturn(Optional.of(testDistribution));
+        doNothing().when(distributionRepository).delete(testDistribution);
 
         // When
         distributionService.deleteDistribution(1L);
 
         // Then
-        verify(distributionRepository, times(1)).existsById(1L);
-        verify(distributionRepository, times(1)).deleteById(1L);
+        verify(distributionRepository, times(1)).findById(1L);
+        verify(distributionRepository, times(1)).delete(testDistribution);
+        verify(inventoryLedgerService, times(1)).reverseDistribution(testDistribution);
+        verify(dailyRollupService, times(1)).reverseDistribution(testDistribution);
+        verify(nameSearchIndex, times(1)).distributionDeleted(testDistribution);
     }
 
     @Test
     @DisplayName("Should throw exception when deleting non-existent distribution")
     void testDeleteDistributionNotFound() {
         // Given
-        when(distributionRepository.existsById(999L)).thenReturn(false);
+        when(distributionRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -298,8 +448,9 @@ class DistributionServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Distribution not found"));
-        verify(distributionRepository, times(1)).existsById(999L);
-        verify(distributionRepository, never()).deleteById(999L);
+        verify(distributionRepository, times(1)).findById(999L);
+        verify(distributionRepository, never()).delete(any(Distribution.class));
+        verifyNoInteractions(inventoryLedgerService, dailyRollupService);
     }
 
     @Test
@@ -320,16 +471,17 @@ class DistributionServiceTest {
     @DisplayName("Should handle empty distribution list")
     void testGetAllDistributionsEmpty() {
         // Given
-        when(distributionRepository.findAll()).thenReturn(Arrays.asList());
+        when(distributionRepository.findAllBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(Arrays.asList()));
 
         // When
-        List<DistributionResponse> responses = distributionService.getAllDistributions();
+        List<DistributionResponse> responses = distributionService.getAllDistributions(null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertTrue(responses.isEmpty());
 
-        verify(distributionRepository, times(1)).findAll();
+        verify(distributionRepository, times(1)).findAllBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
@@ -343,15 +495,9 @@ class DistributionServiceTest {
                 null
         );
 
-        Distribution distributionWithoutRecipient = new Distribution(
-                DonationType.MONEY,
-                new BigDecimal("1000.00"),
-                LocalDate.now()
-        );
-        distributionWithoutRecipient.setId(3L);
-        distributionWithoutRecipient.setCreatedAt(LocalDateTime.now());
-
-        when(distributionRepository.save(any(Distribution.class))).thenReturn(distributionWithoutRecipient);
+        when(distributionRepository.insertIfAvailable(eq("MONEY"), eq(new BigDecimal("1000.00")),
+                any(LocalDate.class), isNull(), any(LocalDateTime.class)))
+                .thenReturn(result(new BigDecimal("1000.00"), 3L));
 
         // When
         DistributionResponse response = distributionService.recordDistribution(requestWithoutRecipient);
@@ -360,7 +506,46 @@ class DistributionServiceTest {
         assertNotNull(response);
         assertEquals(DonationType.MONEY, response.getDonationType());
         assertNull(response.getRecipient());
+        assertEquals(3L, response.getId());
+    }
+
+
+    @Test
+    @DisplayName("Should return a cursor only when more distributions follow")
+    void testGetAllDistributionsNextPage() {
+        // Given
+        when(distributionRepository.findAllBy(eq(ScrollPosition.keyset()), eq(Limit.of(1)), any(Sort.class)))
+                .thenReturn(window(Arrays.asList(testDistribution), true));
+
+        // When
+        PageResponse<DistributionResponse> page = distributionService.getAllDistributions(null, 1);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertNotNull(page.getNext());
+    }
+
+    // Helper Methods
+
+    // one page of rows as the repository projects them; positions carry the (date, id) keyset of each row
+    private Window<DistributionResponse> window(List<Distribution> rows) {
+        return window(rows, false);
+    }
+
+    private Window<DistributionResponse> window(List<Distribution> rows, boolean hasNext) {
+        List<DistributionResponse> responses = rows.stream().map(DistributionMapper::toResponse).toList();
+        return Window.from(responses, i -> {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("distributionDate", responses.get(i).getDistributionDate());
+            keys.put("id", responses.get(i).getId());
+            return ScrollPosition.forward(keys);
+        }, hasNext);
+    }
 
-        verify(distributionRepository, times(1)).save(any(Distribution.class));
+    // [available, id] row as returned by insertIfAvailable
+    private List<Object[]> result(BigDecimal available, Long id) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { available, id });
+        return rows;
     }
 }
\ No newline at end of file
@@ -0,0 +1,293 @@
+package org.services;
+
+
+import org.dto.DonationRequest;
+import org.dto.DonationResponse;
+import org.dto.IntakeReceiptResponse;
+import org.dto.IntakeStatusResponse;
+import org.entity.DonationType;
+import org.entity.IntakeCheckpoint;
+import org.exception.IntakeQueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.repository.IntakeCheckpointRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+//Unit tests for DonationIntakeService - real journal in a temp dir, the test drains the queue itself
+@ExtendWith(MockitoExtension.class)
+class DonationIntakeServiceTest {
+
+    @Mock
+    private DonationService donationService;
+
+    @Mock
+    private IntakeCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong nextId = new AtomicLong(100);
+    private DonationIntakeService intakeService;
+
+    @BeforeEach
+    void setUp() {
+        intakeService = newService(3, 2);
+        intakeService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        intakeService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should acknowledge a donation, then save it with the checkpoint in one group")
+    @SuppressWarnings("unchecked")
+    void testSubmitAndCommit() throws Exception {
+        // Given
+        savesDonations();
+
+        // When
+        IntakeReceiptResponse first = intakeService.submit(donation("Jo", null));
+        IntakeReceiptResponse second = intakeService.submit(donation("Sam", LocalDate.of(2025, 12, 1)));
+
+        // Then - queued until the writer gets to them
+        assertEquals("QUEUED", first.getStatus());
+        assertEquals(2, intakeService.getStatus().getQueued());
+        verifyNoInteractions(donationService);
+
+        assertTrue(intakeService.drain(false));
+
+        ArgumentCaptor<List<DonationRequest>> group = ArgumentCaptor.forClass(List.class);
+        verify(donationService).registerDonations(group.capture());
+        assertEquals(List.of("Jo", "Sam"), group.getValue().stream().map(DonationRequest::getDonorName).collect(Collectors.toList()));
+        assertEquals(LocalDate.now(), group.getValue().get(0).getDonationDate());
+        verify(checkpointRepository).saveOffset(eq("donations.journal"), anyLong());
+        verify(transactionManager).commit(any());
+
+        IntakeReceiptResponse committed = intakeService.getReceipt(first.getReceiptId());
+        assertEquals("COMMITTED", committed.getStatus());
+        assertEquals(100L, committed.getDonationId());
+        assertEquals(101L, intakeService.getReceipt(second.getReceiptId()).getDonationId());
+        assertFalse(intakeService.drain(false));
+    }
+
+    @Test
+    @DisplayName("Should commit at most batch-size donations per group")
+    void testGroupSize() throws Exception {
+        // Given
+        savesDonations();
+        for (int i = 0; i < 3; i++) {
+            intakeService.submit(donation("Donor " + i, null));
+        }
+
+        // When
+        intakeService.drain(false);
+
+        // Then
+        verify(donationService).registerDonations(argThat(requests -> requests.size() == 2));
+        assertEquals(1, intakeService.getStatus().getQueued());
+        assertEquals(2, intakeService.getStatus().getCommitted());
+    }
+
+    @Test
+    @DisplayName("Should turn donations away with IntakeQueueFullException once the queue is full")
+    void testQueueFull() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            intakeService.submit(donation("Donor " + i, null));
+        }
+
+        // When / Then
+        assertThrows(IntakeQueueFullException.class, () -> intakeService.submit(donation("One too many", null)));
+        IntakeStatusResponse status = intakeService.getStatus();
+        assertEquals(3, status.getQueued());
+        assertEquals(3, status.getAccepted());
+        assertEquals(1, status.getRejected());
+    }
+
+    @Test
+    @DisplayName("Should retry a group the database rejects one donation at a time, and fail only the bad one")
+    void testRejectedDonation() throws Exception {
+        // Given - the group fails, and so does "Bad" on its own
+        when(donationService.registerDonations(anyList())).thenAnswer(invocation -> {
+            List<DonationRequest> requests = invocation.getArgument(0);
+            if (requests.stream().anyMatch(r -> r.getDonorName().equals("Bad"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return responses(requests);
+        });
+        IntakeReceiptResponse bad = intakeService.submit(donation("Bad", null));
+        IntakeReceiptResponse good = intakeService.submit(donation("Good", null));
+
+        // When
+        intakeService.drain(false);
+
+        // Then - the checkpoint still moves past the bad one
+        assertEquals("FAILED", intakeService.getReceipt(bad.getReceiptId()).getStatus());
+        assertEquals("value too long", intakeService.getReceipt(bad.getReceiptId()).getError());
+        assertEquals("COMMITTED", intakeService.getReceipt(good.getReceiptId()).getStatus());
+        verify(checkpointRepository, times(2)).saveOffset(eq("donations.journal"), anyLong());
+        assertEquals(1, intakeService.getStatus().getFailed());
+    }
+
+    @Test
+    @DisplayName("Should keep retrying a group while the database is unavailable")
+    void testRetriesWhileDatabaseDown() throws Exception {
+        // Given
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("connection refused"))
+                .thenReturn(null);
+        savesDonations();
+        IntakeReceiptResponse receipt = intakeService.submit(donation("Jo", null));
+
+        // When
+        intakeService.drain(false);
+
+        // Then
+        verify(transactionManager, times(2)).getTransaction(any());
+        assertEquals("COMMITTED", intakeService.getReceipt(receipt.getReceiptId()).getStatus());
+        assertNull(intakeService.getStatus().getLastError());
+    }
+
+    @Test
+    @DisplayName("Should replay donations the checkpoint doesn't cover after a restart")
+    void testReplayAfterRestart() throws Exception {
+        // Given - two accepted, only the first committed
+        savesDonations();
+        intakeService.shutdown();
+        intakeService = newService(3, 1);
+        intakeService.start();
+        intakeService.submit(donation("Jo", null));
+        IntakeReceiptResponse pending = intakeService.submit(donation("Sam", null));
+        intakeService.drain(false);
+        ArgumentCaptor<Long> checkpoint = ArgumentCaptor.forClass(Long.class);
+        verify(checkpointRepository).saveOffset(anyString(), checkpoint.capture());
+        intakeService.shutdown();
+
+        IntakeCheckpoint saved = new IntakeCheckpoint();
+        saved.setJournal("donations.journal");
+        saved.setJournalOffset(checkpoint.getValue());
+        when(checkpointRepository.findById("donations.journal")).thenReturn(Optional.of(saved));
+
+        // When
+        intakeService = newService(3, 1);
+        intakeService.start();
+
+        // Then - same receipt, still queued, saved on the next drain
+        assertEquals(1, intakeService.getStatus().getQueued());
+        assertEquals("QUEUED", intakeService.getReceipt(pending.getReceiptId()).getStatus());
+        intakeService.drain(false);
+        verify(donationService).registerDonations(argThat(requests ->
+                requests.size() == 1 && requests.get(0).getDonorName().equals("Sam")));
+        assertEquals("COMMITTED", intakeService.getReceipt(pending.getReceiptId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should stop the writer, checkpoint untouched, when a failure is not one a retry fixes")
+    void testStopsOnUnexpectedFailure() throws Exception {
+        // Given - "Bad" is refused, and then its checkpoint can't be saved either; "Later" is the next group
+        intakeService.shutdown();
+        List<Runnable> writer = new ArrayList<>();
+        intakeService = newService(3, 2, writer::add);
+        intakeService.start();
+        when(donationService.registerDonations(anyList()))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        when(checkpointRepository.saveOffset(anyString(), anyLong()))
+                .thenThrow(new IllegalStateException("relation \"intake_checkpoint\" does not exist"));
+        IntakeReceiptResponse bad = intakeService.submit(donation("Bad", null));
+        IntakeReceiptResponse good = intakeService.submit(donation("Good", null));
+        IntakeReceiptResponse later = intakeService.submit(donation("Later", null));
+
+        // When - the writer loop, run here
+        writer.get(0).run();
+
+        // Then - nothing after the failed group was written, nothing new is taken
+        verify(donationService, never()).registerDonations(argThat(requests ->
+                requests.stream().anyMatch(r -> r.getDonorName().equals("Later"))));
+        for (IntakeReceiptResponse receipt : List.of(bad, good, later)) {
+            assertEquals("QUEUED", intakeService.getReceipt(receipt.getReceiptId()).getStatus());
+        }
+        IntakeStatusResponse status = intakeService.getStatus();
+        assertFalse(status.isAccepting());
+        assertEquals("relation \"intake_checkpoint\" does not exist", status.getLastError());
+        assertThrows(IntakeQueueFullException.class, () -> intakeService.submit(donation("Jo", null)));
+
+        // and the next start replays all three
+        intakeService = newService(3, 2);
+        intakeService.start();
+        assertEquals(3, intakeService.getStatus().getQueued());
+    }
+
+    @Test
+    @DisplayName("Should turn donations away until the intake has started")
+    void testNotStarted() throws Exception {
+        // Given
+        intakeService.shutdown();
+        intakeService = newService(3, 2);
+
+        // When / Then
+        assertThrows(IntakeQueueFullException.class, () -> intakeService.submit(donation("Jo", null)));
+        assertFalse(intakeService.getStatus().isAccepting());
+    }
+
+    //helper methods
+
+    private DonationIntakeService newService(int capacity, int batchSize) {
+        // the writer loop never runs; tests call drain()
+        return newService(capacity, batchSize, r -> { });
+    }
+
+    private DonationIntakeService newService(int capacity, int batchSize, Executor writer) {
+        return new DonationIntakeService(donationService, checkpointRepository, transactionManager,
+                JsonMapper.builder().build(), writer, dir.resolve("intake/donations.journal"),
+                capacity, batchSize, Duration.ZERO, Duration.ofMillis(1));
+    }
+
+    private void savesDonations() {
+        when(donationService.registerDonations(anyList()))
+                .thenAnswer(invocation -> responses(invocation.getArgument(0)));
+    }
+
+    private List<DonationResponse> responses(List<DonationRequest> requests) {
+        return requests.stream()
+                .map(r -> new DonationResponse(nextId.getAndIncrement(), r.getDonorName(), r.getDonationType(),
+                        r.getQuantity(), r.getDonationDate(), null))
+                .collect(Collectors.toList());
+    }
+
+    private DonationRequest donation(String donorName, LocalDate date) {
+        return new DonationRequest(donorName, DonationType.FOOD, new BigDecimal("2.50"), date);
+    }
+}
@@ -3,12 +3,18 @@ package org.services;
 
 import org.dto.DonationRequest;
 import org.dto.DonationResponse;
+import org.dto.PageResponse;
 import org.entity.Donation;
 import org.entity.DonationType;
 import org.junit.jupiter.api.BeforeEach;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapper.DonorMapper;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -18,11 +24,15 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -32,6 +42,24 @@ class DonationServiceTest {
     @Mock
     private DonationRepository donationRepository;
 
+    @Mock
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Mock
+    private DonorTotalsService donorTotalsService;
+
+    @Mock
+    private DailyRollupService dailyRollupService;
+
+    @Mock
+    private NameSearchIndex nameSearchIndex;
+
+    @Mock
+    private InventoryMetrics inventoryMetrics;
+
+    @Mock
+    private DataVersion dataVersion;
+
     @InjectMocks
     private DonationService donationService;
 
@@ -62,8 +90,12 @@ class DonationServiceTest {
     @Test
     @DisplayName("Should register donation successfully")
     void testRegisterDonation() {
-        // Given
-        when(donationRepository.save(any(Donation.class))).thenReturn(testDonation);
+        // Given - repository hands back what it was given, with the generated id
+        when(donationRepository.save(any(Donation.class))).thenAnswer(invocation -> {
+            Donation saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
 
         // When
         DonationResponse response = donationService.registerDonation(testRequest);
@@ -76,6 +108,45 @@ class DonationServiceTest {
         assertEquals(0, new BigDecimal("100.00").compareTo(response.getQuantity()));
 
         verify(donationRepository, times(1)).save(any(Donation.class));
+        verify(inventoryLedgerService, times(1)).recordDonation(any(Donation.class));
+        verify(donorTotalsService, times(1)).recordDonation(any(Donation.class));
+        verify(dailyRollupService, times(1)).recordDonations(anyList());
+        verify(nameSearchIndex, times(1)).donationsSaved(anyList());
+        verify(inventoryMetrics, times(1)).donationsRecorded(DonationType.FOOD, 1);
+        verify(dataVersion, times(1)).changed();
+    }
+
+    @Test
+    @DisplayName("Should register a batch of donations in request order")
+    void testRegisterDonations() {
+        // Given - ids handed out in save order
+        DonationRequest request2 = new DonationRequest("Test 1", DonationType.TOYS, new BigDecimal("5.00"), null);
+        when(donationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Donation> saved = invocation.getArgument(0);
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setId(10L + i);
+            }
+            return saved;
+        });
+
+        // When
+        List<DonationResponse> responses = donationService.registerDonations(List.of(testRequest, request2));
+
+        // Then
+        assertEquals(2, responses.size());
+        assertEquals(10L, responses.get(0).getId());
+        assertEquals("Harsha", responses.get(0).getDonorName());
+        assertEquals(11L, responses.get(1).getId());
+        assertEquals(DonationType.TOYS, responses.get(1).getDonationType());
+        assertEquals(LocalDate.now(), responses.get(1).getDonationDate());
+
+        verify(donationRepository, times(1)).saveAll(anyList());
+        verify(donationRepository, never()).save(any(Donation.class));
+        verify(inventoryLedgerService, times(1)).recordDonations(anyList());
+        verify(donorTotalsService, times(1)).recordDonations(anyList());
+        verify(dailyRollupService, times(1)).recordDonations(anyList());
+        verify(inventoryMetrics, times(1)).donationsRecorded(DonationType.FOOD, 1L);
+        verify(inventoryMetrics, times(1)).donationsRecorded(DonationType.TOYS, 1L);
     }
 
     @Test
@@ -92,10 +163,11 @@ class DonationServiceTest {
         donation2.setCreatedAt(LocalDateTime.now());
 
         List<Donation> donations = Arrays.asList(testDonation, donation2);
-        when(donationRepository.findAll()).thenReturn(donations);
+        when(donationRepository.findAllBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(donations));
 
         // When
-        List<DonationResponse> responses = donationService.getAllDonations();
+        List<DonationResponse> responses = donationService.getAllDonations(null, 50).getItems();
 
         // Then
         assertNotNull(responses);
@@ -103,7 +175,7 @@ class DonationServiceTest {
         assertEquals("Harsha", responses.get(0).getDonorName());
         assertEquals("Test 1", responses.get(1).getDonorName());
 
-        verify(donationRepository, times(1)).findAll();
+        verify(donationRepository, times(1)).findAllBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
@@ -153,10 +225,11 @@ class DonationServiceTest {
         donation2.setCreatedAt(LocalDateTime.now());
 
         List<Donation> harshaDonations = Arrays.asList(testDonation, donation2);
-        when(donationRepository.findByDonorName("Harsha")).thenReturn(harshaDonations);
+        when(donationRepository.findByDonorName(eq("Harsha"), any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(harshaDonations));
 
         // When
-        List<DonationResponse> responses = donationService.getDonationsByDonor("Harsha");
+        List<DonationResponse> responses = donationService.getDonationsByDonor("Harsha", null, 50).getItems();
 
         // Then
         assertNotNull(responses);
@@ -165,7 +238,8 @@ class DonationServiceTest {
         // Verify all donations are from Harsha
         assertTrue(responses.stream().allMatch(d -> d.getDonorName().equals("Harsha")));
 
-        verify(donationRepository, times(1)).findByDonorName("Harsha");
+        verify(donationRepository, times(1)).findByDonorName(eq("Harsha"),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
@@ -173,35 +247,62 @@ class DonationServiceTest {
     void testGetDonationsByType() {
         // Given
         List<Donation> foodDonations = Arrays.asList(testDonation);
-        when(donationRepository.findByDonationType(DonationType.FOOD)).thenReturn(foodDonations);
+        when(donationRepository.findByDonationType(eq(DonationType.FOOD), any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(foodDonations));
 
         // When
-        List<DonationResponse> responses = donationService.getDonationsByType(DonationType.FOOD);
+        List<DonationResponse> responses = donationService.getDonationsByType(DonationType.FOOD, null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertEquals(1, responses.size());
         assertEquals(DonationType.FOOD, responses.get(0).getDonationType());
 
-        verify(donationRepository, times(1)).findByDonationType(DonationType.FOOD);
+        verify(donationRepository, times(1)).findByDonationType(eq(DonationType.FOOD),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
-    @DisplayName("Should search donations by donor name")
+    @DisplayName("Should search donations by donor name from the name index")
     void testSearchDonationsByDonor() {
-        // Given
+        // Given - index returns ids 3 and 1 (list order), more to come
+        Donation older = new Donation("Sharath", DonationType.MONEY, new BigDecimal("5.00"), LocalDate.of(2025, 12, 1));
+        older.setId(3L);
+        older.setCreatedAt(LocalDateTime.now());
+        when(nameSearchIndex.searchDonors(eq("har"), any(ScrollPosition.class), eq("donationDate"), eq(2)))
+                .thenReturn(new TrigramIndex.Page(List.of(3L, 1L), true));
+        when(donationRepository.findByIdIn(List.of(3L, 1L)))
+                .thenReturn(List.of(DonorMapper.toResponse(testDonation), DonorMapper.toResponse(older)));
+
+        // When
+        PageResponse<DonationResponse> page = donationService.searchDonationsByDonor("har", null, 2);
+
+        // Then - index order kept, cursor points after the last row
+        assertEquals(2, page.getItems().size());
+        assertEquals(3L, page.getItems().get(0).getId());
+        assertEquals(1L, page.getItems().get(1).getId());
+        assertNotNull(page.getNext());
+        verify(donationRepository, never()).findByDonorNameContainingIgnoreCase(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should search donations by donor name in the table while the index is building")
+    void testSearchDonationsByDonorIndexNotLoaded() {
+        // Given - index not built (returns null)
         List<Donation> searchResults = Arrays.asList(testDonation);
-        when(donationRepository.findByDonorNameContainingIgnoreCase("har")).thenReturn(searchResults);
+        when(donationRepository.findByDonorNameContainingIgnoreCase(eq("har"), any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(searchResults));
 
         // When
-        List<DonationResponse> responses = donationService.searchDonationsByDonor("har");
+        List<DonationResponse> responses = donationService.searchDonationsByDonor("har", null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertEquals(1, responses.size());
         assertTrue(responses.get(0).getDonorName().toLowerCase().contains("har"));
 
-        verify(donationRepository, times(1)).findByDonorNameContainingIgnoreCase("har");
+        verify(donationRepository, times(1)).findByDonorNameContainingIgnoreCase(eq("har"),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
@@ -212,17 +313,19 @@ class DonationServiceTest {
         LocalDate endDate = LocalDate.of(2025, 12, 31);
         List<Donation> donationsInRange = Arrays.asList(testDonation);
 
-        when(donationRepository.findByDonationDateBetween(startDate, endDate))
-                .thenReturn(donationsInRange);
+        when(donationRepository.findByDonationDateBetween(eq(startDate), eq(endDate),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(donationsInRange));
 
         // When
-        List<DonationResponse> responses = donationService.getDonationsByDateRange(startDate, endDate);
+        List<DonationResponse> responses = donationService.getDonationsByDateRange(startDate, endDate, null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertEquals(1, responses.size());
 
-        verify(donationRepository, times(1)).findByDonationDateBetween(startDate, endDate);
+        verify(donationRepository, times(1)).findByDonationDateBetween(eq(startDate), eq(endDate),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
@@ -249,7 +352,7 @@ class DonationServiceTest {
     void testGetTotalByDonor() {
         // Given
         BigDecimal expectedTotal = new BigDecimal("2616.08"); // 100 + 2516.08
-        when(donationRepository.getTotalQuantityByDonor("Harsha")).thenReturn(expectedTotal);
+        when(donorTotalsService.getTotalByDonor("Harsha")).thenReturn(expectedTotal);
 
         // When
         BigDecimal total = donationService.getTotalByDonor("Harsha");
@@ -258,14 +361,15 @@ class DonationServiceTest {
         assertNotNull(total);
         assertEquals(0, expectedTotal.compareTo(total));
 
-        verify(donationRepository, times(1)).getTotalQuantityByDonor("Harsha");
+        verify(donorTotalsService, times(1)).getTotalByDonor("Harsha");
+        verify(donationRepository, never()).getTotalQuantityByDonor(any());
     }
 
     @Test
     @DisplayName("Should return zero when donor has no donations")
     void testGetTotalByDonorNoData() {
         // Given
-        when(donationRepository.getTotalQuantityByDonor("NonExistent")).thenReturn(null);
+        when(donorTotalsService.getTotalByDonor("NonExistent")).thenReturn(BigDecimal.ZERO);
 
         // When
         BigDecimal total = donationService.getTotalByDonor("NonExistent");
@@ -274,7 +378,7 @@ class DonationServiceTest {
         assertNotNull(total);
         assertEquals(0, BigDecimal.ZERO.compareTo(total));
 
-        verify(donationRepository, times(1)).getTotalQuantityByDonor("NonExistent");
+        verify(donorTotalsService, times(1)).getTotalByDonor("NonExistent");
     }
 
     @Test
@@ -285,38 +389,45 @@ class DonationServiceTest {
         LocalDate sinceDate = LocalDate.now().minusDays(days);
         List<Donation> recentDonations = Arrays.asList(testDonation);
 
-        when(donationRepository.findRecentDonations(sinceDate)).thenReturn(recentDonations);
+        when(donationRepository.findByDonationDateGreaterThanEqual(eq(sinceDate), any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(recentDonations));
 
         // When
-        List<DonationResponse> responses = donationService.getRecentDonations(days);
+        List<DonationResponse> responses = donationService.getRecentDonations(days, null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertEquals(1, responses.size());
 
-        verify(donationRepository, times(1)).findRecentDonations(sinceDate);
+        verify(donationRepository, times(1)).findByDonationDateGreaterThanEqual(eq(sinceDate),
+                any(ScrollPosition.class), any(Limit.class), any(Sort.class));
     }
 
     @Test
     @DisplayName("Should delete donation successfully")
     void testDeleteDonation() {
         // Given
-        when(donationRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(donationRepository).deleteById(1L);
+        when(donationRepository.findById(1L)).thenReturn(Optional.of(testDonation));
+        doNothing().when(donationRepository).delete(testDonation);
 
         // When
         donationService.deleteDonation(1L);
 
         // Then
-        verify(donationRepository, times(1)).existsById(1L);
-        verify(donationRepository, times(1)).deleteById(1L);
+        verify(donationRepository, times(1)).findById(1L);
+        verify(donationRepository, times(1)).delete(testDonation);
+        verify(inventoryLedgerService, times(1)).reverseDonation(testDonation);
+        verify(donorTotalsService, times(1)).reverseDonation(testDonation);
+        verify(dailyRollupService, times(1)).reverseDonation(testDonation);
+        verify(nameSearchIndex, times(1)).donationDeleted(testDonation);
+        verify(dataVersion, times(1)).changed();
     }
 
     @Test
     @DisplayName("Should throw exception when deleting non-existent donation")
     void testDeleteDonationNotFound() {
         // Given
-        when(donationRepository.existsById(999L)).thenReturn(false);
+        when(donationRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -324,8 +435,9 @@ class DonationServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Donation not found"));
-        verify(donationRepository, times(1)).existsById(999L);
-        verify(donationRepository, never()).deleteById(999L);
+        verify(donationRepository, times(1)).findById(999L);
+        verify(donationRepository, never()).delete(any(Donation.class));
+        verifyNoInteractions(inventoryLedgerService, donorTotalsService, dailyRollupService, dataVersion);
     }
 
     @Test
@@ -346,15 +458,68 @@ class DonationServiceTest {
     @DisplayName("Should handle empty donation list")
     void testGetAllDonationsEmpty() {
         // Given
-        when(donationRepository.findAll()).thenReturn(Arrays.asList());
+        when(donationRepository.findAllBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(window(Arrays.asList()));
 
         // When
-        List<DonationResponse> responses = donationService.getAllDonations();
+        List<DonationResponse> responses = donationService.getAllDonations(null, 50).getItems();
 
         // Then
         assertNotNull(responses);
         assertTrue(responses.isEmpty());
 
-        verify(donationRepository, times(1)).findAll();
+        verify(donationRepository, times(1)).findAllBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class));
+    }
+
+    @Test
+    @DisplayName("Should return a cursor that resumes after the last row of the page")
+    void testGetAllDonationsNextPage() {
+        // Given - first page has more rows after it
+        when(donationRepository.findAllBy(eq(ScrollPosition.keyset()), eq(Limit.of(1)), any(Sort.class)))
+                .thenReturn(window(Arrays.asList(testDonation), true));
+
+        // When
+        PageResponse<DonationResponse> firstPage = donationService.getAllDonations(null, 1);
+
+        // Then - the cursor decodes back to the (date, id) of the last row
+        assertEquals(1, firstPage.getItems().size());
+        assertNotNull(firstPage.getNext());
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("donationDate", LocalDate.of(2025, 12, 13));
+        keys.put("id", 1L);
+        when(donationRepository.findAllBy(eq(ScrollPosition.forward(keys)), eq(Limit.of(1)), any(Sort.class)))
+                .thenReturn(window(Arrays.asList()));
+
+        PageResponse<DonationResponse> lastPage = donationService.getAllDonations(firstPage.getNext(), 1);
+        assertTrue(lastPage.getItems().isEmpty());
+        assertNull(lastPage.getNext());
+    }
+
+    @Test
+    @DisplayName("Should reject an out of range page size or a malformed cursor")
+    void testGetAllDonationsInvalidPaging() {
+        assertThrows(IllegalArgumentException.class, () -> donationService.getAllDonations(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> donationService.getAllDonations(null, 501));
+        assertThrows(IllegalArgumentException.class, () -> donationService.getAllDonations("not-a-cursor", 10));
+
+        verifyNoInteractions(donationRepository);
+    }
+
+    // Helper Methods
+
+    // one page of rows as the repository projects them; positions carry the (date, id) keyset of each row
+    private Window<DonationResponse> window(List<Donation> rows) {
+        return window(rows, false);
+    }
+
+    private Window<DonationResponse> window(List<Donation> rows, boolean hasNext) {
+        List<DonationResponse> responses = rows.stream().map(DonorMapper::toResponse).toList();
+        return Window.from(responses, i -> {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("donationDate", responses.get(i).getDonationDate());
+            keys.put("id", responses.get(i).getId());
+            return ScrollPosition.forward(keys);
+        }, hasNext);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,159 @@
+package org.services;
+
+
+import org.entity.Donation;
+import org.entity.DonationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.repository.DonationRepository;
+import org.repository.DonorTypeTotalRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//Unit tests for DonorTotalsService (donor_type_totals maintenance)
+@ExtendWith(MockitoExtension.class)
+class DonorTotalsServiceTest {
+
+    @Mock
+    private DonorTypeTotalRepository donorTypeTotalRepository;
+
+    @Mock
+    private DonationRepository donationRepository;
+
+    @Mock
+    private DataVersion dataVersion;
+
+    @InjectMocks
+    private DonorTotalsService donorTotalsService;
+
+    private Donation testDonation;
+
+    @BeforeEach
+    void setUp() {
+        testDonation = new Donation("Harsha", DonationType.FOOD, new BigDecimal("100.00"), LocalDate.of(2025, 12, 13));
+    }
+
+    @Test
+    @DisplayName("Should add a donation to its donor's total")
+    void testRecordDonation() {
+        // When
+        donorTotalsService.recordDonation(testDonation);
+
+        // Then
+        verify(donorTypeTotalRepository, times(1)).adjustTotals(
+                new String[] { "Harsha" }, new String[] { "FOOD" },
+                new BigDecimal[] { new BigDecimal("100.00") }, new Long[] { 1L });
+        verifyNoInteractions(donationRepository);
+    }
+
+    @Test
+    @DisplayName("Should merge a batch per donor and type into one upsert")
+    void testRecordDonations() {
+        // Given - Harsha FOOD twice, Harsha MONEY, Test 1 FOOD
+        Donation food2 = new Donation("Harsha", DonationType.FOOD, new BigDecimal("25.50"), LocalDate.of(2025, 12, 14));
+        Donation money = new Donation("Harsha", DonationType.MONEY, new BigDecimal("10.00"), LocalDate.of(2025, 12, 14));
+        Donation other = new Donation("Test 1", DonationType.FOOD, new BigDecimal("5.00"), LocalDate.of(2025, 12, 14));
+
+        // When
+        donorTotalsService.recordDonations(List.of(testDonation, money, food2, other));
+
+        // Then
+        ArgumentCaptor<String[]> names = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<String[]> types = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<BigDecimal[]> quantities = ArgumentCaptor.forClass(BigDecimal[].class);
+        ArgumentCaptor<Long[]> counts = ArgumentCaptor.forClass(Long[].class);
+        verify(donorTypeTotalRepository, times(1))
+                .adjustTotals(names.capture(), types.capture(), quantities.capture(), counts.capture());
+
+        assertArrayEquals(new String[] { "Harsha", "Harsha", "Test 1" }, names.getValue());
+        assertArrayEquals(new String[] { "FOOD", "MONEY", "FOOD" }, types.getValue());
+        assertArrayEquals(new BigDecimal[] { new BigDecimal("125.50"), new BigDecimal("10.00"), new BigDecimal("5.00") },
+                quantities.getValue());
+        assertArrayEquals(new Long[] { 2L, 1L, 1L }, counts.getValue());
+    }
+
+    @Test
+    @DisplayName("Should take a deleted donation back out and drop the row once empty")
+    void testReverseDonation() {
+        // When
+        donorTotalsService.reverseDonation(testDonation);
+
+        // Then
+        var inOrder = inOrder(donorTypeTotalRepository);
+        inOrder.verify(donorTypeTotalRepository).adjustTotals(
+                new String[] { "Harsha" }, new String[] { "FOOD" },
+                new BigDecimal[] { new BigDecimal("-100.00") }, new Long[] { -1L });
+        inOrder.verify(donorTypeTotalRepository).deleteIfEmpty("Harsha", "FOOD");
+    }
+
+    @Test
+    @DisplayName("Should return zero for a donor with no totals")
+    void testGetTotalByDonorNoData() {
+        // Given
+        when(donorTypeTotalRepository.getTotalQuantityByDonor("NonExistent")).thenReturn(null);
+
+        // When
+        BigDecimal total = donorTotalsService.getTotalByDonor("NonExistent");
+
+        // Then
+        assertEquals(0, BigDecimal.ZERO.compareTo(total));
+    }
+
+    @Test
+    @DisplayName("Should lock, clear and re-aggregate the totals on rebuild")
+    void testRebuild() {
+        // Given
+        when(donorTypeTotalRepository.insertFromDonations()).thenReturn(3);
+
+        // When
+        int rows = donorTotalsService.rebuild();
+
+        // Then
+        assertEquals(3, rows);
+        var inOrder = inOrder(donorTypeTotalRepository);
+        inOrder.verify(donorTypeTotalRepository).lockForRebuild();
+        inOrder.verify(donorTypeTotalRepository).deleteAllTotals();
+        inOrder.verify(donorTypeTotalRepository).insertFromDonations();
+        verify(dataVersion, times(1)).changed();
+    }
+
+    @Test
+    @DisplayName("Should seed the totals only when the table is empty and donations exist")
+    void testInitializeIfEmpty() {
+        // Given - totals already there
+        when(donorTypeTotalRepository.count()).thenReturn(5L);
+
+        // When
+        donorTotalsService.initializeIfEmpty();
+
+        // Then
+        verify(donorTypeTotalRepository, never()).lockForRebuild();
+        verify(donorTypeTotalRepository, never()).insertFromDonations();
+    }
+
+    @Test
+    @DisplayName("Should seed the totals from the archive when every donation month was detached")
+    void testInitializeFromArchiveOnly() {
+        // Given
+        when(donorTypeTotalRepository.count()).thenReturn(0L);
+        when(donationRepository.count()).thenReturn(0L);
+        when(donorTypeTotalRepository.hasArchivedTotals()).thenReturn(true);
+
+        // When
+        donorTotalsService.initializeIfEmpty();
+
+        // Then
+        verify(donorTypeTotalRepository).insertFromDonations();
+    }
+}
@@ -0,0 +1,125 @@
+package org.services;
+
+
+import jakarta.persistence.EntityManager;
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.entity.DonationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.repository.DistributionRepository;
+import org.repository.DonationRepository;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//Unit tests for ExportService (streamed NDJSON / CSV exports)
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private DonationRepository donationRepository;
+
+    @Mock
+    private DistributionRepository distributionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ExportService exportService;
+
+    private Donation testDonation;
+    private Distribution testDistribution;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(donationRepository, distributionRepository, entityManager,
+                JsonMapper.builder().build());
+
+        testDonation = new Donation("Smith, \"Jo\"", DonationType.FOOD, new BigDecimal("100.00"), LocalDate.of(2025, 12, 13));
+        testDonation.setId(1L);
+        testDonation.setCreatedAt(LocalDateTime.of(2025, 12, 13, 10, 30));
+
+        testDistribution = new Distribution(DonationType.FOOD, new BigDecimal("40.00"), LocalDate.of(2025, 12, 14));
+        testDistribution.setId(7L);
+        testDistribution.setCreatedAt(LocalDateTime.of(2025, 12, 14, 9, 0));
+    }
+
+    @Test
+    @DisplayName("Should write one JSON document per donation line")
+    void testExportDonationsNdjson() throws Exception {
+        // Given
+        Donation donation2 = new Donation("Harsha", DonationType.MONEY, new BigDecimal("25.50"), LocalDate.of(2025, 12, 15));
+        donation2.setId(2L);
+        when(donationRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(testDonation, donation2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportDonations(out, ExportService.Format.NDJSON);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[0].contains("\"donationDate\":\"2025-12-13\""));
+        assertTrue(lines[1].contains("\"donorName\":\"Harsha\""));
+
+        // every row is detached once written
+        verify(entityManager, times(1)).detach(testDonation);
+        verify(entityManager, times(1)).detach(donation2);
+    }
+
+    @Test
+    @DisplayName("Should write donations as CSV with a header and quoted text")
+    void testExportDonationsCsv() throws Exception {
+        // Given
+        when(donationRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(testDonation));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportDonations(out, ExportService.Format.CSV);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id,donorName,donationType,quantity,donationDate,createdAt", lines[0]);
+        assertEquals("1,\"Smith, \"\"Jo\"\"\",FOOD,100.00,2025-12-13,2025-12-13T10:30", lines[1]);
+    }
+
+    @Test
+    @DisplayName("Should write distributions as CSV leaving a missing recipient empty")
+    void testExportDistributionsCsv() throws Exception {
+        // Given
+        when(distributionRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(testDistribution));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportDistributions(out, ExportService.Format.CSV);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, count);
+        assertEquals("id,donationType,quantity,distributionDate,recipient,createdAt", lines[0]);
+        assertEquals("7,FOOD,40.00,2025-12-14,,2025-12-14T09:00", lines[1]);
+        verify(entityManager, times(1)).detach(testDistribution);
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown export format")
+    void testUnknownFormat() {
+        assertEquals(ExportService.Format.CSV, ExportService.Format.fromString("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> ExportService.Format.fromString("xml"));
+    }
+}
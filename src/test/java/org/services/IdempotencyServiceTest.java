@@ -0,0 +1,201 @@
+package org.services;
+
+
+import org.dto.DonationRequest;
+import org.dto.DonationResponse;
+import org.dto.InventoryCheckResponse;
+import org.entity.DonationType;
+import org.entity.IdempotencyRecord;
+import org.exception.IdempotencyKeyConflictException;
+import org.exception.InsufficientInventoryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.repository.IdempotencyRecordRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+//Unit tests for IdempotencyService - mocked repository and transaction manager
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger writes = new AtomicInteger();
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, transactionManager,
+                JsonMapper.builder().build(), Duration.ofHours(24), 2);
+    }
+
+    @Test
+    @DisplayName("Should run the write once and replay its response to a retry with the same key")
+    void testReplayFromMemory() {
+        // Given
+        when(idempotencyRecordRepository.claim(eq("DONATIONS"), eq("k1"), anyString(), any(), any()))
+                .thenReturn(1);
+
+        // When
+        IdempotencyService.Outcome<DonationResponse> first = execute("k1", donation("Jo"));
+        IdempotencyService.Outcome<DonationResponse> retry = execute("k1", donation("Jo"));
+
+        // Then
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertEquals(1, writes.get());
+        assertEquals(first.getBody().getId(), retry.getBody().getId());
+        assertEquals("Jo", retry.getBody().getDonorName());
+        verify(idempotencyRecordRepository, never()).findLive(anyString(), anyString(), any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should skip the write and replay the stored response when the key is already taken")
+    void testReplayFromDatabase() {
+        // Given - the key was stored by another instance (not in memory here)
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        when(idempotencyRecordRepository.claim(eq("DONATIONS"), eq("k1"), hash.capture(), any(), any()))
+                .thenReturn(1);
+        IdempotencyService.Outcome<DonationResponse> original = execute("k1", donation("Jo"));
+        verify(idempotencyRecordRepository).storeResponse(eq("DONATIONS"), eq("k1"), body.capture());
+
+        IdempotencyService elsewhere = new IdempotencyService(idempotencyRecordRepository, transactionManager,
+                JsonMapper.builder().build(), Duration.ofHours(24), 2);
+        when(idempotencyRecordRepository.claim(eq("DONATIONS"), eq("k1"), anyString(), any(), any()))
+                .thenReturn(0);
+        when(idempotencyRecordRepository.findLive(eq("DONATIONS"), eq("k1"), any())).thenReturn(Optional.of(
+                new IdempotencyRecord("DONATIONS", "k1", hash.getValue(), body.getValue(), LocalDateTime.now())));
+
+        // When
+        IdempotencyService.Outcome<DonationResponse> retry = elsewhere.execute(IdempotencyService.Scope.DONATIONS,
+                "k1", donation("Jo"), DonationResponse.class, register("Jo"));
+
+        // Then
+        assertTrue(retry.isReplayed());
+        assertEquals(original.getBody().getId(), retry.getBody().getId());
+        assertEquals(1, writes.get());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Should replay a distribution that succeeded instead of re-running it into insufficient stock")
+    void testRetryAfterStockIsGone() {
+        // Given - the first attempt committed (on another instance); re-running it now would find no stock left
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        when(idempotencyRecordRepository.claim(eq("DISTRIBUTIONS"), eq("k1"), hash.capture(), any(), any()))
+                .thenReturn(0);
+        String body = "{\"id\":7,\"donorName\":\"Jo\",\"donationType\":\"FOOD\",\"quantity\":2.50}";
+        when(idempotencyRecordRepository.findLive(eq("DISTRIBUTIONS"), eq("k1"), any())).thenAnswer(invocation ->
+                Optional.of(new IdempotencyRecord("DISTRIBUTIONS", "k1", hash.getValue(), body, LocalDateTime.now())));
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        IdempotencyService.Outcome<DonationResponse> retry = idempotencyService.execute(
+                IdempotencyService.Scope.DISTRIBUTIONS, "k1", donation("Jo"), DonationResponse.class, () -> {
+                    attempts.incrementAndGet();
+                    throw new InsufficientInventoryException(new InventoryCheckResponse());
+                });
+
+        // Then
+        assertTrue(retry.isReplayed());
+        assertEquals(7L, retry.getBody().getId());
+        assertEquals(0, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Should refuse a key reused for a different request")
+    void testKeyReusedForDifferentRequest() {
+        // Given
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), anyString(), any(), any()))
+                .thenReturn(1);
+        execute("k1", donation("Jo"));
+
+        // When / Then
+        assertThrows(IdempotencyKeyConflictException.class, () -> execute("k1", donation("Sam")));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    @DisplayName("Should keep keys of different endpoints apart")
+    void testScopes() {
+        // Given
+        when(idempotencyRecordRepository.claim(anyString(), eq("k1"), anyString(), any(), any()))
+                .thenReturn(1);
+        execute("k1", donation("Jo"));
+
+        // When
+        IdempotencyService.Outcome<DonationResponse> other = idempotencyService.execute(
+                IdempotencyService.Scope.DISTRIBUTIONS, "k1", donation("Jo"), DonationResponse.class, register("Jo"));
+
+        // Then
+        assertFalse(other.isReplayed());
+        assertEquals(2, writes.get());
+    }
+
+    @Test
+    @DisplayName("Should store nothing when the write fails, so a retry runs it again")
+    void testFailedWriteIsNotStored() {
+        // Given
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), anyString(), any(), any())).thenReturn(1);
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(IdempotencyService.Scope.DONATIONS,
+                "k1", donation("Jo"), DonationResponse.class, () -> {
+                    throw new IllegalArgumentException("Insufficient stock");
+                }));
+
+        // Then - the claim is rolled back with the write
+        verify(idempotencyRecordRepository, never()).storeResponse(anyString(), anyString(), anyString());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a blank or overlong key")
+    void testInvalidKey() {
+        assertThrows(IllegalArgumentException.class, () -> execute(" ", donation("Jo")));
+        assertThrows(IllegalArgumentException.class, () -> execute("k".repeat(256), donation("Jo")));
+        assertEquals(0, writes.get());
+    }
+
+    //helper methods
+
+    private IdempotencyService.Outcome<DonationResponse> execute(String key, DonationRequest request) {
+        return idempotencyService.execute(IdempotencyService.Scope.DONATIONS, key, request, DonationResponse.class,
+                register(request.getDonorName()));
+    }
+
+    // a "write" that counts how often it ran and hands out a new id each time
+    private Supplier<DonationResponse> register(String donorName) {
+        return () -> new DonationResponse((long) writes.incrementAndGet(), donorName, DonationType.FOOD,
+                new BigDecimal("2.50"), LocalDate.of(2025, 12, 1), LocalDateTime.of(2025, 12, 1, 10, 0));
+    }
+
+    private DonationRequest donation(String donorName) {
+        return new DonationRequest(donorName, DonationType.FOOD, new BigDecimal("2.50"), LocalDate.of(2025, 12, 1));
+    }
+}
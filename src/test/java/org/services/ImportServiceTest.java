@@ -0,0 +1,184 @@
+package org.services;
+
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.dto.DistributionRequest;
+import org.dto.DonationRequest;
+import org.dto.ImportJobResponse;
+import org.dto.ImportRowError;
+import org.dto.InventoryCheckResponse;
+import org.entity.DonationType;
+import org.exception.InsufficientInventoryException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+//Unit tests for ImportService (CSV imports) - jobs run on the calling thread
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+    @Mock
+    private DonationService donationService;
+
+    @Mock
+    private DistributionService distributionService;
+
+    private ValidatorFactory validatorFactory;
+    private ImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        importService = new ImportService(donationService, distributionService, validatorFactory.getValidator(),
+                Runnable::run, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("Should import donations in chunks and report invalid rows")
+    @SuppressWarnings("unchecked")
+    void testImportDonations() {
+        // Given - 4 rows, one invalid
+        String csv = "donorName,donationType,quantity,donationDate\n" +
+                "\"Smith, Jo\",FOOD,10.50,2025-12-13\n" +
+                "Harsha,money,100,\n" +
+                "x,TOYS,-1,2025-12-13\n" +
+                "Test 1,CLOTHING,5,2025-12-14\n";
+
+        // When
+        ImportJobResponse job = importService.startImport(ImportService.Kind.DONATIONS, csv(csv), null);
+
+        // Then
+        ImportJobResponse done = importService.getJob(job.getJobId());
+        assertEquals("COMPLETED", done.getStatus());
+        assertEquals(4, done.getRowsRead());
+        assertEquals(3, done.getRowsImported());
+        assertEquals(1, done.getRowsFailed());
+        assertEquals(2, done.getChunksCommitted());
+
+        ArgumentCaptor<List<DonationRequest>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(donationService, times(2)).registerDonations(chunks.capture());
+        DonationRequest first = chunks.getAllValues().get(0).get(0);
+        assertEquals("Smith, Jo", first.getDonorName());
+        assertEquals(new BigDecimal("10.50"), first.getQuantity());
+        assertEquals(LocalDate.of(2025, 12, 13), first.getDonationDate());
+        assertEquals(DonationType.MONEY, chunks.getAllValues().get(0).get(1).getDonationType());
+        assertNull(chunks.getAllValues().get(0).get(1).getDonationDate());
+        assertEquals(1, chunks.getAllValues().get(1).size());
+
+        List<ImportRowError> errors = importService.getErrors(job.getJobId());
+        assertEquals(2, errors.size());
+        assertTrue(errors.stream().allMatch(e -> e.getRow() == 4));
+        assertTrue(errors.stream().anyMatch(e -> "donorName".equals(e.getField())));
+        assertTrue(errors.stream().anyMatch(e -> "quantity".equals(e.getField())));
+    }
+
+    @Test
+    @DisplayName("Should report values that do not parse, once per field")
+    void testImportDonationsUnparseable() {
+        // Given
+        String csv = "donorName,donationType,quantity,donationDate\n" +
+                "Harsha,GOLD,abc,2025-13-01\n";
+
+        // When
+        ImportJobResponse job = importService.startImport(ImportService.Kind.DONATIONS, csv(csv), null);
+
+        // Then
+        List<ImportRowError> errors = importService.getErrors(job.getJobId());
+        assertEquals(3, errors.size());
+        assertEquals("Unknown donation type: GOLD", errors.get(0).getMessage());
+        assertEquals("Quantity must be a number: abc", errors.get(1).getMessage());
+        assertEquals("donationDate", errors.get(2).getField());
+        verifyNoInteractions(donationService);
+    }
+
+    @Test
+    @DisplayName("Should reject every row of a distribution chunk that is short of stock")
+    void testImportDistributionsInsufficientInventory() {
+        // Given - second chunk is short
+        InventoryCheckResponse check = new InventoryCheckResponse();
+        check.setDonationType(DonationType.TOYS);
+        check.setRequestedQuantity(new BigDecimal("6"));
+        check.setAvailableQuantity(new BigDecimal("1.00"));
+        when(distributionService.recordDistributions(anyList()))
+                .thenReturn(List.of())
+                .thenThrow(new InsufficientInventoryException(check));
+        String csv = "donationType,quantity,distributionDate,recipient\n" +
+                "FOOD,1,2025-12-13,Shelter A\n" +
+                "FOOD,2,,\n" +
+                "TOYS,3,,Shelter B\n" +
+                "TOYS,3,,Shelter C\n";
+
+        // When
+        ImportJobResponse job = importService.startImport(ImportService.Kind.DISTRIBUTIONS, csv(csv), null);
+
+        // Then
+        ImportJobResponse done = importService.getJob(job.getJobId());
+        assertEquals(2, done.getRowsImported());
+        assertEquals(2, done.getRowsFailed());
+        assertEquals(1, done.getChunksCommitted());
+
+        List<ImportRowError> errors = importService.getErrors(job.getJobId());
+        assertEquals(4, errors.get(0).getRow());
+        assertEquals(5, errors.get(1).getRow());
+        assertTrue(errors.get(0).getMessage().contains("not enough TOYS in stock"));
+        verify(distributionService, times(2)).recordDistributions(anyList());
+    }
+
+    @Test
+    @DisplayName("Should match header columns by name, in any order and case")
+    @SuppressWarnings("unchecked")
+    void testImportDistributionsHeaderOrder() {
+        // Given - export layout, extra columns ignored
+        String csv = "id,RECIPIENT,donationType,quantity,createdAt\n" +
+                "7,\"Shelter \"\"A\"\"\",FOOD,40.00,2025-12-14T09:00\n";
+
+        // When
+        importService.startImport(ImportService.Kind.DISTRIBUTIONS, csv(csv), 10);
+
+        // Then
+        ArgumentCaptor<List<DistributionRequest>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(distributionService).recordDistributions(chunk.capture());
+        assertEquals("Shelter \"A\"", chunk.getValue().get(0).getRecipient());
+        assertEquals(DonationType.FOOD, chunk.getValue().get(0).getDonationType());
+    }
+
+    @Test
+    @DisplayName("Should reject an upload with missing columns or a bad chunk size up front")
+    void testStartImportInvalid() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.startImport(ImportService.Kind.DONATIONS, csv("donationType,quantity\n"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.startImport(ImportService.Kind.DONATIONS, csv(""), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.startImport(ImportService.Kind.DISTRIBUTIONS, csv("donationType,quantity\n"), 0));
+        assertThrows(RuntimeException.class, () -> importService.getJob("missing"));
+    }
+
+    //helper methods
+
+    private InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,152 @@
+package org.services;
+
+
+import org.entity.DonationType;
+import org.entity.InventoryBalance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.repository.InventoryBalanceRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//Unit tests for InventoryCache - transactions are simulated with TransactionSynchronizationManager
+@ExtendWith(MockitoExtension.class)
+class InventoryCacheTest {
+
+    @Mock
+    private InventoryBalanceRepository inventoryBalanceRepository;
+
+    private InventoryCache inventoryCache;
+
+    @BeforeEach
+    void setUp() {
+        inventoryCache = new InventoryCache(inventoryBalanceRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should read through to the balance table until the first load")
+    void testReadsBeforeLoad() {
+        // Given
+        when(inventoryBalanceRepository.findById(DonationType.FOOD))
+                .thenReturn(Optional.of(new InventoryBalance(DonationType.FOOD, new BigDecimal("100.00"), new BigDecimal("30.00"))));
+        when(inventoryBalanceRepository.findById(DonationType.TOYS)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertFalse(inventoryCache.isLoaded());
+        assertEquals(0, new BigDecimal("70.00").compareTo(inventoryCache.getCurrentStock(DonationType.FOOD)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(inventoryCache.getCurrentStock(DonationType.TOYS)));
+    }
+
+    @Test
+    @DisplayName("Should serve balances from memory once loaded")
+    void testReconcileLoads() {
+        // Given
+        when(inventoryBalanceRepository.findAll()).thenReturn(balances());
+
+        // When
+        assertTrue(inventoryCache.reconcile());
+        List<InventoryBalance> first = inventoryCache.getBalances();
+        List<InventoryBalance> second = inventoryCache.getBalances();
+
+        // Then - one table read, types without a row are left out
+        assertTrue(inventoryCache.isLoaded());
+        assertEquals(2, first.size());
+        assertEquals(0, new BigDecimal("70.00").compareTo(inventoryCache.getCurrentStock(DonationType.FOOD)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(inventoryCache.getCurrentStock(DonationType.TOYS)));
+        assertNotSame(first.get(0), second.get(0));
+        verify(inventoryBalanceRepository, times(1)).findAll();
+        verify(inventoryBalanceRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should apply a balance change only when its transaction commits")
+    void testAdjustAfterCommit() {
+        // Given
+        when(inventoryBalanceRepository.findAll()).thenReturn(balances());
+        inventoryCache.reconcile();
+
+        // When - committed and rolled-back transaction
+        List<TransactionSynchronization> committed = inTransaction(
+                () -> inventoryCache.adjustDonated(DonationType.FOOD, new BigDecimal("25.00")));
+        assertEquals(0, new BigDecimal("70.00").compareTo(inventoryCache.getCurrentStock(DonationType.FOOD)));
+        committed.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        List<TransactionSynchronization> rolledBack = inTransaction(
+                () -> inventoryCache.adjustDistributed(DonationType.FOOD, new BigDecimal("50.00")));
+        rolledBack.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertEquals(0, new BigDecimal("95.00").compareTo(inventoryCache.getCurrentStock(DonationType.FOOD)));
+    }
+
+    @Test
+    @DisplayName("Should add a row for a type that had no balance yet")
+    void testAdjustNewType() {
+        // Given
+        when(inventoryBalanceRepository.findAll()).thenReturn(balances());
+        inventoryCache.reconcile();
+
+        // When - no transaction, applied straight away
+        inventoryCache.adjustDonated(DonationType.TOYS, new BigDecimal("4.00"));
+
+        // Then
+        assertEquals(3, inventoryCache.getBalances().size());
+        assertEquals(0, new BigDecimal("4.00").compareTo(inventoryCache.getCurrentStock(DonationType.TOYS)));
+    }
+
+    @Test
+    @DisplayName("Should skip a reload while a balance change is in flight")
+    void testReconcileSkippedWhilePending() {
+        // Given
+        when(inventoryBalanceRepository.findAll()).thenReturn(balances());
+        inventoryCache.reconcile();
+        List<TransactionSynchronization> pending = inTransaction(
+                () -> inventoryCache.adjustDistributed(DonationType.FOOD, new BigDecimal("10.00")));
+
+        // When / Then
+        assertFalse(inventoryCache.reconcile());
+        pending.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertTrue(inventoryCache.reconcile());
+        verify(inventoryBalanceRepository, times(2)).findAll();
+    }
+
+    //helper methods
+
+    private List<InventoryBalance> balances() {
+        List<InventoryBalance> balances = new ArrayList<>();
+        balances.add(new InventoryBalance(DonationType.FOOD, new BigDecimal("100.00"), new BigDecimal("30.00")));
+        balances.add(new InventoryBalance(DonationType.MONEY, new BigDecimal("500.00"), BigDecimal.ZERO));
+        return balances;
+    }
+
+    // run work inside a simulated transaction and hand back what it registered, to be completed by the test
+    private List<TransactionSynchronization> inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
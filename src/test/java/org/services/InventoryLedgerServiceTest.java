@@ -0,0 +1,237 @@
+package org.services;
+
+
+import org.entity.Distribution;
+import org.entity.Donation;
+import org.entity.DonationType;
+import org.entity.InventoryBalance;
+import org.exception.InsufficientInventoryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.repository.DistributionRepository;
+import org.repository.DonationRepository;
+import org.repository.InventoryBalanceRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+//Unit tests for InventoryLedgerService (inventory_balance maintenance)
+@ExtendWith(MockitoExtension.class)
+class InventoryLedgerServiceTest {
+
+    @Mock
+    private InventoryBalanceRepository inventoryBalanceRepository;
+
+    @Mock
+    private DonationRepository donationRepository;
+
+    @Mock
+    private DistributionRepository distributionRepository;
+
+    @Mock
+    private InventoryCache inventoryCache;
+
+    @Mock
+    private DataVersion dataVersion;
+
+    private InventoryLedgerService inventoryLedgerService;
+
+    private Donation testDonation;
+    private Distribution testDistribution;
+
+    @BeforeEach
+    void setUp() {
+        inventoryLedgerService = new InventoryLedgerService(inventoryBalanceRepository, donationRepository,
+                distributionRepository, inventoryCache, dataVersion);
+        testDonation = new Donation("Harsha", DonationType.FOOD, new BigDecimal("100.00"), LocalDate.of(2025, 12, 13));
+        testDistribution = new Distribution(DonationType.FOOD, new BigDecimal("40.00"), LocalDate.of(2025, 12, 14));
+    }
+
+    @Test
+    @DisplayName("Should add donation quantity to the donated balance")
+    void testRecordDonation() {
+        // When
+        inventoryLedgerService.recordDonation(testDonation);
+
+        // Then
+        verify(inventoryBalanceRepository, times(1)).adjustDonated("FOOD", new BigDecimal("100.00"));
+        verify(inventoryCache, times(1)).adjustDonated(DonationType.FOOD, new BigDecimal("100.00"));
+        verifyNoInteractions(donationRepository, distributionRepository);
+    }
+
+    @Test
+    @DisplayName("Should add a batch of donations with one update per type")
+    void testRecordDonations() {
+        // Given
+        Donation food2 = new Donation("Test 1", DonationType.FOOD, new BigDecimal("25.50"), LocalDate.of(2025, 12, 13));
+        Donation toys = new Donation("Test 2", DonationType.TOYS, new BigDecimal("5.00"), LocalDate.of(2025, 12, 13));
+
+        // When
+        inventoryLedgerService.recordDonations(List.of(testDonation, food2, toys));
+
+        // Then
+        verify(inventoryBalanceRepository, times(1)).adjustDonated("FOOD", new BigDecimal("125.50"));
+        verify(inventoryBalanceRepository, times(1)).adjustDonated("TOYS", new BigDecimal("5.00"));
+        verifyNoMoreInteractions(inventoryBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("Should reserve a batch of distributions with one conditional update per type")
+    void testReserveDistributions() {
+        // Given
+        Distribution food2 = new Distribution(DonationType.FOOD, new BigDecimal("10.00"), LocalDate.of(2025, 12, 14));
+        when(inventoryBalanceRepository.reserveDistributed("FOOD", new BigDecimal("50.00"))).thenReturn(1);
+
+        // When
+        inventoryLedgerService.reserveDistributions(List.of(testDistribution, food2));
+
+        // Then
+        verify(inventoryBalanceRepository, times(1)).reserveDistributed("FOOD", new BigDecimal("50.00"));
+        verify(inventoryBalanceRepository, never()).findById(any());
+        verify(inventoryCache, times(1)).adjustDistributed(DonationType.FOOD, new BigDecimal("50.00"));
+    }
+
+    @Test
+    @DisplayName("Should throw with the shortfall when a type cannot cover its share of the batch")
+    void testReserveDistributionsInsufficient() {
+        // Given - only 30 FOOD left
+        when(inventoryBalanceRepository.reserveDistributed("FOOD", new BigDecimal("40.00"))).thenReturn(0);
+        when(inventoryBalanceRepository.findById(DonationType.FOOD))
+                .thenReturn(Optional.of(new InventoryBalance(DonationType.FOOD, new BigDecimal("100.00"), new BigDecimal("70.00"))));
+
+        // When
+        InsufficientInventoryException ex = assertThrows(InsufficientInventoryException.class,
+                () -> inventoryLedgerService.reserveDistributions(List.of(testDistribution)));
+
+        // Then
+        assertEquals(DonationType.FOOD, ex.getCheck().getDonationType());
+        assertEquals(new BigDecimal("40.00"), ex.getCheck().getRequestedQuantity());
+        assertEquals(0, new BigDecimal("30.00").compareTo(ex.getCheck().getAvailableQuantity()));
+        assertFalse(ex.getCheck().isSufficient());
+        verifyNoInteractions(inventoryCache);
+    }
+
+    @Test
+    @DisplayName("Should subtract deleted donation from the donated balance")
+    void testReverseDonation() {
+        // When
+        inventoryLedgerService.reverseDonation(testDonation);
+
+        // Then
+        verify(inventoryBalanceRepository, times(1)).adjustDonated("FOOD", new BigDecimal("-100.00"));
+    }
+
+    @Test
+    @DisplayName("Should subtract deleted distribution from the distributed balance")
+    void testReverseDistribution() {
+        // When
+        inventoryLedgerService.reverseDistribution(testDistribution);
+
+        // Then
+        verify(inventoryBalanceRepository, times(1)).adjustDistributed("FOOD", new BigDecimal("-40.00"));
+        verify(inventoryCache, times(1)).adjustDistributed(DonationType.FOOD, new BigDecimal("-40.00"));
+    }
+
+    @Test
+    @DisplayName("Should rebuild one balance row per donation type from the source tables")
+    void testRebuild() {
+        // Given - FOOD: 500 donated / 200 distributed, MONEY: 1000 donated / nothing distributed
+        List<Object[]> donated = new ArrayList<>();
+        donated.add(new Object[] { DonationType.FOOD, new BigDecimal("500.00") });
+        donated.add(new Object[] { DonationType.MONEY, new BigDecimal("1000.00") });
+        List<Object[]> distributed = new ArrayList<>();
+        distributed.add(new Object[] { DonationType.FOOD, new BigDecimal("200.00") });
+
+        when(donationRepository.getTotalQuantityByType()).thenReturn(donated);
+        when(distributionRepository.getTotalQuantityByType()).thenReturn(distributed);
+        when(inventoryBalanceRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<InventoryBalance> balances = inventoryLedgerService.rebuild();
+
+        // Then
+        assertEquals(DonationType.values().length, balances.size());
+
+        InventoryBalance food = findBalance(balances, DonationType.FOOD);
+        assertEquals(0, new BigDecimal("500.00").compareTo(food.getTotalDonated()));
+        assertEquals(0, new BigDecimal("200.00").compareTo(food.getTotalDistributed()));
+        assertEquals(0, new BigDecimal("300.00").compareTo(food.getCurrentStock()));
+
+        InventoryBalance money = findBalance(balances, DonationType.MONEY);
+        assertEquals(0, new BigDecimal("1000.00").compareTo(money.getCurrentStock()));
+
+        InventoryBalance toys = findBalance(balances, DonationType.TOYS);
+        assertEquals(0, BigDecimal.ZERO.compareTo(toys.getCurrentStock()));
+
+        // lock is taken before the aggregates are read
+        var inOrder = inOrder(inventoryBalanceRepository, donationRepository);
+        inOrder.verify(inventoryBalanceRepository).lockForRebuild();
+        inOrder.verify(donationRepository).getTotalQuantityByType();
+        verify(inventoryCache, times(1)).reloadAfterCommit();
+        verify(dataVersion, times(1)).changed();
+    }
+
+    @Test
+    @DisplayName("Should add the archived totals of detached months back into the rebuilt balances")
+    void testRebuildWithArchivedMonths() {
+        // Given - FOOD: 500 donated / 200 distributed still in the tables, 300 / 250 in detached months
+        List<Object[]> donated = new ArrayList<>();
+        donated.add(new Object[] { DonationType.FOOD, new BigDecimal("500.00") });
+        List<Object[]> distributed = new ArrayList<>();
+        distributed.add(new Object[] { DonationType.FOOD, new BigDecimal("200.00") });
+        List<Object[]> archived = new ArrayList<>();
+        archived.add(new Object[] { "FOOD", new BigDecimal("300.00"), new BigDecimal("250.00") });
+        archived.add(new Object[] { "TOYS", new BigDecimal("20.00"), BigDecimal.ZERO });
+
+        when(donationRepository.getTotalQuantityByType()).thenReturn(donated);
+        when(distributionRepository.getTotalQuantityByType()).thenReturn(distributed);
+        when(inventoryBalanceRepository.getArchivedTotals()).thenReturn(archived);
+        when(inventoryBalanceRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<InventoryBalance> balances = inventoryLedgerService.rebuild();
+
+        // Then
+        InventoryBalance food = findBalance(balances, DonationType.FOOD);
+        assertEquals(0, new BigDecimal("800.00").compareTo(food.getTotalDonated()));
+        assertEquals(0, new BigDecimal("450.00").compareTo(food.getTotalDistributed()));
+
+        InventoryBalance toys = findBalance(balances, DonationType.TOYS);
+        assertEquals(0, new BigDecimal("20.00").compareTo(toys.getCurrentStock()));
+    }
+
+    @Test
+    @DisplayName("Should seed balances at startup only when the table is empty")
+    void testInitializeIfEmpty() {
+        // Given
+        when(inventoryBalanceRepository.count()).thenReturn(10L);
+
+        // When
+        inventoryLedgerService.initializeIfEmpty();
+
+        // Then
+        verify(inventoryBalanceRepository, never()).lockForRebuild();
+        verify(inventoryBalanceRepository, never()).saveAll(anyList());
+    }
+
+    // Helper Methods
+
+    private InventoryBalance findBalance(List<InventoryBalance> balances, DonationType type) {
+        return balances.stream()
+                .filter(b -> b.getDonationType() == type)
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,77 @@
+package org.services;
+
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.entity.DonationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Unit tests for InventoryMetrics - transactions are simulated with TransactionSynchronizationManager
+class InventoryMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InventoryMetrics inventoryMetrics = new InventoryMetrics(meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should count saved donations and distributions only when their transaction commits")
+    void testRecordedAfterCommit() {
+        // When - committed and rolled-back transaction
+        List<TransactionSynchronization> committed = inTransaction(() -> {
+            inventoryMetrics.donationsRecorded(DonationType.FOOD, 3);
+            inventoryMetrics.distributionsRecorded(DonationType.FOOD, 1);
+        });
+        assertEquals(0.0, recorded("inventory.donations.recorded"));
+        committed.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        List<TransactionSynchronization> rolledBack = inTransaction(() -> {
+            inventoryMetrics.donationsRecorded(DonationType.FOOD, 5);
+            inventoryMetrics.distributionsRecorded(DonationType.FOOD, 2);
+        });
+        rolledBack.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertEquals(3.0, recorded("inventory.donations.recorded"));
+        assertEquals(1.0, recorded("inventory.distributions.recorded"));
+    }
+
+    @Test
+    @DisplayName("Should count straight away outside a transaction")
+    void testRecordedWithoutTransaction() {
+        // When
+        inventoryMetrics.donationsRecorded(DonationType.BOOKS, 2);
+
+        // Then
+        assertEquals(2.0, meterRegistry.get("inventory.donations.recorded").tag("type", "BOOKS").counter().count());
+    }
+
+    //helper methods
+
+    private double recorded(String name) {
+        return meterRegistry.get(name).tag("type", "FOOD").counter().count();
+    }
+
+    // run work inside a simulated transaction and hand back what it registered, to be completed by the test
+    private List<TransactionSynchronization> inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
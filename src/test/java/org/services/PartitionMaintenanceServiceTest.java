@@ -0,0 +1,125 @@
+package org.services;
+
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+//Unit tests for PartitionMaintenanceService - a mocked JdbcTemplate standing in for the V7/V8 partition functions
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    private static final String ENSURE = "SELECT ensure_month_partition(?, ?)";
+    private static final String DETACH = "SELECT detach_month_partitions(?, ?)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DataVersion dataVersion;
+
+    @Mock
+    private NameSearchIndex nameSearchIndex;
+
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        partitionMaintenanceService = new PartitionMaintenanceService(jdbcTemplate, dataVersion, nameSearchIndex, 3);
+    }
+
+    @Test
+    @DisplayName("Should ensure a partition for every month looked up and report only the new ones")
+    void testCreatePartitions() {
+        // Given - donations: this month exists, next month and a back-dated 2019 month in the default partition don't
+        LocalDate may2019 = LocalDate.of(2019, 5, 1);
+        LocalDate oct = LocalDate.of(2026, 10, 1);
+        LocalDate nov = LocalDate.of(2026, 11, 1);
+        when(jdbcTemplate.queryForList(contains("FROM donations_default"), eq(LocalDate.class), eq(3), eq("donations")))
+                .thenReturn(List.of(may2019, oct, nov));
+        when(jdbcTemplate.queryForList(contains("FROM distributions_default"), eq(LocalDate.class), eq(3), eq("distributions")))
+                .thenReturn(List.of(oct, nov));
+        when(jdbcTemplate.queryForObject(eq(ENSURE), eq(Boolean.class), anyString(), any(Date.class))).thenReturn(false);
+        when(jdbcTemplate.queryForObject(ENSURE, Boolean.class, "donations", Date.valueOf(may2019))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(ENSURE, Boolean.class, "donations", Date.valueOf(nov))).thenReturn(true);
+
+        // When
+        List<String> created = partitionMaintenanceService.createPartitions();
+
+        // Then
+        assertEquals(List.of("donations_2019_05", "donations_2026_11"), created);
+        verify(jdbcTemplate, times(5)).queryForObject(eq(ENSURE), eq(Boolean.class), anyString(), any(Date.class));
+        verify(jdbcTemplate).queryForList(contains("EXCEPT SELECT month FROM archived_months"),
+                eq(LocalDate.class), eq(3), eq("donations"));
+        verifyNoInteractions(dataVersion, nameSearchIndex);
+    }
+
+    @Test
+    @DisplayName("Should detach from both tables, then move the data version and rebuild the search index")
+    void testDetachBefore() {
+        // Given
+        LocalDate before = LocalDate.of(2022, 1, 1);
+        when(jdbcTemplate.queryForList(DETACH, String.class, "distributions", Date.valueOf(before)))
+                .thenReturn(List.of("distributions_2021_11", "distributions_2021_12"));
+        when(jdbcTemplate.queryForList(DETACH, String.class, "donations", Date.valueOf(before)))
+                .thenReturn(List.of("donations_2021_12"));
+
+        // When
+        List<String> detached = partitionMaintenanceService.detachBefore(before);
+
+        // Then
+        assertEquals(List.of("distributions_2021_11", "distributions_2021_12", "donations_2021_12"), detached);
+        verify(dataVersion, times(1)).changed();
+        verify(nameSearchIndex, times(1)).build();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the search index only once the detach transaction commits")
+    void testDetachBuildsIndexAfterCommit() {
+        // Given
+        LocalDate before = LocalDate.of(2022, 1, 1);
+        when(jdbcTemplate.queryForList(eq(DETACH), eq(String.class), anyString(), any(Date.class))).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(DETACH, String.class, "donations", Date.valueOf(before)))
+                .thenReturn(List.of("donations_2021_12"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            partitionMaintenanceService.detachBefore(before);
+
+            // Then - nothing while the DETACH locks are held, the build on commit
+            verifyNoInteractions(nameSearchIndex);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(nameSearchIndex, times(1)).build();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave the data version and search index alone when nothing was old enough")
+    void testDetachNothing() {
+        // Given
+        when(jdbcTemplate.queryForList(eq(DETACH), eq(String.class), anyString(), any(Date.class))).thenReturn(List.of());
+
+        // When
+        List<String> detached = partitionMaintenanceService.detachBefore(LocalDate.of(2000, 1, 1));
+
+        // Then
+        assertTrue(detached.isEmpty());
+        verifyNoInteractions(dataVersion, nameSearchIndex);
+    }
+}
@@ -0,0 +1,86 @@
+package org.services;
+
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Unit tests for PrefixSumTree (running totals over days)
+class PrefixSumTreeTest {
+
+    private static final long DAY = LocalDate.of(2025, 12, 1).toEpochDay();
+
+    @Test
+    @DisplayName("Should sum every day up to and including the given one")
+    void testSumThrough() {
+        // Given
+        PrefixSumTree tree = new PrefixSumTree();
+        tree.add(DAY, 100);
+        tree.add(DAY + 2, -30);
+        tree.add(DAY + 10, 5);
+
+        // Then
+        assertEquals(0, tree.sumThrough(DAY - 1));
+        assertEquals(100, tree.sumThrough(DAY));
+        assertEquals(100, tree.sumThrough(DAY + 1));
+        assertEquals(70, tree.sumThrough(DAY + 2));
+        assertEquals(75, tree.sumThrough(DAY + 10));
+        assertEquals(75, tree.sumThrough(DAY + 100_000));
+        assertEquals(75, tree.getTotal());
+    }
+
+    @Test
+    @DisplayName("Should move every later total when a past day changes")
+    void testBackDated() {
+        // Given
+        PrefixSumTree tree = new PrefixSumTree();
+        tree.add(DAY, 100);
+
+        // When - before the first day, and far enough back to grow the tree
+        tree.add(DAY - 3, 7);
+        tree.add(DAY - 5000, 1);
+
+        // Then
+        assertEquals(1, tree.sumThrough(DAY - 4000));
+        assertEquals(8, tree.sumThrough(DAY - 1));
+        assertEquals(108, tree.sumThrough(DAY));
+    }
+
+    @Test
+    @DisplayName("Should keep matching a plain running sum as it grows both ways")
+    void testAgainstRunningSum() {
+        // Given - random days over ~30 years around DAY
+        Random random = new Random(42);
+        long[] amounts = new long[11_000];
+        PrefixSumTree tree = new PrefixSumTree();
+        for (int i = 0; i < 20_000; i++) {
+            int offset = random.nextInt(amounts.length);
+            long amount = random.nextInt(2001) - 1000;
+            amounts[offset] += amount;
+            assertTrue(tree.add(DAY - 5500 + offset, amount));
+        }
+
+        // Then
+        long running = 0;
+        for (int offset = 0; offset < amounts.length; offset++) {
+            running += amounts[offset];
+            assertEquals(running, tree.sumThrough(DAY - 5500 + offset));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse a day too far from the others")
+    void testOutOfRange() {
+        // Given
+        PrefixSumTree tree = new PrefixSumTree();
+        tree.add(DAY, 10);
+
+        // When / Then
+        assertFalse(tree.add(DAY + PrefixSumTree.MAX_DAYS, 1));
+        assertEquals(10, tree.getTotal());
+    }
+}
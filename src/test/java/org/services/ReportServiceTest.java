@@ -5,47 +5,61 @@ import org.dto.DonorReportDTO;
 import org.dto.InventoryCheckResponse;
 import org.dto.InventoryReportDTO;
 import org.entity.DonationType;
+import org.entity.DonorTypeTotal;
+import org.entity.InventoryBalance;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.repository.DistributionRepository;
-import org.repository.DonationRepository;
+import org.repository.DailyTypeRollupRepository;
+import org.repository.DonorTypeTotalRepository;
+import org.repository.InventoryBalanceRepository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /**
- inventory calculation: Current Stock = Donated - Distributed
- donor report: Total contributions by each donor
+ inventory calculation: Current Stock = Donated - Distributed (read from inventory_balance)
+ donor report: Total contributions by each donor (read from donor_type_totals)
  */
 @MockitoSettings(strictness = Strictness.LENIENT)
 @ExtendWith(MockitoExtension.class)
 class ReportServiceTest {
 
     @Mock
-    private DonationRepository donationRepository;
+    private DonorTypeTotalRepository donorTypeTotalRepository;
 
     @Mock
-    private DistributionRepository distributionRepository;
+    private InventoryBalanceRepository inventoryBalanceRepository;
+
+    @Mock
+    private DailyTypeRollupRepository dailyTypeRollupRepository;
+
+    @Mock
+    private InventoryMetrics inventoryMetrics;
 
-    @InjectMocks
     private ReportService reportService;
 
     @BeforeEach
     void setUp() {
         // Reset mocks before each test
-        reset(donationRepository, distributionRepository);
+        reset(donorTypeTotalRepository, inventoryBalanceRepository, dailyTypeRollupRepository);
+
+        // cache and stock history not loaded yet, so every read goes to the (mocked) tables
+        // - see InventoryCacheTest and StockHistoryTest for the in-memory paths
+        reportService = new ReportService(donorTypeTotalRepository, new InventoryCache(inventoryBalanceRepository),
+                new StockHistory(dailyTypeRollupRepository), inventoryMetrics);
     }
 
     @Test
@@ -53,16 +67,14 @@ class ReportServiceTest {
     void testInventoryReportWithoutDistributions() {
         // Harsha donated: MONEY=2516.08, CLOTHING=450, FOOD=100
         // Test 1 donated: TOYS=55
-        Object[] moneyData = {DonationType.MONEY, new BigDecimal("2516.08")};
-        Object[] clothingData = {DonationType.CLOTHING, new BigDecimal("450.00")};
-        Object[] foodData = {DonationType.FOOD, new BigDecimal("100.00")};
-        Object[] toysData = {DonationType.TOYS, new BigDecimal("55.00")};
-
-        List<Object[]> donatedByType = Arrays.asList(moneyData, clothingData, foodData, toysData);
-        when(donationRepository.getTotalQuantityByType()).thenReturn(donatedByType);
-
-
-        when(distributionRepository.getTotalQuantityByType()).thenReturn(Arrays.asList());
+        // Types never used still have a zeroed balance row
+        when(inventoryBalanceRepository.findAll()).thenReturn(Arrays.asList(
+                balance(DonationType.MONEY, "2516.08", "0.00"),
+                balance(DonationType.CLOTHING, "450.00", "0.00"),
+                balance(DonationType.FOOD, "100.00", "0.00"),
+                balance(DonationType.TOYS, "55.00", "0.00"),
+                balance(DonationType.BOOKS, "0.00", "0.00")
+        ));
 
         // When
         InventoryReportDTO report = reportService.generateInventoryReport();
@@ -102,22 +114,19 @@ class ReportServiceTest {
         // Verify total value (only MONEY counts)
         assertEquals(0, new BigDecimal("2516.08").compareTo(report.getTotalValue()));
 
-        verify(donationRepository, times(1)).getTotalQuantityByType();
-        verify(distributionRepository, times(1)).getTotalQuantityByType();
+        verify(inventoryBalanceRepository, times(1)).findAll();
+        verifyNoInteractions(donorTypeTotalRepository);
     }
 
     @Test
     @DisplayName("Should calculate inventory correctly with distributions (Donated - Distributed)")
     void testInventoryReportWithDistributions() {
         // Donations: FOOD=500, CLOTHING=300
-        Object[] foodDonated = {DonationType.FOOD, new BigDecimal("500.00")};
-        Object[] clothingDonated = {DonationType.CLOTHING, new BigDecimal("300.00")};
-        when(donationRepository.getTotalQuantityByType()).thenReturn(Arrays.asList(foodDonated, clothingDonated));
-
         // Distributions: FOOD=200, CLOTHING=100
-        Object[] foodDistributed = {DonationType.FOOD, new BigDecimal("200.00")};
-        Object[] clothingDistributed = {DonationType.CLOTHING, new BigDecimal("100.00")};
-        when(distributionRepository.getTotalQuantityByType()).thenReturn(Arrays.asList(foodDistributed, clothingDistributed));
+        when(inventoryBalanceRepository.findAll()).thenReturn(Arrays.asList(
+                balance(DonationType.FOOD, "500.00", "200.00"),
+                balance(DonationType.CLOTHING, "300.00", "100.00")
+        ));
 
         // When
         InventoryReportDTO report = reportService.generateInventoryReport();
@@ -145,18 +154,10 @@ class ReportServiceTest {
     @DisplayName("Should handle zero stock (all distributed)")
     void testInventoryReportWithZeroStock() {
         // Donated 100, Distributed 100 = 0 stock
-        List<Object[]> donatedList = new ArrayList<>();
-        donatedList.add(new Object[] { DonationType.FOOD, new BigDecimal("100.00") });
-
-        when(donationRepository.getTotalQuantityByType()).thenReturn(donatedList);
-
-
-        //Object[] foodDistributed = {DonationType.FOOD, new BigDecimal("100.00")};
-
-        List<Object[]> foodDistributed = new ArrayList<>();
-        foodDistributed.add(new Object[] { DonationType.FOOD, new BigDecimal("100.00") });
+        List<InventoryBalance> balances = new ArrayList<>();
+        balances.add(balance(DonationType.FOOD, "100.00", "100.00"));
 
-        when(distributionRepository.getTotalQuantityByType()).thenReturn(foodDistributed);
+        when(inventoryBalanceRepository.findAll()).thenReturn(balances);
 
         // When
         InventoryReportDTO report = reportService.generateInventoryReport();
@@ -175,13 +176,13 @@ class ReportServiceTest {
     void testDonorReportMultipleDonorsAndTypes() {
         // Harsha: CLOTHING=450, FOOD=100, MONEY=2516.08
         // Test 1: TOYS=55
-        Object[] harshaClothing = {"Harsha", DonationType.CLOTHING, new BigDecimal("450.00")};
-        Object[] harshaFood = {"Harsha", DonationType.FOOD, new BigDecimal("100.00")};
-        Object[] harshaMoney = {"Harsha", DonationType.MONEY, new BigDecimal("2516.08")};
-        Object[] test1Toys = {"Test 1", DonationType.TOYS, new BigDecimal("55.00")};
+        DonorTypeTotal harshaClothing = new DonorTypeTotal("Harsha", DonationType.CLOTHING, new BigDecimal("450.00"), 3);
+        DonorTypeTotal harshaFood = new DonorTypeTotal("Harsha", DonationType.FOOD, new BigDecimal("100.00"), 1);
+        DonorTypeTotal harshaMoney = new DonorTypeTotal("Harsha", DonationType.MONEY, new BigDecimal("2516.08"), 4);
+        DonorTypeTotal test1Toys = new DonorTypeTotal("Test 1", DonationType.TOYS, new BigDecimal("55.00"), 2);
 
-        List<Object[]> donorData = Arrays.asList(harshaMoney, harshaClothing, harshaFood, test1Toys);
-        when(donationRepository.getTotalDonationsByDonor()).thenReturn(donorData);
+        List<DonorTypeTotal> donorData = Arrays.asList(harshaMoney, harshaClothing, harshaFood, test1Toys);
+        when(donorTypeTotalRepository.findAllByOrderByDonorNameAscDonationTypeAsc()).thenReturn(donorData);
 
         // When
         DonorReportDTO report = reportService.generateDonorReport();
@@ -225,15 +226,14 @@ class ReportServiceTest {
         assertNotNull(test1ToysDonation);
         assertEquals(0, new BigDecimal("55.00").compareTo(test1ToysDonation.getQuantity()));
 
-        verify(donationRepository, times(1)).getTotalDonationsByDonor();
+        verify(donorTypeTotalRepository, times(1)).findAllByOrderByDonorNameAscDonationTypeAsc();
     }
 
     @Test
     @DisplayName("Should return empty report when no donations exist")
     void testEmptyInventoryReport() {
         // Given
-        when(donationRepository.getTotalQuantityByType()).thenReturn(Arrays.asList());
-        when(distributionRepository.getTotalQuantityByType()).thenReturn(Arrays.asList());
+        when(inventoryBalanceRepository.findAll()).thenReturn(Arrays.asList());
 
         // When
         InventoryReportDTO report = reportService.generateInventoryReport();
@@ -249,7 +249,7 @@ class ReportServiceTest {
     @DisplayName("Should return empty donor report when no donations exist")
     void testEmptyDonorReport() {
         // Given
-        when(donationRepository.getTotalDonationsByDonor()).thenReturn(Arrays.asList());
+        when(donorTypeTotalRepository.findAllByOrderByDonorNameAscDonationTypeAsc()).thenReturn(Arrays.asList());
 
         // When
         DonorReportDTO report = reportService.generateDonorReport();
@@ -264,18 +264,8 @@ class ReportServiceTest {
     @DisplayName("Should get inventory for specific type")
     void testGetInventoryByType() {
         // Given
-        List<Object[]> foodDonated = new ArrayList<>();
-        foodDonated.add(new Object[] { DonationType.FOOD, new BigDecimal("500.00") });
-
-        when(donationRepository.getTotalQuantityByType()).thenReturn(foodDonated);
-
-        List<Object[]> foodDistributed = new ArrayList<>();
-        foodDistributed.add(new Object[] { DonationType.FOOD, new BigDecimal("200.00") });
-
-        when(distributionRepository.getTotalQuantityByType()).thenReturn(foodDistributed);
-
-        when(distributionRepository.getTotalQuantityByType(DonationType.FOOD))
-                .thenReturn(new BigDecimal("200.00"));
+        when(inventoryBalanceRepository.findById(DonationType.FOOD))
+                .thenReturn(Optional.of(balance(DonationType.FOOD, "500.00", "200.00")));
 
         // When
         BigDecimal inventory = reportService.getInventoryByType(DonationType.FOOD);
@@ -283,52 +273,52 @@ class ReportServiceTest {
         // Then
         assertNotNull(inventory);
         assertEquals(0, new BigDecimal("300.00").compareTo(inventory)); // 500 - 200 = 300
+        verify(inventoryBalanceRepository, times(1)).findById(DonationType.FOOD);
+        verifyNoInteractions(donorTypeTotalRepository);
     }
 
     @Test
-    @DisplayName("Should check if inventory is available for distribution")
-    void testHasAvailableInventory() {
+    @DisplayName("Should return zero inventory for a type with no balance row")
+    void testGetInventoryByTypeNoBalance() {
         // Given
-        List<Object[]> foodDonated = new ArrayList<>();
-        foodDonated.add(new Object[] { DonationType.FOOD, new BigDecimal("500.00") });
+        when(inventoryBalanceRepository.findById(DonationType.TOYS)).thenReturn(Optional.empty());
 
-        when(donationRepository.getTotalQuantityByType()).thenReturn(foodDonated);
+        // When
+        BigDecimal inventory = reportService.getInventoryByType(DonationType.TOYS);
 
-        List<Object[]> foodDistributed = new ArrayList<>();
-        foodDistributed.add(new Object[] { DonationType.FOOD, new BigDecimal("200.00") });
+        // Then
+        assertEquals(0, BigDecimal.ZERO.compareTo(inventory));
+    }
 
-        when(distributionRepository.getTotalQuantityByType()).thenReturn(foodDistributed);
+    @Test
+    @DisplayName("Should check if inventory is available for distribution")
+    void testHasAvailableInventory() {
+        // Given
+        when(inventoryBalanceRepository.findById(DonationType.FOOD))
+                .thenReturn(Optional.of(balance(DonationType.FOOD, "500.00", "200.00")));
 
         // When - Check if 250 is available (should be true: 500-200=300 available)
         InventoryCheckResponse validation = reportService.checkInventory(DonationType.FOOD, new BigDecimal("250.00"));
-        System.out.println(validation.isSufficient());
 
         // Then
         assertTrue(validation.isSufficient());
+        assertEquals(0, new BigDecimal("300.00").compareTo(validation.getAvailableQuantity()));
     }
 
     @Test
     @DisplayName("Should return false when insufficient inventory for distribution")
     void testInsufficientInventory() {
         // Given
-        List<Object[]> foodDonated = new ArrayList<>();
-        foodDonated.add(new Object[] { DonationType.FOOD, new BigDecimal("100.00") });
-
-        when(donationRepository.getTotalQuantityByType()).thenReturn(foodDonated);
-
-        List<Object[]> foodDistributed = new ArrayList<>();
-        foodDistributed.add(new Object[] { DonationType.FOOD, new BigDecimal("80.00") });
-
-        when(distributionRepository.getTotalQuantityByType()).thenReturn(foodDistributed);
-
-        when(distributionRepository.getTotalQuantityByType(DonationType.FOOD))
-                .thenReturn(new BigDecimal("80.00"));
+        when(inventoryBalanceRepository.findById(DonationType.FOOD))
+                .thenReturn(Optional.of(balance(DonationType.FOOD, "100.00", "80.00")));
 
         // When - Try to distribute 50 (only 20 available: 100-80=20)
         InventoryCheckResponse validation = reportService.checkInventory(DonationType.FOOD, new BigDecimal("50.00"));
 
         // Then
         assertFalse(validation.isSufficient());
+        assertEquals(0, new BigDecimal("20.00").compareTo(validation.getAvailableQuantity()));
+        verify(inventoryMetrics, times(1)).distributionRejected(DonationType.FOOD, InventoryMetrics.SOURCE_CHECK);
     }
 
     @Test
@@ -336,14 +326,10 @@ class ReportServiceTest {
     void testDonorReportSingleDonorSingleType() {
 
         // Given
-        List<Object[]> singleDonation = new ArrayList<>();
-        singleDonation.add(new Object[] {
-                "Harsha",
-                DonationType.MONEY,
-                new BigDecimal("1000.00")
-        });
-
-        when(donationRepository.getTotalDonationsByDonor())
+        List<DonorTypeTotal> singleDonation = new ArrayList<>();
+        singleDonation.add(new DonorTypeTotal("Harsha", DonationType.MONEY, new BigDecimal("1000.00"), 1));
+
+        when(donorTypeTotalRepository.findAllByOrderByDonorNameAscDonationTypeAsc())
                 .thenReturn(singleDonation);
 
         // When
@@ -365,19 +351,12 @@ class ReportServiceTest {
     @Test
     @DisplayName("Should calculate totalValue correctly (only MONEY type)")
     void testTotalValueCalculation() {
-        // Mix of MONEY and non-MONEY donations
-        Object[] foodDonated = {DonationType.FOOD, new BigDecimal("500.00")};
-        Object[] moneyDonated = {DonationType.MONEY, new BigDecimal("10000.00")};
-        Object[] clothingDonated = {DonationType.CLOTHING, new BigDecimal("300.00")};
-
-        when(donationRepository.getTotalQuantityByType())
-                .thenReturn(Arrays.asList(foodDonated, moneyDonated, clothingDonated));
-
-        // Distribute some MONEY
-        List<Object[]> moneyDistributed = new ArrayList<>();
-        moneyDistributed.add(new Object[] { DonationType.MONEY, new BigDecimal("3000.00") });
-
-        when(distributionRepository.getTotalQuantityByType()).thenReturn(moneyDistributed);
+        // Mix of MONEY and non-MONEY donations, some MONEY distributed
+        when(inventoryBalanceRepository.findAll()).thenReturn(Arrays.asList(
+                balance(DonationType.FOOD, "500.00", "0.00"),
+                balance(DonationType.MONEY, "10000.00", "3000.00"),
+                balance(DonationType.CLOTHING, "300.00", "0.00")
+        ));
 
         // When
         InventoryReportDTO report = reportService.generateInventoryReport();
@@ -390,15 +369,10 @@ class ReportServiceTest {
     @DisplayName("Should handle negative stock scenario (over-distributed)")
     void testNegativeStock() {
         // Distributed more than donated (edge case - should be prevented by validation)
-        List<Object[]> foodDonated = new ArrayList<>();
-        foodDonated.add(new Object[] { DonationType.FOOD, new BigDecimal("100.00") });
-
-        when(donationRepository.getTotalQuantityByType()).thenReturn(foodDonated);
-
-        List<Object[]> foodDistributed = new ArrayList<>();
-        foodDistributed.add(new Object[] { DonationType.FOOD, new BigDecimal("150.00") });
+        List<InventoryBalance> balances = new ArrayList<>();
+        balances.add(balance(DonationType.FOOD, "100.00", "150.00"));
 
-        when(distributionRepository.getTotalQuantityByType()).thenReturn(foodDistributed);
+        when(inventoryBalanceRepository.findAll()).thenReturn(balances);
 
         // When
         InventoryReportDTO report = reportService.generateInventoryReport();
@@ -410,8 +384,44 @@ class ReportServiceTest {
         assertEquals(0, new BigDecimal("-50.00").compareTo(foodItem.getCurrentStock()));
     }
 
+    @Test
+    @DisplayName("Should report stock as of a past day from the daily rollups")
+    void testInventoryReportAsOf() {
+        // Given - totals of every day up to the 1st of June
+        LocalDate asOf = LocalDate.of(2025, 6, 1);
+        when(dailyTypeRollupRepository.getTotalsThrough(asOf)).thenReturn(Arrays.asList(
+                new Object[] { DonationType.MONEY, new BigDecimal("500.00"), new BigDecimal("200.00") },
+                new Object[] { DonationType.FOOD, new BigDecimal("80.00"), new BigDecimal("0.00") }
+        ));
+
+        // When
+        InventoryReportDTO report = reportService.generateInventoryReport(asOf);
+
+        // Then
+        assertEquals(2, report.getItems().size());
+        assertEquals(0, new BigDecimal("300.00").compareTo(findItemByType(report, DonationType.MONEY).getCurrentStock()));
+        assertEquals(0, new BigDecimal("300.00").compareTo(report.getTotalValue()));
+        assertEquals(0, new BigDecimal("380.00").compareTo(report.getTotalQuantity()));
+        verifyNoInteractions(inventoryBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("Should report current stock when no as-of day is given")
+    void testInventoryReportAsOfNull() {
+        when(inventoryBalanceRepository.findAll()).thenReturn(List.of(balance(DonationType.FOOD, "10.00", "4.00")));
+
+        InventoryReportDTO report = reportService.generateInventoryReport(null);
+
+        assertEquals(0, new BigDecimal("6.00").compareTo(report.getTotalQuantity()));
+        verifyNoInteractions(dailyTypeRollupRepository);
+    }
+
     // Helper Methods
 
+    private InventoryBalance balance(DonationType type, String donated, String distributed) {
+        return new InventoryBalance(type, new BigDecimal(donated), new BigDecimal(distributed));
+    }
+
     private InventoryReportDTO.InventoryItem findItemByType(InventoryReportDTO report, DonationType type) {
         return report.getItems().stream()
                 .filter(item -> item.getDonationType() == type)
@@ -0,0 +1,147 @@
+package org.services;
+
+
+import org.entity.DailyTypeRollup;
+import org.entity.DonationType;
+import org.entity.InventoryBalance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.repository.DailyTypeRollupRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+//Unit tests for StockHistory - transactions are simulated with TransactionSynchronizationManager
+@ExtendWith(MockitoExtension.class)
+class StockHistoryTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2025, 12, 1);
+    private static final LocalDate DAY_5 = LocalDate.of(2025, 12, 5);
+
+    @Mock
+    private DailyTypeRollupRepository dailyTypeRollupRepository;
+
+    private StockHistory stockHistory;
+
+    @BeforeEach
+    void setUp() {
+        stockHistory = new StockHistory(dailyTypeRollupRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should sum the rollup table until the first load")
+    void testReadsBeforeLoad() {
+        // Given
+        when(dailyTypeRollupRepository.getTotalsThrough(DAY_1)).thenReturn(List.<Object[]>of(
+                new Object[] { DonationType.FOOD, new BigDecimal("100.00"), new BigDecimal("30.00") }));
+
+        // When
+        List<InventoryBalance> balances = stockHistory.getBalancesAsOf(DAY_1);
+
+        // Then
+        assertFalse(stockHistory.isLoaded());
+        assertEquals(1, balances.size());
+        assertEquals(0, new BigDecimal("70.00").compareTo(balances.get(0).getCurrentStock()));
+    }
+
+    @Test
+    @DisplayName("Should answer any day from memory once loaded")
+    void testLoad() {
+        // Given
+        when(dailyTypeRollupRepository.findAll()).thenReturn(rollups());
+
+        // When
+        assertTrue(stockHistory.load());
+
+        // Then
+        assertTrue(stockHistory.getBalancesAsOf(DAY_1.minusDays(1)).isEmpty());
+        assertEquals(0, new BigDecimal("100.00").compareTo(stock(DAY_1, DonationType.FOOD)));
+        assertEquals(0, new BigDecimal("60.50").compareTo(stock(DAY_5, DonationType.FOOD)));
+        assertEquals(0, new BigDecimal("60.50").compareTo(stock(DAY_5.plusYears(1), DonationType.FOOD)));
+        verify(dailyTypeRollupRepository, never()).getTotalsThrough(any());
+    }
+
+    @Test
+    @DisplayName("Should move later days when a back-dated change commits, and ignore a rolled-back one")
+    void testAdjustAfterCommit() {
+        // Given
+        when(dailyTypeRollupRepository.findAll()).thenReturn(rollups());
+        stockHistory.load();
+
+        // When - a donation dated before everything else
+        List<TransactionSynchronization> committed = inTransaction(() -> stockHistory.adjust(List.of(
+                new DailyTypeRollup(DAY_1.minusDays(10), DonationType.FOOD, new BigDecimal("5.25"), BigDecimal.ZERO, 1, 0))));
+        assertEquals(0, new BigDecimal("100.00").compareTo(stock(DAY_1, DonationType.FOOD)));
+        committed.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        List<TransactionSynchronization> rolledBack = inTransaction(() -> stockHistory.adjust(List.of(
+                new DailyTypeRollup(DAY_1, DonationType.FOOD, BigDecimal.ZERO, new BigDecimal("99.00"), 0, 1))));
+        rolledBack.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertEquals(0, new BigDecimal("5.25").compareTo(stock(DAY_1.minusDays(1), DonationType.FOOD)));
+        assertEquals(0, new BigDecimal("105.25").compareTo(stock(DAY_1, DonationType.FOOD)));
+        assertEquals(0, new BigDecimal("65.75").compareTo(stock(DAY_5, DonationType.FOOD)));
+    }
+
+    @Test
+    @DisplayName("Should skip a load while a change is in flight")
+    void testLoadSkippedWhilePending() {
+        // Given
+        when(dailyTypeRollupRepository.findAll()).thenReturn(rollups());
+        List<TransactionSynchronization> pending = inTransaction(() -> stockHistory.adjust(List.of(
+                new DailyTypeRollup(DAY_1, DonationType.TOYS, BigDecimal.ONE, BigDecimal.ZERO, 1, 0))));
+
+        // When / Then
+        assertFalse(stockHistory.load());
+        pending.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertTrue(stockHistory.load());
+    }
+
+    //helper methods
+
+    // FOOD: +100 on day 1, -39.50 on day 5
+    private List<DailyTypeRollup> rollups() {
+        return List.of(
+                new DailyTypeRollup(DAY_1, DonationType.FOOD, new BigDecimal("100.00"), BigDecimal.ZERO, 2, 0),
+                new DailyTypeRollup(DAY_5, DonationType.FOOD, BigDecimal.ZERO, new BigDecimal("39.50"), 0, 1));
+    }
+
+    private BigDecimal stock(LocalDate asOf, DonationType type) {
+        return stockHistory.getBalancesAsOf(asOf).stream()
+                .filter(balance -> balance.getDonationType() == type)
+                .map(InventoryBalance::getCurrentStock)
+                .findFirst()
+                .orElse(BigDecimal.ZERO);
+    }
+
+    // run work inside a simulated transaction and hand back what it registered, to be completed by the test
+    private List<TransactionSynchronization> inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.services;
+
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Unit tests for TrigramIndex (in-memory name search)
+class TrigramIndexTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2025, 12, 1);
+    private static final LocalDate DAY_2 = LocalDate.of(2025, 12, 2);
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.add(1, "Harsha", DAY_1);
+        index.add(2, "Sharath", DAY_2);
+        index.add(3, "Harsha", DAY_2);
+        index.add(4, "Test 1", DAY_1);
+    }
+
+    @Test
+    @DisplayName("Should find names containing the term, ignoring case, newest first")
+    void testSearch() {
+        // When
+        TrigramIndex.Page page = index.search("HAR", null, null, 10);
+
+        // Then - date DESC, id DESC
+        assertEquals(List.of(3L, 2L, 1L), page.getIds());
+        assertFalse(page.hasNext());
+        assertEquals(List.of(2L), index.search("arath", null, null, 10).getIds());
+        assertTrue(index.search("harshad", null, null, 10).getIds().isEmpty());
+        assertTrue(index.search("xyz", null, null, 10).getIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should match terms shorter than a trigram")
+    void testSearchShortTerm() {
+        assertEquals(List.of(4L), index.search(" 1", null, null, 10).getIds());
+        assertEquals(4, index.search("", null, null, 10).getIds().size());
+    }
+
+    @Test
+    @DisplayName("Should page after the cursor row")
+    void testSearchPaging() {
+        // When
+        TrigramIndex.Page first = index.search("ha", null, null, 2);
+        TrigramIndex.Page second = index.search("ha", DAY_2, 2L, 2);
+
+        // Then
+        assertEquals(List.of(3L, 2L), first.getIds());
+        assertTrue(first.hasNext());
+        assertEquals(List.of(1L), second.getIds());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    @DisplayName("Should forget removed rows and names with no rows left")
+    void testRemove() {
+        // When
+        index.remove(1, "Harsha", DAY_1);
+        index.remove(2, "Sharath", DAY_2);
+        index.remove(99, "Nobody", DAY_1);
+
+        // Then
+        assertEquals(List.of(3L), index.search("har", null, null, 10).getIds());
+        assertTrue(index.search("rath", null, null, 10).getIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not add a row twice when replaying")
+    void testAddIfAbsent() {
+        // When
+        index.addIfAbsent(3, "Harsha", DAY_2);
+        index.addIfAbsent(5, "harsha", DAY_1);
+
+        // Then
+        assertEquals(List.of(3L, 5L, 1L), index.search("harsha", null, null, 10).getIds());
+    }
+}